@@ -58,6 +58,18 @@ public class BytecodeEnhancerManager extends DestroyableBase {
         return l.isEmpty() ? null : ByteCodeVisitor.chain(cw, l);
     }
 
+    /**
+     * Returns class names of the app enhancers registered
+     * @return the enhancer class names
+     */
+    public List<String> appEnhancerNames() {
+        List<String> l = C.newList();
+        for (AppByteCodeEnhancer e : appEnhancers) {
+            l.add(e.getClass().getName());
+        }
+        return l;
+    }
+
     public ByteCodeVisitor generalEnhancer(String className, $.Var<ClassWriter> cw) {
         List<AsmByteCodeEnhancer> l = generalFilter(className);
         return l.isEmpty() ? null : ByteCodeVisitor.chain(cw, l);
@@ -21,8 +21,10 @@ package act;
  */
 
 import act.conf.AppConfig;
+import act.util.Files;
 import org.osgl.http.H;
 
+import java.io.File;
 import java.util.Locale;
 
 public abstract class ResponseImplBase<T extends ResponseImplBase> extends H.Response<T> {
@@ -46,6 +48,23 @@ public abstract class ResponseImplBase<T extends ResponseImplBase> extends H.Res
         return me();
     }
 
+    /**
+     * Send a region of a file as the response body.
+     *
+     * This implementation copies the file content through the
+     * {@link #outputStream() output stream}. Sub classes shall override this
+     * method if the underline network layer supports zero-copy file transfer.
+     *
+     * Note the method does not set content length
+     *
+     * @param file the file
+     * @param offset the position in the file to start with
+     * @param length the number of bytes to be sent
+     */
+    public void sendFile(File file, long offset, long length) {
+        Files.copy(file, offset, length, outputStream());
+    }
+
     protected final T me() {
         return (T) this;
     }
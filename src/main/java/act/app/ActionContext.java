@@ -48,6 +48,7 @@ import org.osgl.web.util.UserAgent;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.validation.ConstraintViolation;
+import java.io.InputStream;
 import java.util.*;
 
 import static act.controller.Controller.Util.*;
@@ -261,6 +262,28 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         return paramVal(REQ_BODY);
     }
 
+    /**
+     * Take the request body input stream to process it directly.
+     *
+     * If the body has already been parsed then `null` is returned. Otherwise
+     * the body params are set to empty and the input stream is returned, thus
+     * {@link #body()} returns `null` afterwards.
+     *
+     * @return the request body input stream or `null`
+     */
+    public InputStream takeBodyStream() {
+        if (null != bodyParams) {
+            return null;
+        }
+        synchronized (this) {
+            if (null != bodyParams) {
+                return null;
+            }
+            bodyParams = C.newMap();
+            return request.inputStream();
+        }
+    }
+
     public ActionContext param(String name, String value) {
         extraParams.put(name, value);
         return this;
@@ -268,10 +291,21 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
 
     @Override
     public Set<String> paramKeys() {
+        Set<String> set = nonBodyParamKeys();
+        set.addAll(bodyParams().keySet());
+        return set;
+    }
+
+    /**
+     * Returns the query param and extra param, e.g. path variable, names
+     * without parsing the request body.
+     *
+     * @return the param names not coming from the request body
+     */
+    public Set<String> nonBodyParamKeys() {
         Set<String> set = new HashSet<String>();
         set.addAll(C.<String>list(request.paramNames()));
         set.addAll(extraParams.keySet());
-        set.addAll(bodyParams().keySet());
         return set;
     }
 
@@ -384,6 +384,11 @@ public class App extends DestroyableBase {
         if (!Act.isDev()) {
             return false;
         }
+        AppClassLoader cl = classLoader;
+        if (cl instanceof DevModeClassLoader) {
+            // might sleep, do it before locking the app
+            ((DevModeClassLoader) cl).settleChanges();
+        }
         synchronized (this) {
             try {
                 detectChanges();
@@ -473,6 +478,7 @@ public class App extends DestroyableBase {
         shutdownEventBus();
         shutdownJobManager();
         clearServiceResourceManager();
+        closeFsWatcher();
         classLoader = null;
     }
 
@@ -587,6 +593,8 @@ public class App extends DestroyableBase {
         config().preloadConfigurations();
         emit(PRE_START);
         emit(START);
+        compileRouters();
+        prepareSessionManager();
         daemonKeeper();
         if (null != blockIssueCause) {
             setBlockIssue(blockIssueCause);
@@ -996,6 +1004,20 @@ public class App extends DestroyableBase {
         }
     }
 
+    private void prepareSessionManager() {
+        SessionManager sessionManager = Act.sessionManager();
+        if (null != sessionManager) {
+            sessionManager.prepare(this);
+        }
+    }
+
+    private void compileRouters() {
+        router.compile();
+        for (Router r : moreRouters.values()) {
+            r.compile();
+        }
+    }
+
     private void initRouters() {
         router = new Router(this);
         moreRouters = C.newMap();
@@ -1133,9 +1155,16 @@ public class App extends DestroyableBase {
     }
 
     private void initClassLoader() {
+        closeFsWatcher();
         classLoader = Act.mode().classLoader(this);
     }
 
+    private void closeFsWatcher() {
+        if (classLoader instanceof DevModeClassLoader) {
+            ((DevModeClassLoader) classLoader).closeFsWatcher();
+        }
+    }
+
     private void initJsonDTOClassManager() {
         new JsonDTOClassManager(this);
     }
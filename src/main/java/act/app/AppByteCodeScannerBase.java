@@ -69,4 +69,13 @@ public abstract class AppByteCodeScannerBase extends AppCodeScannerBase implemen
         return C.map(dependencyClasses);
     }
 
+    /**
+     * See {@link IndexableByteCodeScanner#indexKey()}
+     *
+     * @return the class name of this scanner
+     */
+    public String indexKey() {
+        return getClass().getName();
+    }
+
 }
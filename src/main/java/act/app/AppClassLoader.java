@@ -77,10 +77,13 @@ public class AppClassLoader
             ActClassLoader {
 
     private final static Logger logger = L.get(AppClassLoader.class);
+    private static final String SCAN_INDEX_FILE = ".act.scan-index";
+    private static final String ENHANCED_CLASS_CACHE_DIR = ".act.enhanced";
     private App app;
-    private Map<String, byte[]> libClsCache = C.newMap();
+    private ByteCodeSource libClsCache = new ByteCodeSource();
     private ClassInfoRepository classInfoRepository;
     private boolean destroyed;
+    private volatile $.Var<EnhancedClassCache> enhancedClassCache;
     protected ControllerClassMetaInfoManager controllerInfo;
     protected MailerClassMetaInfoManager mailerInfo = new MailerClassMetaInfoManager();
     protected CommanderClassMetaInfoManager commanderInfo = new CommanderClassMetaInfoManager();
@@ -237,7 +240,11 @@ public class AppClassLoader
     }
 
     protected void scan() {
-        scanByteCode(libClsCache.keySet(), bytecodeLookup);
+        IndexedScan indexedScan = app().config().scanIndex() ? IndexedScan.open(app()) : null;
+        scanByteCode(libClsCache.classNames(), bytecodeLookup, indexedScan);
+        if (null != indexedScan) {
+            indexedScan.index.save();
+        }
     }
 
     /**
@@ -249,69 +256,42 @@ public class AppClassLoader
      * </ol>
      */
     protected void scanByteCode(Iterable<String> classes, $.Function<String, byte[]> bytecodeProvider) {
+        scanByteCode(classes, bytecodeProvider, null);
+    }
+
+    private void scanByteCode(Iterable<String> classes, $.Function<String, byte[]> bytecodeProvider, IndexedScan indexedScan) {
         logger.debug("start to scan bytecode ...");
         final AppCodeScannerManager scannerManager = app().scannerManager();
         Map<String, List<AppByteCodeScanner>> dependencies = C.newMap();
-        for (String className : classes) {
-            logger.debug("scanning %s ...", className);
-            dependencies.remove(className);
-            byte[] ba = bytecodeProvider.apply(className);
-            if (null == ba) {
-                logger.warn("Cannot find any bytecode for class: %s. You might have an empty Java source file for that.", className);
-                continue;
-            }
-            libClsCache.put(className, ba);
-            act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode:" + className);
-            List<ByteCodeVisitor> visitors = C.newList();
-            List<AppByteCodeScanner> scanners = C.newList();
-            for (AppByteCodeScanner scanner : scannerManager.byteCodeScanners()) {
-                if (scanner.start(className)) {
-                    //LOGGER.trace("scanner %s added to the list", scanner.getClass().getName());
-                    visitors.add(scanner.byteCodeVisitor());
-                    scanners.add(scanner);
-                }
-            }
-            if (visitors.isEmpty()) {
-                continue;
-            }
-            ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
-            ClassReader cr = new ClassReader(ba);
-            try {
-                cr.accept(theVisitor, 0);
-            } catch (UnexpectedException e) {
-                Throwable t = e.getCause();
-                if (t instanceof ClassNotFoundException) {
+        act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode");
+        ByteCodeReadAhead readAhead = new ByteCodeReadAhead(app().config().scanParallelism());
+        try {
+            for (String className : classes) {
+                byte[] ba = bytecodeProvider.apply(className);
+                if (null == ba) {
+                    dependencies.remove(className);
+                    logger.warn("Cannot find any bytecode for class: %s. You might have an empty Java source file for that.", className);
                     continue;
-                } else {
-                    throw e;
                 }
-            }
-            for (AppByteCodeScanner scanner : scanners) {
-                scanner.scanFinished(className);
-                Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
-                if (ss.isEmpty()) {
-                    //LOGGER.trace("no dependencies found for %s by scanner %s", className, scanner);
+                cacheBytecode(className, ba);
+                if (null != indexedScan && indexedScan.restore(className, ba, scannerManager)) {
                     continue;
                 }
-                for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
-                    AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
-                    for (String dependencyClass : ss.get(scannerClass)) {
-                        logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
-                        List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
-                        if (null == l) {
-                            l = C.newList();
-                            dependencies.put(dependencyClass, l);
-                        }
-                        if (!l.contains(scanner)) l.add(scannerA);
-                    }
+                ByteCodeReadAhead.Unit unit = readAhead.offer(className, ba);
+                if (null != unit) {
+                    scanByteCode(unit, scannerManager, dependencies, indexedScan);
                 }
             }
-            timer.stop();
+            ByteCodeReadAhead.Unit unit;
+            while (null != (unit = readAhead.poll())) {
+                scanByteCode(unit, scannerManager, dependencies, indexedScan);
+            }
+        } finally {
+            readAhead.shutdown();
         }
         // loop through dependencies until it's all processed
         while (!dependencies.isEmpty()) {
             String className = dependencies.keySet().iterator().next();
-            act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode:" + className);
             List<AppByteCodeScanner> scanners = dependencies.remove(className);
             List<ByteCodeVisitor> visitors = C.newList();
             for (AppByteCodeScanner scanner : scanners) {
@@ -320,30 +300,214 @@ public class AppClassLoader
             }
             ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
             byte[] bytes = bytecodeProvider.apply(className);
-            libClsCache.put(className, bytes);
+            cacheBytecode(className, bytes);
             ClassReader cr = new ClassReader(bytes);
             cr.accept(theVisitor, 0);
-            for (AppByteCodeScanner scanner : scanners) {
-                scanner.scanFinished(className);
-                Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
-                if (ss.isEmpty()) {
-                    logger.trace("no dependencies found for %s by scanner %s", className, scanner);
+            scanFinished(className, scanners, scannerManager, dependencies);
+            if (null != indexedScan) {
+                indexedScan.rescan(className, scanners);
+            }
+        }
+        timer.stop();
+    }
+
+    private void scanByteCode(ByteCodeReadAhead.Unit unit, AppCodeScannerManager scannerManager, Map<String, List<AppByteCodeScanner>> dependencies, IndexedScan indexedScan) {
+        String className = unit.className;
+        logger.debug("scanning %s ...", className);
+        dependencies.remove(className);
+        List<ByteCodeVisitor> visitors = C.newList();
+        List<AppByteCodeScanner> scanners = C.newList();
+        ScanIndex.Entry restored = null == indexedScan ? null : indexedScan.unchanged.remove(className);
+        for (AppByteCodeScanner scanner : scannerManager.byteCodeScanners()) {
+            if (scanner.start(className)) {
+                if (null != restored && indexedScan.restore(className, scanner, restored)) {
                     continue;
                 }
-                for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
-                    AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
-                    for (String dependencyClass : ss.get(scannerClass)) {
-                        logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
-                        List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
-                        if (null == l) {
-                            l = C.newList();
-                            dependencies.put(dependencyClass, l);
-                        }
-                        if (!l.contains(scanner)) l.add(scannerA);
+                //LOGGER.trace("scanner %s added to the list", scanner.getClass().getName());
+                visitors.add(scanner.byteCodeVisitor());
+                scanners.add(scanner);
+            }
+        }
+        if (visitors.isEmpty()) {
+            if (null != indexedScan) {
+                indexedScan.scanned(className, scanners, restored);
+            }
+            return;
+        }
+        ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
+        try {
+            unit.accept(theVisitor);
+        } catch (UnexpectedException e) {
+            Throwable t = e.getCause();
+            if (t instanceof ClassNotFoundException) {
+                return;
+            } else {
+                throw e;
+            }
+        }
+        scanFinished(className, scanners, scannerManager, dependencies);
+        if (null != indexedScan) {
+            indexedScan.scanned(className, scanners, restored);
+        }
+    }
+
+    private void scanFinished(String className, List<AppByteCodeScanner> scanners, AppCodeScannerManager scannerManager, Map<String, List<AppByteCodeScanner>> dependencies) {
+        for (AppByteCodeScanner scanner : scanners) {
+            scanner.scanFinished(className);
+            Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
+            if (ss.isEmpty()) {
+                logger.trace("no dependencies found for %s by scanner %s", className, scanner);
+                continue;
+            }
+            for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
+                AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
+                for (String dependencyClass : ss.get(scannerClass)) {
+                    logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
+                    List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
+                    if (null == l) {
+                        l = C.newList();
+                        dependencies.put(dependencyClass, l);
                     }
+                    if (!l.contains(scanner)) l.add(scannerA);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores and collects results of {@link IndexableByteCodeScanner}s
+     * through the {@link ScanIndex} during a scan
+     */
+    private static class IndexedScan {
+        final ScanIndex index;
+        final List<IndexableByteCodeScanner> scanners;
+        final Map<String, Long> checksums = C.newMap();
+        // unchanged classes to be scanned by the scanners not restored
+        final Map<String, ScanIndex.Entry> unchanged = C.newMap();
+
+        IndexedScan(ScanIndex index, List<IndexableByteCodeScanner> scanners) {
+            this.index = index;
+            this.scanners = scanners;
+        }
+
+        static IndexedScan open(App app) {
+            List<IndexableByteCodeScanner> scanners = C.newList();
+            List<String> names = C.newList();
+            for (AppByteCodeScanner scanner : app.scannerManager().byteCodeScanners()) {
+                if (scanner instanceof IndexableByteCodeScanner) {
+                    IndexableByteCodeScanner indexable = (IndexableByteCodeScanner) scanner;
+                    String name = indexable.indexKey();
+                    if (names.contains(name)) {
+                        logger.warn("scan index disabled: multiple indexable scanners keyed by %s", name);
+                        return null;
+                    }
+                    scanners.add(indexable);
+                    names.add(name);
+                }
+            }
+            File file = new File(app.home(), SCAN_INDEX_FILE);
+            return new IndexedScan(ScanIndex.open(file, names), scanners);
+        }
+
+        /**
+         * Restore results of an unchanged class.
+         *
+         * @return `true` if the class needs not to be scanned
+         */
+        boolean restore(String className, byte[] bytecode, AppCodeScannerManager scannerManager) {
+            long checksum = ScanIndex.checksum(bytecode);
+            checksums.put(className, checksum);
+            ScanIndex.Entry entry = index.get(className, checksum);
+            if (null == entry) {
+                return false;
+            }
+            List<IndexableByteCodeScanner> started = C.newList();
+            for (AppByteCodeScanner scanner : scannerManager.byteCodeScanners()) {
+                // calling start here is safe as it's called again right before a class is visited
+                if (!scanner.start(className)) {
+                    continue;
+                }
+                int i = indexOf(scanner);
+                if (i < 0 || IndexableByteCodeScanner.RESCAN == entry.results[i]) {
+                    unchanged.put(className, entry);
+                    return false;
+                }
+                started.add((IndexableByteCodeScanner) scanner);
+            }
+            for (IndexableByteCodeScanner scanner : started) {
+                byte[] result = entry.results[indexOf(scanner)];
+                if (null != result) {
+                    scanner.restoreScanResult(className, result);
+                }
+            }
+            index.put(className, entry);
+            return true;
+        }
+
+        /**
+         * Restore the result of a scanner on an unchanged class
+         *
+         * @return `true` if the scanner needs not to scan the class
+         */
+        boolean restore(String className, AppByteCodeScanner scanner, ScanIndex.Entry entry) {
+            int i = indexOf(scanner);
+            if (i < 0) {
+                return false;
+            }
+            byte[] result = entry.results[i];
+            if (IndexableByteCodeScanner.RESCAN == result) {
+                return false;
+            }
+            if (null != result) {
+                scanners.get(i).restoreScanResult(className, result);
+            }
+            return true;
+        }
+
+        void scanned(String className, List<AppByteCodeScanner> scanned, ScanIndex.Entry restored) {
+            Long checksum = checksums.remove(className);
+            if (null == checksum) {
+                return;
+            }
+            int n = scanners.size();
+            byte[][] results = new byte[n][];
+            for (int i = 0; i < n; ++i) {
+                IndexableByteCodeScanner scanner = scanners.get(i);
+                if (contains(scanned, scanner)) {
+                    results[i] = scanner.dependencyClasses().isEmpty() ? scanner.scanResult(className) : IndexableByteCodeScanner.RESCAN;
+                } else if (null != restored) {
+                    results[i] = restored.results[i];
+                }
+            }
+            index.put(className, new ScanIndex.Entry(checksum, results));
+        }
+
+        // scanners are matched by identity as distinct scanners might be equal, e.g. the sensors of two AnnotatedTypeFinders
+        private int indexOf(AppByteCodeScanner scanner) {
+            for (int i = scanners.size() - 1; i >= 0; --i) {
+                if (scanners.get(i) == scanner) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean contains(List<AppByteCodeScanner> list, AppByteCodeScanner scanner) {
+            for (AppByteCodeScanner element : list) {
+                if (element == scanner) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void rescan(String className, List<AppByteCodeScanner> scanned) {
+            for (AppByteCodeScanner scanner : scanned) {
+                int i = indexOf(scanner);
+                if (i >= 0) {
+                    index.rescan(className, i);
                 }
             }
-            timer.stop();
         }
     }
 
@@ -353,22 +517,20 @@ public class AppClassLoader
     }
 
     private void preloadLib() {
-        final Map<String, byte[]> bytecodeIdx = C.newMap();
         final Map<String, Properties> jarConf = C.newMap();
         final $.Function<String, Boolean> ignoredClassNames = app().config().appClassTester().negate();
-        Jars.F.JarEntryVisitor classNameIndexBuilder = Jars.F.classNameIndexBuilder(bytecodeIdx, ignoredClassNames);
         Jars.F.JarEntryVisitor confIndexBuilder = Jars.F.appConfigFileIndexBuilder(jarConf);
         List<File> jars = FullStackAppBootstrapClassLoader.jars(AppClassLoader.class.getClassLoader());
         for (File jar : jars) {
-            Jars.scan(jar, classNameIndexBuilder, confIndexBuilder);
+            libClsCache.indexJar(jar, ignoredClassNames);
+            Jars.scan(jar, confIndexBuilder);
         }
-        libClsCache.putAll(bytecodeIdx);
         AppConfig config = app().config();
         config.loadJarProperties(jarConf);
     }
 
     void loadClasses() {
-        for (String key : libClsCache.keySet()) {
+        for (String key : libClsCache.classNames()) {
             try {
                 Class<?> c = loadClass(key, true);
                 cache(c);
@@ -387,10 +549,14 @@ public class AppClassLoader
     }
 
     protected void preloadClassFile(File base, File file) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream((int) file.length());
-        IO.copy(IO.is(file), baos);
-        byte[] bytes = baos.toByteArray();
-        libClsCache.put(ClassNames.sourceFileNameToClassName(base, file.getAbsolutePath().replace(".class", ".java")), bytes);
+        libClsCache.addClassFile(ClassNames.sourceFileNameToClassName(base, file.getAbsolutePath().replace(".class", ".java")), file);
+    }
+
+    private void cacheBytecode(String className, byte[] bytecode) {
+        // bytecode indexed from jar or class files is read on demand, no need to hold it
+        if (!libClsCache.isIndexed(className)) {
+            libClsCache.put(className, bytecode);
+        }
     }
 
     protected byte[] loadAppClassFromDisk(String name) {
@@ -466,16 +632,60 @@ public class AppClassLoader
 
     private byte[] asmEnhance(String className, byte[] bytecode) {
         if (!enhanceEligible(className)) return bytecode;
-        $.Var<ClassWriter> cw = $.var(null);
-        ByteCodeVisitor enhancer = Act.enhancerManager().appEnhancer(app, className, cw);
-        if (null == enhancer) {
-            return bytecode;
-        }
-        cw.set(new ClassWriter(ClassWriter.COMPUTE_FRAMES));
-        enhancer.commitDownstream();
-        ClassReader r = new ClassReader(bytecode);
-        r.accept(enhancer, 0);
-        return cw.get().toByteArray();
+        EnhancedClassCache cache = enhancedClassCache();
+        if (null != cache) {
+            byte[] enhanced = cache.get(className, bytecode);
+            if (null != enhanced) {
+                metric.countOnce("act:classload:enhance:cache:hit");
+                return enhanced;
+            }
+            metric.countOnce("act:classload:enhance:cache:miss");
+        }
+        act.metric.Timer timer = metric.startTimer("act:classload:enhance");
+        try {
+            byte[] enhanced = bytecode;
+            $.Var<ClassWriter> cw = $.var(null);
+            ByteCodeVisitor enhancer = Act.enhancerManager().appEnhancer(app, className, cw);
+            if (null != enhancer) {
+                cw.set(new ClassWriter(ClassWriter.COMPUTE_FRAMES));
+                enhancer.commitDownstream();
+                ClassReader r = new ClassReader(bytecode);
+                r.accept(enhancer, 0);
+                enhanced = cw.get().toByteArray();
+            }
+            if (null != cache) {
+                cache.put(className, bytecode, enhanced);
+            }
+            return enhanced;
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Returns the enhanced class cache, or `null` if it's not enabled.
+     *
+     * The cache is only used in prod mode where the app classes
+     * does not change
+     */
+    private EnhancedClassCache enhancedClassCache() {
+        if (null == enhancedClassCache) {
+            synchronized (this) {
+                if (null == enhancedClassCache) {
+                    EnhancedClassCache cache = null;
+                    AppConfig config = app().config();
+                    if (Act.isProd() && config.enhanceCache()) {
+                        String dir = config.enhanceCacheDir();
+                        File root = null == dir ? new File(app().home(), ENHANCED_CLASS_CACHE_DIR) : new File(dir);
+                        String generation = EnhancedClassCache.generation(Act.enhancerManager().appEnhancerNames(),
+                                libClsCache, config.rawConfiguration(), RuntimeDirs.routes(app()));
+                        cache = new EnhancedClassCache(root, generation);
+                    }
+                    enhancedClassCache = $.var(cache);
+                }
+            }
+        }
+        return enhancedClassCache.get();
     }
 
     protected byte[] appBytecode(String name) {
@@ -0,0 +1,140 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.asm.ClassReader;
+import act.asm.ClassVisitor;
+import act.asm.tree.ClassNode;
+import org.osgl.util.E;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Reads class bytecode ahead of the scanning thread.
+ *
+ * Bytecode offered is parsed into {@link ClassNode} by a fork join pool,
+ * and handed back in the order it was offered. Replaying a parsed class to
+ * a visitor is much cheaper than reading it from bytecode, thus the
+ * scanning thread, which calls the scanners one class after another, spends
+ * most of its time in scanners instead of decoding bytecode. As the
+ * scanners are still called by one thread in the original order, the scan
+ * result does not depend on the parallelism.
+ *
+ * When the parallelism is `1` the bytecode is read by the scanning thread
+ * directly.
+ */
+final class ByteCodeReadAhead {
+
+    /**
+     * A class to be visited
+     */
+    abstract static class Unit {
+        final String className;
+
+        Unit(String className) {
+            this.className = className;
+        }
+
+        abstract void accept(ClassVisitor visitor);
+    }
+
+    // classes parsed ahead per thread
+    private static final int WINDOW_PER_THREAD = 64;
+
+    private final ForkJoinPool pool;
+    private final int window;
+    private final Queue<Unit> queue = new ArrayDeque<>();
+
+    ByteCodeReadAhead(int parallelism) {
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+            window = parallelism * WINDOW_PER_THREAD;
+        } else {
+            pool = null;
+            window = 0;
+        }
+    }
+
+    /**
+     * Offer bytecode of a class.
+     *
+     * @param className the class name
+     * @param bytecode the bytecode
+     * @return the next class to be visited, or `null` if all offered
+     *         classes are being read ahead
+     */
+    Unit offer(String className, final byte[] bytecode) {
+        if (null == pool) {
+            return new Unit(className) {
+                @Override
+                void accept(ClassVisitor visitor) {
+                    new ClassReader(bytecode).accept(visitor, 0);
+                }
+            };
+        }
+        final Future<ClassNode> future = pool.submit(new Callable<ClassNode>() {
+            @Override
+            public ClassNode call() {
+                ClassNode node = new ClassNode();
+                new ClassReader(bytecode).accept(node, 0);
+                return node;
+            }
+        });
+        queue.add(new Unit(className) {
+            @Override
+            void accept(ClassVisitor visitor) {
+                ClassNode node;
+                try {
+                    node = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw E.unexpected(e, "interrupted reading bytecode of %s", className);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw E.unexpected(cause, "error reading bytecode of %s", className);
+                }
+                node.accept(visitor);
+            }
+        });
+        return queue.size() > window ? queue.poll() : null;
+    }
+
+    /**
+     * Returns the next class to be visited after all classes are offered
+     * @return the next class or `null` if there is no more class
+     */
+    Unit poll() {
+        return queue.poll();
+    }
+
+    void shutdown() {
+        queue.clear();
+        if (null != pool) {
+            pool.shutdownNow();
+        }
+    }
+
+}
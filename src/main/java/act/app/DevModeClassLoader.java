@@ -21,12 +21,14 @@ package act.app;
  */
 
 import act.Act;
+import act.conf.AppConfig;
 import act.controller.meta.ControllerClassMetaInfo;
 import act.metric.Timer;
 import act.util.Files;
 import act.util.FsChangeDetector;
 import act.util.FsEvent;
 import act.util.FsEventListener;
+import act.util.FsWatcher;
 import org.osgl.$;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.logging.L;
@@ -35,10 +37,10 @@ import org.osgl.util.C;
 import org.osgl.util.S;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static act.app.App.F.*;
 
@@ -52,7 +54,9 @@ public class DevModeClassLoader extends AppClassLoader {
     private Map<String, Source> sources = C.newMap();
     private final AppCompiler compiler;
 
-    private List<FsChangeDetector> detectors = new ArrayList<>();
+    // read by settleChanges() without holding the app lock
+    private List<FsChangeDetector> detectors = new CopyOnWriteArrayList<>();
+    private FsWatcher watcher;
 
     public DevModeClassLoader(App app) {
         super(app);
@@ -61,11 +65,23 @@ public class DevModeClassLoader extends AppClassLoader {
 
     @Override
     protected void releaseResources() {
+        closeFsWatcher();
         sources.clear();
         compiler.destroy();
         super.releaseResources();
     }
 
+    /**
+     * Stop watching the app folders. Called when the class loader
+     * is replaced
+     */
+    public void closeFsWatcher() {
+        if (null != watcher) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
     public boolean isSourceClass(String className) {
         return sources.containsKey(className);
     }
@@ -267,7 +283,20 @@ public class DevModeClassLoader extends AppClassLoader {
 
     private void detectChanges(FsChangeDetector detector) {
         if (null != detector) {
-            detector.detectChanges();
+            // settled in settleChanges() without holding the app lock
+            detector.detectChanges(false);
+        }
+    }
+
+    /**
+     * Wait for the bursts of file system changes reported to settle, see
+     * {@link FsChangeDetector#settle()}
+     */
+    public void settleChanges() {
+        for (FsChangeDetector detector : detectors) {
+            if (null != detector) {
+                detector.settle();
+            }
         }
     }
 
@@ -277,6 +306,11 @@ public class DevModeClassLoader extends AppClassLoader {
         List<File> bases = C.newList(appBase);
         bases.addAll(app().config().moduleBases());
         boolean isTest = "test".equals(Act.profile());
+        AppConfig config = app().config();
+        closeFsWatcher();
+        if (config.devFsWatch()) {
+            watcher = FsWatcher.create("fs-watch", config.devFsWatchDebounce());
+        }
         for (File base : bases) {
             addDetector(layout.source(base), JAVA_SOURCE, sourceChangeListener);
             addDetector(layout.lib(base), JAR_FILE, libChangeListener);
@@ -296,7 +330,7 @@ public class DevModeClassLoader extends AppClassLoader {
 
     private void addDetector(File base, $.Predicate<String> predicate, FsEventListener listener) {
         if (null != base && base.isDirectory()) {
-            detectors.add(new FsChangeDetector(base, predicate, listener));
+            detectors.add(new FsChangeDetector(base, predicate, watcher, listener));
         }
     }
 
@@ -0,0 +1,212 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.util.ByteCodeSource;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Caches enhanced class bytecode on disk across app restarts.
+ *
+ * The output of the enhancers depends not only on the bytecode of a class,
+ * but also on the meta info collected from other classes, the routing
+ * table and the app configuration. Thus cached classes are kept in a
+ * generation folder named by a digest of:
+ *
+ * * the Act version and the app enhancers
+ * * the bytecode of all app classes
+ * * the app configuration
+ * * the routing table file
+ *
+ * Any change of the above starts a new generation and the folders of
+ * other generations are removed.
+ *
+ * Each cached file carries the checksum of the original bytecode and of
+ * the enhanced bytecode, a file failed the checks is removed and the
+ * class is enhanced again.
+ */
+final class EnhancedClassCache {
+
+    private static final Logger logger = L.get(EnhancedClassCache.class);
+
+    static final int MAGIC = 0x41435445;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Pattern GENERATION = Pattern.compile("[0-9a-f]{40}");
+
+    private final File dir;
+
+    /**
+     * @param root the cache root folder
+     * @param generation the generation digest
+     */
+    EnhancedClassCache(File root, String generation) {
+        this.dir = new File(root, generation);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw E.ioException("cannot create enhanced class cache dir: %s", dir);
+        }
+        File[] files = root.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                if (!file.equals(dir) && file.isDirectory() && GENERATION.matcher(file.getName()).matches()) {
+                    IO.delete(file, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cached enhanced bytecode of a class
+     *
+     * @param className the class name
+     * @param bytecode the original bytecode
+     * @return the enhanced bytecode or `null` if not cached
+     */
+    byte[] get(String className, byte[] bytecode) {
+        File file = file(className);
+        if (!file.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readLong() != checksum(bytecode)) {
+                return invalid(file);
+            }
+            long checksum = in.readLong();
+            byte[] enhanced = new byte[in.readInt()];
+            in.readFully(enhanced);
+            return checksum == checksum(enhanced) ? enhanced : invalid(file);
+        } catch (IOException e) {
+            return invalid(file);
+        } finally {
+            IO.close(in);
+        }
+    }
+
+    /**
+     * Save the enhanced bytecode of a class
+     *
+     * @param className the class name
+     * @param bytecode the original bytecode
+     * @param enhanced the enhanced bytecode
+     */
+    void put(String className, byte[] bytecode, byte[] enhanced) {
+        File tmp = null;
+        DataOutputStream out = null;
+        try {
+            tmp = File.createTempFile("enhanced", ".tmp", dir);
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(MAGIC);
+            out.writeLong(checksum(bytecode));
+            out.writeLong(checksum(enhanced));
+            out.writeInt(enhanced.length);
+            out.write(enhanced);
+            out.close();
+            out = null;
+            Files.move(tmp.toPath(), file(className).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn(e, "error caching enhanced class: %s", className);
+            if (null != tmp) {
+                tmp.delete();
+            }
+        } finally {
+            IO.close(out);
+        }
+    }
+
+    /**
+     * Calculate the generation digest
+     *
+     * @param enhancers names of the app enhancers
+     * @param classes the app classes
+     * @param configuration the app configuration
+     * @param routes the routing table file, could be `null`
+     * @return the digest in hex
+     */
+    static String generation(List<String> enhancers, ByteCodeSource classes, Map<?, ?> configuration, File routes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw E.unexpected(e);
+        }
+        update(digest, Act.VERSION);
+        for (String enhancer : enhancers) {
+            update(digest, enhancer);
+        }
+        for (String className : new TreeSet<>(classes.classNames())) {
+            update(digest, className);
+            update(digest, Long.toHexString(classes.checksum(className)));
+        }
+        Map<String, String> conf = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : configuration.entrySet()) {
+            conf.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+        }
+        for (Map.Entry<String, String> entry : conf.entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+        if (null != routes && routes.isFile()) {
+            digest.update(IO.readContent(routes));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private File file(String className) {
+        return new File(dir, className + ".class");
+    }
+
+    private static byte[] invalid(File file) {
+        logger.warn("drop invalid enhanced class cache: %s", file);
+        file.delete();
+        return null;
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,68 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * An {@link AppByteCodeScanner} whose result on a class depends only on
+ * the bytecode of that class can implement this interface, so that its
+ * result can be saved into the scan index and restored when the app
+ * restarts with the same class bytecode, instead of scanning the class
+ * again.
+ *
+ * See {@link act.conf.AppConfigKey#SCAN_INDEX}
+ */
+public interface IndexableByteCodeScanner extends AppByteCodeScanner {
+
+    /**
+     * The result that tells the class shall be scanned again
+     */
+    byte[] RESCAN = new byte[0];
+
+    /**
+     * Returns the key of the results of this scanner in the scan index.
+     * The key shall be unique among the scanners of an app and stay the
+     * same across restarts
+     *
+     * @return the index key
+     */
+    String indexKey();
+
+    /**
+     * Returns the result of the class just scanned. Called after
+     * {@link #scanFinished(String)}.
+     *
+     * @param className the class name
+     * @return `null` if nothing found in the class, {@link #RESCAN} if
+     *         the class shall be scanned again, or the data to be passed
+     *         to {@link #restoreScanResult(String, byte[])}
+     */
+    byte[] scanResult(String className);
+
+    /**
+     * Restore the result returned by {@link #scanResult(String)} when
+     * the class has been scanned
+     *
+     * @param className the class name
+     * @param result the result
+     */
+    void restoreScanResult(String className, byte[] result);
+
+}
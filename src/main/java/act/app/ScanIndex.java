@@ -0,0 +1,256 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The scan index keeps the results of {@link IndexableByteCodeScanner}s
+ * keyed by class name and bytecode checksum.
+ *
+ * The index file is a binary file:
+ *
+ * * header: magic, version and names of the indexable scanners
+ * * entries: class name, bytecode checksum, and one result per scanner
+ *
+ * The file is memory mapped when opened, and entries are only decoded
+ * when looked up. An index created with a different scanner list is
+ * ignored.
+ */
+final class ScanIndex {
+
+    private static final Logger logger = L.get(ScanIndex.class);
+
+    static final int MAGIC = 0x41435349;
+    static final int VERSION = 1;
+
+    private static final int NOTHING = -2;
+    private static final int RESCAN = -1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * The results of a class
+     */
+    static class Entry {
+        final long checksum;
+        // indexed by scanner, see IndexableByteCodeScanner.scanResult
+        final byte[][] results;
+
+        Entry(long checksum, byte[][] results) {
+            this.checksum = checksum;
+            this.results = results;
+        }
+    }
+
+    private final File file;
+    private final List<String> scanners;
+    private final Map<String, Integer> positions = C.newMap();
+    private final Map<String, Entry> entries = C.newMap();
+    private MappedByteBuffer buffer;
+
+    private ScanIndex(File file, List<String> scanners) {
+        this.file = file;
+        this.scanners = scanners;
+    }
+
+    /**
+     * Open the index file.
+     *
+     * @param file the index file
+     * @param scanners names of the indexable scanners
+     * @return the index, empty if the file does not exist or is not valid
+     */
+    static ScanIndex open(File file, List<String> scanners) {
+        ScanIndex index = new ScanIndex(file, scanners);
+        if (file.canRead()) {
+            try {
+                index.load();
+            } catch (Exception e) {
+                logger.warn(e, "ignore invalid scan index: %s", file);
+                index.positions.clear();
+                index.buffer = null;
+            }
+        }
+        return index;
+    }
+
+    static long checksum(byte[] bytecode) {
+        CRC32 crc = new CRC32();
+        crc.update(bytecode);
+        return crc.getValue();
+    }
+
+    int scannerCount() {
+        return scanners.size();
+    }
+
+    /**
+     * Returns the saved entry of a class if the checksum matches
+     *
+     * @param className the class name
+     * @param checksum the checksum of the class bytecode
+     * @return the entry or `null` if not found or the class has been changed
+     */
+    Entry get(String className, long checksum) {
+        Integer pos = positions.get(className);
+        if (null == pos) {
+            return null;
+        }
+        MappedByteBuffer buffer = this.buffer;
+        buffer.position(pos);
+        if (buffer.getLong() != checksum) {
+            return null;
+        }
+        int n = scanners.size();
+        byte[][] results = new byte[n][];
+        for (int i = 0; i < n; ++i) {
+            int len = buffer.getInt();
+            if (RESCAN == len) {
+                results[i] = IndexableByteCodeScanner.RESCAN;
+            } else if (len >= 0) {
+                byte[] result = new byte[len];
+                buffer.get(result);
+                results[i] = result;
+            }
+        }
+        return new Entry(checksum, results);
+    }
+
+    /**
+     * Put the entry of a class scanned or restored to be saved
+     */
+    void put(String className, Entry entry) {
+        entries.put(className, entry);
+    }
+
+    /**
+     * Mark a scanner shall scan the class again
+     */
+    void rescan(String className, int scanner) {
+        Entry entry = entries.get(className);
+        if (null != entry) {
+            entry.results[scanner] = IndexableByteCodeScanner.RESCAN;
+        }
+    }
+
+    /**
+     * Save the entries put into the index file
+     */
+    void save() {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(scanners.size());
+            for (String scanner : scanners) {
+                writeString(out, scanner);
+            }
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                writeString(out, e.getKey());
+                Entry entry = e.getValue();
+                out.writeLong(entry.checksum);
+                for (byte[] result : entry.results) {
+                    if (null == result) {
+                        out.writeInt(NOTHING);
+                    } else if (IndexableByteCodeScanner.RESCAN == result) {
+                        out.writeInt(RESCAN);
+                    } else {
+                        out.writeInt(result.length);
+                        out.write(result);
+                    }
+                }
+            }
+            out.close();
+            out = null;
+            // release the mapping before replacing the file
+            buffer = null;
+            positions.clear();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn(e, "error saving scan index: %s", file);
+        } finally {
+            IO.close(out);
+        }
+    }
+
+    private void load() throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw E.unexpected("unknown scan index format");
+        }
+        int n = buffer.getInt();
+        if (n != scanners.size()) {
+            throw E.unexpected("scanners changed");
+        }
+        for (int i = 0; i < n; ++i) {
+            if (!scanners.get(i).equals(readString(buffer))) {
+                throw E.unexpected("scanners changed");
+            }
+        }
+        int count = buffer.getInt();
+        for (int i = 0; i < count; ++i) {
+            String className = readString(buffer);
+            positions.put(className, buffer.position());
+            buffer.position(buffer.position() + 8);
+            for (int j = 0; j < n; ++j) {
+                int len = buffer.getInt();
+                if (len > 0) {
+                    buffer.position(buffer.position() + len);
+                }
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+}
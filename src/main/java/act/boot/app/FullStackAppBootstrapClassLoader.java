@@ -23,9 +23,9 @@ package act.boot.app;
 import act.Constants;
 import act.boot.BootstrapClassLoader;
 import act.util.ActClassLoader;
+import act.util.ByteCodeSource;
 import act.util.ClassInfoRepository;
 import act.util.ClassNode;
-import act.util.Jars;
 import org.osgl.$;
 import org.osgl.util.*;
 
@@ -35,7 +35,6 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import static act.util.ClassInfoRepository.canonicalName;
 
@@ -70,7 +69,7 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
 
     private List<File> jars;
     private Long jarsChecksum;
-    private Map<String, byte[]> libBC = C.newMap();
+    private ByteCodeSource libBC = new ByteCodeSource();
     private List<Class<?>> actClasses = C.newList();
     private List<Class<?>> pluginClasses = new ArrayList<Class<?>>();
     private String lineSeparator = OS.get().lineSeparator();
@@ -88,7 +87,7 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
             restoreClassInfoRegistry();
             restorePluginClasses();
             if (classInfoRepository.isEmpty()) {
-                for (String className : C.list(libBC.keySet())) {
+                for (String className : C.list(libBC.classNames())) {
                     try {
                         Class<?> c = loadClass(className, true);
                         cache(c);
@@ -289,7 +288,7 @@ public class FullStackAppBootstrapClassLoader extends BootstrapClassLoader imple
     }
 
     private void buildIndex() {
-        libBC.putAll(Jars.buildClassNameIndex(jars()));
+        libBC.indexJars(jars());
     }
 
     @Override
@@ -36,14 +36,10 @@ package act.cli.ascii_table.impl;
  */
 
 
-import act.cli.CliContext;
 import act.cli.ascii_table.ASCIITableHeader;
 import act.cli.ascii_table.spec.IASCIITableAware;
-import org.osgl.$;
-import org.osgl.cache.CacheService;
-import org.osgl.util.S;
+import act.util.PropertyReader;
 
-import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
@@ -96,25 +92,11 @@ public class CollectionASCIITableAware<T> implements IASCIITableAware {
 			//Populate data
 			data = new ArrayList<List<Object>>();
 			List<Object> rowData;
-			Class<?> dataClazz = Object.class;
-			for (Object o: objList) {
-				if (null != o) {
-					dataClazz = o.getClass();
-					break;
-				}
-			}
-			Map<String, Serializable> propertyExtractorMap = new HashMap<String, Serializable>();
-			CacheService cache = null;
-			CliContext ctx = CliContext.current();
-			if (null != ctx) {
-				cache = ctx.evaluatorCache();
-			}
 			for (int i = 0 ; i < objList.size() ; i ++) {
 				rowData = new ArrayList<Object>();
 				
 				for (int j = 0 ; j < properties.size() ; j ++) {
-					rowData.add(getProperty(cache,
-							dataClazz, objList.get(i), properties.get(j)));
+					rowData.add(getProperty(objList.get(i), properties.get(j)));
 				}
 				
 				data.add(rowData);
@@ -123,11 +105,8 @@ public class CollectionASCIITableAware<T> implements IASCIITableAware {
 		}
 	}
 
-	private Object getProperty(CacheService evaluatorCache, Class<?> dataClazz, T obj, String property) {
-		if (S.eq("this", property)) {
-			return obj;
-		}
-		return $.getProperty(evaluatorCache, obj, property);
+	private Object getProperty(T obj, String property) {
+		return PropertyReader.read(obj, property);
 	}
 	
 	private Method getMethod(Class<?> dataClazz, String methodName) {
@@ -22,6 +22,7 @@ package act.cli.bytecode;
 
 import act.Act;
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.asm.*;
 import act.cli.CliDispatcher;
 import act.cli.meta.*;
@@ -37,17 +38,21 @@ import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
  * Scan Commander class bytecode
  */
-public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
+public class CommanderByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private final static Logger logger = L.get(CommanderByteCodeScanner.class);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
     private CliDispatcher dispatcher;
     private CommanderClassMetaInfo classInfo;
     private volatile CommanderClassMetaInfoManager classInfoBase;
+    // found command or field option/session variable
+    private boolean found;
 
     public CommanderByteCodeScanner() {
     }
@@ -55,6 +60,7 @@ public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
     @Override
     protected void reset(String className) {
         classInfo = new CommanderClassMetaInfo();
+        found = false;
     }
 
     @Override
@@ -77,6 +83,34 @@ public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
         classInfoBase().registerCommanderMetaInfo(classInfo);
     }
 
+    /**
+     * Returns the abstract flag and the super type of a class without commands
+     * or options. The meta info is still registered when restored as a commander
+     * sub class looks up options along its parents
+     */
+    @Override
+    public byte[] scanResult(String className) {
+        if (found || classInfo.hasCommand()) {
+            return RESCAN;
+        }
+        byte[] superName = classInfo.superType().getInternalName().getBytes(UTF_8);
+        byte[] result = new byte[superName.length + 1];
+        result[0] = (byte) (classInfo.isAbstract() ? 1 : 0);
+        System.arraycopy(superName, 0, result, 1, superName.length);
+        return result;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+        CommanderClassMetaInfo info = new CommanderClassMetaInfo();
+        info.className(className.replace('.', '/'));
+        info.superType(Type.getObjectType(new String(result, 1, result.length - 1, UTF_8)));
+        if (1 == result[0]) {
+            info.setAbstract();
+        }
+        classInfoBase().registerCommanderMetaInfo(info);
+    }
+
     private CommanderClassMetaInfoManager classInfoBase() {
         if (null == classInfoBase) {
             synchronized (this) {
@@ -182,6 +216,7 @@ public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
                 public void visitEnd() {
                     super.visitEnd();
                     classInfo.addFieldSessionVariableAnnotInfo(fieldName, new SessionVariableAnnoInfo(sessionVariableName));
+                    found = true;
                 }
             }
 
@@ -194,6 +229,7 @@ public class CommanderByteCodeScanner extends AppByteCodeScannerBase {
                 @Override
                 public void visitEnd2() {
                     classInfo.addFieldOptionAnnotationInfo((FieldOptionAnnoInfo) optionAnnoInfo);
+                    found = true;
                 }
             }
 
@@ -31,15 +31,20 @@ import act.data.DataPropertyRepository;
 import act.util.ActContext;
 import act.util.DisableFastJsonCircularReferenceDetect;
 import act.util.FastJsonPropertyPreFilter;
+import act.util.PropertyReader;
 import act.util.PropertySpec;
+import com.alibaba.fastjson.serializer.JSONSerializer;
 import com.alibaba.fastjson.serializer.SerializeFilter;
+import com.alibaba.fastjson.serializer.SerializeWriter;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import org.osgl.$;
 import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
-import org.rythmengine.utils.Escape;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.*;
 
 /**
@@ -176,33 +181,27 @@ public enum CliView {
         }
 
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context, boolean format) {
+            return render(null, result, spec, context, format);
+        }
+
+        @Override
+        public void render(Writer writer, Object result, PropertySpec.MetaInfo spec, ActContext context) {
+            render(writer, result, spec, context, context instanceof CliContext);
+        }
+
+        /*
+         * Serialize the result into the writer if it is not `null` or
+         * return the JSON string otherwise
+         */
+        private String render(Writer writer, Object result, PropertySpec.MetaInfo spec, ActContext context, boolean format) {
             String json;
             FastJsonPropertyPreFilter propertyFilter;
             spec = PropertySpec.MetaInfo.withCurrent(spec, context);
             if (null == spec) {
                 propertyFilter = null;
             } else {
-                propertyFilter = new FastJsonPropertyPreFilter();
-                List<String> outputs = spec.outputFields(context);
-                Set<String> excluded = spec.excludedFields(context);
-                if (excluded.isEmpty()) {
-                    if (outputs.isEmpty()) {
-                        propertyFilter = null; // no filter defined actually
-                    } else {
-                        // output fields only applied when excluded fields not presented
-                        propertyFilter.addIncludes(outputs);
-                        if (FastJsonPropertyPreFilter.hasPattern(outputs)) {
-                            // TODO: handle the case when result is an Iterable
-                            propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                        }
-                    }
-                } else {
-                    propertyFilter.addExcludes(excluded);
-                    if (FastJsonPropertyPreFilter.hasPattern(excluded)) {
-                        // TODO: handle the case when result is an Iterable
-                        propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                    }
-                }
+                // output fields only applied when excluded fields not presented
+                propertyFilter = FastJsonPropertyPreFilter.get(spec.outputFields(context), spec.excludedFields(context), result.getClass(), context);
             }
 
             List<SerializerFeature> featureList = C.newList();
@@ -217,9 +216,9 @@ public enum CliView {
                 SerializerFeature[] featureArray = new SerializerFeature[featureList.size()];
                 featureArray = featureList.toArray(featureArray);
                 if (format) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, featureArray);
+                    json = toJson(writer, result, NO_FILTER, featureArray);
                 } else {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result);
+                    json = toJson(writer, result, NO_FILTER);
                 }
             } else {
                 // Note: we can't check DisableFastJsonCircularReferenceDetect here because if
@@ -231,17 +230,34 @@ public enum CliView {
                 featureArray = featureList.toArray(featureArray);
 
                 if (nameFilter.isEmpty()) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, propertyFilter, featureArray);
+                    json = toJson(writer, result, new SerializeFilter[]{propertyFilter}, featureArray);
                 } else {
                     SerializeFilter[] filters = new SerializeFilter[2];
                     filters[0] = nameFilter;
                     filters[1] = propertyFilter;
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, filters, featureArray);
+                    json = toJson(writer, result, filters, featureArray);
                 }
             }
             return json;
         }
 
+        private String toJson(Writer writer, Object result, SerializeFilter[] filters, SerializerFeature... features) {
+            if (null == writer) {
+                return com.alibaba.fastjson.JSON.toJSONString(result, filters, features);
+            }
+            // the serialize writer flushes its buffer to the writer whenever it is full
+            SerializeWriter out = new SerializeWriter(writer, com.alibaba.fastjson.JSON.DEFAULT_GENERATE_FEATURE, features);
+            try {
+                JSONSerializer serializer = new JSONSerializer(out);
+                for (SerializeFilter filter : filters) {
+                    serializer.addFilter(filter);
+                }
+                serializer.write(result);
+            } finally {
+                out.close();
+            }
+            return null;
+        }
 
     },
 
@@ -266,66 +282,82 @@ public enum CliView {
     CSV() {
         @Override
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
-            if (null == result) {
-                return "no data";
+            StringWriter writer = new StringWriter();
+            render(writer, result, spec, context);
+            return writer.toString();
+        }
+
+        /*
+         * Write the rows into the writer one by one, so an Iterable
+         * or Iterator result is never collected into memory
+         */
+        @Override
+        public void render(Writer writer, Object result, PropertySpec.MetaInfo spec, ActContext context) {
+            try {
+                Iterator itr = iterator(result);
+                if (!itr.hasNext()) {
+                    writer.write("no data");
+                    return;
+                }
+                Object first = itr.next();
+                Class<?> componentType = null == first ? Object.class : first.getClass();
+                DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
+                spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+                if (null == spec) {
+                    spec = new PropertySpec.MetaInfo();
+                    spec.onValue("-not_exists");
+                }
+                List<String> outputFields = repo.outputFields(spec, componentType, context);
+                writeHeaderLine(writer, outputFields, spec.labelMapping());
+                RowReader rowReader = new RowReader(outputFields);
+                String lineSeparator = $.OS.lineSeparator();
+                Object entity = first;
+                while (true) {
+                    writer.write(lineSeparator);
+                    writeDataLine(writer, entity, rowReader);
+                    if (!itr.hasNext()) {
+                        break;
+                    }
+                    entity = itr.next();
+                }
+            } catch (IOException e) {
+                throw E.ioException(e);
             }
-            List dataList;
-            Class<?> componentType;
-            if (result instanceof Iterable) {
-                dataList = C.list((Iterable) result);
+        }
+
+        private Iterator iterator(Object result) {
+            if (null == result) {
+                return C.list().iterator();
+            } else if (result instanceof Iterable) {
+                return ((Iterable) result).iterator();
             } else if (result instanceof Iterator) {
-                dataList = C.list((Iterator) result);
+                return (Iterator) result;
             } else if (result instanceof Enumeration) {
-                dataList = C.list((Enumeration) result);
+                return C.list((Enumeration) result).iterator();
             } else {
-                dataList = C.list(result);
-            }
-            if (dataList.isEmpty()) {
-                return "no data";
-            }
-            componentType = dataList.get(0).getClass();
-            DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
-            spec = PropertySpec.MetaInfo.withCurrent(spec, context);
-            if (null == spec) {
-                spec = new PropertySpec.MetaInfo();
-                spec.onValue("-not_exists");
-            }
-            List<String> outputFields = repo.outputFields(spec, componentType, context);
-            S.Buffer sb = S.buffer();
-            buildHeaderLine(sb, outputFields, spec.labelMapping());
-            for (Object entity : dataList) {
-                sb.append($.OS.lineSeparator());
-                buildDataLine(sb, entity, outputFields);
-            }
-            return sb.toString();
-        }
-
-        private void buildDataLine(S.Buffer sb, Object data, List<String> outputFields) {
-            Iterator<String> itr = outputFields.iterator();
-            String prop = itr.next();
-            sb.append(getProperty(data, prop));
-            while (itr.hasNext()) {
-                sb.append(",").append(getProperty(data, itr.next()));
+                return C.list(result).iterator();
             }
         }
 
-        private String getProperty(Object data, String prop) {
-            if ("this".equals(prop)) {
-                return (escape(data));
-            } else {
-                return escape($.getProperty(data, prop));
+        private void writeDataLine(Writer writer, Object data, RowReader rowReader) throws IOException {
+            PropertyReader[] readers = rowReader.readers(data);
+            for (int i = 0; i < readers.length; ++i) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(writer, null == data ? null : readers[i].read(data));
             }
         }
 
-        private void buildHeaderLine(S.Buffer sb, List<String> outputFields, Map<String, String> labels) {
+        private void writeHeaderLine(Writer writer, List<String> outputFields, Map<String, String> labels) throws IOException {
             if (null == labels) {
                 labels = C.newMap();
             }
             Iterator<String> itr = outputFields.iterator();
-            String label = label(itr.next(), labels);
-            sb.append(label);
+            writeField(writer, label(itr.next(), labels));
             while (itr.hasNext()) {
-                sb.append(",").append(escape(label(itr.next(), labels)));
+                writer.write(',');
+                writeField(writer, label(itr.next(), labels));
             }
         }
 
@@ -334,16 +366,96 @@ public enum CliView {
             return null == s ? key : s;
         }
 
-        private String escape(Object o) {
-            return Escape.CSV.apply(o).toString();
+        /*
+         * Write the field escaped as specified by RFC4180: a field
+         * contains comma, double quote or line break is enclosed in
+         * double quotes and the double quotes inside are doubled
+         */
+        private void writeField(Writer writer, Object o) throws IOException {
+            if (null == o) {
+                return;
+            }
+            String s = o.toString();
+            int len = s.length();
+            int i = 0;
+            for (; i < len; ++i) {
+                char c = s.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    break;
+                }
+            }
+            if (i == len) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            int start = 0;
+            for (i = s.indexOf('"'); i > -1; i = s.indexOf('"', i + 1)) {
+                writer.write(s, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+            writer.write(s, start, len - start);
+            writer.write('"');
         }
 
     };
 
+    /**
+     * Keeps the property readers of the output fields for the
+     * type of the current row
+     */
+    private static class RowReader {
+        private final List<String> fields;
+        private Class<?> type;
+        private PropertyReader[] readers;
+
+        RowReader(List<String> fields) {
+            this.fields = fields;
+        }
+
+        PropertyReader[] readers(Object row) {
+            Class<?> rowType = null == row ? Object.class : row.getClass();
+            if (rowType != type) {
+                int sz = fields.size();
+                PropertyReader[] pa = new PropertyReader[sz];
+                for (int i = 0; i < sz; ++i) {
+                    pa[i] = PropertyReader.of(rowType, fields.get(i));
+                }
+                readers = pa;
+                type = rowType;
+            }
+            return readers;
+        }
+    }
+
+    private static final SerializeFilter[] NO_FILTER = new SerializeFilter[0];
+
     public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
         throw E.unsupport();
     }
 
+    /**
+     * Render the result into a writer.
+     *
+     * The default implementation writes the string returned by
+     * {@link #render(Object, PropertySpec.MetaInfo, ActContext)}. Views
+     * that support streaming shall override this method to avoid
+     * building the whole output in memory
+     *
+     * @param writer the writer
+     * @param result the result
+     * @param spec the property spec
+     * @param context the context
+     */
+    public void render(Writer writer, Object result, PropertySpec.MetaInfo spec, ActContext context) {
+        try {
+            writer.write(render(result, spec, context));
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
     public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
         context.println(render(result, spec, context));
     }
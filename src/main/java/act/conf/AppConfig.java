@@ -32,9 +32,11 @@ import act.app.util.NamedPort;
 import act.cli.CliOverHttpAuthority;
 import act.db.util.SequenceNumberGenerator;
 import act.db.util._SequenceNumberGenerator;
+import act.event.OverflowPolicy;
 import act.handler.UnknownHttpMethodProcessor;
 import act.handler.event.ResultEvent;
 import act.i18n.I18n;
+import act.job.MisfirePolicy;
 import act.security.CSRFProtector;
 import act.util.*;
 import act.view.TemplatePathResolver;
@@ -823,6 +825,77 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private int eventAsyncWorkers = -1;
+
+    protected T eventAsyncWorkers(int workers) {
+        E.illegalArgumentIf(workers < 1, "event async workers cannot be zero or negative number: %s", workers);
+        this.eventAsyncWorkers = workers;
+        return me();
+    }
+
+    public int eventAsyncWorkers() {
+        if (-1 == eventAsyncWorkers) {
+            Integer I = getInteger(EVENT_ASYNC_WORKERS);
+            if (null == I) {
+                I = 2;
+            }
+            eventAsyncWorkers = I;
+        }
+        return eventAsyncWorkers;
+    }
+
+    private void _mergeEventAsyncWorkers(AppConfig conf) {
+        if (!hasConfiguration(EVENT_ASYNC_WORKERS)) {
+            eventAsyncWorkers = conf.eventAsyncWorkers;
+        }
+    }
+
+    private int eventAsyncQueueSize = -1;
+
+    protected T eventAsyncQueueSize(int size) {
+        E.illegalArgumentIf(size < 1, "event async queue size cannot be zero or negative number: %s", size);
+        this.eventAsyncQueueSize = size;
+        return me();
+    }
+
+    public int eventAsyncQueueSize() {
+        if (-1 == eventAsyncQueueSize) {
+            Integer I = getInteger(EVENT_ASYNC_QUEUE_SIZE);
+            if (null == I) {
+                I = 1024;
+            }
+            eventAsyncQueueSize = I;
+        }
+        return eventAsyncQueueSize;
+    }
+
+    private void _mergeEventAsyncQueueSize(AppConfig conf) {
+        if (!hasConfiguration(EVENT_ASYNC_QUEUE_SIZE)) {
+            eventAsyncQueueSize = conf.eventAsyncQueueSize;
+        }
+    }
+
+    private OverflowPolicy eventAsyncOverflow;
+
+    protected T eventAsyncOverflow(OverflowPolicy policy) {
+        this.eventAsyncOverflow = $.notNull(policy);
+        return me();
+    }
+
+    public OverflowPolicy eventAsyncOverflow() {
+        if (null == eventAsyncOverflow) {
+            String s = get(EVENT_ASYNC_OVERFLOW);
+            eventAsyncOverflow = null == s ? OverflowPolicy.CALLER_RUNS : OverflowPolicy.valueOf(s.trim().toUpperCase());
+        }
+        return eventAsyncOverflow;
+    }
+
+    private void _mergeEventAsyncOverflow(AppConfig conf) {
+        if (!hasConfiguration(EVENT_ASYNC_OVERFLOW)) {
+            eventAsyncOverflow = conf.eventAsyncOverflow;
+        }
+    }
+
     private String defViewName = null;
     private View defView = null;
 
@@ -1277,6 +1350,48 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean httpJsonBodyStreaming;
+    protected T httpJsonBodyStreaming(boolean streaming) {
+        this.httpJsonBodyStreaming = streaming;
+        return me();
+    }
+    public boolean httpJsonBodyStreaming() {
+        if (null == httpJsonBodyStreaming) {
+            httpJsonBodyStreaming = get(HTTP_JSON_BODY_STREAMING);
+            if (null == httpJsonBodyStreaming) {
+                httpJsonBodyStreaming = false;
+            }
+        }
+        return httpJsonBodyStreaming;
+    }
+    private void _mergeHttpJsonBodyStreaming(AppConfig conf) {
+        if (!hasConfiguration(HTTP_JSON_BODY_STREAMING)) {
+            httpJsonBodyStreaming = conf.httpJsonBodyStreaming;
+        }
+    }
+
+    private Long httpJsonBodySizeMax;
+    protected T httpJsonBodySizeMax(long max) {
+        this.httpJsonBodySizeMax = max;
+        return me();
+    }
+    public long httpJsonBodySizeMax() {
+        if (null == httpJsonBodySizeMax) {
+            httpJsonBodySizeMax = getLong(HTTP_JSON_BODY_SIZE_MAX);
+            if (null == httpJsonBodySizeMax) {
+                httpJsonBodySizeMax = 10L * 1024 * 1024;
+            } else if (httpJsonBodySizeMax <= 0) {
+                httpJsonBodySizeMax = -1L;
+            }
+        }
+        return httpJsonBodySizeMax;
+    }
+    private void _mergeHttpJsonBodySizeMax(AppConfig conf) {
+        if (!hasConfiguration(HTTP_JSON_BODY_SIZE_MAX)) {
+            httpJsonBodySizeMax = conf.httpJsonBodySizeMax;
+        }
+    }
+
     private int jobPoolSize = -1;
 
     protected T jobPoolSize(int size) {
@@ -1302,6 +1417,294 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
     
+    private MisfirePolicy jobCronMisfirePolicy;
+
+    protected T jobCronMisfirePolicy(MisfirePolicy policy) {
+        this.jobCronMisfirePolicy = $.notNull(policy);
+        return me();
+    }
+
+    public MisfirePolicy jobCronMisfirePolicy() {
+        if (null == jobCronMisfirePolicy) {
+            String s = get(JOB_CRON_MISFIRE_POLICY);
+            jobCronMisfirePolicy = null == s ? MisfirePolicy.FIRE_ONCE : MisfirePolicy.valueOf(s.trim().toUpperCase());
+        }
+        return jobCronMisfirePolicy;
+    }
+
+    private void _mergeJobCronMisfirePolicy(AppConfig conf) {
+        if (!hasConfiguration(JOB_CRON_MISFIRE_POLICY)) {
+            jobCronMisfirePolicy = conf.jobCronMisfirePolicy;
+        }
+    }
+
+    private long jobCronMisfireThreshold = -1;
+
+    protected T jobCronMisfireThreshold(long ms) {
+        E.illegalArgumentIf(ms < 0, "job cron misfire threshold cannot be negative number: %s", ms);
+        this.jobCronMisfireThreshold = ms;
+        return me();
+    }
+
+    public long jobCronMisfireThreshold() {
+        if (-1 == jobCronMisfireThreshold) {
+            Long L = getLong(JOB_CRON_MISFIRE_THRESHOLD);
+            if (null == L) {
+                L = 1000L;
+            }
+            jobCronMisfireThreshold = L;
+        }
+        return jobCronMisfireThreshold;
+    }
+
+    private void _mergeJobCronMisfireThreshold(AppConfig conf) {
+        if (!hasConfiguration(JOB_CRON_MISFIRE_THRESHOLD)) {
+            jobCronMisfireThreshold = conf.jobCronMisfireThreshold;
+        }
+    }
+
+    private Boolean jobSchedulerWheel;
+
+    protected T jobSchedulerWheel(boolean enabled) {
+        this.jobSchedulerWheel = enabled;
+        return me();
+    }
+
+    public boolean jobSchedulerWheel() {
+        if (null == jobSchedulerWheel) {
+            jobSchedulerWheel = get(JOB_SCHEDULER_WHEEL);
+            if (null == jobSchedulerWheel) {
+                jobSchedulerWheel = false;
+            }
+        }
+        return jobSchedulerWheel;
+    }
+
+    private void _mergeJobSchedulerWheel(AppConfig conf) {
+        if (!hasConfiguration(JOB_SCHEDULER_WHEEL)) {
+            jobSchedulerWheel = conf.jobSchedulerWheel;
+        }
+    }
+
+    private int jobSchedulerWheelTick = -1;
+
+    protected T jobSchedulerWheelTick(int ms) {
+        E.illegalArgumentIf(ms < 1, "job scheduler wheel tick cannot be zero or negative number: %s", ms);
+        this.jobSchedulerWheelTick = ms;
+        return me();
+    }
+
+    public int jobSchedulerWheelTick() {
+        if (-1 == jobSchedulerWheelTick) {
+            Integer I = getInteger(JOB_SCHEDULER_WHEEL_TICK);
+            if (null == I) {
+                I = 100;
+            }
+            jobSchedulerWheelTick = I;
+        }
+        return jobSchedulerWheelTick;
+    }
+
+    private void _mergeJobSchedulerWheelTick(AppConfig conf) {
+        if (!hasConfiguration(JOB_SCHEDULER_WHEEL_TICK)) {
+            jobSchedulerWheelTick = conf.jobSchedulerWheelTick;
+        }
+    }
+
+    private int jobSchedulerWheelSize = -1;
+
+    protected T jobSchedulerWheelSize(int size) {
+        E.illegalArgumentIf(size < 1, "job scheduler wheel size cannot be zero or negative number: %s", size);
+        this.jobSchedulerWheelSize = size;
+        return me();
+    }
+
+    public int jobSchedulerWheelSize() {
+        if (-1 == jobSchedulerWheelSize) {
+            Integer I = getInteger(JOB_SCHEDULER_WHEEL_SIZE);
+            if (null == I) {
+                I = 512;
+            }
+            jobSchedulerWheelSize = I;
+        }
+        return jobSchedulerWheelSize;
+    }
+
+    private void _mergeJobSchedulerWheelSize(AppConfig conf) {
+        if (!hasConfiguration(JOB_SCHEDULER_WHEEL_SIZE)) {
+            jobSchedulerWheelSize = conf.jobSchedulerWheelSize;
+        }
+    }
+
+    private Boolean jobStore;
+
+    protected T jobStore(boolean enabled) {
+        this.jobStore = enabled;
+        return me();
+    }
+
+    public boolean jobStore() {
+        if (null == jobStore) {
+            jobStore = get(JOB_STORE);
+            if (null == jobStore) {
+                jobStore = false;
+            }
+        }
+        return jobStore;
+    }
+
+    private void _mergeJobStore(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE)) {
+            jobStore = conf.jobStore;
+        }
+    }
+
+    private String jobStoreDir;
+
+    protected T jobStoreDir(String dir) {
+        E.illegalArgumentIf(S.blank(dir), "job store dir cannot be blank");
+        this.jobStoreDir = dir;
+        return me();
+    }
+
+    /**
+     * Returns the job store dir configured or `null` if not configured
+     * @return the job store dir
+     */
+    public String jobStoreDir() {
+        if (null == jobStoreDir) {
+            jobStoreDir = get(JOB_STORE_DIR);
+        }
+        return jobStoreDir;
+    }
+
+    private void _mergeJobStoreDir(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE_DIR)) {
+            jobStoreDir = conf.jobStoreDir;
+        }
+    }
+
+    private long jobStoreLinger = -1;
+
+    protected T jobStoreLinger(long ms) {
+        E.illegalArgumentIf(ms < 0, "job store linger cannot be negative number: %s", ms);
+        this.jobStoreLinger = ms;
+        return me();
+    }
+
+    public long jobStoreLinger() {
+        if (-1 == jobStoreLinger) {
+            Long L = getLong(JOB_STORE_LINGER);
+            if (null == L) {
+                L = 0L;
+            }
+            jobStoreLinger = L;
+        }
+        return jobStoreLinger;
+    }
+
+    private void _mergeJobStoreLinger(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE_LINGER)) {
+            jobStoreLinger = conf.jobStoreLinger;
+        }
+    }
+
+    private Boolean enhanceCache;
+
+    protected T enhanceCache(boolean enabled) {
+        this.enhanceCache = enabled;
+        return me();
+    }
+
+    public boolean enhanceCache() {
+        if (null == enhanceCache) {
+            enhanceCache = get(ENHANCE_CACHE);
+            if (null == enhanceCache) {
+                enhanceCache = false;
+            }
+        }
+        return enhanceCache;
+    }
+
+    private void _mergeEnhanceCache(AppConfig conf) {
+        if (!hasConfiguration(ENHANCE_CACHE)) {
+            enhanceCache = conf.enhanceCache;
+        }
+    }
+
+    private String enhanceCacheDir;
+
+    protected T enhanceCacheDir(String dir) {
+        E.illegalArgumentIf(S.blank(dir), "enhance cache dir cannot be blank");
+        this.enhanceCacheDir = dir;
+        return me();
+    }
+
+    /**
+     * Returns the enhanced class cache dir configured or `null` if not configured
+     * @return the enhanced class cache dir
+     */
+    public String enhanceCacheDir() {
+        if (null == enhanceCacheDir) {
+            enhanceCacheDir = get(ENHANCE_CACHE_DIR);
+        }
+        return enhanceCacheDir;
+    }
+
+    private void _mergeEnhanceCacheDir(AppConfig conf) {
+        if (!hasConfiguration(ENHANCE_CACHE_DIR)) {
+            enhanceCacheDir = conf.enhanceCacheDir;
+        }
+    }
+
+    private Boolean scanIndex;
+
+    protected T scanIndex(boolean enabled) {
+        this.scanIndex = enabled;
+        return me();
+    }
+
+    public boolean scanIndex() {
+        if (null == scanIndex) {
+            scanIndex = get(SCAN_INDEX);
+            if (null == scanIndex) {
+                scanIndex = false;
+            }
+        }
+        return scanIndex;
+    }
+
+    private void _mergeScanIndex(AppConfig conf) {
+        if (!hasConfiguration(SCAN_INDEX)) {
+            scanIndex = conf.scanIndex;
+        }
+    }
+
+    private int scanParallelism = -1;
+
+    protected T scanParallelism(int parallelism) {
+        E.illegalArgumentIf(parallelism < 1, "scan parallelism cannot be zero or negative number: %s", parallelism);
+        this.scanParallelism = parallelism;
+        return me();
+    }
+
+    public int scanParallelism() {
+        if (-1 == scanParallelism) {
+            Integer I = getInteger(SCAN_PARALLELISM);
+            if (null == I) {
+                I = Runtime.getRuntime().availableProcessors();
+            }
+            scanParallelism = I;
+        }
+        return scanParallelism;
+    }
+
+    private void _mergeScanParallelism(AppConfig conf) {
+        if (!hasConfiguration(SCAN_PARALLELISM)) {
+            scanParallelism = conf.scanParallelism;
+        }
+    }
+
     private int httpExternalPort = -1;
     
     protected T httpExternalPort(int port) {
@@ -1921,6 +2324,87 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean renderJsonStreaming;
+    protected T renderJsonStreaming(boolean streaming) {
+        this.renderJsonStreaming = streaming;
+        return me();
+    }
+    public boolean renderJsonStreaming() {
+        if (null == renderJsonStreaming) {
+            renderJsonStreaming = get(RENDER_JSON_STREAMING);
+            if (null == renderJsonStreaming) {
+                renderJsonStreaming = false;
+            }
+        }
+        return renderJsonStreaming;
+    }
+    private void _mergeRenderJsonStreaming(AppConfig config) {
+        if (!hasConfiguration(RENDER_JSON_STREAMING)) {
+            renderJsonStreaming = config.renderJsonStreaming;
+        }
+    }
+
+    private Boolean renderCsvStreaming;
+    protected T renderCsvStreaming(boolean streaming) {
+        this.renderCsvStreaming = streaming;
+        return me();
+    }
+    public boolean renderCsvStreaming() {
+        if (null == renderCsvStreaming) {
+            renderCsvStreaming = get(RENDER_CSV_STREAMING);
+            if (null == renderCsvStreaming) {
+                renderCsvStreaming = false;
+            }
+        }
+        return renderCsvStreaming;
+    }
+    private void _mergeRenderCsvStreaming(AppConfig config) {
+        if (!hasConfiguration(RENDER_CSV_STREAMING)) {
+            renderCsvStreaming = config.renderCsvStreaming;
+        }
+    }
+
+    private Boolean devFsWatch;
+    protected T devFsWatch(boolean enabled) {
+        this.devFsWatch = enabled;
+        return me();
+    }
+    public boolean devFsWatch() {
+        if (null == devFsWatch) {
+            devFsWatch = get(DEV_FS_WATCH);
+            if (null == devFsWatch) {
+                devFsWatch = true;
+            }
+        }
+        return devFsWatch;
+    }
+    private void _mergeDevFsWatch(AppConfig config) {
+        if (!hasConfiguration(DEV_FS_WATCH)) {
+            devFsWatch = config.devFsWatch;
+        }
+    }
+
+    private Long devFsWatchDebounce;
+    protected T devFsWatchDebounce(long ms) {
+        E.illegalArgumentIf(ms < 0, "dev.fs_watch.debounce shall not be negative");
+        this.devFsWatchDebounce = ms;
+        return me();
+    }
+    public long devFsWatchDebounce() {
+        if (null == devFsWatchDebounce) {
+            devFsWatchDebounce = getLong(DEV_FS_WATCH_DEBOUNCE);
+            if (null == devFsWatchDebounce) {
+                devFsWatchDebounce = FsWatcher.DEFAULT_DEBOUNCE;
+            }
+        }
+        return devFsWatchDebounce;
+    }
+    private void _mergeDevFsWatchDebounce(AppConfig config) {
+        if (!hasConfiguration(DEV_FS_WATCH_DEBOUNCE)) {
+            devFsWatchDebounce = config.devFsWatchDebounce;
+        }
+    }
+
     private String serverHeader;
 
     protected T serverHeader(String header) {
@@ -2132,6 +2616,52 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean sessionStoreEnabled;
+
+    protected T sessionStoreEnable(boolean enable) {
+        sessionStoreEnabled = enable;
+        return me();
+    }
+
+    public boolean sessionStoreEnabled() {
+        if (null == sessionStoreEnabled) {
+            sessionStoreEnabled = get(AppConfigKey.SESSION_STORE_ENABLED);
+            if (null == sessionStoreEnabled) {
+                sessionStoreEnabled = false;
+            }
+        }
+        return sessionStoreEnabled;
+    }
+
+    private void _mergeSessionStoreEnabled(AppConfig config) {
+        if (!hasConfiguration(AppConfigKey.SESSION_STORE_ENABLED)) {
+            sessionStoreEnabled = config.sessionStoreEnabled;
+        }
+    }
+
+    private SessionStore sessionStore;
+
+    protected T sessionStore(SessionStore sessionStore) {
+        this.sessionStore = $.notNull(sessionStore);
+        return me();
+    }
+
+    public SessionStore sessionStore() {
+        if (null == sessionStore) {
+            sessionStore = get(AppConfigKey.SESSION_STORE);
+            if (null == sessionStore) {
+                sessionStore = new SessionStore.InMemorySessionStore();
+            }
+        }
+        return sessionStore;
+    }
+
+    private void _mergeSessionStore(AppConfig config) {
+        if (!hasConfiguration(AppConfigKey.SESSION_STORE)) {
+            sessionStore = config.sessionStore;
+        }
+    }
+
     private Boolean sessionSecure = null;
 
     protected T sessionSecure(boolean secure) {
@@ -2233,6 +2763,29 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean metricHistogramEnabled;
+
+    protected T metricHistogramEnable(boolean enable) {
+        this.metricHistogramEnabled = enable;
+        return me();
+    }
+
+    public boolean metricHistogramEnabled() {
+        if (null == metricHistogramEnabled) {
+            metricHistogramEnabled = get(METRIC_HISTOGRAM_ENABLED);
+            if (null == metricHistogramEnabled) {
+                metricHistogramEnabled = false;
+            }
+        }
+        return metricHistogramEnabled;
+    }
+
+    private void _mergeMetricHistogramEnabled(AppConfig conf) {
+        if (!hasConfiguration(METRIC_HISTOGRAM_ENABLED)) {
+            metricHistogramEnabled = conf.metricHistogramEnabled;
+        }
+    }
+
     public boolean possibleControllerClass(String className) {
         return appClassTester().test(className);
     }
@@ -2360,6 +2913,29 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean routeCompile;
+
+    protected T routeCompile(boolean enabled) {
+        routeCompile = enabled;
+        return me();
+    }
+
+    public boolean routeCompileEnabled() {
+        if (null == routeCompile) {
+            routeCompile = get(ROUTE_COMPILE);
+            if (null == routeCompile) {
+                routeCompile = true;
+            }
+        }
+        return routeCompile;
+    }
+
+    private void _mergeRouteCompile(AppConfig conf) {
+        if (!hasConfiguration(ROUTE_COMPILE)) {
+            routeCompile = conf.routeCompile;
+        }
+    }
+
     private Boolean uploadFileDownload;
     protected T enableUploadFileDownload(boolean b) {
         uploadFileDownload = b;
@@ -2380,6 +2956,46 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Long uploadFileSizeMax;
+    protected T uploadFileSizeMax(long max) {
+        uploadFileSizeMax = max;
+        return me();
+    }
+    public long uploadFileSizeMax() {
+        if (null == uploadFileSizeMax) {
+            uploadFileSizeMax = getLong(UPLOAD_FILE_SIZE_MAX);
+            if (null == uploadFileSizeMax || uploadFileSizeMax <= 0) {
+                uploadFileSizeMax = -1L;
+            }
+        }
+        return uploadFileSizeMax;
+    }
+    private void _mergeUploadFileSizeMax(AppConfig config) {
+        if (!hasConfiguration(UPLOAD_FILE_SIZE_MAX)) {
+            uploadFileSizeMax = config.uploadFileSizeMax;
+        }
+    }
+
+    private Boolean uploadStreaming;
+    protected T enableUploadStreaming(boolean b) {
+        uploadStreaming = b;
+        return me();
+    }
+    public boolean uploadStreamingEnabled() {
+        if (null == uploadStreaming) {
+            uploadStreaming = get(UPLOAD_STREAMING);
+            if (null == uploadStreaming) {
+                uploadStreaming = false;
+            }
+        }
+        return uploadStreaming;
+    }
+    private void _mergeUploadStreaming(AppConfig config) {
+        if (!hasConfiguration(UPLOAD_STREAMING)) {
+            uploadStreaming = config.uploadStreaming;
+        }
+    }
+
     private Set<AppConfigurator> mergeTracker = C.newSet();
 
     public void loadJarProperties(Map<String, Properties> jarProperties) {
@@ -2452,13 +3068,30 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeMaxCliSession(conf);
         _mergeDspToken(conf);
         _mergeEnumResolvingCaseSensitive(conf);
+        _mergeEventAsyncWorkers(conf);
+        _mergeEventAsyncQueueSize(conf);
+        _mergeEventAsyncOverflow(conf);
         _mergeXForwardedProtocol(conf);
         _mergeHost(conf);
         _mergeLoginUrl(conf);
         _mergeAjaxLoginUrl(conf);
         _mergeUrlContext(conf);
         _mergeHttpMaxParams(conf);
+        _mergeHttpJsonBodyStreaming(conf);
+        _mergeHttpJsonBodySizeMax(conf);
         _mergeJobPoolSize(conf);
+        _mergeJobCronMisfirePolicy(conf);
+        _mergeJobCronMisfireThreshold(conf);
+        _mergeJobSchedulerWheel(conf);
+        _mergeJobSchedulerWheelTick(conf);
+        _mergeJobSchedulerWheelSize(conf);
+        _mergeJobStore(conf);
+        _mergeJobStoreDir(conf);
+        _mergeJobStoreLinger(conf);
+        _mergeEnhanceCache(conf);
+        _mergeEnhanceCacheDir(conf);
+        _mergeScanIndex(conf);
+        _mergeScanParallelism(conf);
         _mergeMissingAuthenticationHandler(conf);
         _mergeAjaxMissingAuthenticationHandler(conf);
         _mergeHttpExternal(conf);
@@ -2473,6 +3106,7 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeDateFmt(conf);
         _mergeDateTimeFmt(conf);
         _mergeMetricEnabled(conf);
+        _mergeMetricHistogramEnabled(conf);
         _mergeTimeFmt(conf);
         _mergeEncoding(conf);
         _mergeNodeIdProvider(conf);
@@ -2486,6 +3120,7 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeLongEncoder(conf);
         _mergeLocale(conf);
         _mergeResourcePreloadSizeLimit(conf);
+        _mergeRouteCompile(conf);
         _mergeSourceVersion(conf);
         _mergeTargetVersion(conf);
         _mergeTemplatePathResolver(conf);
@@ -2494,6 +3129,10 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergePingPath(conf);
         _mergeRenderJsonContentTypeIE(conf);
         _mergeRenderJsonOutputCharset(conf);
+        _mergeRenderJsonStreaming(conf);
+        _mergeRenderCsvStreaming(conf);
+        _mergeDevFsWatch(conf);
+        _mergeDevFsWatchDebounce(conf);
         _mergeServerHeader(conf);
         _mergeCookiePrefix(conf);
         _mergeSessionCookieName(conf);
@@ -2504,10 +3143,14 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeSessionSecure(conf);
         _mergeSessionKeyUsername(conf);
         _mergeSessionMapper(conf);
+        _mergeSessionStoreEnabled(conf);
+        _mergeSessionStore(conf);
         _mergeSecret(conf);
         _mergeCacheServiceProvider(conf);
         _mergeUnknownHttpMethodHandler(conf);
         _mergeUploadFileDownload(conf);
+        _mergeUploadFileSizeMax(conf);
+        _mergeUploadStreaming(conf);
 
         Set<String> keys = conf.propKeys();
         if (!keys.isEmpty()) {
@@ -315,6 +315,28 @@ public enum AppConfigKey implements ConfigKey {
      */
     DB_SEQ_GENERATOR("db.seq_gen.impl"),
 
+    /**
+     * `dev.fs_watch.enabled`
+     *
+     * When turned on the source, library and resource folders are watched
+     * through the native file system watch service in dev mode, so that
+     * checking updates on each request does not walk through the folders.
+     * Polling is used when the watch service is not available on the platform
+     *
+     * Default value: `true`
+     */
+    DEV_FS_WATCH("dev.fs_watch.enabled"),
+
+    /**
+     * `dev.fs_watch.debounce`
+     *
+     * Specifies the quiet period in milliseconds to wait for a burst of
+     * file changes to finish before the changes are reported
+     *
+     * Default value: `50`
+     */
+    DEV_FS_WATCH_DEBOUNCE("dev.fs_watch.debounce"),
+
     /**
      * `dsp.token` specifies the name of "double submission protect token"
      *
@@ -328,6 +350,24 @@ public enum AppConfigKey implements ConfigKey {
      */
     ENCODING("encoding"),
 
+    /**
+     * `enhance.cache.enabled`
+     *
+     * When turned on the enhanced app class bytecode is saved on disk in
+     * prod mode, and loaded directly when the app restarts with the same
+     * Act version, enhancers, classes, configuration and routing table
+     *
+     * Default value: `false`
+     */
+    ENHANCE_CACHE("enhance.cache.enabled"),
+
+    /**
+     * `enhance.cache.dir` specifies the folder of the enhanced class cache
+     *
+     * Default value: `.act.enhanced` in the app home dir
+     */
+    ENHANCE_CACHE_DIR("enhance.cache.dir"),
+
     /**
      * `act.enum.resolving.case_sensitive` specifies whether it
      * allow enum resolving for request parameters to ignore case
@@ -336,6 +376,34 @@ public enum AppConfigKey implements ConfigKey {
      */
     ENUM_RESOLVING_CASE_SENSITIVE("enum.resolving.case_sensitive"),
 
+    /**
+     * `act.event.async.workers` specifies the number of threads
+     * dispatching async event listener calls
+     *
+     * Default value: `2`
+     */
+    EVENT_ASYNC_WORKERS("event.async.workers"),
+
+    /**
+     * `act.event.async.queue.size` specifies the capacity of the
+     * async event dispatch queue
+     *
+     * Default value: `1024`
+     */
+    EVENT_ASYNC_QUEUE_SIZE("event.async.queue.size"),
+
+    /**
+     * `act.event.async.overflow` specifies what to do when the async
+     * event dispatch queue is full. Options are:
+     *
+     * * `block` - wait until there is room in the queue
+     * * `drop` - drop the event dispatch
+     * * `caller_runs` - call the listeners in the emitting thread
+     *
+     * Default value: `caller_runs`
+     */
+    EVENT_ASYNC_OVERFLOW("event.async.overflow"),
+
     /**
      * {@code act.fmt.date} specifies the default date format used to
      * lookup/output the date string
@@ -421,6 +489,30 @@ public enum AppConfigKey implements ConfigKey {
      */
     HTTP_MAX_PARAMS("http.params.max"),
 
+    /**
+     * `http.json_body.streaming.enabled`
+     *
+     * When turned on the JSON request body is parsed directly from the
+     * request input stream into the handler parameters and fields, instead
+     * of being read into a string first. Note {@link act.app.ActionContext#body()}
+     * returns `null` for a request body parsed this way
+     *
+     * Default value: `false`
+     */
+    HTTP_JSON_BODY_STREAMING("http.json_body.streaming.enabled"),
+
+    /**
+     * `http.json_body.size.max`
+     *
+     * Specifies the maximum number of bytes of a JSON request body parsed
+     * in streaming mode, see {@link #HTTP_JSON_BODY_STREAMING}. A request
+     * exceeds the limit is rejected with `413 Request Entity Too Large`.
+     * Specifies `0` or negative number to disable the limit
+     *
+     * Default value: `10485760` (10MB)
+     */
+    HTTP_JSON_BODY_SIZE_MAX("http.json_body.size.max"),
+
     /**
      * {@code act.http.port} specifies the default http port the application
      * listen to
@@ -534,6 +626,84 @@ public enum AppConfigKey implements ConfigKey {
      */
     JOB_POOL_SIZE("job.pool.size"),
 
+    /**
+     * `job.cron.misfire.policy` specifies what to do when a cron job
+     * missed its fire time. Options are:
+     *
+     * * `fire_once` - run the job once and continue with the next fire time
+     * * `skip` - skip the missed fire time
+     * * `catch_up` - run the job once for each fire time missed
+     *
+     * Default value: `fire_once`
+     */
+    JOB_CRON_MISFIRE_POLICY("job.cron.misfire.policy"),
+
+    /**
+     * `job.cron.misfire.threshold` specifies in milliseconds how late a
+     * cron job can be fired before it is considered as missed
+     *
+     * Default value: `1000`
+     */
+    JOB_CRON_MISFIRE_THRESHOLD("job.cron.misfire.threshold"),
+
+    /**
+     * `job.scheduler.wheel.enabled`
+     *
+     * When turned on the job manager schedules delayed and periodical jobs
+     * with a hashed timing wheel instead of the `ScheduledThreadPoolExecutor`.
+     * Scheduling and cancelling a job becomes `O(1)` and does not take a
+     * lock, which suits apps that schedule large number of short timeouts.
+     * A job fires within one tick after its deadline
+     *
+     * Default value: `false`
+     */
+    JOB_SCHEDULER_WHEEL("job.scheduler.wheel.enabled"),
+
+    /**
+     * `job.scheduler.wheel.tick` specifies the tick duration in
+     * milliseconds of the job scheduler timing wheel
+     *
+     * Default value: `100`
+     */
+    JOB_SCHEDULER_WHEEL_TICK("job.scheduler.wheel.tick"),
+
+    /**
+     * `job.scheduler.wheel.size` specifies the number of buckets
+     * of the job scheduler timing wheel. The value is rounded up
+     * to a power of two
+     *
+     * Default value: `512`
+     */
+    JOB_SCHEDULER_WHEEL_SIZE("job.scheduler.wheel.size"),
+
+    /**
+     * `job.store.enabled`
+     *
+     * When turned on the jobs scheduled with
+     * {@link act.job.AppJobManager#durableDelay(String, Runnable, long, java.util.concurrent.TimeUnit)}
+     * are written into a journal on disk and scheduled again after the
+     * app restarted. A job interrupted by shutdown is not run again
+     *
+     * Default value: `false`
+     */
+    JOB_STORE("job.store.enabled"),
+
+    /**
+     * `job.store.dir` specifies the folder of the job store journal
+     *
+     * Default value: `job_store` in the app home dir
+     */
+    JOB_STORE_DIR("job.store.dir"),
+
+    /**
+     * `job.store.linger` specifies in milliseconds how long the job store
+     * waits for more records before syncing them to disk. Records queued
+     * while a sync is in progress are always synced together
+     *
+     * Default value: `0`
+     */
+    JOB_STORE_LINGER("job.store.linger"),
+
     /**
      * {@code act.locale} specifies the application default locale
      * <p>Default value: {@link java.util.Locale#getDefault}</p>
@@ -564,6 +734,15 @@ public enum AppConfigKey implements ConfigKey {
      */
     METRIC_ENABLED("metric.enabled"),
 
+    /**
+     * {@code act.metric.histogram.enabled}
+     * Turn on/off latency histogram of timers. When enabled timers
+     * record p50/p99/p999 latency in addition to the accumulated time
+     *
+     * Default value: {@code false}
+     */
+    METRIC_HISTOGRAM_ENABLED("metric.histogram.enabled"),
+
     /**
      * {@code act.modules}
      *
@@ -632,6 +811,28 @@ public enum AppConfigKey implements ConfigKey {
      */
     RENDER_JSON_CONTENT_TYPE_IE("render.json.content_type.ie"),
 
+    /**
+     * `render.json.streaming.enabled`
+     *
+     * When turned on the JSON result of an action handler is serialized
+     * directly into the response output stream with chunked transfer
+     * encoding, instead of being rendered into a string first
+     *
+     * Default value: `false`
+     */
+    RENDER_JSON_STREAMING("render.json.streaming.enabled"),
+
+    /**
+     * `render.csv.streaming.enabled`
+     *
+     * When turned on the CSV result of an action handler is written
+     * row by row directly into the response with chunked transfer
+     * encoding, instead of being rendered into a string first
+     *
+     * Default value: `false`
+     */
+    RENDER_CSV_STREAMING("render.csv.streaming.enabled"),
+
 
     /**
      * {@code resolver.error_template_path.impl} specifies error page (template)
@@ -662,6 +863,17 @@ public enum AppConfigKey implements ConfigKey {
      */
     RESOURCE_PRELOAD_SIZE_LIMIT("resource.preload.size.limit"),
 
+    /**
+     * `route.compile.enabled`
+     *
+     * Turn on/off compiling the route table into a read only routing engine
+     * once app started. The compiled router does a single pass on the URL path
+     * chars and use regex only for path segments that really need it.
+     *
+     * Default value: `true`
+     */
+    ROUTE_COMPILE("route.compile.enabled"),
+
     /**
      * {@code scan_package}
      * Specify the app package in which all classes is subject
@@ -673,6 +885,34 @@ public enum AppConfigKey implements ConfigKey {
      */
     SCAN_PACKAGE("scan_package"),
 
+    /**
+     * `scan.index.enabled`
+     *
+     * When turned on the results of {@link act.app.IndexableByteCodeScanner}s
+     * on the class bytecode scanned at start up, i.e. not the sources compiled
+     * in dev mode, are saved into `.act.scan-index` file in the app home dir,
+     * keyed by the checksum of class bytecode. When the app restarts the results
+     * of an unchanged class are restored from the index. A class is not visited
+     * at all if all scanners interested in the class are indexable and have
+     * been restored. The job and mailer meta info is restored from the index,
+     * while commanders and classes depending on other classes are scanned again,
+     * and app classes are always visited by the controller scanner
+     *
+     * Default value: `false`
+     */
+    SCAN_INDEX("scan.index.enabled"),
+
+    /**
+     * `scan.parallelism` specifies the number of threads reading class
+     * bytecode ahead of the bytecode scanners at app startup. The scanners
+     * are still called one class after another in the same order, thus the
+     * scan result does not depend on this setting. Set it to `1` to read
+     * bytecode in the scanning thread
+     *
+     * Default value: the number of available processors
+     */
+    SCAN_PARALLELISM("scan.parallelism"),
+
     /**
      * {@code secret}
      * Specifies the secret key the application used to do general
@@ -749,6 +989,24 @@ public enum AppConfigKey implements ConfigKey {
      */
     SESSION_SECURE("session.secure.enabled"),
 
+    /**
+     * `session.store.enabled` specifies whether session state shall be kept
+     * in a server side {@link act.util.SessionStore}. When enabled the session
+     * cookie carries only the signed session ID
+     *
+     * Default value: `false`
+     */
+    SESSION_STORE_ENABLED("session.store.enabled"),
+
+    /**
+     * `session.store.impl` specifies the implementation of {@link act.util.SessionStore}.
+     * Use {@link act.util.SessionStore.CacheSessionStore} to keep session state in the
+     * session cache service, see {@link #CACHE_NAME_SESSION}
+     *
+     * Default value: {@link act.util.SessionStore.InMemorySessionStore}
+     */
+    SESSION_STORE("session.store.impl"),
+
     /**
      * {@code act.source.version} specifies the java version
      * of the src code. This configuration is used only
@@ -783,6 +1041,27 @@ public enum AppConfigKey implements ConfigKey {
      */
     UPLOAD_FILE_DOWNLOAD("upload.file.download.enabled"),
 
+    /**
+     * `upload.file.size.max`
+     *
+     * Specifies the maximum number of bytes of a single upload file.
+     * Specifies `0` or negative number to disable the limit
+     *
+     * Default value: `-1`
+     */
+    UPLOAD_FILE_SIZE_MAX("upload.file.size.max"),
+
+    /**
+     * `upload.streaming.enabled`
+     *
+     * When turned on the multipart parser pipes the upload file content
+     * directly into the upload file storage instead of buffering it in
+     * memory or a temporary file first
+     *
+     * Default value: `false`
+     */
+    UPLOAD_STREAMING("upload.streaming.enabled"),
+
     /**
      * `act.url.context` specifies the app URL context.
      *
@@ -98,6 +98,17 @@ public abstract class Config<E extends ConfigKey> extends DestroyableBase {
         return Integer.parseInt(S.string(retVal));
     }
 
+    public Long getLong(ConfigKey key) {
+        Object retVal = get(key);
+        if (null == retVal) {
+            return null;
+        }
+        if (retVal instanceof Number) {
+            return ((Number) retVal).longValue();
+        }
+        return Long.parseLong(S.string(retVal));
+    }
+
     boolean hasConfiguration(ConfigKey key) {
         Object o = data.get(key);
         if (null != o && NULL != o) {
@@ -908,6 +908,9 @@ public @interface Controller {
             } else if (v instanceof ISObject) {
                 return inferResult((ISObject) v, context);
             } else if (v instanceof Map) {
+                if (context.config().renderJsonStreaming()) {
+                    return new StreamingRenderJSON(H.Status.OK, v, null, context);
+                }
                 return RenderJSON.of(v);
             } else {
                 if (context.acceptJson()) {
@@ -920,6 +923,9 @@ public @interface Controller {
                     }
                     PropertySpec.MetaInfo propertySpec = PropertySpec.MetaInfo.withCurrent(meta, context);
                     try {
+                        if (context.config().renderJsonStreaming()) {
+                            return new StreamingRenderJSON(status, v, propertySpec, context);
+                        }
                         if (null == propertySpec) {
                             return RenderJSON.of(status, v);
                         }
@@ -934,6 +940,9 @@ public @interface Controller {
                     return new FilteredRenderXML(v, propertySpec, context);
                 } else if (context.accept() == H.Format.CSV) {
                     PropertySpec.MetaInfo propertySpec = PropertySpec.MetaInfo.withCurrent(meta, context);
+                    if (context.config().renderCsvStreaming()) {
+                        return new StreamingRenderCSV(status, v, propertySpec, context);
+                    }
                     return RenderCSV.get(status, v, propertySpec, context);
                 } else {
                     String s = meta.returnType().getDescriptor().startsWith("[") ? $.toString2(v) : v.toString();
@@ -57,7 +57,8 @@ class ResultClassLookup {
                     Accepted.class, Created.class, NoResult.class, Redirect.class, RenderTemplate.class,
                     RenderAny.class, ZXingResult.class, RenderJsonMap.class, RenderJSON.class,
                     RenderContent.class, RenderXML.class, RenderCSV.class, RenderHtml.class,
-                    FilteredRenderJSON.class, FilteredRenderXML.class, RenderText.class
+                    FilteredRenderJSON.class, FilteredRenderXML.class, RenderText.class,
+                    StreamingRenderJSON.class, StreamingRenderCSV.class
             );
         } else {
             resultNode.visitPublicSubTreeNodes(new $.Visitor<ClassNode>() {
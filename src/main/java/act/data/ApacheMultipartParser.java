@@ -21,6 +21,7 @@ package act.data;
  */
 
 import act.app.ActionContext;
+import act.conf.AppConfig;
 import act.util.UploadFileStorageService;
 import org.apache.commons.fileupload.*;
 import org.apache.commons.fileupload.disk.DiskFileItem;
@@ -30,6 +31,7 @@ import org.apache.commons.io.FileCleaningTracker;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.osgl.exception.UnexpectedException;
+import org.osgl.exception.UnexpectedIOException;
 import org.osgl.http.H;
 import org.osgl.storage.ISObject;
 import org.osgl.util.IO;
@@ -575,10 +577,34 @@ public class ApacheMultipartParser extends RequestBodyParser {
         H.Request request = context.req();
         InputStream body = request.inputStream();
         Map<String, String[]> result = new HashMap<String, String[]>();
+        AppConfig config = context.config();
+        boolean streaming = config.uploadStreamingEnabled();
+        long itemSizeMax = config.uploadFileSizeMax();
+        if (itemSizeMax <= 0) {
+            itemSizeMax = fileSizeMax;
+        }
         try {
-            FileItemIteratorImpl iter = new FileItemIteratorImpl(body, request.header("content-type"), request.characterEncoding());
+            FileItemIteratorImpl iter = new FileItemIteratorImpl(body, request.header("content-type"), request.characterEncoding(), itemSizeMax);
             while (iter.hasNext()) {
                 FileItemStream item = iter.next();
+                if (streaming && !item.isFormField()) {
+                    // pipe the part body into the upload storage directly
+                    ISObject obj;
+                    try {
+                        obj = UploadFileStorageService.store(item.openStream(), item.getName(), item.getContentType(), context.app());
+                    } catch (UnexpectedIOException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof FileUploadIOException) {
+                            throw (FileUploadException) cause.getCause();
+                        }
+                        throw e;
+                    }
+                    if (null != obj) {
+                        context.addUpload(item.getFieldName(), obj);
+                        MapUtil.mergeValueInMap(result, item.getFieldName(), item.getFieldName());
+                    }
+                    continue;
+                }
                 FileItem fileItem = new AutoFileItem(item, context);
                 try {
                     IO.copy(item.openStream(), fileItem.getOutputStream(), true);
@@ -909,8 +935,8 @@ public class ApacheMultipartParser extends RequestBodyParser {
                 contentType = pContentType;
                 formField = pFormField;
                 InputStream istream = multi.newInputStream();
-                if (fileSizeMax != -1) {
-                    istream = new LimitedInputStream(istream, fileSizeMax) {
+                if (itemSizeMax != -1) {
+                    istream = new LimitedInputStream(istream, itemSizeMax) {
 
                         protected void raiseError(long pSizeMax, long pCount) throws IOException {
                             FileUploadException e = new FileSizeLimitExceededException("The field " + fieldName + " exceeds its maximum permitted " + " size of " + pSizeMax + " characters.", pCount, pSizeMax);
@@ -997,6 +1023,10 @@ public class ApacheMultipartParser extends RequestBodyParser {
          * The multi part stream to process.
          */
         private final MultipartStream multi;
+        /**
+         * The maximum size permitted for a single item. A value of -1 indicates no maximum.
+         */
+        private final long itemSizeMax;
         /**
          * The boundary, which separates the various parts.
          */
@@ -1025,10 +1055,13 @@ public class ApacheMultipartParser extends RequestBodyParser {
         /**
          * Creates a new instance.
          *
+         * @param itemSizeMax the maximum size permitted for a single item, -1 for no maximum
          * @throws FileUploadException An error occurred while parsing the request.
          * @throws IOException         An I/O error occurred.
          */
-        FileItemIteratorImpl(InputStream input, String contentType, String charEncoding) throws FileUploadException, IOException {
+        FileItemIteratorImpl(InputStream input, String contentType, String charEncoding, long itemSizeMax) throws FileUploadException, IOException {
+
+            this.itemSizeMax = itemSizeMax;
 
             if ((null == contentType) || (!contentType.toLowerCase().startsWith(MULTIPART))) {
                 throw new InvalidContentTypeException("the request doesn't contain a " + MULTIPART_FORM_DATA + " or " + MULTIPART_MIXED + " stream, content type header is " + contentType);
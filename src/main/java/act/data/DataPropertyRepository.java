@@ -23,8 +23,10 @@ package act.data;
 import act.app.App;
 import act.app.AppServiceBase;
 import act.util.ActContext;
+import act.util.ComputingCache;
 import act.util.PropertySpec;
 import org.joda.time.*;
+import org.osgl.$;
 import org.osgl.util.C;
 import org.rythmengine.utils.S;
 
@@ -51,11 +53,16 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
     private Set<String> extendedTerminators;
 
     /**
-     * Map a list of property path to class name
+     * Map class to its property path list
      */
-    private Map<String, List<String>> repo = C.newMap();
+    private ComputingCache<Class<?>, List<String>> repo = new ComputingCache<>("property_list", 0, new $.Transformer<Class<?>, List<String>>() {
+        @Override
+        public List<String> transform(Class<?> c) {
+            return buildPropertyList(c);
+        }
+    });
 
-    private OutputFieldsCache outputFieldsCache = new OutputFieldsCache();
+    private OutputFieldsCache outputFieldsCache = new OutputFieldsCache(this);
 
     public DataPropertyRepository(App app) {
         super(app, true);
@@ -67,6 +74,7 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
         extendedTerminators.clear();
         terminators.clear();
         repo.clear();
+        outputFieldsCache.clear();
     }
 
     /**
@@ -74,15 +82,8 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
      * @param c the class
      * @return the property list of the class
      */
-    public synchronized List<String> propertyListOf(Class<?> c) {
-        String cn = c.getName();
-        List<String> ls = repo.get(cn);
-        if (ls != null) {
-            return ls;
-        }
-        ls = buildPropertyList(c);
-        repo.put(cn, ls);
-        return ls;
+    public List<String> propertyListOf(Class<?> c) {
+        return repo.get(c);
     }
 
     public List<String> outputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
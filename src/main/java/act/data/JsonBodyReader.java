@@ -0,0 +1,235 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.alibaba.fastjson.JSONReader;
+import org.osgl.http.H;
+import org.osgl.mvc.result.ErrorResult;
+import org.osgl.util.E;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * Parses JSON request body directly from the request input stream.
+ *
+ * Unlike {@link TextParser} the body is never read into a byte array or
+ * string, it is decoded and tokenized in chunks by fastjson's {@link JSONReader}.
+ */
+public final class JsonBodyReader {
+
+    // the max number of whitespaces skipped when looking ahead
+    private static final int MAX_WHITESPACES = 1024;
+
+    private JsonBodyReader() {
+    }
+
+    /**
+     * Parse JSON from input stream into an object of the type specified.
+     *
+     * If `wrapName` is specified and the JSON content is an array or an object
+     * whose first key is not `wrapName`, then the content is parsed as if it
+     * were `{"wrapName": content}`. This is to support the case when a handler
+     * method has only one parameter, e.g. `public void foo(Foo foo)`, and the
+     * request body is the `foo` content.
+     *
+     * @param is the input stream
+     * @param encoding the character encoding of the stream
+     * @param maxSize the maximum number of bytes allowed, `0` or negative number means no limit
+     * @param wrapName the name used to wrap the JSON content, could be `null`
+     * @param type the target type
+     * @param <T> the generic type of the target
+     * @return the object parsed or `null` if the stream is blank
+     * @throws ErrorResult with `413` status if the stream exceeds the `maxSize`
+     */
+    public static <T> T read(InputStream is, String encoding, long maxSize, String wrapName, Class<T> type) {
+        LimitedInputStream limited = null;
+        if (maxSize > 0) {
+            limited = new LimitedInputStream(is, maxSize);
+            is = limited;
+        }
+        try {
+            return read(is, encoding, wrapName, type);
+        } catch (RuntimeException e) {
+            // fastjson wraps the 413 error raised while it reads the content
+            if (null != limited && limited.exceeded) {
+                throw new ErrorResult(H.Status.valueOf(413));
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T read(InputStream is, String encoding, String wrapName, Class<T> type) {
+        Reader reader = new BufferedReader(new InputStreamReader(is, Charset.forName(encoding)));
+        try {
+            // look ahead the first token and the first key at most
+            reader.mark(2 * MAX_WHITESPACES + (null == wrapName ? 0 : wrapName.length()) + 4);
+            int c = skipWhitespaces(reader);
+            if (c < 0) {
+                return null;
+            }
+            boolean wrap = null != wrapName && needWrap(c, reader, wrapName);
+            reader.reset();
+            if (wrap) {
+                reader = new WrappedReader(reader, "{\"" + wrapName + "\":", "}");
+            }
+            JSONReader jsonReader = new JSONReader(reader);
+            try {
+                return jsonReader.readObject(type);
+            } finally {
+                jsonReader.close();
+            }
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    /**
+     * Check if the JSON content needs to be wrapped. Only the first token and
+     * the first key is looked at
+     */
+    private static boolean needWrap(int first, Reader reader, String wrapName) throws IOException {
+        if ('[' == first) {
+            return true;
+        }
+        if ('{' != first) {
+            return false;
+        }
+        if ('"' != skipWhitespaces(reader)) {
+            return false;
+        }
+        for (int i = 0, len = wrapName.length(); i <= len; ++i) {
+            int c = reader.read();
+            if ('"' == c) {
+                return i < len;
+            }
+            if (i == len || c != wrapName.charAt(i)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static int skipWhitespaces(Reader reader) throws IOException {
+        for (int n = 0; n < MAX_WHITESPACES; ++n) {
+            int c = reader.read();
+            if (c < 0 || !Character.isWhitespace(c)) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads a prefix, then the content of a reader, then a suffix
+     */
+    private static class WrappedReader extends Reader {
+        private final Reader reader;
+        private final String prefix;
+        private final String suffix;
+        private int prefixPos;
+        private int suffixPos = -1;
+
+        WrappedReader(Reader reader, String prefix, String suffix) {
+            this.reader = reader;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (0 == len) {
+                return 0;
+            }
+            if (prefixPos < prefix.length()) {
+                int n = Math.min(len, prefix.length() - prefixPos);
+                prefix.getChars(prefixPos, prefixPos + n, cbuf, off);
+                prefixPos += n;
+                return n;
+            }
+            if (suffixPos < 0) {
+                int n = reader.read(cbuf, off, len);
+                if (n >= 0) {
+                    return n;
+                }
+                suffixPos = 0;
+            }
+            if (suffixPos < suffix.length()) {
+                int n = Math.min(len, suffix.length() - suffixPos);
+                suffix.getChars(suffixPos, suffixPos + n, cbuf, off);
+                suffixPos += n;
+                return n;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Fails with `413 Request Entity Too Large` once more than the
+     * max number of bytes have been read
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+        private boolean exceeded;
+
+        LimitedInputStream(InputStream is, long maxSize) {
+            super(is);
+            this.remaining = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void consumed(int n) {
+            remaining -= n;
+            if (remaining < 0) {
+                exceeded = true;
+                throw new ErrorResult(H.Status.valueOf(413));
+            }
+        }
+    }
+
+}
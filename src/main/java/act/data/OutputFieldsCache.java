@@ -20,16 +20,15 @@ package act.data;
  * #L%
  */
 
-import act.app.App;
 import act.data.util.StringOrPattern;
 import act.util.ActContext;
+import act.util.ComputingCache;
 import act.util.PropertySpec;
 import org.osgl.$;
 import org.osgl.util.C;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -39,7 +38,7 @@ class OutputFieldsCache {
     // 1. excluded - developer declared excluded field list
     // 2. outputs - developer declared output field list
     // 3. component type - the type of the entity where field data get extracted
-    private class K {
+    private static class K {
         Set<String> excluded;
         List<String> outputs;
         Class<?> componentType;
@@ -69,16 +68,29 @@ class OutputFieldsCache {
         }
     }
 
-    private Map<K, List<String>> cache = C.newMap();
+    // the output fields could be specified dynamically, e.g. by request parameters,
+    // so the number of keys is bounded
+    private static final int MAX_SIZE = 2048;
 
-    public List<String> getOutputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
-        K k = new K(spec.excludedFields(context), spec.outputFields(context), componentClass);
-        List<String> outputs = cache.get(k);
-        if (null == outputs) {
-            outputs = calculateOutputs(k);
-            cache.put(k, outputs);
+    private final DataPropertyRepository repo;
+
+    private final ComputingCache<K, List<String>> cache = new ComputingCache<>("output_fields", MAX_SIZE, new $.Transformer<K, List<String>>() {
+        @Override
+        public List<String> transform(K k) {
+            return calculateOutputs(k);
         }
-        return outputs;
+    });
+
+    OutputFieldsCache(DataPropertyRepository repo) {
+        this.repo = repo;
+    }
+
+    public List<String> getOutputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
+        return cache.get(new K(spec.excludedFields(context), spec.outputFields(context), componentClass));
+    }
+
+    void clear() {
+        cache.clear();
     }
 
     List<String> calculateOutputs(K k) {
@@ -90,7 +102,6 @@ class OutputFieldsCache {
         boolean hasPattern = hasPattern(k.outputs, outputs);
         Set<String> excluded = k.excluded;
         if (hasPattern || outputs.isEmpty()) {
-            DataPropertyRepository repo = App.instance().service(DataPropertyRepository.class);
             List<String> allFields = repo.propertyListOf(k.componentType);
             if (!excluded.isEmpty()) {
                 List<String> finalOutputs;
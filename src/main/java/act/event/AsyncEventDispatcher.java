@@ -0,0 +1,183 @@
+package act.event;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.AppThreadFactory;
+import act.job.JobContext;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.MetricPlugin;
+import act.metric.Timer;
+import act.util.ActContext;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static act.app.App.LOGGER;
+
+/**
+ * Dispatches async event listener calls of an {@link EventBus} to a bounded
+ * queue served by dedicated worker threads.
+ *
+ * Workers drain the queue in batches. When the queue is full the
+ * {@link OverflowPolicy} applies. The following metrics are collected:
+ *
+ * * `act:event:async:dispatch` - timer from enqueue to the end of the dispatch
+ * * `act:event:async:queue_full` - counter of dispatch found the queue full
+ * * `act:event:async:dropped` - counter of dispatch dropped
+ * * `act:event:async:caller_runs` - counter of dispatch ran in the emitting thread
+ */
+class AsyncEventDispatcher {
+
+    static final String METRIC_DISPATCH = S.concat(MetricInfo.EVENT_HANDLER, ":async:dispatch");
+    static final String METRIC_QUEUE_FULL = S.concat(MetricInfo.EVENT_HANDLER, ":async:queue_full");
+    static final String METRIC_DROPPED = S.concat(MetricInfo.EVENT_HANDLER, ":async:dropped");
+    static final String METRIC_CALLER_RUNS = S.concat(MetricInfo.EVENT_HANDLER, ":async:caller_runs");
+
+    private static final int BATCH_SIZE = 64;
+
+    private final BlockingQueue<Task> queue;
+    private final OverflowPolicy policy;
+    private final Metric metric;
+    private final Thread[] workers;
+    private volatile boolean shutdown;
+
+    AsyncEventDispatcher(int workers, int queueSize, OverflowPolicy policy) {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.policy = policy;
+        MetricPlugin metricPlugin = Act.metricPlugin();
+        this.metric = null == metricPlugin ? Metric.NULL_METRIC : metricPlugin.metric("act.event");
+        this.workers = new Thread[workers];
+        AppThreadFactory threadFactory = new AppThreadFactory("event-async", true);
+        for (int i = 0; i < workers; ++i) {
+            Thread worker = threadFactory.newThread(new Worker());
+            this.workers[i] = worker;
+            worker.start();
+        }
+    }
+
+    /**
+     * Dispatch the listener calls
+     * @param runnable the listener calls
+     */
+    void dispatch(Runnable runnable) {
+        Task task = new Task(runnable, metric.startTimer(METRIC_DISPATCH));
+        if (shutdown || queue.offer(task)) {
+            return;
+        }
+        metric.countOnce(METRIC_QUEUE_FULL);
+        switch (policy) {
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    metric.countOnce(METRIC_DROPPED);
+                    LOGGER.warn("interrupted while waiting for async event dispatch queue, event dropped");
+                }
+                break;
+            case DROP:
+                metric.countOnce(METRIC_DROPPED);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("async event dispatch queue is full, event dropped");
+                }
+                break;
+            default:
+                metric.countOnce(METRIC_CALLER_RUNS);
+                try {
+                    runnable.run();
+                } finally {
+                    task.timer.stop();
+                }
+        }
+    }
+
+    /**
+     * Returns the number of dispatches waiting in the queue
+     * @return the queue depth
+     */
+    int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the workers and discard dispatches in the queue
+     */
+    void shutdown() {
+        shutdown = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        queue.clear();
+    }
+
+    private static class Task {
+        private final Runnable runnable;
+        private final Timer timer;
+        private final JobContext context;
+
+        Task(Runnable runnable, Timer timer) {
+            this.runnable = runnable;
+            this.timer = timer;
+            this.context = JobContext.initialized() || null != ActContext.Base.currentContext() ? JobContext.copy() : null;
+        }
+
+        void run() {
+            if (null != context) {
+                JobContext.init(context);
+            }
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                LOGGER.error(e, "Error dispatching async event");
+            } finally {
+                if (null != context) {
+                    JobContext.clear();
+                }
+                timer.stop();
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            List<Task> batch = C.newSizedList(BATCH_SIZE);
+            while (!shutdown) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Task task : batch) {
+                    task.run();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+}
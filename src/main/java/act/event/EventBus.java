@@ -26,10 +26,10 @@ import act.app.AppServiceBase;
 import act.app.event.AppEvent;
 import act.app.event.AppEventId;
 import act.app.event.AppEventListener;
+import act.conf.AppConfig;
 import act.event.bytecode.ReflectedSimpleEventListener;
 import act.inject.DependencyInjectionBinder;
 import act.inject.DependencyInjector;
-import act.job.AppJobManager;
 import org.osgl.mvc.result.Result;
 import org.osgl.util.C;
 import org.osgl.util.E;
@@ -41,10 +41,23 @@ import java.lang.reflect.AnnotatedElement;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import static act.app.App.LOGGER;
 
+/**
+ * The event bus of an application.
+ *
+ * Listeners are kept in copy-on-write lists. Emitting an event iterates
+ * the snapshot of the listener list and does not take any lock, and
+ * binding a listener does not block emissions in progress.
+ *
+ * Async listener calls are dispatched through a bounded queue served by
+ * dedicated threads, see {@link act.conf.AppConfigKey#EVENT_ASYNC_WORKERS},
+ * {@link act.conf.AppConfigKey#EVENT_ASYNC_QUEUE_SIZE} and
+ * {@link act.conf.AppConfigKey#EVENT_ASYNC_OVERFLOW}.
+ */
 @ApplicationScoped
 public class EventBus extends AppServiceBase<EventBus> {
 
@@ -52,14 +65,21 @@ public class EventBus extends AppServiceBase<EventBus> {
 
     private final List[] appEventListeners;
     private final List[] asyncAppEventListeners;
-    private final ConcurrentMap<Class<? extends EventObject>, List<ActEventListener>> actEventListeners;
-    private final ConcurrentMap<Class<? extends EventObject>, List<ActEventListener>> asyncActEventListeners;
+    private final ConcurrentMap<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> actEventListeners;
+    private final ConcurrentMap<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> asyncActEventListeners;
     private final ConcurrentMap<AppEventId, AppEvent> appEventLookup;
-    private final ConcurrentMap<Object, List<SimpleEventListener>> adhocEventListeners;
-    private final ConcurrentMap<Object, List<SimpleEventListener>> asyncAdhocEventListeners;
+    private final ConcurrentMap<Object, CopyOnWriteArrayList<SimpleEventListener>> adhocEventListeners;
+    private final ConcurrentMap<Object, CopyOnWriteArrayList<SimpleEventListener>> asyncAdhocEventListeners;
+
+    // guards checking app event emitted state and adding/snapshotting app
+    // event listeners, listeners are never called with this lock held
+    private final Object appEventLock = new Object();
 
     private EventBus onceBus;
 
+    // created on the first async dispatch
+    private volatile AsyncEventDispatcher asyncDispatcher;
+
     private EventBus(App app, boolean once) {
         super(app, true);
         appEventListeners = initAppListenerArray();
@@ -86,6 +106,11 @@ public class EventBus extends AppServiceBase<EventBus> {
         if (null != onceBus) {
             onceBus.releaseResources();
         }
+        AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (null != dispatcher) {
+            dispatcher.shutdown();
+            asyncDispatcher = null;
+        }
         releaseAppEventListeners(appEventListeners);
         releaseAppEventListeners(asyncAppEventListeners);
         releaseActEventListeners(actEventListeners);
@@ -96,35 +121,37 @@ public class EventBus extends AppServiceBase<EventBus> {
     }
 
     @SuppressWarnings("unchecked")
-    private boolean callNowIfEmitted(AppEventId appEventId, AppEventListener l) {
-        if (app().eventEmitted(appEventId)) {
-            try {
-                l.on(appEventLookup.get(appEventId));
-            } catch (Exception e) {
-                LOGGER.warn(e, "error calling event handler");
-            }
-            return true;
+    private void callNow(AppEventId appEventId, AppEventListener l) {
+        try {
+            l.on(appEventLookup.get(appEventId));
+        } catch (Exception e) {
+            LOGGER.warn(e, "error calling event handler");
         }
-        return false;
     }
 
     @SuppressWarnings("unchecked")
     private EventBus _bind(List[] listeners, AppEventId appEventId, AppEventListener l) {
-        if (callNowIfEmitted(appEventId, l)) {
-            return this;
+        // App marks the event emitted before emitting it to the bus, thus
+        // the listener is either in the snapshot taken by the emission or
+        // called here
+        synchronized (appEventLock) {
+            if (!app().eventEmitted(appEventId)) {
+                CopyOnWriteArrayList<AppEventListener> list = (CopyOnWriteArrayList) listeners[appEventId.ordinal()];
+                list.addIfAbsent(l);
+                return this;
+            }
         }
-        List<AppEventListener> list = listeners[appEventId.ordinal()];
-        if (!list.contains(l)) list.add(l);
+        callNow(appEventId, l);
         return this;
     }
 
     @SuppressWarnings("unchecked")
-    public synchronized EventBus bind(final AppEventId appEventId, final AppEventListener l) {
+    public EventBus bind(final AppEventId appEventId, final AppEventListener l) {
         return _bind(appEventListeners, appEventId, l);
     }
 
     @SuppressWarnings("unused")
-    public synchronized EventBus bindAsync(AppEventId appEventId, AppEventListener l) {
+    public EventBus bindAsync(AppEventId appEventId, AppEventListener l) {
         return _bind(asyncAppEventListeners, appEventId, l);
     }
 
@@ -132,7 +159,7 @@ public class EventBus extends AppServiceBase<EventBus> {
     /**
      * Alias of {@link #bind(AppEventId, AppEventListener)}
      */
-    public synchronized EventBus bindSync(AppEventId appEventId, AppEventListener l) {
+    public EventBus bindSync(AppEventId appEventId, AppEventListener l) {
         return bind(appEventId, l);
     }
 
@@ -146,30 +173,32 @@ public class EventBus extends AppServiceBase<EventBus> {
         return false;
     }
 
-    private synchronized EventBus _bind(final ConcurrentMap<Class<? extends EventObject>, List<ActEventListener>> listeners, final Class<? extends EventObject> c, final ActEventListener l, int ttl) {
-        List<ActEventListener> list = listeners.get(c);
+    private EventBus _bind(final ConcurrentMap<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> listeners, final Class<? extends EventObject> c, final ActEventListener l, int ttl) {
+        E.illegalArgumentIf(ttl < 0);
+        if (listOf(listeners, c).addIfAbsent(l) && ttl > 0) {
+            app().jobManager().delay(new Runnable() {
+                @Override
+                public void run() {
+                    _unbind(listeners, c, l);
+                }
+            }, ttl, TimeUnit.SECONDS);
+        }
+        return this;
+    }
+
+    private static <K, T> CopyOnWriteArrayList<T> listOf(ConcurrentMap<K, CopyOnWriteArrayList<T>> listeners, K key) {
+        CopyOnWriteArrayList<T> list = listeners.get(key);
         if (null == list) {
-            list = C.newList();
-            listeners.putIfAbsent(c, list);
-        }
-        if (!list.contains(l)) {
-            list.add(l);
-            E.illegalArgumentIf(ttl < 0);
-            if (ttl > 0) {
-                app().jobManager().delay(new Runnable() {
-                    @Override
-                    public void run() {
-                        synchronized (EventBus.this) {
-                            _unbind(listeners, c, l);
-                        }
-                    }
-                }, ttl, TimeUnit.SECONDS);
+            CopyOnWriteArrayList<T> newList = new CopyOnWriteArrayList<>();
+            list = listeners.putIfAbsent(key, newList);
+            if (null == list) {
+                list = newList;
             }
         }
-        return this;
+        return list;
     }
 
-    private synchronized EventBus _unbind(Map<Class<? extends EventObject>, List<ActEventListener>> listeners, Class<? extends EventObject> c, ActEventListener l) {
+    private EventBus _unbind(Map<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> listeners, Class<? extends EventObject> c, ActEventListener l) {
         List<ActEventListener> list = listeners.get(c);
         if (null != list) {
             list.remove(l);
@@ -179,11 +208,11 @@ public class EventBus extends AppServiceBase<EventBus> {
 
     public EventBus bind(Class<? extends EventObject> c, ActEventListener l) {
         boolean async = isAsync(l.getClass()) || isAsync(c);
-        ConcurrentMap<Class<? extends EventObject>, List<ActEventListener>> listeners = async ? asyncActEventListeners : actEventListeners;
+        ConcurrentMap<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> listeners = async ? asyncActEventListeners : actEventListeners;
         return _bind(listeners, c, l, 0);
     }
 
-    public synchronized EventBus once(Class<? extends EventObject> c, OnceEventListenerBase l) {
+    public EventBus once(Class<? extends EventObject> c, OnceEventListenerBase l) {
         if (null != onceBus) {
             onceBus.bind(c, l);
         } else {
@@ -201,7 +230,7 @@ public class EventBus extends AppServiceBase<EventBus> {
      */
     public EventBus bind(Class<? extends EventObject> c, ActEventListener l, int ttl) {
         boolean async = isAsync(l.getClass()) || isAsync(c);
-        ConcurrentMap<Class<? extends EventObject>, List<ActEventListener>> listeners = async ? asyncActEventListeners : actEventListeners;
+        ConcurrentMap<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> listeners = async ? asyncActEventListeners : actEventListeners;
         return _bind(listeners, c, l, ttl);
     }
 
@@ -241,27 +270,33 @@ public class EventBus extends AppServiceBase<EventBus> {
     }
 
     private <T extends ActEvent> void callOn(final T event, List<? extends ActEventListener> listeners, boolean async) {
-        if (null == listeners) {
+        if (null == listeners || listeners.isEmpty()) {
             return;
         }
-        AppJobManager jobManager = null;
         if (async) {
-            jobManager = app().jobManager();
+            // one dispatch for all listeners of the event, the iterator
+            // of the copy-on-write list is a snapshot of the listeners
+            final Iterator<? extends ActEventListener> snapshot = listeners.iterator();
+            asyncDispatcher().dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    while (snapshot.hasNext()) {
+                        ActEventListener l = snapshot.next();
+                        try {
+                            callOn(event, l);
+                        } catch (RuntimeException e) {
+                            LOGGER.error(e, "Error executing async event listener");
+                        }
+                    }
+                }
+            });
+            return;
         }
         Set<ActEventListener> toBeRemoved = C.newSet();
         for (final ActEventListener l : listeners) {
-            if (!async) {
-                boolean result = callOn(event, l);
-                if (result && once) {
-                    toBeRemoved.add(l);
-                }
-            } else {
-                jobManager.now(new Runnable() {
-                    @Override
-                    public void run() {
-                        callOn(event, l);
-                    }
-                });
+            boolean result = callOn(event, l);
+            if (result && once) {
+                toBeRemoved.add(l);
             }
         }
         if (once && !toBeRemoved.isEmpty()) {
@@ -269,26 +304,53 @@ public class EventBus extends AppServiceBase<EventBus> {
         }
     }
 
+    private AsyncEventDispatcher asyncDispatcher() {
+        AsyncEventDispatcher dispatcher = asyncDispatcher;
+        if (null == dispatcher) {
+            synchronized (appEventLock) {
+                dispatcher = asyncDispatcher;
+                if (null == dispatcher) {
+                    AppConfig config = app().config();
+                    dispatcher = new AsyncEventDispatcher(config.eventAsyncWorkers(), config.eventAsyncQueueSize(), config.eventAsyncOverflow());
+                    asyncDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Returns the number of async event dispatches waiting in the queue
+     * @return the async dispatch queue depth
+     */
+    public int asyncQueueDepth() {
+        AsyncEventDispatcher dispatcher = asyncDispatcher;
+        return null == dispatcher ? 0 : dispatcher.queueDepth();
+    }
+
     @SuppressWarnings("unchecked")
     private void callOn(final AppEvent event, List[] appEventListeners, boolean async) {
-        List<AppEventListener> ll = appEventListeners[event.id()];
-        callOn(event, ll, async);
+        List<AppEventListener> snapshot;
+        synchronized (appEventLock) {
+            snapshot = new ArrayList<>(appEventListeners[event.id()]);
+        }
+        callOn(event, snapshot, async);
     }
 
-    private void callOn(ActEvent event, Map<Class<? extends EventObject>, List<ActEventListener>> listeners, boolean async) {
+    private void callOn(ActEvent event, Map<Class<? extends EventObject>, CopyOnWriteArrayList<ActEventListener>> listeners, boolean async) {
         List<ActEventListener> list = listeners.get(event.eventType());
         callOn(event, list, async);
     }
 
-    public synchronized EventBus emit(AppEventId eventId) {
+    public EventBus emit(AppEventId eventId) {
         return emit(appEventLookup.get(eventId));
     }
 
-    public synchronized EventBus trigger(AppEventId eventId) {
+    public EventBus trigger(AppEventId eventId) {
         return emit(eventId);
     }
 
-    public synchronized EventBus emit(final AppEvent event) {
+    public EventBus emit(final AppEvent event) {
         if (isDestroyed()) {
             return this;
         }
@@ -297,15 +359,15 @@ public class EventBus extends AppServiceBase<EventBus> {
         return this;
     }
 
-    public synchronized EventBus trigger(final AppEvent event) {
+    public EventBus trigger(final AppEvent event) {
         return emit(event);
     }
 
-    public synchronized EventBus emitAsync(AppEventId eventId) {
+    public EventBus emitAsync(AppEventId eventId) {
         return emitAsync(appEventLookup.get(eventId));
     }
 
-    public synchronized EventBus emitAsync(final AppEvent event) {
+    public EventBus emitAsync(final AppEvent event) {
         if (isDestroyed()) {
             return this;
         }
@@ -314,19 +376,19 @@ public class EventBus extends AppServiceBase<EventBus> {
         return this;
     }
 
-    public synchronized EventBus triggerAsync(final AppEvent event) {
+    public EventBus triggerAsync(final AppEvent event) {
         return emitAsync(event);
     }
 
-    public synchronized EventBus emitSync(AppEventId eventId) {
+    public EventBus emitSync(AppEventId eventId) {
         return emitSync(appEventLookup.get(eventId));
     }
 
-    public synchronized EventBus triggerSync(AppEventId eventId) {
+    public EventBus triggerSync(AppEventId eventId) {
         return emitSync(eventId);
     }
 
-    public synchronized EventBus emitSync(AppEvent event) {
+    public EventBus emitSync(AppEvent event) {
         if (isDestroyed()) {
             return this;
         }
@@ -335,11 +397,11 @@ public class EventBus extends AppServiceBase<EventBus> {
         return this;
     }
 
-    public synchronized EventBus triggerSync(AppEvent event) {
+    public EventBus triggerSync(AppEvent event) {
         return emitSync(event);
     }
 
-    public synchronized EventBus emitSync(final ActEvent event) {
+    public EventBus emitSync(final ActEvent event) {
         if (isDestroyed()) {
             return this;
         }
@@ -419,15 +481,8 @@ public class EventBus extends AppServiceBase<EventBus> {
         return emitAsync(event);
     }
 
-    private EventBus _bind(ConcurrentMap<Object, List<SimpleEventListener>> listeners, Object event, SimpleEventListener l) {
-        List<SimpleEventListener> list = listeners.get(event);
-        if (null == list) {
-            list = new ArrayList<>();
-            listeners.putIfAbsent(event, list);
-        }
-        if (!list.contains(l)) {
-            list.add(l);
-        }
+    private EventBus _bind(ConcurrentMap<Object, CopyOnWriteArrayList<SimpleEventListener>> listeners, Object event, SimpleEventListener l) {
+        listOf(listeners, event).addIfAbsent(l);
         return this;
     }
 
@@ -457,27 +512,24 @@ public class EventBus extends AppServiceBase<EventBus> {
         if (null == listeners) {
             return false;
         }
-        AppJobManager jobManager = null;
-        if (async) {
-            jobManager = app().jobManager();
-        }
         boolean hasListener = !listeners.isEmpty();
         if (!hasListener) {
             return false;
         }
-        // copy the list to avoid ConcurrentModificationException
-        listeners = C.list(listeners);
-        for (final SimpleEventListener l : listeners) {
-            if (!async) {
-                callOn(l, args);
-            } else {
-                jobManager.now(new Runnable() {
-                    @Override
-                    public void run() {
-                        l.invoke(args);
+        if (async) {
+            final Iterator<? extends SimpleEventListener> snapshot = listeners.iterator();
+            asyncDispatcher().dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    while (snapshot.hasNext()) {
+                        callOn(snapshot.next(), args);
                     }
-                });
-            }
+                }
+            });
+            return true;
+        }
+        for (SimpleEventListener l : listeners) {
+            callOn(l, args);
         }
         return true;
     }
@@ -533,7 +585,7 @@ public class EventBus extends AppServiceBase<EventBus> {
         int len = ids.length;
         List[] l = new List[len];
         for (int i = 0; i < len; ++i) {
-            l[i] = C.newList();
+            l[i] = new CopyOnWriteArrayList<AppEventListener>();
         }
         return l;
     }
@@ -547,7 +599,7 @@ public class EventBus extends AppServiceBase<EventBus> {
         }
     }
 
-    private void releaseActEventListeners(Map<?, List<ActEventListener>> listeners) {
+    private void releaseActEventListeners(Map<?, CopyOnWriteArrayList<ActEventListener>> listeners) {
         for (List<ActEventListener> l : listeners.values()) {
             Destroyable.Util.destroyAll(l, ApplicationScoped.class);
             l.clear();
@@ -555,7 +607,7 @@ public class EventBus extends AppServiceBase<EventBus> {
         listeners.clear();
     }
 
-    private void releaseAdhocEventListeners(Map<Object, List<SimpleEventListener>> listeners) {
+    private void releaseAdhocEventListeners(Map<Object, CopyOnWriteArrayList<SimpleEventListener>> listeners) {
         for (List<SimpleEventListener> l : listeners.values()) {
             Destroyable.Util.tryDestroyAll(l, ApplicationScoped.class);
             l.clear();
@@ -0,0 +1,44 @@
+package act.event;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Specifies what to do when the async event dispatch queue is full
+ *
+ * @see act.conf.AppConfigKey#EVENT_ASYNC_OVERFLOW
+ */
+public enum OverflowPolicy {
+    /**
+     * Block the emitting thread until there is room in the queue
+     */
+    BLOCK,
+
+    /**
+     * Drop the dispatch. The drop is counted in the
+     * `act:event:async:dropped` metric
+     */
+    DROP,
+
+    /**
+     * Call the listeners in the emitting thread
+     */
+    CALLER_RUNS
+}
@@ -21,6 +21,7 @@ package act.event.bytecode;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.event.AppEventId;
 import act.asm.AnnotationVisitor;
 import act.asm.MethodVisitor;
@@ -40,7 +41,7 @@ import org.osgl.util.S;
 import java.lang.annotation.Annotation;
 import java.util.List;
 
-public class SimpleEventListenerByteCodeScanner extends AppByteCodeScannerBase {
+public class SimpleEventListenerByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private List<SimpleEventListenerMetaInfo> metaInfoList = C.newList();
 
@@ -54,6 +55,15 @@ public class SimpleEventListenerByteCodeScanner extends AppByteCodeScannerBase {
         return true;
     }
 
+    @Override
+    public byte[] scanResult(String className) {
+        return metaInfoList.isEmpty() ? null : RESCAN;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+    }
+
     @Override
     public ByteCodeVisitor byteCodeVisitor() {
         return new _ByteCodeVisitor();
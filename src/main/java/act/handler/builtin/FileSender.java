@@ -0,0 +1,229 @@
+package act.handler.builtin;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.ResponseImplBase;
+import act.app.ActionContext;
+import act.util.Files;
+import org.osgl.http.H;
+import org.osgl.util.S;
+
+import java.io.File;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Send file content to the response with conditional request (`ETag`,
+ * `Last-Modified`) and single byte range support.
+ *
+ * The file content is sent with {@link ResponseImplBase#sendFile(File, long, long)}
+ * which allows the network layer to transfer the file without copying it
+ * through the heap.
+ */
+public final class FileSender {
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private static final ThreadLocal<DateFormat> HTTP_DATE = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            DateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return format;
+        }
+    };
+
+    private FileSender() {
+    }
+
+    /**
+     * Send a file to the response of the context
+     *
+     * @param file the file to be sent
+     * @param fmt the content type
+     * @param context the action context
+     */
+    public static void send(File file, H.Format fmt, ActionContext context) {
+        H.Request req = context.req();
+        H.Response resp = context.resp();
+        long fileLength = file.length();
+        // HTTP date does not have millisecond
+        long lastModified = file.lastModified() / 1000 * 1000;
+        String etag = etag(fileLength, lastModified);
+        resp.etag(etag);
+        resp.header(H.Header.Names.LAST_MODIFIED, formatDate(lastModified));
+        resp.header(H.Header.Names.ACCEPT_RANGES, "bytes");
+        if (notModified(req, etag, lastModified)) {
+            AlwaysNotModified.INSTANCE.handle(context);
+            return;
+        }
+        resp.contentType(fmt.contentType());
+        long offset = 0;
+        long length = fileLength;
+        String rangeHeader = req.header(H.Header.Names.RANGE);
+        if (null != rangeHeader && ifRangeMatches(req, etag, lastModified)) {
+            long[] range = range(rangeHeader, fileLength);
+            if (UNSATISFIABLE == range) {
+                resp.header(H.Header.Names.CONTENT_RANGE, "bytes */" + fileLength);
+                resp.contentLength(0);
+                resp.status(H.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            } else if (null != range) {
+                offset = range[0];
+                length = range[1] - range[0] + 1;
+                resp.header(H.Header.Names.CONTENT_RANGE, S.concat("bytes ", S.string(range[0]), "-", S.string(range[1]), "/", S.string(fileLength)));
+                resp.status(H.Status.PARTIAL_CONTENT);
+            }
+        }
+        resp.contentLength(length);
+        if (H.Method.HEAD == req.method() || 0 == length) {
+            return;
+        }
+        if (resp instanceof ResponseImplBase) {
+            ((ResponseImplBase) resp).sendFile(file, offset, length);
+        } else {
+            Files.copy(file, offset, length, resp.outputStream());
+        }
+    }
+
+    static String etag(long length, long lastModified) {
+        return S.concat("\"", Long.toHexString(lastModified), "-", Long.toHexString(length), "\"");
+    }
+
+    static String formatDate(long time) {
+        return HTTP_DATE.get().format(new Date(time));
+    }
+
+    static long parseDate(String s) {
+        if (S.blank(s)) {
+            return -1;
+        }
+        try {
+            return HTTP_DATE.get().parse(s.trim()).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    static boolean notModified(H.Request req, String etag, long lastModified) {
+        String ifNoneMatch = req.header(H.Header.Names.IF_NONE_MATCH);
+        if (null != ifNoneMatch) {
+            return etagMatches(ifNoneMatch, etag);
+        }
+        long since = parseDate(req.header(H.Header.Names.IF_MODIFIED_SINCE));
+        return since >= 0 && lastModified <= since;
+    }
+
+    static boolean etagMatches(String header, String etag) {
+        for (String s : header.split(",")) {
+            s = s.trim();
+            if ("*".equals(s)) {
+                return true;
+            }
+            if (s.startsWith("W/")) {
+                s = s.substring(2);
+            }
+            if (s.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean ifRangeMatches(H.Request req, String etag, long lastModified) {
+        String ifRange = req.header(H.Header.Names.IF_RANGE);
+        if (S.blank(ifRange)) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        return parseDate(ifRange) == lastModified;
+    }
+
+    /**
+     * Parse a `Range` header value.
+     *
+     * Only single byte range is supported. Other requests shall be
+     * served with the full content as permitted by RFC 7233
+     *
+     * @param header the range header value
+     * @param length the length of the content
+     * @return the first and last byte position, {@link #UNSATISFIABLE} if the range
+     *         is not satisfiable, or `null` if the header shall be ignored
+     */
+    static long[] range(String header, long length) {
+        header = header.trim();
+        if (!header.startsWith("bytes=") || header.indexOf(',') > 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        long first, last;
+        try {
+            String s1 = spec.substring(0, dash).trim();
+            String s2 = spec.substring(dash + 1).trim();
+            if (s1.isEmpty()) {
+                if (s2.isEmpty()) {
+                    return null;
+                }
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(s2);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                first = Math.max(0, length - suffix);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(s1);
+                if (s2.isEmpty()) {
+                    last = length - 1;
+                } else {
+                    last = Long.parseLong(s2);
+                    if (last < first) {
+                        // syntactically invalid
+                        return null;
+                    }
+                    last = Math.min(last, length - 1);
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (first >= length) {
+            return UNSATISFIABLE;
+        }
+        return new long[]{first, last};
+    }
+
+    static boolean unsatisfiable(long[] range) {
+        return UNSATISFIABLE == range;
+    }
+
+}
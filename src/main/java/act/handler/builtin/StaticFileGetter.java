@@ -27,12 +27,9 @@ import act.handler.builtin.controller.FastRequestHandler;
 import org.osgl.http.H;
 import org.osgl.util.E;
 import org.osgl.util.FastStr;
-import org.osgl.util.IO;
 import org.osgl.util.S;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.InputStream;
 
 public class StaticFileGetter extends FastRequestHandler {
     private File base;
@@ -78,11 +75,14 @@ public class StaticFileGetter extends FastRequestHandler {
                 return;
             }
         }
-        H.Response resp = context.resp();
         fmt = contentType(file.getPath());
-        resp.contentType(fmt.contentType());
-        InputStream is = new BufferedInputStream(IO.is(file));
-        IO.copy(is, context.resp().outputStream());
+        FileSender.send(file, fmt, context);
+    }
+
+    @Override
+    public boolean express(ActionContext context) {
+        // file content is transferred without blocking the IO thread
+        return true;
     }
 
     // for unit test
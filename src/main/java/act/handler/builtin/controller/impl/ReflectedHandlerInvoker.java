@@ -24,8 +24,10 @@ import act.Act;
 import act.app.ActionContext;
 import act.app.App;
 import act.app.AppClassLoader;
+import act.conf.AppConfig;
 import act.controller.Controller;
 import act.controller.meta.*;
+import act.data.JsonBodyReader;
 import act.handler.NonBlock;
 import act.handler.PreventDoubleSubmission;
 import act.handler.builtin.controller.*;
@@ -55,6 +57,7 @@ import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -265,7 +268,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
             return;
         }
         try {
-            JsonDTO dto = JSON.parseObject(patchedJsonBody(context), dtoClass);
+            JsonDTO dto = parseJsonDTO(context, dtoClass);
             context.attribute(jsonDTOKey, dto);
         } catch (JSONException e) {
             if (e.getCause() != null) {
@@ -277,6 +280,21 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         }
     }
 
+    private JsonDTO parseJsonDTO(ActionContext context, Class<? extends JsonDTO> dtoClass) {
+        AppConfig config = context.config();
+        if (config.httpJsonBodyStreaming()) {
+            // take the stream before anything that could parse the body, it might
+            // have been parsed already, e.g. to check CSRF or double submission token
+            InputStream is = context.takeBodyStream();
+            if (null != is) {
+                String wrapName = 1 < fieldsAndParamsCount(context) ? null : singleJsonFieldName(context.nonBodyParamKeys());
+                H.Request req = context.req();
+                return JsonBodyReader.read(is, req.characterEncoding(), config.httpJsonBodySizeMax(), wrapName, dtoClass);
+            }
+        }
+        return JSON.parseObject(patchedJsonBody(context), dtoClass);
+    }
+
     private int fieldsAndParamsCount(ActionContext context) {
         if (fieldsAndParamsCount < 2) {
             return fieldsAndParamsCount;
@@ -295,10 +313,16 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         if (null != singleJsonFieldName) {
             return singleJsonFieldName;
         }
-        Set<String> set = context.paramKeys();
+        return singleJsonFieldName(context.paramKeys());
+    }
+
+    private String singleJsonFieldName(Set<String> paramKeys) {
+        if (null != singleJsonFieldName) {
+            return singleJsonFieldName;
+        }
         for (BeanSpec spec: paramSpecs) {
             String name = spec.name();
-            if (!set.contains(name)) {
+            if (!paramKeys.contains(name)) {
                 return name;
             }
         }
@@ -21,6 +21,7 @@ package act.inject.genie;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.asm.AnnotationVisitor;
 import act.asm.MethodVisitor;
 import act.asm.Type;
@@ -35,7 +36,7 @@ import java.util.Set;
  * The `GenieFactoryFinder` find classes that contains `@org.osgl.genie.annotation.Provides`
  * annotated factory methods
  */
-public class GenieFactoryFinder extends AppByteCodeScannerBase {
+public class GenieFactoryFinder extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private static Set<String> factories = C.newSet();
 
@@ -85,6 +86,20 @@ public class GenieFactoryFinder extends AppByteCodeScannerBase {
         return true;
     }
 
+    @Override
+    protected void reset(String className) {
+        isFactory = false;
+    }
+
+    @Override
+    public byte[] scanResult(String className) {
+        return isFactory ? RESCAN : null;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+    }
+
     static Set<String> factories() {
         return factories;
     }
@@ -21,6 +21,7 @@ package act.inject.genie;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.event.AppEventId;
 import act.util.ByteCodeVisitor;
 import org.osgl.$;
@@ -29,7 +30,7 @@ import org.osgl.$;
  * Find all classes that ends with `Module`, try to register it as
  * Genie module
  */
-public class GenieModuleScanner extends AppByteCodeScannerBase {
+public class GenieModuleScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private boolean shouldRegister;
 
@@ -56,6 +57,15 @@ public class GenieModuleScanner extends AppByteCodeScannerBase {
         }
     }
 
+    @Override
+    public byte[] scanResult(String className) {
+        return shouldRegister ? RESCAN : null;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+    }
+
     @Override
     protected boolean shouldScan(final String className) {
         return className.endsWith("Module");
@@ -26,6 +26,7 @@ import act.app.App;
 import act.app.AppServiceBase;
 import act.app.AppThreadFactory;
 import act.app.event.AppEventId;
+import act.conf.AppConfig;
 import act.event.AppEventListenerBase;
 import act.event.OnceEventListenerBase;
 import act.mail.MailerContext;
@@ -38,13 +39,16 @@ import org.osgl.util.E;
 import org.osgl.util.S;
 import org.rythmengine.utils.Time;
 
+import java.io.*;
 import java.util.EventObject;
 import java.util.Map;
 import java.util.concurrent.*;
 
 public class AppJobManager extends AppServiceBase<AppJobManager> {
 
-    private ScheduledThreadPoolExecutor executor;
+    private ScheduledExecutorService executor;
+    private volatile CronScheduler cronScheduler;
+    private volatile JobStore jobStore;
     private ConcurrentMap<String, _Job> jobs = new ConcurrentHashMap<String, _Job>();
     private ConcurrentMap<String, ScheduledFuture> scheduled = new ConcurrentHashMap<>();
 
@@ -58,6 +62,14 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         for (AppEventId appEventId : AppEventId.values()) {
             createAppEventListener(appEventId);
         }
+        if (app.config().jobStore()) {
+            afterAppStart(new Runnable() {
+                @Override
+                public void run() {
+                    recoverDurableJobs();
+                }
+            });
+        }
     }
 
     @Override
@@ -66,8 +78,16 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
             job.destroy();
         }
         jobs.clear();
+        if (null != cronScheduler) {
+            cronScheduler.destroy();
+        }
         executor.shutdown();
-        executor.getQueue().clear();
+        if (executor instanceof ScheduledThreadPoolExecutor) {
+            ((ScheduledThreadPoolExecutor) executor).getQueue().clear();
+        }
+        if (null != jobStore) {
+            jobStore.close();
+        }
     }
 
     public <T> Future<T> now(Callable<T> callable) {
@@ -96,6 +116,39 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         executor().schedule(wrap(runnable), seconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * Schedule a job that survives app restart.
+     *
+     * The job is written into the job store before this method returns.
+     * If the app is restarted before the job is run, the job is scheduled
+     * again when the app started. A job interrupted by shutdown is not run
+     * again. Scheduling another job with the same ID replaces the existing one
+     *
+     * @param jobId the job ID
+     * @param runnable the job, must be {@link Serializable}
+     * @param delay the delay
+     * @param timeUnit the time unit of the delay
+     */
+    public void durableDelay(String jobId, Runnable runnable, long delay, TimeUnit timeUnit) {
+        E.illegalArgumentIf(!(runnable instanceof Serializable), "durable job must be serializable: %s", runnable.getClass());
+        long dueAt = $.ms() + timeUnit.toMillis(delay);
+        long seq = jobStore().scheduled(jobId, dueAt, serialize(runnable));
+        scheduleDurable(jobId, seq, runnable, dueAt, false);
+    }
+
+    /**
+     * Schedule a job that survives app restart.
+     *
+     * See {@link #durableDelay(String, Runnable, long, TimeUnit)}
+     *
+     * @param jobId the job ID
+     * @param runnable the job, must be {@link Serializable}
+     * @param delay the delay, e.g. `10mn`
+     */
+    public void durableDelay(String jobId, Runnable runnable, String delay) {
+        durableDelay(jobId, runnable, parseTime(delay), TimeUnit.SECONDS);
+    }
+
     public void every(String id, Runnable runnable, String interval) {
         JobTrigger.every(interval).schedule(this, _Job.multipleTimes(id, runnable, this));
     }
@@ -278,20 +331,142 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
     void removeJob(_Job job) {
         String id = job.id();
         jobs.remove(id);
+        CronScheduler cronScheduler = this.cronScheduler;
+        if (null != cronScheduler) {
+            cronScheduler.remove(job);
+        }
         ScheduledFuture future = scheduled.remove(id);
         if (null != future) {
             future.cancel(true);
+            if (future instanceof DurableFuture) {
+                jobStore.done(id, ((DurableFuture) future).seq);
+            }
         }
     }
 
-    ScheduledThreadPoolExecutor executor() {
+    synchronized CronScheduler cronScheduler() {
+        if (null == cronScheduler) {
+            AppConfig config = app().config();
+            cronScheduler = new CronScheduler(executor, config.jobCronMisfirePolicy(), config.jobCronMisfireThreshold());
+        }
+        return cronScheduler;
+    }
+
+    ScheduledExecutorService executor() {
         return executor;
     }
 
+    synchronized JobStore jobStore() {
+        if (null == jobStore) {
+            AppConfig config = app().config();
+            E.illegalStateIf(!config.jobStore(), "job store not enabled, see job.store.enabled");
+            String dir = config.jobStoreDir();
+            File file = null == dir ? new File(app().home(), "job_store") : new File(dir);
+            jobStore = new JobStore(file, config.jobStoreLinger());
+        }
+        return jobStore;
+    }
+
+    /**
+     * Schedule the jobs pending in the job store. A job could have been
+     * replaced, by a job scheduled with the same ID before this is called,
+     * in which case it is not scheduled
+     */
+    void recoverDurableJobs() {
+        JobStore store = jobStore();
+        for (JobStore.Entry entry : store.pending()) {
+            if (!store.isLive(entry.id, entry.seq)) {
+                continue;
+            }
+            Runnable runnable;
+            try {
+                runnable = deserialize(entry.payload);
+            } catch (Exception e) {
+                Act.LOGGER.error(e, "cannot recover durable job: %s", entry.id);
+                store.done(entry.id, entry.seq);
+                continue;
+            }
+            scheduleDurable(entry.id, entry.seq, runnable, entry.dueAt, true);
+        }
+    }
+
+    private void scheduleDurable(final String jobId, final long seq, final Runnable runnable, long dueAt, boolean recovered) {
+        final JobStore store = jobStore;
+        final DurableFuture future = new DurableFuture(seq);
+        Runnable job = wrap(new Runnable() {
+            @Override
+            public void run() {
+                // the job is not run again once it is marked as started
+                if (!scheduled.remove(jobId, future)) {
+                    return;
+                }
+                // a recovered job could have been replaced before it was registered
+                if (!store.isLive(jobId, seq)) {
+                    return;
+                }
+                store.started(jobId, seq);
+                try {
+                    runnable.run();
+                } finally {
+                    store.done(jobId, seq);
+                }
+            }
+        });
+        if (recovered) {
+            // never replace a job scheduled after the app started
+            if (null != scheduled.putIfAbsent(jobId, future)) {
+                return;
+            }
+        } else {
+            ScheduledFuture replaced = scheduled.put(jobId, future);
+            if (null != replaced) {
+                replaced.cancel(true);
+            }
+        }
+        future.delegate = executor().schedule(job, Math.max(0, dueAt - $.ms()), TimeUnit.MILLISECONDS);
+    }
+
+    private byte[] serialize(Runnable runnable) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            oos.writeObject(runnable);
+            oos.close();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    private Runnable deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        final ClassLoader classLoader = app().classLoader();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        };
+        try {
+            return (Runnable) ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
     private void initExecutor(App app) {
-        int poolSize = app.config().jobPoolSize();
-        executor = new ScheduledThreadPoolExecutor(poolSize, new AppThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
-        //JDK1.7 API: executor.setRemoveOnCancelPolicy(true);
+        AppConfig config = app.config();
+        int poolSize = config.jobPoolSize();
+        if (config.jobSchedulerWheel()) {
+            int tick = config.jobSchedulerWheelTick();
+            executor = new HashedWheelScheduler("jobs", poolSize, tick, TimeUnit.MILLISECONDS, config.jobSchedulerWheelSize());
+        } else {
+            executor = new ScheduledThreadPoolExecutor(poolSize, new AppThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
+            //JDK1.7 API: executor.setRemoveOnCancelPolicy(true);
+        }
     }
 
     private void createAppEventListener(AppEventId appEventId) {
@@ -301,6 +476,59 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         app().eventBus().bind(appEventId, new _AppEventListener(jobId, job));
     }
 
+    /**
+     * Marks a scheduled durable job, and delegates to the future
+     * returned by the executor
+     */
+    private static class DurableFuture implements ScheduledFuture<Object> {
+        private final long seq;
+        private volatile ScheduledFuture<?> delegate;
+
+        DurableFuture(long seq) {
+            this.seq = seq;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return delegate.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return delegate.compareTo(o);
+        }
+
+        // the delegate is not set yet if cancelled while being scheduled,
+        // in which case the job is skipped as it is no longer registered
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            ScheduledFuture<?> delegate = this.delegate;
+            return null != delegate && delegate.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            ScheduledFuture<?> delegate = this.delegate;
+            return null != delegate && delegate.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            ScheduledFuture<?> delegate = this.delegate;
+            return null != delegate && delegate.isDone();
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            return delegate.get();
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.get(timeout, unit);
+        }
+    }
+
     private static class _AppEventListener extends AppEventListenerBase {
         private Runnable worker;
         _AppEventListener(String id, Runnable worker) {
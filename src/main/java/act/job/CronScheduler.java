@@ -0,0 +1,272 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.MetricPlugin;
+import fc.cron.CronExpression;
+import org.joda.time.DateTime;
+import org.osgl.$;
+import org.osgl.util.S;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Schedules cron jobs of the {@link AppJobManager}.
+ *
+ * Jobs sharing the same cron expression are put into one group, which
+ * compute the next fire time once and fire all jobs with one timer. A
+ * group schedules the next fire time by itself, so a long running job
+ * does not delay the other jobs in the group. A job is not started again
+ * while the previous execution is still running.
+ *
+ * A fire time is missed when the group is fired later than the misfire
+ * threshold, or the job is still running. What to do with it is decided
+ * by the {@link MisfirePolicy}. Misfires are counted in the
+ * `act:job:cron:misfire` metric.
+ */
+class CronScheduler {
+
+    static final String METRIC_MISFIRE = S.concat(MetricInfo.JOB_HANDLER, ":cron:misfire");
+
+    static final int MAX_CATCH_UP = 100;
+
+    private static final int MAX_COMPILED = 1024;
+
+    private static final ConcurrentMap<String, CronExpression> compiled = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor;
+    private final MisfirePolicy policy;
+    private final long threshold;
+    private final Metric metric;
+    private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Group> groupsByJob = new ConcurrentHashMap<>();
+
+    CronScheduler(ScheduledExecutorService executor, MisfirePolicy policy, long misfireThreshold) {
+        this.executor = $.notNull(executor);
+        this.policy = $.notNull(policy);
+        this.threshold = misfireThreshold;
+        MetricPlugin metricPlugin = Act.metricPlugin();
+        this.metric = null == metricPlugin ? Metric.NULL_METRIC : metricPlugin.metric("act.job");
+    }
+
+    /**
+     * Returns the compiled cron expression. Compiled expressions are shared
+     * among jobs and apps
+     *
+     * @param expression the cron expression
+     * @return the compiled expression
+     */
+    static CronExpression compile(String expression) {
+        String key = normalize(expression);
+        CronExpression cron = compiled.get(key);
+        if (null == cron) {
+            cron = new CronExpression(key);
+            if (compiled.size() > MAX_COMPILED) {
+                compiled.clear();
+            }
+            compiled.put(key, cron);
+        }
+        return cron;
+    }
+
+    void schedule(String expression, _Job job) {
+        String key = normalize(expression);
+        while (true) {
+            Group group = groups.get(key);
+            if (null == group) {
+                Group newGroup = new Group(key);
+                group = groups.putIfAbsent(key, newGroup);
+                if (null == group) {
+                    group = newGroup;
+                }
+            }
+            if (group.add(job)) {
+                groupsByJob.put(job.id(), group);
+                return;
+            }
+            // the group has just been removed as the last job left
+            groups.remove(key, group);
+        }
+    }
+
+    void remove(_Job job) {
+        Group group = groupsByJob.remove(job.id());
+        if (null != group) {
+            group.remove(job);
+        }
+    }
+
+    void destroy() {
+        for (Group group : groups.values()) {
+            group.cancel();
+        }
+        groups.clear();
+        groupsByJob.clear();
+    }
+
+    /**
+     * Returns number of fire times to run when the group is fired
+     *
+     * @param cron the cron expression
+     * @param fireTime the scheduled fire time
+     * @param now the current time
+     * @return number of runs
+     */
+    int runs(CronExpression cron, long fireTime, long now) {
+        if (now - fireTime <= threshold) {
+            return 1;
+        }
+        metric.countOnce(METRIC_MISFIRE);
+        switch (policy) {
+            case SKIP:
+                return 0;
+            case CATCH_UP:
+                int runs = 1;
+                DateTime next = cron.nextTimeAfter(new DateTime(fireTime));
+                while (runs < MAX_CATCH_UP && next.getMillis() <= now) {
+                    runs++;
+                    next = cron.nextTimeAfter(next);
+                }
+                return runs;
+            default:
+                return 1;
+        }
+    }
+
+    private static String normalize(String expression) {
+        return expression.trim().replaceAll("\\s+", " ");
+    }
+
+    private class Group implements Runnable {
+        private final String key;
+        private final CronExpression cron;
+        private final List<Entry> entries = new ArrayList<>();
+        private ScheduledFuture<?> future;
+        private long fireTime;
+        private boolean removed;
+
+        Group(String key) {
+            this.key = key;
+            this.cron = compile(key);
+        }
+
+        synchronized boolean add(_Job job) {
+            if (removed) {
+                return false;
+            }
+            entries.add(new Entry(job));
+            if (null == future) {
+                scheduleNext($.ms());
+            }
+            return true;
+        }
+
+        synchronized void remove(_Job job) {
+            for (int i = entries.size() - 1; i >= 0; --i) {
+                if (entries.get(i).job == job) {
+                    entries.remove(i);
+                }
+            }
+            if (entries.isEmpty()) {
+                cancel();
+                groups.remove(key, this);
+            }
+        }
+
+        synchronized void cancel() {
+            removed = true;
+            if (null != future) {
+                future.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Entry> toFire;
+            int runs;
+            synchronized (this) {
+                if (removed) {
+                    return;
+                }
+                long now = $.ms();
+                runs = runs(cron, fireTime, now);
+                toFire = new ArrayList<>(entries);
+                // the timer could go off a bit earlier than the wall clock
+                scheduleNext(Math.max(now, fireTime));
+            }
+            if (runs > 0) {
+                for (Entry entry : toFire) {
+                    entry.fire(runs);
+                }
+            }
+        }
+
+        private void scheduleNext(long after) {
+            fireTime = cron.nextTimeAfter(new DateTime(after)).getMillis();
+            try {
+                future = executor.schedule(this, fireTime - $.ms(), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // job manager is shutting down
+                removed = true;
+            }
+        }
+    }
+
+    private class Entry implements Runnable {
+        private final _Job job;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile int runs;
+
+        Entry(_Job job) {
+            this.job = job;
+        }
+
+        void fire(int runs) {
+            if (!running.compareAndSet(false, true)) {
+                metric.countOnce(METRIC_MISFIRE);
+                return;
+            }
+            this.runs = runs;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                running.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < runs && !job.isDestroyed(); ++i) {
+                    job.run();
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+    }
+}
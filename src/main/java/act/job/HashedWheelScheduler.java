@@ -0,0 +1,443 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.AppThreadFactory;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.MetricPlugin;
+import act.metric.MetricStore;
+import act.metric.Timer;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A {@link ScheduledExecutorService} backed by a hashed timing wheel.
+ *
+ * Scheduling and cancelling a task is `O(1)`: the calling thread only puts
+ * the task into a lock free queue, and a single ticker thread moves the
+ * tasks into the wheel buckets, expires the bucket of the current tick and
+ * hands the expired tasks over to the worker pool. Thus the ticker never
+ * runs job code and a slow job does not delay other timers.
+ *
+ * The price is precision: a task fires within one tick after its deadline.
+ * Tasks submitted through {@link #execute(Runnable)} go to the worker pool
+ * directly.
+ *
+ * When metric is enabled the time elapsed between the deadline and the
+ * start of a task is recorded into the `act:job:wheel:lateness` timer
+ */
+class HashedWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    static final String METRIC_LATENESS = S.concat(MetricInfo.JOB_HANDLER, ":wheel:lateness");
+
+    private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+    private final long tickNs;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+    private final Queue<Task<?>> inbox = new ConcurrentLinkedQueue<>();
+    private final Queue<Task<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final ThreadPoolExecutor workers;
+    private final Thread ticker;
+    private final MetricStore metricStore;
+    private volatile boolean shutdown;
+
+    // accessed by ticker thread only
+    private long tick;
+
+    HashedWheelScheduler(String name, int poolSize, long tick, TimeUnit unit, int wheelSize) {
+        E.illegalArgumentIf(poolSize < 1, "pool size shall be positive number: %s", poolSize);
+        E.illegalArgumentIf(tick < 1, "tick duration shall be positive number: %s", tick);
+        E.illegalArgumentIf(wheelSize < 1 || wheelSize > (1 << 30), "invalid wheel size: %s", wheelSize);
+        this.tickNs = unit.toNanos(tick);
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; ++i) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        MetricPlugin metricPlugin = Act.metricPlugin();
+        Metric metric = null == metricPlugin ? Metric.NULL_METRIC : metricPlugin.metric("act.job");
+        this.metricStore = Metric.NULL_METRIC == metric ? null : metricPlugin.metricStore();
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new AppThreadFactory(name));
+        this.ticker = new AppThreadFactory(name + "-ticker", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        });
+        this.ticker.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        E.NPE(command, unit);
+        return schedule(new Task<Void>(command, null, deadline(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        E.NPE(callable, unit);
+        return schedule(new Task<V>(callable, deadline(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        E.NPE(command, unit);
+        E.illegalArgumentIf(period <= 0, "period shall be positive number: %s", period);
+        return schedule(new Task<Void>(command, null, deadline(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        E.NPE(command, unit);
+        E.illegalArgumentIf(delay <= 0, "delay shall be positive number: %s", delay);
+        return schedule(new Task<Void>(command, null, deadline(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        workers.execute(command);
+    }
+
+    /**
+     * Timers pending in the wheel are discarded
+     */
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        ticker.interrupt();
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        ticker.interrupt();
+        List<Runnable> list = C.newList(workers.shutdownNow());
+        Task<?> task;
+        while (null != (task = inbox.poll())) {
+            list.add(task);
+        }
+        return list;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return workers.isTerminated() && !ticker.isAlive();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!workers.awaitTermination(timeout, unit)) {
+            return false;
+        }
+        long ms = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (ms > 0) {
+            ticker.join(ms);
+        }
+        return !ticker.isAlive();
+    }
+
+    /**
+     * Returns number of timers scheduled but not expired yet
+     * @return the number of pending timers
+     */
+    long pending() {
+        return pending.get();
+    }
+
+    long tickMs() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNs);
+    }
+
+    int wheelSize() {
+        return wheel.length;
+    }
+
+    ThreadPoolExecutor workers() {
+        return workers;
+    }
+
+    private <V> Task<V> schedule(Task<V> task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("scheduler is shut down");
+        }
+        enqueue(task);
+        return task;
+    }
+
+    private void enqueue(Task<?> task) {
+        pending.incrementAndGet();
+        inbox.add(task);
+    }
+
+    private long now() {
+        return System.nanoTime() - startTime;
+    }
+
+    private long deadline(long delay, TimeUnit unit) {
+        // cap the delay so that the deadline never overflows
+        long ns = Math.min(Math.max(0, unit.toNanos(delay)), Long.MAX_VALUE >> 1);
+        return now() + ns;
+    }
+
+    private void loop() {
+        while (!shutdown) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                break;
+            }
+            transferInbox();
+            removeCancelled();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+        inbox.clear();
+        cancelled.clear();
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNs * (tick + 1);
+        while (true) {
+            long current = now();
+            long sleepMs = (deadline - current + 999999) / 1000000;
+            if (sleepMs <= 0) {
+                return current;
+            }
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                if (shutdown) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void transferInbox() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; ++i) {
+            Task<?> task = inbox.poll();
+            if (null == task) {
+                return;
+            }
+            if (task.isCancelled()) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long expireAt = task.deadline / tickNs;
+            task.rounds = (expireAt - tick) / wheel.length;
+            // put the task already late into the current bucket
+            long ticks = Math.max(expireAt, tick);
+            wheel[(int) (ticks & mask)].add(task);
+        }
+    }
+
+    private void removeCancelled() {
+        Task<?> task;
+        while (null != (task = cancelled.poll())) {
+            Bucket bucket = task.bucket;
+            if (null != bucket) {
+                bucket.remove(task);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void dispatch(Task<?> task) {
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    private void recordLateness(long ns) {
+        if (null != metricStore && ns > 0) {
+            metricStore.countOnce(METRIC_LATENESS);
+            metricStore.onTimerStop(new Lateness(ns));
+        }
+    }
+
+    /*
+     * A double linked list of tasks. Accessed by the ticker thread only
+     */
+    private final class Bucket {
+        private Task<?> head;
+        private Task<?> tail;
+
+        void add(Task<?> task) {
+            task.bucket = this;
+            if (null == head) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(Task<?> task) {
+            Task<?> next = task.next;
+            if (null != task.prev) {
+                task.prev.next = next;
+            }
+            if (null != next) {
+                next.prev = task.prev;
+            }
+            if (task == head) {
+                head = next;
+            }
+            if (task == tail) {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        void expire(long deadline) {
+            Task<?> task = head;
+            while (null != task) {
+                Task<?> next = task.next;
+                if (task.isCancelled()) {
+                    remove(task);
+                    pending.decrementAndGet();
+                } else if (task.rounds <= 0 && task.deadline <= deadline) {
+                    remove(task);
+                    pending.decrementAndGet();
+                    dispatch(task);
+                } else {
+                    task.rounds--;
+                }
+                task = next;
+            }
+        }
+    }
+
+    private final class Task<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        // positive: fixed rate; negative: fixed delay; zero: one shot
+        private final long period;
+        private volatile long deadline;
+
+        // accessed by ticker thread only
+        private long rounds;
+        private Bucket bucket;
+        private Task<?> prev;
+        private Task<?> next;
+
+        Task(Runnable runnable, V result, long deadline, long period) {
+            super(runnable, result);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        Task(Callable<V> callable, long deadline) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return 0 != period;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - now(), NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o == this) {
+                return 0;
+            }
+            long diff = getDelay(NANOSECONDS) - o.getDelay(NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+
+        @Override
+        public void run() {
+            recordLateness(now() - deadline);
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset() && !shutdown) {
+                deadline = period > 0 ? deadline + period : now() - period;
+                enqueue(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean done = super.cancel(mayInterruptIfRunning);
+            if (done) {
+                cancelled.add(this);
+            }
+            return done;
+        }
+    }
+
+    private static class Lateness implements Timer {
+        private final long ns;
+
+        Lateness(long ns) {
+            this.ns = ns;
+        }
+
+        @Override
+        public String name() {
+            return METRIC_LATENESS;
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public long ns() {
+            return ns;
+        }
+    }
+
+}
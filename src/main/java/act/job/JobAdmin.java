@@ -28,7 +28,9 @@ import org.osgl.util.C;
 import org.osgl.util.S;
 
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Provide admin service to act {@link AppJobManager}
@@ -70,8 +72,24 @@ public class JobAdmin {
 
     @Command(value = "act.job.scheduler", help = "Show Job manager scheduler status")
     public String getSchedulerStatus(AppJobManager jobManager) {
-        ScheduledThreadPoolExecutor executor = jobManager.executor();
+        ScheduledExecutorService scheduler = jobManager.executor();
         JSONObject json = new JSONObject();
+        if (scheduler instanceof HashedWheelScheduler) {
+            HashedWheelScheduler wheel = (HashedWheelScheduler) scheduler;
+            ThreadPoolExecutor workers = wheel.workers();
+            json.put("is terminated", wheel.isTerminated());
+            json.put("is shutdown", wheel.isShutdown());
+            json.put("# of pending timers", wheel.pending());
+            json.put("tick (ms)", wheel.tickMs());
+            json.put("wheel size", wheel.wheelSize());
+            json.put("# of runnable in the queue", workers.getQueue().size());
+            json.put("active count", workers.getActiveCount());
+            json.put("# of completed tasks", workers.getCompletedTaskCount());
+            json.put("core pool size", workers.getCorePoolSize());
+            json.put("pool size", workers.getPoolSize());
+            return json.toJSONString();
+        }
+        ScheduledThreadPoolExecutor executor = (ScheduledThreadPoolExecutor) scheduler;
         json.put("is terminating", executor.isTerminating());
         json.put("is terminated", executor.isTerminated());
         json.put("is shutdown", executor.isShutdown());
@@ -0,0 +1,510 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.AppThreadFactory;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * An append only journal of durable jobs.
+ *
+ * Three kinds of records are written for a job:
+ *
+ * * `SCHEDULED` - with the due time and the serialized job
+ * * `STARTED` - written before the job is run
+ * * `DONE` - written after the job is run or cancelled
+ *
+ * Each scheduling of a job gets a sequence number carried by all its
+ * records, so the `STARTED` and `DONE` records of a job replaced by another
+ * one with the same ID do not affect the new job.
+ *
+ * A single writer thread writes the records and forces them to disk. All
+ * records queued during a disk sync are written and synced together, thus
+ * concurrent callers share the cost of one sync. The callers of
+ * {@link #scheduled(String, long, byte[])} and {@link #started(String)}
+ * return after their record is synced, or fail if the record cannot be
+ * written. A failed batch is truncated from the journal.
+ *
+ * When the journal is opened the records are replayed. Jobs scheduled but
+ * not started are {@link #pending() pending} to be scheduled again. Jobs
+ * started but not done could have been run, they are not run again and are
+ * marked as done. Each record carries a checksum, and a torn record at the
+ * end of the journal is dropped.
+ *
+ * The journal is compacted by the writer thread when most of its records
+ * are obsolete.
+ */
+class JobStore implements Closeable {
+
+    private static final Logger logger = LogManager.get(JobStore.class);
+
+    static final String JOURNAL = "jobs.journal";
+
+    private static final byte SCHEDULED = 1;
+    private static final byte STARTED = 2;
+    private static final byte DONE = 3;
+
+    private static final int COMPACT_MIN_RECORDS = 10000;
+
+    /**
+     * A job scheduled but not started
+     */
+    static class Entry {
+        final String id;
+        final long seq;
+        final long dueAt;
+        final byte[] payload;
+
+        Entry(String id, long seq, long dueAt, byte[] payload) {
+            this.id = id;
+            this.seq = seq;
+            this.dueAt = dueAt;
+            this.payload = payload;
+        }
+    }
+
+    private static class Write {
+        final byte type;
+        final String id;
+        final long seq;
+        final byte[] bytes;
+        final Entry entry;
+        final CountDownLatch synced;
+        volatile IOException error;
+
+        Write(byte type, String id, long seq, byte[] bytes, Entry entry, boolean sync) {
+            this.type = type;
+            this.id = id;
+            this.seq = seq;
+            this.bytes = bytes;
+            this.entry = entry;
+            this.synced = sync ? new CountDownLatch(1) : null;
+        }
+    }
+
+    private static final Write CLOSE = new Write((byte) 0, null, 0, null, null, false);
+
+    private final File dir;
+    private final File journal;
+    private final long lingerMs;
+    private final BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+    // scheduled and not started jobs, updated by writer thread after opened
+    private final Map<String, Entry> live = new ConcurrentHashMap<>();
+    private final AtomicLong seq = new AtomicLong();
+    private final List<Entry> pending = C.newList();
+    private final Thread writer;
+    private FileChannel channel;
+    private long records;
+    private volatile boolean closed;
+
+    /**
+     * Open the journal in the folder specified.
+     *
+     * @param dir the folder
+     * @param lingerMs milliseconds to wait for more records before a disk sync
+     */
+    JobStore(File dir, long lingerMs) {
+        this.dir = dir;
+        this.journal = new File(dir, JOURNAL);
+        this.lingerMs = lingerMs;
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw E.ioException("cannot create job store dir: %s", dir);
+        }
+        replay();
+        this.writer = new AppThreadFactory("job-store", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        });
+        this.writer.start();
+    }
+
+    /**
+     * Returns jobs scheduled but not started when the journal was opened
+     * @return the pending jobs
+     */
+    List<Entry> pending() {
+        return C.list(pending);
+    }
+
+    /**
+     * Record a job scheduled, which replaces the job with the same ID
+     *
+     * @return the sequence number of the job
+     */
+    long scheduled(String id, long dueAt, byte[] payload) {
+        long seq = this.seq.incrementAndGet();
+        Entry entry = new Entry(id, seq, dueAt, payload);
+        append(new Write(SCHEDULED, id, seq, encode(SCHEDULED, id, seq, dueAt, payload), entry, true));
+        return seq;
+    }
+
+    void started(String id, long seq) {
+        append(new Write(STARTED, id, seq, encode(STARTED, id, seq, 0, null), null, true));
+    }
+
+    /**
+     * Mark a job as done. This is a no-op once the store is closed
+     *
+     * @param id the job id
+     * @param seq the sequence number of the job
+     */
+    void done(String id, long seq) {
+        append(new Write(DONE, id, seq, encode(DONE, id, seq, 0, null), null, false));
+    }
+
+    /**
+     * Check if a job is scheduled and not started, i.e. it has not been
+     * started, done or replaced by another job with the same ID
+     *
+     * @param id the job id
+     * @param seq the sequence number of the job
+     * @return `true` if the job is to be run
+     */
+    boolean isLive(String id, long seq) {
+        Entry entry = live.get(id);
+        return null != entry && entry.seq == seq;
+    }
+
+    /**
+     * Write the records queued and stop the writer
+     */
+    @Override
+    public void close() {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // no write could be queued after this
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(Write write) {
+        synchronized (queue) {
+            if (closed && null == write.synced) {
+                return;
+            }
+            E.illegalStateIf(closed, "job store closed");
+            queue.add(write);
+        }
+        if (null != write.synced) {
+            try {
+                write.synced.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw E.unexpected(e, "interrupted waiting for job store sync");
+            }
+            if (null != write.error) {
+                throw E.ioException(write.error);
+            }
+        }
+    }
+
+    private void loop() {
+        List<Write> batch = C.newList();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+                if (lingerMs > 0) {
+                    Thread.sleep(lingerMs);
+                }
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            queue.drainTo(batch);
+            try {
+                stop = write(batch);
+            } catch (IOException e) {
+                logger.error(e, "error writing job store: %s", journal);
+                for (Write write : batch) {
+                    write.error = e;
+                    stop = stop || CLOSE == write;
+                }
+            } finally {
+                release(batch);
+                batch.clear();
+            }
+        }
+        // in case the writer is interrupted before CLOSE is reached
+        queue.drainTo(batch);
+        IOException error = new IOException("job store closed");
+        for (Write write : batch) {
+            write.error = error;
+        }
+        release(batch);
+        IO.close(channel);
+    }
+
+    private static void release(List<Write> batch) {
+        for (Write write : batch) {
+            if (null != write.synced) {
+                write.synced.countDown();
+            }
+        }
+    }
+
+    private boolean write(List<Write> batch) throws IOException {
+        boolean stop = false;
+        int size = 0;
+        for (Write write : batch) {
+            if (CLOSE == write) {
+                stop = true;
+            } else {
+                size += write.bytes.length;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Write write : batch) {
+            if (CLOSE != write) {
+                buffer.put(write.bytes);
+            }
+        }
+        buffer.flip();
+        long offset = -1;
+        try {
+            offset = channel.size();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            rollback(offset);
+            throw e;
+        }
+        // only update the live jobs once the records are durable
+        int n = 0;
+        for (Write write : batch) {
+            if (CLOSE != write) {
+                apply(write);
+                n++;
+            }
+        }
+        records += n;
+        if (records > COMPACT_MIN_RECORDS && records > live.size() * 4L) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // the records are written already
+                logger.error(e, "error compacting job store: %s", journal);
+            }
+        }
+        return stop;
+    }
+
+    /**
+     * Remove the part of a failed batch written to the journal, otherwise
+     * the torn record would hide all records after it when replaying
+     */
+    private void rollback(long offset) {
+        if (offset >= 0) {
+            try {
+                channel.truncate(offset);
+                channel.force(false);
+                return;
+            } catch (IOException e) {
+                logger.warn(e, "error truncating job store: %s", journal);
+            }
+        }
+        try {
+            // rewrite the journal with the live jobs, which excludes the failed batch
+            compact();
+        } catch (IOException e) {
+            logger.error(e, "error recovering job store: %s", journal);
+        }
+    }
+
+    private void apply(Write write) {
+        if (SCHEDULED == write.type) {
+            live.put(write.id, write.entry);
+        } else if (isLive(write.id, write.seq)) {
+            live.remove(write.id);
+        }
+    }
+
+    private void replay() {
+        Map<String, Entry> scheduled = C.newMap();
+        Map<String, Long> started = C.newMap();
+        long maxSeq = 0;
+        long validLength = 0;
+        if (journal.exists()) {
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)));
+                while (true) {
+                    int len;
+                    try {
+                        len = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (len < 0 || len > journal.length()) {
+                        break;
+                    }
+                    byte[] body = new byte[len];
+                    long crc;
+                    try {
+                        in.readFully(body);
+                        crc = in.readLong();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (crc != checksum(body)) {
+                        break;
+                    }
+                    validLength += 4 + len + 8;
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                    byte type = record.readByte();
+                    String id = record.readUTF();
+                    long seq = record.readLong();
+                    maxSeq = Math.max(maxSeq, seq);
+                    if (SCHEDULED == type) {
+                        long dueAt = record.readLong();
+                        byte[] payload = new byte[record.readInt()];
+                        record.readFully(payload);
+                        scheduled.put(id, new Entry(id, seq, dueAt, payload));
+                        started.remove(id);
+                    } else if (STARTED == type) {
+                        Entry entry = scheduled.get(id);
+                        // skip the record of a job replaced
+                        if (null != entry && entry.seq == seq) {
+                            scheduled.remove(id);
+                            started.put(id, seq);
+                        }
+                    } else {
+                        Entry entry = scheduled.get(id);
+                        if (null != entry && entry.seq == seq) {
+                            scheduled.remove(id);
+                        }
+                        Long startedSeq = started.get(id);
+                        if (null != startedSeq && startedSeq == seq) {
+                            started.remove(id);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw E.ioException(e);
+            } finally {
+                IO.close(in);
+            }
+            if (validLength < journal.length()) {
+                logger.warn("drop torn records at the end of job store: %s", journal);
+            }
+        }
+        for (String id : started.keySet()) {
+            logger.warn("job [%s] was interrupted by shutdown and will not be run again", id);
+        }
+        seq.set(maxSeq);
+        live.putAll(scheduled);
+        pending.addAll(scheduled.values());
+        // rewrite the journal with live records only, this also removes torn records
+        try {
+            compact();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private void compact() throws IOException {
+        File tmp = new File(dir, JOURNAL + ".tmp");
+        FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            for (Entry entry : live.values()) {
+                ByteBuffer buffer = ByteBuffer.wrap(encode(SCHEDULED, entry.id, entry.seq, entry.dueAt, entry.payload));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(true);
+        } finally {
+            out.close();
+        }
+        java.nio.file.Files.move(tmp.toPath(), journal.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        IO.close(channel);
+        channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = live.size();
+    }
+
+    private static byte[] encode(byte type, String id, long seq, long dueAt, byte[] payload) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64 + (null == payload ? 0 : payload.length));
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(type);
+            out.writeUTF(id);
+            out.writeLong(seq);
+            if (SCHEDULED == type) {
+                out.writeLong(dueAt);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.flush();
+            byte[] bytes = body.toByteArray();
+            ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 12);
+            DataOutputStream recordOut = new DataOutputStream(record);
+            recordOut.writeInt(bytes.length);
+            recordOut.write(bytes);
+            recordOut.writeLong(checksum(bytes));
+            recordOut.flush();
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+}
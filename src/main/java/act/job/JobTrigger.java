@@ -25,8 +25,6 @@ import act.app.event.AppEventId;
 import act.conf.AppConfig;
 import act.event.AppEventListenerBase;
 import fc.cron.CronExpression;
-import org.joda.time.DateTime;
-import org.joda.time.Seconds;
 import org.osgl.$;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.logging.L;
@@ -36,8 +34,8 @@ import org.osgl.util.S;
 import org.rythmengine.utils.Time;
 
 import java.util.EventObject;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static act.app.event.AppEventId.START;
@@ -208,9 +206,11 @@ abstract class JobTrigger {
     }
 
     static class _Cron extends JobTrigger {
+        private String expression;
         private CronExpression cronExpr;
         _Cron(String expression) {
-            cronExpr = new CronExpression(expression);
+            this.expression = expression;
+            cronExpr = CronScheduler.compile(expression);
         }
 
         @Override
@@ -234,17 +234,8 @@ abstract class JobTrigger {
         }
 
         private void delayedSchedule(AppJobManager manager, _Job job) {
-            DateTime now = DateTime.now();
-            // add one seconds to prevent the next time be the current time (now)
-            DateTime next = cronExpr.nextTimeAfter(now.plusSeconds(1));
-            Seconds seconds = Seconds.secondsBetween(now, next);
-            ScheduledFuture future = manager.executor().schedule(job, seconds.getSeconds(), TimeUnit.SECONDS);
-            manager.futureScheduled(job.id(), future);
-        }
-
-        @Override
-        void scheduleFollowingCalls(AppJobManager manager, _Job job) {
-            schedule(manager, job);
+            // the cron scheduler fires the job repeatedly, thus no following calls to schedule
+            manager.cronScheduler().schedule(expression, job);
         }
     }
 
@@ -290,7 +281,7 @@ abstract class JobTrigger {
         }
 
         private void delayedSchedule(AppJobManager manager, _Job job) {
-            ScheduledThreadPoolExecutor executor = manager.executor();
+            ScheduledExecutorService executor = manager.executor();
             ScheduledFuture future = executor.scheduleWithFixedDelay(job, seconds, seconds, TimeUnit.SECONDS);
             manager.futureScheduled(job.id(), future);
         }
@@ -326,7 +317,7 @@ abstract class JobTrigger {
         }
 
         private void delayedSchedule(AppJobManager manager, _Job job) {
-            ScheduledThreadPoolExecutor executor = manager.executor();
+            ScheduledExecutorService executor = manager.executor();
             ScheduledFuture future = executor.scheduleAtFixedRate(job, seconds, seconds, TimeUnit.SECONDS);
             manager.futureScheduled(job.id(), future);
         }
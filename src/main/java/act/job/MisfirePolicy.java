@@ -0,0 +1,45 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Specifies what to do when a cron job missed its fire time, e.g. because
+ * the job scheduler is busy, the process has been suspended or the previous
+ * execution of the job is still running
+ *
+ * @see act.conf.AppConfigKey#JOB_CRON_MISFIRE_POLICY
+ */
+public enum MisfirePolicy {
+    /**
+     * Run the job once and then continue with the next fire time
+     */
+    FIRE_ONCE,
+
+    /**
+     * Skip the missed fire time and wait for the next one
+     */
+    SKIP,
+
+    /**
+     * Run the job once for each fire time missed, up to 100 times
+     */
+    CATCH_UP
+}
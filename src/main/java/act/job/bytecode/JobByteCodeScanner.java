@@ -21,6 +21,7 @@ package act.job.bytecode;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.event.AppEventId;
 import act.asm.AnnotationVisitor;
 import act.asm.MethodVisitor;
@@ -39,6 +40,7 @@ import org.osgl.util.C;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
+import java.io.*;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,11 +48,23 @@ import java.util.List;
 /**
  * Scan class to collect Job class meta info
  */
-public class JobByteCodeScanner extends AppByteCodeScannerBase {
+public class JobByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
+
+    // types of the job annotation values saved into the scan index
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int BOOLEAN = 2;
+    private static final int EVENT = 3;
+    private static final int EVENT_ASYNC = 4;
 
     private JobAnnotationProcessor annotationProcessor;
     private JobClassMetaInfo classInfo;
     private volatile JobClassMetaInfoManager classInfoBase;
+    private boolean found;
+    // the job methods found in the class being scanned
+    private List<JobMethod> jobMethods = C.newList();
+    // registration of a job method depends on the environment
+    private boolean envDependent;
 
     @Override
     protected boolean shouldScan(String className) {
@@ -58,6 +72,139 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
         return true;
     }
 
+    @Override
+    protected void reset(String className) {
+        found = false;
+        jobMethods.clear();
+        envDependent = false;
+    }
+
+    /**
+     * Returns the class meta info and the job registrations of a class
+     * with job methods. The meta info of classes without job methods is
+     * not looked up
+     */
+    @Override
+    public byte[] scanResult(String className) {
+        if (!found) {
+            return null;
+        }
+        if (envDependent) {
+            return RESCAN;
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        try {
+            out.writeUTF(classInfo.type().getInternalName());
+            out.writeUTF(classInfo.superType().getInternalName());
+            out.writeBoolean(classInfo.isAbstract());
+            out.writeInt(jobMethods.size());
+            for (JobMethod jobMethod : jobMethods) {
+                JobMethodMetaInfo info = jobMethod.info;
+                out.writeUTF(info.name());
+                out.writeUTF(info.id());
+                out.writeBoolean(info.isStatic());
+                out.writeInt(jobMethod.paramTypes.size());
+                for (String paramType : jobMethod.paramTypes) {
+                    out.writeUTF(paramType);
+                }
+                out.writeInt(jobMethod.registrations.size());
+                for ($.T2<Class<? extends Annotation>, Object> registration : jobMethod.registrations) {
+                    out.writeUTF(registration._1.getName());
+                    if (!writeValue(out, registration._2)) {
+                        return RESCAN;
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(result));
+        try {
+            JobClassMetaInfo restored = new JobClassMetaInfo();
+            restored.className(in.readUTF());
+            restored.superType(Type.getObjectType(in.readUTF()));
+            if (in.readBoolean()) {
+                restored.setAbstract();
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                String name = in.readUTF();
+                String id = in.readUTF();
+                boolean isStatic = in.readBoolean();
+                List<String> paramTypes = C.newList();
+                for (int j = in.readInt(); j > 0; --j) {
+                    paramTypes.add(in.readUTF());
+                }
+                JobMethodMetaInfo info = new JobMethodMetaInfo(restored, paramTypes);
+                restored.addAction(info);
+                info.name(name).id(id);
+                if (isStatic) {
+                    info.invokeStaticMethod();
+                } else {
+                    info.invokeInstanceMethod();
+                }
+                for (int j = in.readInt(); j > 0; --j) {
+                    Class<? extends Annotation> annotationType = $.classForName(in.readUTF(), JobByteCodeScanner.class.getClassLoader());
+                    annotationProcessor.register(info, annotationType, readValue(in));
+                }
+            }
+            classInfoBase().registerJobMetaInfo(restored);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    /**
+     * Write a job annotation value, e.g. a cron expression or an app event id
+     *
+     * @return `false` if the value is of an unknown type
+     */
+    private static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (null == value) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof AppEventId) {
+            out.writeByte(EVENT);
+            out.writeUTF(((AppEventId) value).name());
+        } else if (value instanceof $.T2 && ((($.T2) value)._1 instanceof AppEventId)) {
+            $.T2<AppEventId, Boolean> t2 = $.cast(value);
+            out.writeByte(EVENT_ASYNC);
+            out.writeUTF(t2._1.name());
+            out.writeBoolean(t2._2);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case BOOLEAN:
+                return in.readBoolean();
+            case EVENT:
+                return AppEventId.valueOf(in.readUTF());
+            case EVENT_ASYNC:
+                return $.T2(AppEventId.valueOf(in.readUTF()), in.readBoolean());
+            default:
+                throw E.unexpected("unknown job annotation value");
+        }
+    }
+
     @Override
     protected void onAppSet() {
         annotationProcessor = new JobAnnotationProcessor(app());
@@ -178,9 +325,14 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
                     info.invokeInstanceMethod();
                 }
 
+                JobMethod jobMethod = new JobMethod(info, paramTypes);
+                jobMethods.add(jobMethod);
                 if (null != aav) {
+                    if (null != eav) {
+                        envDependent = true;
+                    }
                     if (null == eav || eav.matched()) {
-                        aav.doRegistration();
+                        aav.doRegistration(jobMethod);
                     }
                 }
                 super.visitEnd();
@@ -188,6 +340,7 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
 
             private void markRequireScan() {
                 this.requireScan = true;
+                found = true;
             }
 
             private boolean requireScan() {
@@ -231,7 +384,7 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
                     super.visit(name, value);
                 }
 
-                public void doRegistration() {
+                public void doRegistration(JobMethod jobMethod) {
                     for (AnnoInfo info : annoInfos) {
                         Object value = info.value;
                         Object async = info.async;
@@ -241,12 +394,24 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
                             value = async;
                         }
                         annotationProcessor.register(method, info.annotationType, value);
+                        jobMethod.registrations.add($.<Class<? extends Annotation>, Object>T2(info.annotationType, value));
                     }
                 }
             }
         }
     }
 
+    private static class JobMethod {
+        JobMethodMetaInfo info;
+        List<String> paramTypes;
+        List<$.T2<Class<? extends Annotation>, Object>> registrations = C.newList();
+
+        JobMethod(JobMethodMetaInfo info, List<String> paramTypes) {
+            this.info = info;
+            this.paramTypes = paramTypes;
+        }
+    }
+
     private static class AnnoInfo {
         Object value;
         Object async;
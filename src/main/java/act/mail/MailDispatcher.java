@@ -0,0 +1,322 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.AppThreadFactory;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.MetricPlugin;
+import act.metric.Timer;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import javax.mail.*;
+import javax.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deliver mails of a {@link MailerConfig} through a pool of long lived
+ * SMTP connections.
+ *
+ * Messages are put into a bounded queue, the caller blocks when the
+ * queue is full. Each worker thread keeps one connected {@link Transport}
+ * and sends the messages it drained from the queue in a batch over that
+ * connection. The connection is closed once the worker has been idle for
+ * the idle timeout. Failed delivery is retried with exponential backoff
+ * unless the failure is caused by missing or invalid recipient addresses.
+ *
+ * The following metrics are collected:
+ *
+ * * `act:mail:delivery:send` - timer of sending a message over the connection
+ * * `act:mail:delivery:queue` - timer from enqueue to the end of the delivery
+ * * `act:mail:delivery:retry` - counter of delivery retried
+ * * `act:mail:delivery:failed` - counter of delivery failed
+ *
+ * The queue depth is exposed through {@link MailerConfig#mailQueueDepth()}
+ */
+class MailDispatcher {
+
+    private static final Logger logger = LogManager.get(MailDispatcher.class);
+
+    static final String METRIC_SEND = S.concat(MetricInfo.MAILER, ":delivery:send");
+    static final String METRIC_QUEUE = S.concat(MetricInfo.MAILER, ":delivery:queue");
+    static final String METRIC_RETRY = S.concat(MetricInfo.MAILER, ":delivery:retry");
+    static final String METRIC_FAILED = S.concat(MetricInfo.MAILER, ":delivery:failed");
+
+    private final Session session;
+    private final BlockingQueue<Delivery> queue;
+    private final int batchSize;
+    private final int maxRetries;
+    private final long backoff;
+    private final long idleTimeout;
+    private final Metric metric;
+    private final Thread[] workers;
+    private volatile boolean shutdown;
+
+    /**
+     * Construct a dispatcher and start the workers
+     *
+     * @param id the mailer config id, used to name the worker threads
+     * @param session the mail session
+     * @param poolSize number of connections
+     * @param queueSize the capacity of the send queue
+     * @param batchSize max number of messages sent in one batch
+     * @param maxRetries max number of retries of a message
+     * @param backoff the delay in milliseconds before the first retry, doubled for each further retry
+     * @param idleTimeout idle time in milliseconds before a connection is closed
+     */
+    MailDispatcher(String id, Session session, int poolSize, int queueSize, int batchSize, int maxRetries, long backoff, long idleTimeout) {
+        this.session = session;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+        this.idleTimeout = idleTimeout;
+        MetricPlugin metricPlugin = Act.metricPlugin();
+        this.metric = null == metricPlugin ? Metric.NULL_METRIC : metricPlugin.metric("act.mail");
+        this.workers = new Thread[poolSize];
+        AppThreadFactory threadFactory = new AppThreadFactory(S.concat("mailer-", id), true);
+        for (int i = 0; i < poolSize; ++i) {
+            Thread worker = threadFactory.newThread(new Worker());
+            this.workers[i] = worker;
+            worker.start();
+        }
+    }
+
+    /**
+     * Queue the message for delivery. Block if the queue is full
+     *
+     * @param message the message
+     * @return a future of the delivery result
+     */
+    Future<Boolean> submit(MimeMessage message) {
+        Delivery delivery = new Delivery(message, metric.startTimer(METRIC_QUEUE));
+        if (shutdown) {
+            delivery.done(false);
+            return delivery;
+        }
+        try {
+            queue.put(delivery);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("interrupted while waiting for mail queue, mail dropped");
+            delivery.done(false);
+        }
+        return delivery;
+    }
+
+    /**
+     * Returns the number of messages waiting in the queue
+     * @return the queue depth
+     */
+    int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the workers, close the connections and fail the messages in the queue
+     */
+    void shutdown() {
+        shutdown = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        List<Delivery> list = C.newList();
+        queue.drainTo(list);
+        for (Delivery delivery : list) {
+            delivery.done(false);
+        }
+    }
+
+    /**
+     * Returns a future of the result specified
+     *
+     * @param result the result
+     * @return a completed future
+     */
+    static Future<Boolean> done(boolean result) {
+        Delivery delivery = new Delivery(null, null);
+        delivery.done(result);
+        return delivery;
+    }
+
+    // invalid addresses could not be fixed by retrying
+    private static boolean retriable(MessagingException e) {
+        if (e instanceof SendFailedException) {
+            Address[] invalid = ((SendFailedException) e).getInvalidAddresses();
+            return null == invalid || invalid.length == 0;
+        }
+        return true;
+    }
+
+    static class Delivery extends FutureTask<Boolean> {
+        private static final Callable<Boolean> NOOP = new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return false;
+            }
+        };
+
+        private final MimeMessage message;
+        private final Timer timer;
+
+        Delivery(MimeMessage message, Timer timer) {
+            super(NOOP);
+            this.message = message;
+            this.timer = timer;
+        }
+
+        void done(boolean result) {
+            set(result);
+            if (null != timer) {
+                timer.stop();
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+
+        private Transport transport;
+
+        @Override
+        public void run() {
+            List<Delivery> batch = C.newSizedList(batchSize);
+            try {
+                while (!shutdown) {
+                    Delivery first = queue.poll(idleTimeout, TimeUnit.MILLISECONDS);
+                    if (null == first) {
+                        close();
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    checkConnection();
+                    for (int i = 0, n = batch.size(); i < n; ++i) {
+                        Delivery delivery = batch.get(i);
+                        if (shutdown) {
+                            delivery.done(false);
+                        } else {
+                            deliver(delivery);
+                        }
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // shutdown
+            } finally {
+                for (Delivery delivery : batch) {
+                    if (!delivery.isDone()) {
+                        delivery.done(false);
+                    }
+                }
+                close();
+            }
+        }
+
+        private void deliver(Delivery delivery) throws InterruptedException {
+            MimeMessage message = delivery.message;
+            Address[] recipients;
+            try {
+                recipients = message.getAllRecipients();
+            } catch (MessagingException e) {
+                fail(delivery, e);
+                return;
+            }
+            if (null == recipients || 0 == recipients.length) {
+                // retrying won't help
+                fail(delivery, new SendFailedException("No recipient addresses"));
+                return;
+            }
+            for (int attempt = 0; ; ++attempt) {
+                Timer timer = metric.startTimer(METRIC_SEND);
+                try {
+                    connection().sendMessage(message, recipients);
+                    delivery.done(true);
+                    return;
+                } catch (MessagingException e) {
+                    // the connection state is unknown after a failure
+                    close();
+                    if (attempt >= maxRetries || !retriable(e) || shutdown) {
+                        fail(delivery, e);
+                        return;
+                    }
+                    metric.countOnce(METRIC_RETRY);
+                    logger.warn("Error sending email, will retry: %s", e.getMessage());
+                } catch (RuntimeException e) {
+                    close();
+                    fail(delivery, e);
+                    return;
+                } finally {
+                    timer.stop();
+                }
+                try {
+                    Thread.sleep(backoff << attempt);
+                } catch (InterruptedException e) {
+                    delivery.done(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void fail(Delivery delivery, Exception e) {
+            metric.countOnce(METRIC_FAILED);
+            logger.error(e, "Error sending email");
+            delivery.done(false);
+        }
+
+        private Transport connection() throws MessagingException {
+            if (null == transport) {
+                Transport t = session.getTransport("smtp");
+                t.connect();
+                transport = t;
+            }
+            return transport;
+        }
+
+        // the server might have closed the connection while the worker is waiting
+        private void checkConnection() {
+            if (null != transport && !transport.isConnected()) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (null != transport) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    // ignore
+                }
+                transport = null;
+            }
+        }
+    }
+
+}
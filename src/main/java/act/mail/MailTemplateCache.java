@@ -0,0 +1,110 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.util.ComputingCache;
+import act.view.Template;
+import org.osgl.$;
+import org.osgl.http.H;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache the {@link MergedTemplate} by template, locale, format, merge
+ * variables and the values of the other render arguments
+ */
+class MailTemplateCache {
+
+    private static final int MAX_SIZE = 256;
+
+    private final ComputingCache<Key, MergedTemplate> cache = new ComputingCache<>("mail_template", MAX_SIZE, new $.Transformer<Key, MergedTemplate>() {
+        @Override
+        public MergedTemplate transform(Key key) {
+            return MergedTemplate.compile(key.template, key.context, key.vars);
+        }
+    });
+
+    /**
+     * Returns the compiled template
+     *
+     * @param template the template
+     * @param context the mailer context
+     * @param vars the merge variables
+     * @return the compiled template or `null` if the template cannot be compiled
+     */
+    MergedTemplate get(Template template, MailerContext context, List<String> vars) {
+        Key key = new Key(template, context, vars);
+        try {
+            return cache.get(key);
+        } finally {
+            // do not keep the context in the cache
+            key.context = null;
+        }
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    private static class Key {
+        private final Template template;
+        private final Locale locale;
+        private final H.Format format;
+        private final List<String> vars;
+        private final Map<String, Object> args;
+        private MailerContext context;
+
+        Key(Template template, MailerContext context, List<String> vars) {
+            this.template = template;
+            this.locale = context.locale();
+            this.format = context.accept();
+            this.vars = vars;
+            this.context = context;
+            Map<String, Object> args = new HashMap<>(context.renderArgs());
+            for (String var : vars) {
+                args.remove(var);
+            }
+            this.args = args;
+        }
+
+        @Override
+        public int hashCode() {
+            return $.hc(System.identityHashCode(template), locale, format, vars, args);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return that.template == template && $.eq(that.locale, locale) && that.format == format
+                        && $.eq(that.vars, vars) && $.eq(that.args, args);
+            }
+            return false;
+        }
+    }
+
+}
@@ -87,17 +87,22 @@ public @interface Mailer {
             ctx().subjectArgs = args;
         }
 
+        /**
+         * Specify the render arguments that vary for each recipient
+         *
+         * @param names the merge variable names
+         * @see MailerContext#mergeVars(String...)
+         */
+        public static void mergeVars(String... names) {
+            ctx().mergeVars = names;
+        }
+
         private static SimpleContext ctx() {
             return _ctx.get();
         }
 
         public static Future<Boolean> doSendWithoutLoadThreadLocal(final MailerContext context) {
-            return context.app().jobManager().now(new Callable<Boolean>() {
-                @Override
-                public Boolean call() throws Exception {
-                    return context.send();
-                }
-            });
+            return schedule(context);
         }
 
         public static Future<Boolean> doSend(final MailerContext context) {
@@ -119,8 +124,18 @@ public @interface Mailer {
                 if (S.notBlank(ctx.subject)) {
                     context.subject(ctx.subject, ctx.subjectArgs);
                 }
+                if (null != ctx.mergeVars) {
+                    context.mergeVars(ctx.mergeVars);
+                }
                 _ctx.remove();
             }
+            return schedule(context);
+        }
+
+        private static Future<Boolean> schedule(final MailerContext context) {
+            if (context.pooledDelivery()) {
+                return context.deliver();
+            }
             return context.app().jobManager().now(new Callable<Boolean>() {
                 @Override
                 public Boolean call() throws Exception {
@@ -165,6 +180,7 @@ public @interface Mailer {
             String bcc;
             String subject;
             Object[] subjectArgs;
+            String[] mergeVars;
         }
 
     }
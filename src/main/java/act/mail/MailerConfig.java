@@ -57,6 +57,12 @@ public class MailerConfig extends AppHolderBase {
     public static final String SMTP_SSL = "smtp.ssl";
     public static final String SMTP_USERNAME = "smtp.username";
     public static final String SMTP_PASSWORD = "smtp.password";
+    public static final String SMTP_POOL_SIZE = "smtp.pool.size";
+    public static final String SMTP_QUEUE_SIZE = "smtp.queue.size";
+    public static final String SMTP_BATCH_SIZE = "smtp.batch.size";
+    public static final String SMTP_RETRY_MAX = "smtp.retry.max";
+    public static final String SMTP_RETRY_BACKOFF = "smtp.retry.backoff";
+    public static final String SMTP_IDLE_TIMEOUT = "smtp.idle_timeout";
 
 
     private String id;
@@ -75,7 +81,14 @@ public class MailerConfig extends AppHolderBase {
     private List<InternetAddress> toList;
     private List<InternetAddress> ccList;
     private List<InternetAddress> bccList;
+    private int poolSize;
+    private int queueSize;
+    private int batchSize;
+    private int maxRetries;
+    private long retryBackoff;
+    private long idleTimeout;
     private volatile Session session;
+    private volatile MailDispatcher dispatcher;
 
     public MailerConfig(String id, Map<String, String> properties, App app) {
         super(app);
@@ -107,6 +120,12 @@ public class MailerConfig extends AppHolderBase {
             if (null == username || null == password) {
                 logger.warn("Either smtp.username or smtp.password is not configured for mailer[%s]", id);
             }
+            this.poolSize = getIntConfig(SMTP_POOL_SIZE, properties, 0);
+            this.queueSize = getIntConfig(SMTP_QUEUE_SIZE, properties, 1000);
+            this.batchSize = getIntConfig(SMTP_BATCH_SIZE, properties, 50);
+            this.maxRetries = getIntConfig(SMTP_RETRY_MAX, properties, 3);
+            this.retryBackoff = getIntConfig(SMTP_RETRY_BACKOFF, properties, 1000);
+            this.idleTimeout = getIntConfig(SMTP_IDLE_TIMEOUT, properties, 60 * 1000);
         }
         this.toList = getEmailListConfig(TO, properties);
         this.ccList = getEmailListConfig(CC, properties);
@@ -167,6 +186,18 @@ public class MailerConfig extends AppHolderBase {
         return port;
     }
 
+    private int getIntConfig(String key, Map<String, String> properties, int def) {
+        String s = getProperty(key, properties);
+        if (null == s) {
+            return def;
+        }
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw E.invalidConfiguration("Invalid %s configuration for mailer[%s]: %s", key, id, s);
+        }
+    }
+
     private boolean getBooleanConfig(String key, Map<String, String> properties) {
         String s = getProperty(key, properties);
         return null != s && Boolean.parseBoolean(s);
@@ -245,6 +276,10 @@ public class MailerConfig extends AppHolderBase {
 
     @Override
     protected void releaseResources() {
+        if (null != dispatcher) {
+            dispatcher.shutdown();
+            dispatcher = null;
+        }
         if (null != session) {
             session = null;
         }
@@ -305,6 +340,38 @@ public class MailerConfig extends AppHolderBase {
         return session;
     }
 
+    /**
+     * Check if mails shall be delivered through the pooled SMTP connections.
+     *
+     * This is enabled when `smtp.pool.size` is configured with a positive
+     * number and the mailer is not a mock
+     *
+     * @return `true` if pooled delivery is enabled
+     */
+    public boolean pooledDelivery() {
+        return !mock && poolSize > 0;
+    }
+
+    /**
+     * Returns the number of mails waiting in the pooled delivery queue
+     * @return the mail queue depth
+     */
+    public int mailQueueDepth() {
+        MailDispatcher dispatcher = this.dispatcher;
+        return null == dispatcher ? 0 : dispatcher.queueDepth();
+    }
+
+    MailDispatcher dispatcher() {
+        if (null == dispatcher) {
+            synchronized (this) {
+                if (null == dispatcher) {
+                    dispatcher = new MailDispatcher(id, session(), poolSize, queueSize, batchSize, maxRetries, retryBackoff, idleTimeout);
+                }
+            }
+        }
+        return dispatcher;
+    }
+
     private Session createSession() {
         Properties p = new Properties();
         if (mock()) {
@@ -37,6 +37,8 @@ public class MailerConfigManager extends AppServiceBase<MailerConfigManager> {
 
     private C.Map<String, MailerConfig> configMap = C.newMap();
 
+    private MailTemplateCache templateCache = new MailTemplateCache();
+
     @Inject
     public MailerConfigManager(App app) {
         super(app);
@@ -47,12 +49,17 @@ public class MailerConfigManager extends AppServiceBase<MailerConfigManager> {
     protected void releaseResources() {
         Destroyable.Util.destroyAll(configMap.values(), ApplicationScoped.class);
         configMap.clear();
+        templateCache.clear();
     }
 
     public MailerConfig config(String id) {
         return configMap.get(id);
     }
 
+    MailTemplateCache templateCache() {
+        return templateCache;
+    }
+
     private void loadConfig(AppConfig config) {
         Object o = config.get(KEY_MAILER);
         if (null == o) {
@@ -43,6 +43,7 @@ import javax.mail.*;
 import javax.mail.internet.*;
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Future;
 
 public class MailerContext extends ActContext.Base<MailerContext> {
 
@@ -63,6 +64,7 @@ public class MailerContext extends ActContext.Base<MailerContext> {
     private String confId;
     private List<ISObject> attachments = C.newList();
     private String senderPath; // e.g. com.mycorp.myapp.mailer.AbcMailer.foo
+    private List<String> mergeVars = C.list();
 
     private static final ContextLocal<MailerContext> _local = $.contextLocal();
 
@@ -207,6 +209,31 @@ public class MailerContext extends ActContext.Base<MailerContext> {
         return this;
     }
 
+    /**
+     * Specify the render arguments that vary for each recipient, e.g. the
+     * recipient name.
+     *
+     * When merge variables are specified the template is rendered once
+     * into static fragments and variable slots, which are cached and filled
+     * with the merge variable values for each mail. Mails with the same
+     * template, locale and values of the other render arguments share the
+     * compiled template.
+     *
+     * The merge variables must be output by the template as they are, e.g.
+     * `@name`, and shall not be used in conditions.
+     *
+     * @param names the merge variable names
+     * @return this mailer context
+     */
+    public MailerContext mergeVars(String... names) {
+        mergeVars = C.listOf(names);
+        return this;
+    }
+
+    public List<String> mergeVars() {
+        return mergeVars;
+    }
+
     public MailerContext attach(ISObject... sobjs) {
         attachments.addAll(C.listOf(sobjs));
         return this;
@@ -303,6 +330,35 @@ public class MailerContext extends ActContext.Base<MailerContext> {
         }
     }
 
+    boolean pooledDelivery() {
+        MailerConfigManager manager = app().mailerConfigManager();
+        MailerConfig config = null == manager ? null : manager.config(confId);
+        return null != config && config.pooledDelivery();
+    }
+
+    /**
+     * Queue the mail for delivery through the pooled SMTP connections
+     * of the mailer config.
+     *
+     * The message is created in the current thread
+     *
+     * @return a future of the delivery result
+     * @see MailerConfig#pooledDelivery()
+     */
+    Future<Boolean> deliver() {
+        MimeMessage message;
+        try {
+            message = createMessage();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Sending email\n%sEnd email\n", debug(message));
+            }
+        } catch (Exception e) {
+            logger.error(e, "Error sending email: %s", this);
+            return MailDispatcher.done(false);
+        }
+        return mailerConfig().dispatcher().submit(message);
+    }
+
     private String debug(MimeMessage msg) throws Exception {
         List<String> lines = C.newList();
         lines.add(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>\n>> recipients");
@@ -363,7 +419,7 @@ public class MailerContext extends ActContext.Base<MailerContext> {
         ViewManager vm = Act.viewManager();
         Template t = vm.load(this);
         E.illegalStateIf(null == t, "Mail template not defined");
-        String content = t.render(this);
+        String content = render(t);
         if (attachments.isEmpty()) {
             msg.setText(content, config().encoding(), accept().name());
         } else {
@@ -382,6 +438,16 @@ public class MailerContext extends ActContext.Base<MailerContext> {
         return msg;
     }
 
+    private String render(Template template) {
+        if (!mergeVars.isEmpty()) {
+            MergedTemplate merged = app().mailerConfigManager().templateCache().get(template, this, mergeVars);
+            if (null != merged) {
+                return merged.render(this);
+            }
+        }
+        return template.render(this);
+    }
+
     private static InternetAddress[] list2Array(List<InternetAddress> list) {
         int len = list.size();
         InternetAddress[] array = new InternetAddress[len];
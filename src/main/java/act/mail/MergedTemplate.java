@@ -0,0 +1,188 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.view.Template;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.rythmengine.utils.Escape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mail template rendered into static fragments and variable slots.
+ *
+ * The template is rendered once with a marker string in place of each
+ * merge variable. The output is then split at the markers, so filling in
+ * the values of a recipient is just joining the fragments and the values.
+ * The marker contains a `<`, which tells whether the template escapes
+ * the variable as HTML at that place, and letters in both cases, which
+ * tells whether the template changes the case of the variable.
+ *
+ * A merge variable must be output as it is, e.g. `@name`. A template
+ * that transforms the variable, e.g. `@name.toUpperCase()` cannot be
+ * compiled and will be rendered for each mail. However the compiler cannot
+ * detect a variable used in a condition, e.g. `@if(name == "Tom")`, and
+ * the compiled template will keep the result of the probe rendering.
+ */
+class MergedTemplate {
+
+    private static final Logger logger = LogManager.get(MergedTemplate.class);
+
+    private static final char MARK = '\u001F';
+    private static final String ESCAPED_LT = "&lt;";
+
+    private final String[] vars;
+    private final String[] fragments;
+    private final int[] slots;
+    private final boolean[] escape;
+    private final int length;
+
+    private MergedTemplate(String[] vars, String[] fragments, int[] slots, boolean[] escape) {
+        this.vars = vars;
+        this.fragments = fragments;
+        this.slots = slots;
+        this.escape = escape;
+        int len = 0;
+        for (String s : fragments) {
+            len += s.length();
+        }
+        this.length = len;
+    }
+
+    /**
+     * Render the mail with the values of the merge variables in the context
+     *
+     * @param context the mailer context
+     * @return the mail content
+     */
+    String render(MailerContext context) {
+        int n = vars.length;
+        String[] values = new String[n];
+        int len = length;
+        for (int i = 0; i < n; ++i) {
+            Object v = context.renderArg(vars[i]);
+            String s = null == v ? "" : v.toString();
+            values[i] = s;
+            len += s.length();
+        }
+        StringBuilder sb = new StringBuilder(len + (len >> 4));
+        for (int i = 0, sz = slots.length; i < sz; ++i) {
+            sb.append(fragments[i]);
+            String s = values[slots[i]];
+            sb.append(escape[i] ? Escape.HTML.apply(s).toString() : s);
+        }
+        return sb.append(fragments[slots.length]).toString();
+    }
+
+    /**
+     * Compile the template with the merge variables
+     *
+     * @param template the template
+     * @param context the mailer context
+     * @param vars the names of the merge variables
+     * @return the compiled template or `null` if the template cannot be compiled
+     */
+    static MergedTemplate compile(Template template, MailerContext context, List<String> vars) {
+        int n = vars.size();
+        String[] names = vars.toArray(new String[n]);
+        Object[] saved = new Object[n];
+        for (int i = 0; i < n; ++i) {
+            saved[i] = context.renderArg(names[i]);
+            context.renderArg(names[i], marker(i));
+        }
+        String probe;
+        try {
+            probe = template.render(context);
+        } catch (RuntimeException e) {
+            logger.warn(e, "Cannot compile mail template with merge variables %s, will render it for each mail", vars);
+            return null;
+        } finally {
+            for (int i = 0; i < n; ++i) {
+                context.renderArg(names[i], saved[i]);
+            }
+        }
+        MergedTemplate merged = parse(probe, names);
+        if (null == merged) {
+            logger.warn("Merge variables %s are not output as they are by template[%s], will render it for each mail", vars, context.templatePath());
+        }
+        return merged;
+    }
+
+    static MergedTemplate parse(String probe, String[] vars) {
+        List<String> fragments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<Boolean> escape = new ArrayList<>();
+        int start = 0;
+        int pos = probe.indexOf(MARK);
+        while (pos > -1) {
+            int end = probe.indexOf(MARK, pos + 1);
+            if (end < 0) {
+                return null;
+            }
+            String body = probe.substring(pos + 1, end);
+            boolean escaped;
+            String index;
+            if (body.endsWith(ESCAPED_LT)) {
+                escaped = true;
+                index = body.substring(0, body.length() - ESCAPED_LT.length());
+            } else if (body.endsWith("<")) {
+                escaped = false;
+                index = body.substring(0, body.length() - 1);
+            } else {
+                return null;
+            }
+            // the letters catch case transformations
+            if (index.length() < 3 || index.charAt(0) != 'm' || index.charAt(index.length() - 1) != 'M') {
+                return null;
+            }
+            int i;
+            try {
+                i = Integer.parseInt(index.substring(1, index.length() - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (i < 0 || i >= vars.length) {
+                return null;
+            }
+            fragments.add(probe.substring(start, pos));
+            slots.add(i);
+            escape.add(escaped);
+            start = end + 1;
+            pos = probe.indexOf(MARK, start);
+        }
+        fragments.add(probe.substring(start));
+        int sz = slots.size();
+        int[] slotArray = new int[sz];
+        boolean[] escapeArray = new boolean[sz];
+        for (int i = 0; i < sz; ++i) {
+            slotArray[i] = slots.get(i);
+            escapeArray[i] = escape.get(i);
+        }
+        return new MergedTemplate(vars, fragments.toArray(new String[sz + 1]), slotArray, escapeArray);
+    }
+
+    private static String marker(int i) {
+        return MARK + "m" + i + "M<" + MARK;
+    }
+
+}
@@ -21,6 +21,7 @@ package act.mail.bytecode;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.asm.*;
 import act.asm.signature.SignatureReader;
 import act.asm.signature.SignatureVisitor;
@@ -37,18 +38,22 @@ import org.osgl.$;
 import org.osgl.logging.L;
 import org.osgl.logging.Logger;
 import org.osgl.util.C;
+import org.osgl.util.E;
 
+import java.io.*;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Mailer scanner implementation
  */
-public class MailerByteCodeScanner extends AppByteCodeScannerBase {
+public class MailerByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private final static Logger logger = L.get(MailerByteCodeScanner.class);
     private MailerClassMetaInfo classInfo;
     private volatile MailerClassMetaInfoManager classInfoBase;
+    // the sender methods found in the class being scanned
+    private List<SenderMethodMetaInfo> senders = C.newList();
 
     @Override
     protected boolean shouldScan(String className) {
@@ -56,6 +61,11 @@ public class MailerByteCodeScanner extends AppByteCodeScannerBase {
         return true;
     }
 
+    @Override
+    protected void reset(String className) {
+        senders.clear();
+    }
+
     @Override
     public ByteCodeVisitor byteCodeVisitor() {
         return new _ByteCodeVisitor();
@@ -66,6 +76,103 @@ public class MailerByteCodeScanner extends AppByteCodeScannerBase {
         classInfoBase().registerMailerMetaInfo(classInfo);
     }
 
+    /**
+     * Returns the meta info of a mailer class. The meta info of a class
+     * not annotated with `@Mailer` has no sender to enhance
+     */
+    @Override
+    public byte[] scanResult(String className) {
+        if (!classInfo.isMailer()) {
+            return null;
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        try {
+            out.writeUTF(classInfo.internalName());
+            out.writeBoolean(classInfo.isAbstract());
+            writeString(out, classInfo.configId());
+            writeString(out, classInfo.ctxField());
+            out.writeBoolean(classInfo.ctxFieldIsPrivate());
+            out.writeInt(senders.size());
+            for (SenderMethodMetaInfo sender : senders) {
+                out.writeUTF(sender.name());
+                writeString(out, sender.configId());
+                out.writeBoolean(sender.isStatic());
+                writeType(out, sender.returnType());
+                writeType(out, sender.returnComponentType());
+                int n = sender.paramCount();
+                out.writeInt(n);
+                for (int i = 0; i < n; ++i) {
+                    HandlerParamMetaInfo param = sender.param(i);
+                    writeType(out, param.type());
+                    writeType(out, param.componentType());
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(result));
+        try {
+            MailerClassMetaInfo restored = new MailerClassMetaInfo();
+            restored.className(in.readUTF());
+            if (in.readBoolean()) {
+                restored.setAbstract();
+            }
+            restored.isMailer(true);
+            restored.configId(readString(in));
+            String ctxField = readString(in);
+            boolean ctxFieldIsPrivate = in.readBoolean();
+            if (null != ctxField) {
+                restored.ctxField(ctxField, ctxFieldIsPrivate);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                SenderMethodMetaInfo sender = new SenderMethodMetaInfo(restored);
+                restored.addSender(sender);
+                sender.name(in.readUTF());
+                sender.configId(readString(in));
+                if (in.readBoolean()) {
+                    sender.invokeStaticMethod();
+                } else {
+                    sender.invokeInstanceMethod();
+                }
+                sender.returnType(readType(in));
+                sender.returnComponentType(readType(in));
+                for (int j = in.readInt(); j > 0; --j) {
+                    HandlerParamMetaInfo param = new HandlerParamMetaInfo().type(readType(in));
+                    param.componentType(readType(in));
+                    sender.addParam(param);
+                }
+            }
+            classInfoBase().registerMailerMetaInfo(restored);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeUTF(null == s ? "" : s);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        String s = in.readUTF();
+        return s.isEmpty() ? null : s;
+    }
+
+    private static void writeType(DataOutputStream out, Type type) throws IOException {
+        writeString(out, null == type ? null : type.getDescriptor());
+    }
+
+    private static Type readType(DataInputStream in) throws IOException {
+        String desc = readString(in);
+        return null == desc ? null : Type.getType(desc);
+    }
+
     private MailerClassMetaInfoManager classInfoBase() {
         if (null == classInfoBase) {
             synchronized (this) {
@@ -162,6 +269,7 @@ public class MailerByteCodeScanner extends AppByteCodeScannerBase {
                     if (null == methodInfo) {
                         methodInfo = new SenderMethodMetaInfo(classInfo);
                         classInfo.addSender(methodInfo);
+                        senders.add(methodInfo);
                     }
                     return new SenderAnnotationVisitor(av);
                 }
@@ -173,6 +281,7 @@ public class MailerByteCodeScanner extends AppByteCodeScannerBase {
                 if (null == methodInfo) {
                     methodInfo = new SenderMethodMetaInfo(classInfo);
                     classInfo.addSender(methodInfo);
+                    senders.add(methodInfo);
                 }
                 final SenderMethodMetaInfo info = methodInfo;
                 info.name(methodName);
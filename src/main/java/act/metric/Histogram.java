@@ -0,0 +1,299 @@
+package act.metric;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A latency histogram with log-linear buckets.
+ *
+ * Each power of two range is split into 16 linear sub buckets, which keeps
+ * the relative error of reported percentiles under about 3% with a fixed
+ * number of buckets. Values larger than about 36 minutes are recorded into
+ * the last bucket.
+ *
+ * Besides the accumulated data since created, the histogram keeps a ring of
+ * 30 seconds slots to provide rolling window snapshots. Recording does not
+ * take any lock.
+ */
+public final class Histogram {
+
+    /**
+     * The time window of a histogram snapshot
+     */
+    public enum Window {
+        /**
+         * All data since the histogram has been created
+         */
+        ALL(0),
+
+        /**
+         * Data of the last minute
+         */
+        ONE_MINUTE(TimeUnit.MINUTES.toNanos(1)),
+
+        /**
+         * Data of the last five minutes
+         */
+        FIVE_MINUTES(TimeUnit.MINUTES.toNanos(5));
+
+        private long ns;
+
+        Window(long ns) {
+            this.ns = ns;
+        }
+
+        /**
+         * Returns a window from string:
+         *
+         * * `all` or blank string - {@link #ALL}
+         * * `1m`, `1mn` or `1min` - {@link #ONE_MINUTE}
+         * * `5m`, `5mn` or `5min` - {@link #FIVE_MINUTES}
+         *
+         * @param s the string
+         * @return the window
+         */
+        public static Window of(String s) {
+            if (S.blank(s) || "all".equalsIgnoreCase(s)) {
+                return ALL;
+            }
+            String t = s.trim().toLowerCase();
+            if ("1m".equals(t) || "1mn".equals(t) || "1min".equals(t)) {
+                return ONE_MINUTE;
+            } else if ("5m".equals(t) || "5mn".equals(t) || "5min".equals(t)) {
+                return FIVE_MINUTES;
+            }
+            E.illegalArgumentIf(true, "Unknown metric window: %s", s);
+            return ALL;
+        }
+    }
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_SUB_BITS = SUB_BITS - 1;
+    private static final long MAX_VALUE = (1L << 41) - 1;
+    static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    static final long SLOT_NS = TimeUnit.SECONDS.toNanos(30);
+    // enough slots to cover the largest window plus the current one
+    private static final int SLOTS = (int) (Window.FIVE_MINUTES.ns / SLOT_NS) + 1;
+
+    private final Bucket total = new Bucket(-1);
+    private final AtomicReferenceArray<Bucket> slots = new AtomicReferenceArray<Bucket>(SLOTS);
+
+    /**
+     * Record a value, e.g. the duration in nanoseconds
+     *
+     * @param value the value to be recorded
+     */
+    public void record(long value) {
+        record(value, System.nanoTime());
+    }
+
+    void record(long value, long now) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        int idx = index(value);
+        total.add(idx, value);
+        long epoch = now / SLOT_NS;
+        int i = (int) (epoch % SLOTS);
+        Bucket slot = slots.get(i);
+        if (null == slot || slot.epoch < epoch) {
+            Bucket fresh = new Bucket(epoch);
+            slot = slots.compareAndSet(i, slot, fresh) ? fresh : slots.get(i);
+        }
+        if (slot.epoch == epoch) {
+            slot.add(idx, value);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the data in the window specified
+     *
+     * @param window the time window
+     * @return the snapshot
+     */
+    public Snapshot snapshot(Window window) {
+        return snapshot(window, System.nanoTime());
+    }
+
+    Snapshot snapshot(Window window, long now) {
+        Snapshot snapshot = new Snapshot();
+        if (Window.ALL == window) {
+            snapshot.merge(total);
+            return snapshot;
+        }
+        long epoch = now / SLOT_NS;
+        long oldest = epoch - window.ns / SLOT_NS;
+        for (int i = 0; i < SLOTS; ++i) {
+            Bucket slot = slots.get(i);
+            if (null != slot && slot.epoch >= oldest && slot.epoch <= epoch) {
+                snapshot.merge(slot);
+            }
+        }
+        return snapshot;
+    }
+
+    static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - HALF_SUB_BITS;
+        return (shift << HALF_SUB_BITS) + (int) (value >>> shift);
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index >> HALF_SUB_BITS) - 1;
+        return (long) (index - (shift << HALF_SUB_BITS)) << shift;
+    }
+
+    static long width(int index) {
+        if (index < SUB_COUNT) {
+            return 1;
+        }
+        return 1L << ((index >> HALF_SUB_BITS) - 1);
+    }
+
+    private static class Bucket {
+        private final long epoch;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void add(int index, long value) {
+            counts.incrementAndGet(index);
+            sum.addAndGet(value);
+            long curMax = max.get();
+            while (value > curMax && !max.compareAndSet(curMax, value)) {
+                curMax = max.get();
+            }
+        }
+    }
+
+    /**
+     * A point in time copy of histogram data
+     */
+    public static class Snapshot {
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long sum;
+        private long max;
+
+        Snapshot() {
+        }
+
+        void merge(Snapshot other) {
+            long[] otherCounts = other.counts;
+            for (int i = 0; i < BUCKETS; ++i) {
+                counts[i] += otherCounts[i];
+            }
+            count += other.count;
+            sum += other.sum;
+            max = Math.max(max, other.max);
+        }
+
+        private void merge(Bucket bucket) {
+            AtomicLongArray bucketCounts = bucket.counts;
+            for (int i = 0; i < BUCKETS; ++i) {
+                long n = bucketCounts.get(i);
+                counts[i] += n;
+                count += n;
+            }
+            sum += bucket.sum.get();
+            max = Math.max(max, bucket.max.get());
+        }
+
+        /**
+         * Returns number of values recorded
+         * @return the count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns sum of the values recorded
+         * @return the sum
+         */
+        public long sum() {
+            return sum;
+        }
+
+        /**
+         * Returns the max value recorded
+         * @return the max value
+         */
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Returns the value at the percentile specified
+         *
+         * @param percentile the percentile in `(0, 100]`
+         * @return the value or `0` if there is no data in this snapshot
+         */
+        public long percentile(double percentile) {
+            E.illegalArgumentIf(percentile <= 0 || percentile > 100, "percentile shall be in (0, 100]");
+            if (0 == count) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, lowestValue(i) + width(i) / 2);
+                }
+            }
+            return max;
+        }
+
+        public long p50() {
+            return percentile(50);
+        }
+
+        public long p99() {
+            return percentile(99);
+        }
+
+        public long p999() {
+            return percentile(99.9);
+        }
+    }
+
+}
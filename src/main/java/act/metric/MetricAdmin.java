@@ -78,6 +78,22 @@ public class MetricAdmin {
         return process(list, limit, q, tree, depth, MetricInfo.Comparator.TIMER, MetricInfoTree.TIMER);
     }
 
+    @Command(name = "act.metric.latency.list", help = "list latency percentiles of timers")
+    @PropertySpec("name,count,avg,p50,p99,p999,max")
+    public Object getLatencies(
+            @Optional("specify time window: all, 1m or 5m") String window,
+            @Optional("specify maximum items returned") Integer limit,
+            @Optional("specify depth of levels") Integer depth,
+            @Optional("specify search string") String q,
+            @Optional("including classloading metric") boolean classLoading
+    ) {
+        List<MetricInfo> list = Act.metricPlugin().metricStore().latencies(Histogram.Window.of(window));
+        if (!classLoading) {
+            list = withoutClassLoading(list);
+        }
+        return process(list, limit, q, false, depth, MetricInfo.Comparator.TIMER, MetricInfoTree.TIMER);
+    }
+
     private List<MetricInfo> withoutClassLoading(List<MetricInfo> list) {
         return C.list(list).remove(new $.Predicate<MetricInfo>() {
             @Override
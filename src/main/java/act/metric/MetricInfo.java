@@ -36,6 +36,7 @@ public class MetricInfo {
     private String name;
     private long count;
     private Long ns;
+    private Histogram.Snapshot latency;
 
     MetricInfo(String name, long count) {
         this.name = name;
@@ -48,6 +49,11 @@ public class MetricInfo {
         this.count = count;
     }
 
+    MetricInfo(String name, Histogram.Snapshot latency) {
+        this(name, latency.sum(), latency.count());
+        this.latency = latency;
+    }
+
     public String getName() {
         return name;
     }
@@ -84,6 +90,26 @@ public class MetricInfo {
         return DurationScale.format(ns / count);
     }
 
+    public String getP50() {
+        return latency(50);
+    }
+
+    public String getP99() {
+        return latency(99);
+    }
+
+    public String getP999() {
+        return latency(99.9);
+    }
+
+    public String getMax() {
+        return null == latency ? null : DurationScale.format(latency.max());
+    }
+
+    private String latency(double percentile) {
+        return null == latency ? null : DurationScale.format(latency.percentile(percentile));
+    }
+
     @Override
     public int hashCode() {
         return $.hc(name);
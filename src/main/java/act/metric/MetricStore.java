@@ -66,6 +66,23 @@ public interface MetricStore {
      */
     List<MetricInfo> timers();
 
+    /**
+     * Returns the latency histogram snapshot of timer specified
+     *
+     * @param name A string specifies the timer
+     * @param window the time window of the snapshot
+     * @return the snapshot or {@code null} if the timer cannot be found or
+     *         histogram is not enabled
+     */
+    Histogram.Snapshot latency(String name, Histogram.Window window);
+
+    /**
+     * Returns all timers with latency percentiles in the time window
+     * @param window the time window
+     * @return timer latency info in a list
+     */
+    List<MetricInfo> latencies(Histogram.Window window);
+
     /**
      * Clear metric data
      */
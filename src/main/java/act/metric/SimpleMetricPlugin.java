@@ -84,6 +84,7 @@ public class SimpleMetricPlugin implements MetricPlugin {
             if (plugin instanceof SimpleMetricPlugin) {
                 SimpleMetricPlugin smp = (SimpleMetricPlugin) plugin;
                 final SimpleMetricStore store = $.cast(smp.defaultMetricStore);
+                store.enableHistogram(app.config().metricHistogramEnabled());
                 final Runnable takeSnapshot = new Runnable() {
                     @Override
                     public void run() {
@@ -32,122 +32,191 @@ import org.osgl.util.S;
 import java.io.*;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
+
+import static act.metric.Metric.PATH_SEPARATOR;
 
 /**
- * A simple implementation of {@link MetricStore}
+ * A simple implementation of {@link MetricStore}.
+ *
+ * Metric names are resolved once into {@link Handle}s which carry the ids of
+ * the name and all its ancestors in the `:` separated hierarchy. Counts and
+ * time are accumulated into {@link StripedCounter}s of the leaf handle only,
+ * the roll up to parent names is done when reading the data
  */
-public class SimpleMetricStore implements MetricStore, Serializable {
-
+public class SimpleMetricStore implements MetricStore {
 
-    private transient static final Logger defLogger = LogManager.get("metric.default");
 
-    private static final long serialVersionUID = 7357409264403928225L;
+    private static final Logger defLogger = LogManager.get("metric.default");
 
-    private ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
-    private ConcurrentMap<String, AtomicLong> timers = new ConcurrentHashMap<String, AtomicLong>();
+    private ConcurrentMap<String, Handle> handles = new ConcurrentHashMap<String, Handle>();
+    // handles indexed by id
+    private volatile Handle[] handleList = new Handle[0];
 
-    private transient SimpleMetricPlugin plugin;
-    private transient FileSynchronizer synchronizer;
-    private transient boolean dataSync = true;
+    private SimpleMetricPlugin plugin;
+    private FileSynchronizer synchronizer;
+    private boolean dataSync = true;
+    private volatile boolean histogramEnabled;
 
     public SimpleMetricStore(SimpleMetricPlugin plugin) {
+        this(plugin, new File(FileSynchronizer.FILE_NAME));
+    }
+
+    SimpleMetricStore(SimpleMetricPlugin plugin, File file) {
         this.plugin = $.notNull(plugin);
-        synchronizer = new FileSynchronizer();
-        SimpleMetricStore persisted = synchronizer.read();
-        if (null != persisted) {
-            counters = persisted.counters;
-            timers = persisted.timers;
-        }
+        synchronizer = new FileSynchronizer(file);
+        synchronizer.read(this);
     }
 
     @Override
     public void countOnce(String name) {
         E.illegalArgumentIf(S.blank(name), "");
-        countOnce_(name);
-    }
-
-    private void countOnce_(String name) {
-        AtomicLong al = counters.get(name);
-        if (null == al) {
-            counters.putIfAbsent(name, new AtomicLong());
-            al = counters.get(name);
-        }
-        al.incrementAndGet();
-        name = getParent(name);
-        if (S.notBlank(name)) {
-            countOnce_(name);
-        }
+        handle(name).counter.increment();
     }
 
     public void enableDataSync(boolean enabled) {
         dataSync = enabled;
     }
 
+    public void enableHistogram(boolean enabled) {
+        histogramEnabled = enabled;
+    }
+
     @Override
     public void onTimerStart(String name) {
-        logger(name).trace("Timer[%s] started", name);
+        Logger logger = logger(name);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Timer[%s] started", name);
+        }
     }
 
     @Override
     public void onTimerStop(Timer timer) {
         String name = timer.name();
         long ns = timer.ns();
-        logger(name).trace("Timer[%s] stopped. Time elapsed: %sns", name, ns);
-        onTimerStop_(name, ns);
-    }
-
-    private void onTimerStop_(String name, long ns) {
-        AtomicLong al = timers.get(name);
-        if (null == al) {
-            timers.putIfAbsent(name, new AtomicLong());
-            al = timers.get(name);
+        Logger logger = logger(name);
+        if (logger.isTraceEnabled()) {
+            logger.trace("Timer[%s] stopped. Time elapsed: %sns", name, ns);
         }
-        al.addAndGet(ns);
-        name = getParent(name);
-        if (S.notBlank(name)) {
-            onTimerStop_(name, ns);
+        Handle handle = handle(name);
+        handle.timer.add(ns);
+        if (!handle.isTimer) {
+            markTimer(handle);
+        }
+        if (histogramEnabled) {
+            handle.histogram().record(ns);
         }
     }
 
     @Override
     public Long count(String name) {
-        AtomicLong al = counters.get(name);
-        return null == al ? null : al.get();
+        Handle handle = handles.get(name);
+        return null == handle ? null : rollUp(handle, false);
     }
 
     @Override
     public Long ns(String name) {
-        AtomicLong al = counters.get(name);
-        return null == al ? null : al.get();
+        Handle handle = handles.get(name);
+        return null == handle ? null : rollUp(handle, true);
     }
 
     @Override
     public List<MetricInfo> counters() {
-        Set<MetricInfo> set = new TreeSet<MetricInfo>();
-        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
-            set.add(new MetricInfo(entry.getKey(), entry.getValue().get()));
+        Handle[] handles = handleList;
+        long[] counts = rollUpAll(handles, false);
+        List<MetricInfo> list = C.newSizedList(handles.length);
+        for (Handle handle : handles) {
+            long count = counts[handle.id];
+            if (count > 0) {
+                list.add(new MetricInfo(handle.name, count));
+            }
         }
-        return C.list(set);
+        return list;
     }
 
     @Override
     public List<MetricInfo> timers() {
-        Set<MetricInfo> set = C.newSet();
-        for (Map.Entry<String, AtomicLong> entry : timers.entrySet()) {
-            set.add(new MetricInfo(entry.getKey(), entry.getValue().get(), counters.get(entry.getKey()).get()));
+        Handle[] handles = handleList;
+        long[] counts = rollUpAll(handles, false);
+        long[] ns = rollUpAll(handles, true);
+        List<MetricInfo> list = C.newSizedList(handles.length);
+        for (Handle handle : handles) {
+            int id = handle.id;
+            if (handle.isTimer && (counts[id] > 0 || ns[id] > 0)) {
+                list.add(new MetricInfo(handle.name, ns[id], counts[id]));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public Histogram.Snapshot latency(String name, Histogram.Window window) {
+        Handle target = handles.get(name);
+        if (null == target) {
+            return null;
+        }
+        int targetId = target.id;
+        Histogram.Snapshot snapshot = null;
+        for (Handle handle : handleList) {
+            Histogram histogram = handle.histogram;
+            if (null == histogram) {
+                continue;
+            }
+            for (int id : handle.chain) {
+                if (id == targetId) {
+                    if (null == snapshot) {
+                        snapshot = histogram.snapshot(window);
+                    } else {
+                        snapshot.merge(histogram.snapshot(window));
+                    }
+                    break;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public List<MetricInfo> latencies(Histogram.Window window) {
+        Handle[] handles = handleList;
+        Histogram.Snapshot[] snapshots = new Histogram.Snapshot[handles.length];
+        for (Handle handle : handles) {
+            Histogram histogram = handle.histogram;
+            if (null == histogram) {
+                continue;
+            }
+            Histogram.Snapshot snapshot = histogram.snapshot(window);
+            if (0 == snapshot.count()) {
+                continue;
+            }
+            for (int id : handle.chain) {
+                Histogram.Snapshot rollUp = snapshots[id];
+                if (null == rollUp) {
+                    rollUp = new Histogram.Snapshot();
+                    snapshots[id] = rollUp;
+                }
+                rollUp.merge(snapshot);
+            }
         }
-        return C.list(set);
+        List<MetricInfo> list = C.newList();
+        for (Handle handle : handles) {
+            Histogram.Snapshot snapshot = snapshots[handle.id];
+            if (null != snapshot) {
+                list.add(new MetricInfo(handle.name, snapshot));
+            }
+        }
+        return list;
     }
 
     @Override
     public void clear() {
-        timers.clear();
-        counters.clear();
+        for (Handle handle : handleList) {
+            handle.counter.reset();
+            handle.timer.reset();
+            handle.isTimer = false;
+            handle.histogram = null;
+        }
     }
 
     public void takeSnapshot() {
@@ -161,57 +230,316 @@ public class SimpleMetricStore implements MetricStore, Serializable {
         return null == logger ? defLogger : logger;
     }
 
-    private String getParent(String name) {
-        return S.beforeLast(name, ":");
+    private Handle handle(String name) {
+        Handle handle = handles.get(name);
+        return null == handle ? register(name) : handle;
+    }
+
+    private synchronized Handle register(String name) {
+        Handle handle = handles.get(name);
+        if (null != handle) {
+            return handle;
+        }
+        String parentName = S.beforeLast(name, PATH_SEPARATOR);
+        Handle parent = S.blank(parentName) ? null : handle(parentName);
+        Handle[] list = handleList;
+        int id = list.length;
+        handle = new Handle(id, name, parent);
+        Handle[] newList = new Handle[id + 1];
+        System.arraycopy(list, 0, newList, 0, id);
+        newList[id] = handle;
+        handleList = newList;
+        handles.put(name, handle);
+        return handle;
+    }
+
+    private void markTimer(Handle handle) {
+        Handle[] handles = handleList;
+        for (int id : handle.chain) {
+            handles[id].isTimer = true;
+        }
+    }
+
+    private long rollUp(Handle target, boolean timer) {
+        int targetId = target.id;
+        long sum = 0;
+        for (Handle handle : handleList) {
+            for (int id : handle.chain) {
+                if (id == targetId) {
+                    sum += timer ? handle.timer.sum() : handle.counter.sum();
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long[] rollUpAll(Handle[] handles, boolean timer) {
+        long[] values = new long[handles.length];
+        for (Handle handle : handles) {
+            long value = timer ? handle.timer.sum() : handle.counter.sum();
+            if (0 == value) {
+                continue;
+            }
+            for (int id : handle.chain) {
+                values[id] += value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * A resolved metric name
+     */
+    private static class Handle {
+        private final int id;
+        private final String name;
+        // ids of this handle and all its ancestors
+        private final int[] chain;
+        private final StripedCounter counter = new StripedCounter();
+        private final StripedCounter timer = new StripedCounter();
+        private volatile boolean isTimer;
+        // created on first timer stop when histogram is enabled
+        private volatile Histogram histogram;
+        // the values written to the snapshot file, accessed by the synchronizer only
+        private long savedCount;
+        private long savedNs;
+        private boolean savedTimer;
+        private boolean saved;
+
+        Handle(int id, String name, Handle parent) {
+            this.id = id;
+            this.name = name;
+            if (null == parent) {
+                chain = new int[]{id};
+            } else {
+                int[] parentChain = parent.chain;
+                int len = parentChain.length;
+                chain = new int[len + 1];
+                chain[0] = id;
+                System.arraycopy(parentChain, 0, chain, 1, len);
+            }
+        }
+
+        Histogram histogram() {
+            Histogram histogram = this.histogram;
+            if (null == histogram) {
+                synchronized (this) {
+                    histogram = this.histogram;
+                    if (null == histogram) {
+                        histogram = new Histogram();
+                        this.histogram = histogram;
+                    }
+                }
+            }
+            return histogram;
+        }
     }
 
+    /**
+     * Persists metric data into an append only binary file.
+     *
+     * The file starts with a header followed by frames. A frame contains
+     * name definition records and delta records, and ends with a frame end
+     * mark. A name is defined once in the file with an integer id and later
+     * records refer to the id. Delta records carry the changes of count and
+     * time since the last frame in zigzag varint encoding, so a frame only
+     * costs a few bytes for each changed metric.
+     *
+     * The file is compacted, i.e. rewritten with a single frame of the
+     * absolute values, at the first write after loaded and when it has grown
+     * over twice of the size after the last compaction. An incomplete frame
+     * at the end of the file, e.g. caused by a crash, is ignored on reload.
+     */
     private static class FileSynchronizer {
         private static final String FILE_NAME = ".act.metric";
+        private static final int MAGIC = 0x41434d31; // ACM1
+
+        private static final int DEFINE = 1;
+        private static final int DELTA = 2;
+        private static final int FRAME_END = 3;
+
+        private static final long MIN_COMPACT_THRESHOLD = 64 * 1024;
+
+        private final File file;
         private boolean ioError = false;
+        private boolean compactRequired = true;
+        private long compactThreshold;
 
-        void write(SimpleMetricStore store) {
+        FileSynchronizer(File file) {
+            this.file = file;
+        }
+
+        synchronized void write(SimpleMetricStore store) {
             if (ioError) {
                 return;
             }
-            ObjectOutputStream oos = null;
             try {
-                File file = new File(FILE_NAME);
-                oos = new ObjectOutputStream(new FileOutputStream(file));
-                oos.writeObject(store);
+                if (compactRequired || file.length() > compactThreshold) {
+                    compact(store);
+                } else {
+                    append(store);
+                }
             } catch (IOException e) {
                 ioError = true;
                 throw E.ioException(e);
-            } finally {
-                IO.close(oos);
-            }
-        }
-
-        SimpleMetricStore read() {
-            File file = new File(FILE_NAME);
-            if (file.exists() && file.canRead()) {
-                ObjectInputStream ois = null;
-                try {
-                    ois = new ObjectInputStream(new FileInputStream(file));
-                    SimpleMetricStore store = $.cast(ois.readObject());
-                    return store;
-                } catch (IOException e) {
-                    ioError = true;
-                    App.LOGGER.error(e, "Error reading simple metric store persisted file:%s. Will reset this file", file.getAbsolutePath());
-                    if (!file.delete()) {
-                        file.deleteOnExit();
+            }
+        }
+
+        synchronized void read(SimpleMetricStore store) {
+            if (!file.exists() || !file.canRead()) {
+                return;
+            }
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                if (MAGIC != in.readInt()) {
+                    App.LOGGER.warn("Unknown simple metric store persisted file format: %s. Will reset this file", file.getAbsolutePath());
+                    return;
+                }
+                Map<Integer, Handle> dict = C.newMap();
+                List<Handle> handles = C.newList();
+                List<long[]> deltas = C.newList();
+                while (true) {
+                    int tag = in.read();
+                    if (tag < 0) {
+                        break;
+                    }
+                    if (DEFINE == tag) {
+                        int id = (int) readVarLong(in);
+                        dict.put(id, store.handle(in.readUTF()));
+                    } else if (DELTA == tag) {
+                        Handle handle = dict.get((int) readVarLong(in));
+                        if (null == handle) {
+                            throw E.unexpected("undefined metric id");
+                        }
+                        handles.add(handle);
+                        deltas.add(new long[]{readZigzag(in), readZigzag(in), in.read()});
+                    } else if (FRAME_END == tag) {
+                        for (int i = 0, n = handles.size(); i < n; ++i) {
+                            Handle handle = handles.get(i);
+                            long[] delta = deltas.get(i);
+                            handle.counter.add(delta[0]);
+                            handle.timer.add(delta[1]);
+                            handle.isTimer = 1 == delta[2];
+                        }
+                        handles.clear();
+                        deltas.clear();
+                    } else {
+                        throw E.unexpected("unknown record tag: %s", tag);
                     }
-                    return null;
-                } catch (ClassNotFoundException e) {
-                    throw E.unexpected(e);
-                } finally {
-                    IO.close(ois);
                 }
-            } else {
-                return null;
+            } catch (EOFException e) {
+                // incomplete frame at the end of the file
+            } catch (Exception e) {
+                App.LOGGER.error(e, "Error reading simple metric store persisted file:%s. Will reset this file", file.getAbsolutePath());
+                store.clear();
+            } finally {
+                IO.close(in);
             }
         }
 
+        private void compact(SimpleMetricStore store) throws IOException {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buf);
+            out.writeInt(MAGIC);
+            Handle[] handles = store.handleList;
+            for (Handle handle : handles) {
+                handle.saved = false;
+                handle.savedCount = 0;
+                handle.savedNs = 0;
+                handle.savedTimer = false;
+            }
+            writeFrame(handles, out);
+            File tmp = new File(file.getPath() + ".tmp");
+            writeTo(tmp, buf, false);
+            if (!tmp.renameTo(file)) {
+                if (!file.delete() || !tmp.renameTo(file)) {
+                    throw new IOException("Cannot replace " + file.getAbsolutePath());
+                }
+            }
+            compactRequired = false;
+            compactThreshold = Math.max(MIN_COMPACT_THRESHOLD, buf.size() * 2L);
+        }
+
+        private void append(SimpleMetricStore store) throws IOException {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            if (writeFrame(store.handleList, new DataOutputStream(buf))) {
+                writeTo(file, buf, true);
+            }
+        }
 
+        /*
+         * Write changes since last frame of all handles. Returns `true` if
+         * there is any change
+         */
+        private static boolean writeFrame(Handle[] handles, DataOutputStream out) throws IOException {
+            boolean changed = false;
+            for (Handle handle : handles) {
+                long count = handle.counter.sum();
+                long ns = handle.timer.sum();
+                boolean isTimer = handle.isTimer;
+                if (count == handle.savedCount && ns == handle.savedNs && isTimer == handle.savedTimer) {
+                    continue;
+                }
+                if (!handle.saved) {
+                    out.write(DEFINE);
+                    writeVarLong(out, handle.id);
+                    out.writeUTF(handle.name);
+                    handle.saved = true;
+                }
+                out.write(DELTA);
+                writeVarLong(out, handle.id);
+                writeZigzag(out, count - handle.savedCount);
+                writeZigzag(out, ns - handle.savedNs);
+                out.write(isTimer ? 1 : 0);
+                handle.savedCount = count;
+                handle.savedNs = ns;
+                handle.savedTimer = isTimer;
+                changed = true;
+            }
+            out.write(FRAME_END);
+            out.flush();
+            return changed;
+        }
+
+        private static void writeTo(File file, ByteArrayOutputStream buf, boolean append) throws IOException {
+            FileOutputStream os = new FileOutputStream(file, append);
+            try {
+                buf.writeTo(os);
+            } finally {
+                IO.close(os);
+            }
+        }
+
+        private static void writeZigzag(DataOutput out, long value) throws IOException {
+            writeVarLong(out, (value << 1) ^ (value >> 63));
+        }
+
+        private static void writeVarLong(DataOutput out, long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long readZigzag(DataInput in) throws IOException {
+            long value = readVarLong(in);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static long readVarLong(DataInput in) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = in.readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw E.unexpected("malformed varint");
+        }
     }
 
 }
@@ -0,0 +1,116 @@
+package act.metric;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A `LongAdder` style counter for Java 7.
+ *
+ * Updates go to a single base value until a CAS on it failed, after that
+ * the counter is inflated into striped cells indexed by thread, so that
+ * threads updating the same counter do not contend on one memory location.
+ *
+ * The {@link #sum()} is not an atomic snapshot when there are concurrent
+ * updates
+ */
+final class StripedCounter {
+
+    // number of longs per cell, used to keep cells on different cache lines
+    private static final int PAD = 8;
+    private static final int STRIPES = stripes();
+    private static final int MASK = STRIPES - 1;
+
+    private static final AtomicLongFieldUpdater<StripedCounter> BASE =
+            AtomicLongFieldUpdater.newUpdater(StripedCounter.class, "base");
+
+    private volatile long base;
+    private volatile AtomicLongArray cells;
+
+    void increment() {
+        add(1L);
+    }
+
+    void add(long x) {
+        AtomicLongArray cells = this.cells;
+        if (null == cells) {
+            long b = base;
+            if (BASE.compareAndSet(this, b, b + x)) {
+                return;
+            }
+            cells = inflate();
+        }
+        int i = probe();
+        int idx = (i & MASK) * PAD;
+        long v = cells.get(idx);
+        if (!cells.compareAndSet(idx, v, v + x)) {
+            cells.getAndAdd(((i + 1) & MASK) * PAD, x);
+        }
+    }
+
+    long sum() {
+        long sum = base;
+        AtomicLongArray cells = this.cells;
+        if (null != cells) {
+            for (int i = 0; i < STRIPES; ++i) {
+                sum += cells.get(i * PAD);
+            }
+        }
+        return sum;
+    }
+
+    void reset() {
+        base = 0L;
+        AtomicLongArray cells = this.cells;
+        if (null != cells) {
+            for (int i = 0; i < STRIPES; ++i) {
+                cells.set(i * PAD, 0L);
+            }
+        }
+    }
+
+    private synchronized AtomicLongArray inflate() {
+        if (null == cells) {
+            cells = new AtomicLongArray(STRIPES * PAD);
+        }
+        return cells;
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        return h;
+    }
+
+    private static int stripes() {
+        int n = Runtime.getRuntime().availableProcessors() * 2;
+        int stripes = 1;
+        while (stripes < n && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+}
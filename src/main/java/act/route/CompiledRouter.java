@@ -0,0 +1,575 @@
+package act.route;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import act.controller.ParamNames;
+import act.handler.RequestHandler;
+import act.handler.builtin.AlwaysBadRequest;
+import act.handler.builtin.AlwaysNotFound;
+import org.osgl.http.H;
+import org.osgl.util.E;
+import org.osgl.util.FastStr;
+import org.osgl.util.S;
+import org.osgl.util.Unsafe;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A read only routing engine compiled from the {@link Router.Node} tree.
+ *
+ * The compiled router scans the raw path chars in a single pass without
+ * tokenizing the path into {@link CharSequence} segments:
+ *
+ * * static segments are looked up through a radix trie built on the child
+ *   node names
+ * * dynamic segments declared as `prefix{var}suffix` are matched with plain
+ *   char comparison
+ * * only segments with a custom regex or multiple variables are matched with
+ *   {@link Pattern}
+ *
+ * The routing result is the same as {@link Router} tree search
+ */
+final class CompiledRouter {
+
+    private static final char SEPARATOR = '/';
+    private static final char TERMINATOR = '?';
+
+    // used to pass a bad request result when dynamic segment matching failed
+    private static final CNode BAD_REQUEST = new CNode(AlwaysBadRequest.INSTANCE);
+
+    static {
+        BAD_REQUEST.terminate = true;
+    }
+
+    private final CNode _GET;
+    private final CNode _POST;
+    private final CNode _PUT;
+    private final CNode _DEL;
+    private final CNode _PATCH;
+
+    private CompiledRouter(CNode get, CNode post, CNode put, CNode del, CNode patch) {
+        _GET = get;
+        _POST = post;
+        _PUT = put;
+        _DEL = del;
+        _PATCH = patch;
+    }
+
+    static CompiledRouter compile(Router.Node get, Router.Node post, Router.Node put, Router.Node del, Router.Node patch) {
+        Compiler compiler = new Compiler();
+        return new CompiledRouter(
+                compiler.compile(get),
+                compiler.compile(post),
+                compiler.compile(put),
+                compiler.compile(del),
+                compiler.compile(patch)
+        );
+    }
+
+    RequestHandler getInvoker(H.Method method, CharSequence path, ActionContext context) {
+        char[] buf = Unsafe.bufOf(path);
+        int len = buf.length;
+        CNode node = root(method);
+        if (node.terminate) {
+            context.param(ParamNames.PATH, remaining(buf, 0, len));
+            return node.invoker;
+        }
+        int pos = 0;
+        while (true) {
+            while (pos < len && buf[pos] == SEPARATOR) {
+                pos++;
+            }
+            if (pos >= len || buf[pos] == TERMINATOR) {
+                break;
+            }
+            int start = pos;
+            while (pos < len && buf[pos] != SEPARATOR && buf[pos] != TERMINATOR) {
+                pos++;
+            }
+            node = node.child(buf, start, pos, context);
+            if (null == node) {
+                return AlwaysNotFound.INSTANCE;
+            }
+            if (node.terminate) {
+                context.param(ParamNames.PATH, remaining(buf, pos, len));
+                break;
+            }
+        }
+        return node.invoker;
+    }
+
+    private CNode root(H.Method method) {
+        switch (method) {
+            case GET:
+                return _GET;
+            case POST:
+                return _POST;
+            case PUT:
+                return _PUT;
+            case DELETE:
+                return _DEL;
+            case PATCH:
+                return _PATCH;
+            default:
+                throw E.unexpected("HTTP Method not supported: %s", method);
+        }
+    }
+
+    /*
+     * Join the remaining segments starting from `pos` with `/`, the same
+     * way as the tree search does for partial path handlers
+     */
+    private static String remaining(char[] buf, int pos, int len) {
+        S.Buffer sb = null;
+        while (true) {
+            while (pos < len && buf[pos] == SEPARATOR) {
+                pos++;
+            }
+            if (pos >= len || buf[pos] == TERMINATOR) {
+                break;
+            }
+            int start = pos;
+            while (pos < len && buf[pos] != SEPARATOR && buf[pos] != TERMINATOR) {
+                pos++;
+            }
+            if (null == sb) {
+                sb = S.newBuffer();
+            }
+            sb.append(SEPARATOR).append(buf, start, pos - start);
+        }
+        return null == sb ? "" : sb.toString();
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Compiled route node
+     */
+    private static final class CNode {
+        // the handler returned when routing stopped at this node
+        private RequestHandler invoker;
+        private boolean terminate;
+        // for dynamic node
+        private SegmentMatcher matcher;
+        private StaticTrie statics;
+        private DynaChild[] dynamics;
+
+        CNode(RequestHandler invoker) {
+            this.invoker = invoker;
+        }
+
+        CNode child(char[] buf, int start, int end, ActionContext context) {
+            if (null != statics) {
+                CNode node = statics.get(buf, start, end);
+                if (null != node) {
+                    return node;
+                }
+            }
+            if (null == dynamics) {
+                return null;
+            }
+            for (DynaChild dyna : dynamics) {
+                CNode target = dyna.resolveAlias(buf);
+                if (target.matcher.match(buf, start, end, context)) {
+                    return target;
+                }
+            }
+            return BAD_REQUEST;
+        }
+    }
+
+    /**
+     * A dynamic child along with all its aliases, i.e. the dynamic nodes with
+     * the same pattern trait declared by different routes
+     */
+    private static final class DynaChild {
+        private final CNode node;
+        // each alias is the route path parts with `null` for dynamic parts
+        private final String[][] aliasPaths;
+        private final CNode[] aliasTargets;
+
+        DynaChild(CNode node, String[][] aliasPaths, CNode[] aliasTargets) {
+            this.node = node;
+            this.aliasPaths = aliasPaths;
+            this.aliasTargets = aliasTargets;
+        }
+
+        CNode resolveAlias(char[] buf) {
+            for (int i = 0, n = aliasPaths.length; i < n; ++i) {
+                if (pathMatches(aliasPaths[i], buf)) {
+                    return aliasTargets[i];
+                }
+            }
+            return node;
+        }
+
+        /*
+         * See UrlPath#equals
+         */
+        private static boolean pathMatches(String[] parts, char[] buf) {
+            int len = buf.length, pos = 0, i = 0, n = parts.length;
+            while (true) {
+                while (pos < len && buf[pos] == SEPARATOR) {
+                    pos++;
+                }
+                if (pos >= len || buf[pos] == TERMINATOR) {
+                    return i == n;
+                }
+                int start = pos;
+                boolean blank = true, dyna = buf[pos] == '{';
+                while (pos < len && buf[pos] != SEPARATOR && buf[pos] != TERMINATOR) {
+                    char c = buf[pos++];
+                    blank = blank && Character.isWhitespace(c);
+                    dyna = dyna || c == ':';
+                }
+                if (blank) {
+                    continue;
+                }
+                if (i >= n) {
+                    return false;
+                }
+                String part = parts[i++];
+                if (null == part) {
+                    continue;
+                }
+                if (dyna || !partMatches(part, buf, start, pos)) {
+                    return false;
+                }
+            }
+        }
+
+        private static boolean partMatches(String part, char[] buf, int start, int end) {
+            int len = part.length();
+            if (len != end - start) {
+                return false;
+            }
+            for (int i = 0; i < len; ++i) {
+                if (part.charAt(i) != buf[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static abstract class SegmentMatcher {
+
+        /**
+         * Match the segment `buf[start, end)` and set the path variables
+         * to the context if matched
+         */
+        abstract boolean match(char[] buf, int start, int end, ActionContext context);
+
+        static final SegmentMatcher NONE = new SegmentMatcher() {
+            @Override
+            boolean match(char[] buf, int start, int end, ActionContext context) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Match `literal{var}literal` style segment without regex
+     */
+    private static final class WrappedVarMatcher extends SegmentMatcher {
+        private final char[] prefix;
+        private final char[] suffix;
+        private final String varName;
+
+        WrappedVarMatcher(String prefix, String suffix, String varName) {
+            this.prefix = prefix.toCharArray();
+            this.suffix = suffix.toCharArray();
+            this.varName = varName;
+        }
+
+        @Override
+        boolean match(char[] buf, int start, int end, ActionContext context) {
+            int prefixLen = prefix.length, suffixLen = suffix.length;
+            if (end - start < prefixLen + suffixLen) {
+                return false;
+            }
+            for (int i = 0; i < prefixLen; ++i) {
+                if (buf[start + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            int valueEnd = end - suffixLen;
+            for (int i = 0; i < suffixLen; ++i) {
+                if (buf[valueEnd + i] != suffix[i]) {
+                    return false;
+                }
+            }
+            int valueStart = start + prefixLen;
+            for (int i = valueStart; i < valueEnd; ++i) {
+                if (isLineTerminator(buf[i])) {
+                    return false;
+                }
+            }
+            String value = new String(buf, valueStart, valueEnd - valueStart);
+            if (S.notBlank(value)) {
+                context.param(varName, S.urlDecode(value));
+            }
+            return true;
+        }
+    }
+
+    private static final class RegexMatcher extends SegmentMatcher {
+        private final Pattern pattern;
+        private final String[] varNames;
+        private final boolean namedGroups;
+
+        RegexMatcher(Pattern pattern, String[] varNames, boolean namedGroups) {
+            this.pattern = pattern;
+            this.varNames = varNames;
+            this.namedGroups = namedGroups;
+        }
+
+        @Override
+        boolean match(char[] buf, int start, int end, ActionContext context) {
+            CharSequence segment = FastStr.unsafeOf(buf, start, end);
+            Matcher matcher = pattern.matcher(segment);
+            if (!matcher.matches()) {
+                return false;
+            }
+            if (namedGroups) {
+                for (String varName : varNames) {
+                    String varValue = matcher.group(varName);
+                    if (S.notBlank(varValue)) {
+                        context.param(varName, S.urlDecode(varValue));
+                    }
+                }
+            } else {
+                context.param(varNames[0], S.urlDecode(segment.toString()));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A radix trie maps static segment to the compiled node
+     */
+    private static final class StaticTrie {
+        private char[] label;
+        private CNode value;
+        private char[] firstChars = new char[0];
+        private StaticTrie[] children = new StaticTrie[0];
+
+        StaticTrie(char[] label) {
+            this.label = label;
+        }
+
+        CNode get(char[] buf, int start, int end) {
+            StaticTrie trie = this;
+            int pos = start;
+            while (pos < end) {
+                StaticTrie child = trie.child(buf[pos]);
+                if (null == child) {
+                    return null;
+                }
+                char[] label = child.label;
+                int labelLen = label.length;
+                if (end - pos < labelLen) {
+                    return null;
+                }
+                for (int i = 0; i < labelLen; ++i) {
+                    if (buf[pos + i] != label[i]) {
+                        return null;
+                    }
+                }
+                pos += labelLen;
+                trie = child;
+            }
+            return trie.value;
+        }
+
+        private StaticTrie child(char c) {
+            int i = Arrays.binarySearch(firstChars, c);
+            return i < 0 ? null : children[i];
+        }
+
+        void put(String key, CNode node) {
+            StaticTrie trie = this;
+            int pos = 0, len = key.length();
+            while (pos < len) {
+                char c = key.charAt(pos);
+                StaticTrie child = trie.child(c);
+                if (null == child) {
+                    child = new StaticTrie(key.substring(pos).toCharArray());
+                    trie.addChild(child);
+                    trie = child;
+                    pos = len;
+                    break;
+                }
+                char[] label = child.label;
+                int common = 0, max = Math.min(label.length, len - pos);
+                while (common < max && label[common] == key.charAt(pos + common)) {
+                    common++;
+                }
+                if (common < label.length) {
+                    // split the edge
+                    StaticTrie split = new StaticTrie(Arrays.copyOf(label, common));
+                    child.label = Arrays.copyOfRange(label, common, label.length);
+                    split.addChild(child);
+                    trie.replaceChild(c, split);
+                    child = split;
+                }
+                pos += common;
+                trie = child;
+            }
+            trie.value = node;
+        }
+
+        private void addChild(StaticTrie child) {
+            char c = child.label[0];
+            int i = -(Arrays.binarySearch(firstChars, c) + 1);
+            int n = firstChars.length;
+            char[] newFirstChars = new char[n + 1];
+            StaticTrie[] newChildren = new StaticTrie[n + 1];
+            System.arraycopy(firstChars, 0, newFirstChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newFirstChars[i] = c;
+            newChildren[i] = child;
+            System.arraycopy(firstChars, i, newFirstChars, i + 1, n - i);
+            System.arraycopy(children, i, newChildren, i + 1, n - i);
+            firstChars = newFirstChars;
+            children = newChildren;
+        }
+
+        private void replaceChild(char c, StaticTrie child) {
+            children[Arrays.binarySearch(firstChars, c)] = child;
+        }
+    }
+
+    private static final class Compiler {
+
+        private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+
+        private Map<Router.Node, CNode> compiled = new IdentityHashMap<>();
+
+        CNode compile(Router.Node node) {
+            CNode cnode = compiled.get(node);
+            if (null != cnode) {
+                return cnode;
+            }
+            cnode = new CNode(invokerOf(node));
+            compiled.put(node, cnode);
+            cnode.terminate = node.terminateRouteSearch();
+            if (node.isDynamic()) {
+                cnode.matcher = matcherOf(node);
+            }
+            Map<CharSequence, Router.Node> staticChildren = node.staticChildren();
+            if (!staticChildren.isEmpty()) {
+                StaticTrie trie = new StaticTrie(new char[0]);
+                for (Map.Entry<CharSequence, Router.Node> entry : staticChildren.entrySet()) {
+                    trie.put(entry.getKey().toString(), compile(entry.getValue()));
+                }
+                cnode.statics = trie;
+            }
+            List<Router.Node> dynamicChildren = node.dynamicChildren();
+            if (!dynamicChildren.isEmpty()) {
+                int n = dynamicChildren.size();
+                DynaChild[] dynamics = new DynaChild[n];
+                for (int i = 0; i < n; ++i) {
+                    dynamics[i] = dynaChild(dynamicChildren.get(i));
+                }
+                cnode.dynamics = dynamics;
+            }
+            return cnode;
+        }
+
+        private DynaChild dynaChild(Router.Node node) {
+            Map<UrlPath, Router.Node> aliases = node.dynamicAliases();
+            int n = aliases.size(), i = 0;
+            String[][] aliasPaths = new String[n][];
+            CNode[] aliasTargets = new CNode[n];
+            for (Map.Entry<UrlPath, Router.Node> entry : aliases.entrySet()) {
+                List<String> parts = entry.getKey().parts();
+                String[] sa = new String[parts.size()];
+                for (int j = 0; j < sa.length; ++j) {
+                    String part = parts.get(j);
+                    sa[j] = UrlPath.DYNA_PART.equals(part) ? null : part;
+                }
+                aliasPaths[i] = sa;
+                aliasTargets[i++] = compile(entry.getValue());
+            }
+            return new DynaChild(compile(node), aliasPaths, aliasTargets);
+        }
+
+        /*
+         * See Router#getInvokerFrom(Node)
+         */
+        private static RequestHandler invokerOf(Router.Node node) {
+            RequestHandler handler = node.handler();
+            if (null != handler) {
+                return handler;
+            }
+            for (Router.Node targetNode : node.dynamicChildren()) {
+                Pattern pattern = targetNode.pattern();
+                if (null != pattern && pattern.matcher("").matches()) {
+                    return invokerOf(targetNode);
+                }
+            }
+            return AlwaysNotFound.INSTANCE;
+        }
+
+        private static SegmentMatcher matcherOf(Router.Node node) {
+            Pattern pattern = node.pattern();
+            if (null == pattern) {
+                // the tree search never match a dynamic node without pattern
+                return SegmentMatcher.NONE;
+            }
+            List<CharSequence> varNameList = node.varNames();
+            String[] varNames = new String[varNameList.size()];
+            for (int i = 0; i < varNames.length; ++i) {
+                varNames[i] = varNameList.get(i).toString();
+            }
+            boolean namedGroups = node.hasNamedGroups();
+            if (namedGroups && varNames.length == 1) {
+                String regex = pattern.pattern();
+                String group = S.concat("(?<", varNames[0], ">.*)");
+                int pos = regex.indexOf(group);
+                if (pos > -1) {
+                    String prefix = regex.substring(0, pos);
+                    String suffix = regex.substring(pos + group.length());
+                    if (isLiteral(prefix) && isLiteral(suffix)) {
+                        return new WrappedVarMatcher(prefix, suffix, varNames[0]);
+                    }
+                }
+            }
+            return new RegexMatcher(pattern, varNames, namedGroups);
+        }
+
+        private static boolean isLiteral(String s) {
+            for (int i = 0, n = s.length(); i < n; ++i) {
+                if (REGEX_META_CHARS.indexOf(s.charAt(i)) > -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
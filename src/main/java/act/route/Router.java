@@ -75,6 +75,8 @@ public class Router extends AppServiceBase<Router> {
     private String portId;
     private int port;
     private OptionsInfoBase optionHandlerFactory;
+    // the compiled routing engine, reset to `null` whenever the route table changes
+    private volatile CompiledRouter compiled;
 
     private void initControllerLookup(RequestHandlerResolver lookup) {
         if (null == lookup) {
@@ -123,6 +125,7 @@ public class Router extends AppServiceBase<Router> {
         _PATCH.destroy();
         handlerLookup.destroy();
         actionNames.clear();
+        compiled = null;
         appConfig = null;
     }
 
@@ -147,10 +150,38 @@ public class Router extends AppServiceBase<Router> {
         if (Arrays.binarySearch(targetMethods, method) < 0) {
             return UnknownHttpMethodHandler.INSTANCE;
         }
+        return route(method, path, context);
+    }
+
+    RequestHandler route(H.Method method, CharSequence path, ActionContext context) {
+        CompiledRouter compiled = this.compiled;
+        if (null != compiled) {
+            return compiled.getInvoker(method, path, context);
+        }
         Node node = search(method, Path.tokenizer(Unsafe.bufOf(path)), context);
         return getInvokerFrom(node);
     }
 
+    /**
+     * Compile the current route table into a {@link CompiledRouter} which
+     * will be used to serve {@link #getInvoker(H.Method, CharSequence, ActionContext)}
+     * calls from now on.
+     *
+     * Adding any route mapping after this call will drop the compiled
+     * router and routing falls back to the tree search until this
+     * method is called again
+     */
+    public void compile() {
+        if (!appConfig.routeCompileEnabled()) {
+            return;
+        }
+        compiled = CompiledRouter.compile(_GET, _POST, _PUT, _DEL, _PATCH);
+    }
+
+    boolean isCompiled() {
+        return null != compiled;
+    }
+
     public RequestHandler findStaticGetHandler(String url) {
         Iterator<CharSequence> path = Path.tokenizer(Unsafe.bufOf(url));
         Node node = root(H.Method.GET);
@@ -233,6 +264,7 @@ public class Router extends AppServiceBase<Router> {
     }
 
     public void addMapping(H.Method method, CharSequence path, RequestHandler handler, RouteSource source) {
+        compiled = null;
         Node node = _locate(method, path, handler.toString());
         if (null == node.handler) {
             handler = prepareReverseRoutes(handler, node);
@@ -696,7 +728,7 @@ public class Router extends AppServiceBase<Router> {
      * The data structure support decision tree for
      * fast URL routing
      */
-    private static class Node extends DestroyableBase implements Serializable, TreeNode, Comparable<Node> {
+    static class Node extends DestroyableBase implements Serializable, TreeNode, Comparable<Node> {
 
         // used to pass a baq request result when dynamic regex matching failed
         private static final Node BADREQUEST = new Node(Integer.MIN_VALUE) {
@@ -935,6 +967,35 @@ public class Router extends AppServiceBase<Router> {
             return routeSource;
         }
 
+        Map<CharSequence, Node> staticChildren() {
+            return staticChildren;
+        }
+
+        List<Node> dynamicChildren() {
+            return dynamicChilds;
+        }
+
+        Map<UrlPath, Node> dynamicAliases() {
+            return dynamicAliases;
+        }
+
+        Pattern pattern() {
+            return pattern;
+        }
+
+        List<CharSequence> varNames() {
+            return varNames;
+        }
+
+        /**
+         * Check if this node is declared with `{var_name<regex>}` style
+         * in which case the var values are read from the named groups
+         * of the {@link #pattern() pattern}
+         */
+        boolean hasNamedGroups() {
+            return !nodeValueBuilders.isEmpty();
+        }
+
         boolean terminateRouteSearch() {
             return null != handler && handler.supportPartialPath();
         }
@@ -50,6 +50,10 @@ class UrlPath {
         }
     }
 
+    List<String> parts() {
+        return parts;
+    }
+
     boolean matches(CharSequence path) {
         return equals(new UrlPath(path));
     }
@@ -24,9 +24,11 @@ import act.app.App;
 import act.app.AppByteCodeScanner;
 import act.app.AppByteCodeScannerBase;
 import act.app.AppSourceCodeScanner;
+import act.app.IndexableByteCodeScanner;
 import org.osgl.$;
 import org.osgl.util.C;
 import org.osgl.util.E;
+import org.osgl.util.S;
 
 import java.lang.annotation.Annotation;
 import java.util.Map;
@@ -77,7 +79,7 @@ public abstract class AnnotatedTypeFinder extends AppCodeScannerPluginBase {
         return true;
     }
 
-    private class ByteCodeSensor extends AppByteCodeScannerBase {
+    private class ByteCodeSensor extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
         private ClassDetector detector;
         private $.Func2<App, String, Map<Class<? extends AppByteCodeScanner>, Set<String>>> foundHandler = AnnotatedTypeFinder.this.foundHandler;
 
@@ -115,6 +117,23 @@ public abstract class AnnotatedTypeFinder extends AppCodeScannerPluginBase {
             return true;
         }
 
+        @Override
+        public byte[] scanResult(String className) {
+            return detector.found() ? RESCAN : null;
+        }
+
+        @Override
+        public void restoreScanResult(String className, byte[] result) {
+        }
+
+        /**
+         * An app might have multiple finders, each with its own sensor
+         */
+        @Override
+        public String indexKey() {
+            return S.concat(super.indexKey(), ":", AnnotatedTypeFinder.this.getClass().getName(), ":", annoType.getName());
+        }
+
         @Override
         public int hashCode() {
             return $.hc(detector, ByteCodeSensor.class);
@@ -0,0 +1,385 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.$;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Provides class bytecode on demand.
+ *
+ * Jar files are memory mapped and the offset of each class entry is indexed
+ * from the zip central directory once. The bytecode of a class is read, and
+ * inflated if needed, from the mapped file each time it is requested, thus
+ * it is not held on heap once the caller is done with it. Class files are
+ * indexed by path and read on demand as well.
+ *
+ * Bytecode {@link #put(String, byte[]) put} into the source directly, e.g.
+ * compiled from source code, is kept on heap. So are the classes of jar files
+ * that cannot be indexed, e.g. zip64 files.
+ *
+ * Note this class is not thread safe
+ */
+public final class ByteCodeSource {
+
+    private static final Logger logger = L.get(ByteCodeSource.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int LOC_LEN = 30;
+    private static final int CEN_LEN = 46;
+    private static final int END_LEN = 22;
+    private static final int MAX_COMMENT_LEN = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Index all classes in the jar files specified
+     *
+     * @param jars the jar files
+     */
+    public void indexJars(List<File> jars) {
+        for (File jar : jars) {
+            indexJar(jar, $.F.<String>no());
+        }
+    }
+
+    /**
+     * Index classes in a jar file.
+     *
+     * If there are classes with the same name in different jar files, the
+     * last one indexed wins
+     *
+     * @param jar the jar file
+     * @param ignoredClassNames tells if a class shall be ignored
+     */
+    public void indexJar(File jar, $.Function<String, Boolean> ignoredClassNames) {
+        try {
+            if (indexMapped(jar, ignoredClassNames)) {
+                return;
+            }
+        } catch (IOException e) {
+            logger.debug(e, "cannot map jar file: %s", jar);
+        } catch (RuntimeException e) {
+            logger.debug(e, "cannot index jar file: %s", jar);
+        }
+        Map<String, byte[]> idx = new HashMap<>();
+        Jars.scan(jar, Jars.F.classNameIndexBuilder(idx, ignoredClassNames));
+        for (Map.Entry<String, byte[]> entry : idx.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Index a class file. The file is read each time the bytecode
+     * is requested
+     *
+     * @param className the class name
+     * @param file the class file
+     */
+    public void addClassFile(String className, File file) {
+        entries.put(className, new FileEntry(file));
+    }
+
+    /**
+     * Put bytecode into the source. The bytecode is kept on heap
+     *
+     * @param className the class name
+     * @param bytecode the bytecode
+     */
+    public void put(String className, byte[] bytecode) {
+        entries.put(className, new HeapEntry(bytecode));
+    }
+
+    public boolean contains(String className) {
+        return entries.containsKey(className);
+    }
+
+    /**
+     * Check if a class is backed by a jar or class file, in which case
+     * the bytecode is not held on heap
+     *
+     * @param className the class name
+     * @return `true` if the class is indexed from a file
+     */
+    public boolean isIndexed(String className) {
+        Entry entry = entries.get(className);
+        return null != entry && !(entry instanceof HeapEntry);
+    }
+
+    /**
+     * Returns the bytecode of a class
+     *
+     * @param className the class name
+     * @return the bytecode or `null` if not found
+     */
+    public byte[] get(String className) {
+        Entry entry = entries.get(className);
+        return null == entry ? null : entry.read();
+    }
+
+    /**
+     * Remove a class from the source and returns the bytecode
+     *
+     * @param className the class name
+     * @return the bytecode or `null` if not found
+     */
+    public byte[] remove(String className) {
+        Entry entry = entries.remove(className);
+        return null == entry ? null : entry.read();
+    }
+
+    /**
+     * Returns the CRC32 checksum of the bytecode of a class. For classes
+     * indexed from a jar file, the checksum recorded in the jar file is
+     * returned without reading the bytecode
+     *
+     * @param className the class name
+     * @return the checksum or `-1` if the class not found
+     */
+    public long checksum(String className) {
+        Entry entry = entries.get(className);
+        return null == entry ? -1 : entry.checksum();
+    }
+
+    /**
+     * Returns a live view of the names of classes in this source
+     *
+     * @return the class names
+     */
+    public Set<String> classNames() {
+        return entries.keySet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private boolean indexMapped(File jar, $.Function<String, Boolean> ignoredClassNames) throws IOException {
+        ByteBuffer zip;
+        try (RandomAccessFile raf = new RandomAccessFile(jar, "r")) {
+            long len = raf.length();
+            if (len < END_LEN || len > Integer.MAX_VALUE) {
+                return false;
+            }
+            // the mapping stays valid after the channel is closed
+            zip = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, len);
+        }
+        zip.order(ByteOrder.LITTLE_ENDIAN);
+        int end = endOfCentralDirectory(zip);
+        if (end < 0) {
+            return false;
+        }
+        int count = zip.getShort(end + 10) & 0xFFFF;
+        long cenSize = zip.getInt(end + 12) & 0xFFFFFFFFL;
+        long cenOffset = zip.getInt(end + 16) & 0xFFFFFFFFL;
+        if (0xFFFF == count || 0xFFFFFFFFL == cenOffset || cenSize > end) {
+            // zip64
+            return false;
+        }
+        int cen = (int) (end - cenSize);
+        // there might be data prepended to the zip file, e.g. a launch script
+        long prefix = cen - cenOffset;
+        if (prefix < 0) {
+            return false;
+        }
+        Map<String, Entry> found = new HashMap<>();
+        int pos = cen;
+        for (int i = 0; i < count; ++i) {
+            if (pos + CEN_LEN > end || CEN_SIG != zip.getInt(pos)) {
+                return false;
+            }
+            int method = zip.getShort(pos + 10) & 0xFFFF;
+            long crc = zip.getInt(pos + 16) & 0xFFFFFFFFL;
+            long compressedSize = zip.getInt(pos + 20) & 0xFFFFFFFFL;
+            long size = zip.getInt(pos + 24) & 0xFFFFFFFFL;
+            int nameLen = zip.getShort(pos + 28) & 0xFFFF;
+            int extraLen = zip.getShort(pos + 30) & 0xFFFF;
+            int commentLen = zip.getShort(pos + 32) & 0xFFFF;
+            long offset = (zip.getInt(pos + 42) & 0xFFFFFFFFL) + prefix;
+            String name = string(zip, pos + CEN_LEN, nameLen);
+            pos += CEN_LEN + nameLen + extraLen + commentLen;
+            if (!name.endsWith(".class")) {
+                continue;
+            }
+            if ((STORED != method && DEFLATED != method) || offset + LOC_LEN > cen
+                    || size > Integer.MAX_VALUE || compressedSize > cen) {
+                return false;
+            }
+            String className = ClassNames.classFileNameToClassName(name);
+            if (!ignoredClassNames.apply(className)) {
+                found.put(className, new JarEntry(zip, (int) offset, method, (int) compressedSize, (int) size, crc));
+            }
+        }
+        entries.putAll(found);
+        return true;
+    }
+
+    private static int endOfCentralDirectory(ByteBuffer zip) {
+        int limit = zip.limit();
+        int min = Math.max(0, limit - END_LEN - MAX_COMMENT_LEN);
+        for (int pos = limit - END_LEN; pos >= min; --pos) {
+            if (END_SIG == zip.getInt(pos) && pos + END_LEN + (zip.getShort(pos + 20) & 0xFFFF) == limit) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private static String string(ByteBuffer zip, int pos, int len) {
+        byte[] bytes = new byte[len];
+        ByteBuffer buf = zip.duplicate();
+        buf.position(pos);
+        buf.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private abstract static class Entry {
+        abstract byte[] read();
+
+        long checksum() {
+            byte[] bytes = read();
+            return null == bytes ? -1 : ByteCodeSource.checksum(bytes);
+        }
+    }
+
+    private static class HeapEntry extends Entry {
+        private final byte[] bytecode;
+
+        HeapEntry(byte[] bytecode) {
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        byte[] read() {
+            return bytecode;
+        }
+    }
+
+    private static class FileEntry extends Entry {
+        private final File file;
+
+        FileEntry(File file) {
+            this.file = file;
+        }
+
+        @Override
+        byte[] read() {
+            try {
+                return java.nio.file.Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        }
+    }
+
+    private static class JarEntry extends Entry {
+        private final ByteBuffer zip;
+        private final int offset;
+        private final int method;
+        private final int compressedSize;
+        private final int size;
+        private final long crc;
+
+        JarEntry(ByteBuffer zip, int offset, int method, int compressedSize, int size, long crc) {
+            this.zip = zip;
+            this.offset = offset;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.crc = crc;
+        }
+
+        @Override
+        byte[] read() {
+            ByteBuffer buf = zip.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            E.unexpectedIf(LOC_SIG != buf.getInt(offset), "invalid jar entry at offset %s", offset);
+            int data = offset + LOC_LEN + (buf.getShort(offset + 26) & 0xFFFF) + (buf.getShort(offset + 28) & 0xFFFF);
+            buf.position(data);
+            if (STORED == method) {
+                byte[] bytes = new byte[size];
+                buf.get(bytes);
+                return bytes;
+            }
+            // inflater in nowrap mode might require an extra byte
+            byte[] input = new byte[compressedSize + 1];
+            buf.get(input, 0, compressedSize);
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(input);
+                byte[] bytes = new byte[size];
+                int n = 0;
+                while (n < size) {
+                    int read = inflater.inflate(bytes, n, size - n);
+                    if (0 == read && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += read;
+                }
+                E.unexpectedIf(n != size, "corrupted jar entry at offset %s", offset);
+                return bytes;
+            } catch (DataFormatException e) {
+                throw E.unexpected(e, "corrupted jar entry at offset %s", offset);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        @Override
+        long checksum() {
+            return crc;
+        }
+    }
+
+}
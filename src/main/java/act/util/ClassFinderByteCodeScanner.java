@@ -21,6 +21,7 @@ package act.util;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.asm.AnnotationVisitor;
 import act.asm.MethodVisitor;
 import act.asm.Type;
@@ -33,13 +34,29 @@ import static act.util.ClassFinderData.By.SUPER_TYPE;
  * annotations. If found then it will create a {@link ClassFinderData}
  * and schedule it to run finding process
  */
-public class ClassFinderByteCodeScanner extends AppByteCodeScannerBase {
+public class ClassFinderByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
+
+    private boolean found;
 
     @Override
     protected boolean shouldScan(String className) {
         return true;
     }
 
+    @Override
+    protected void reset(String className) {
+        found = false;
+    }
+
+    @Override
+    public byte[] scanResult(String className) {
+        return found ? RESCAN : null;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+    }
+
     @Override
     public ByteCodeVisitor byteCodeVisitor() {
         return new _ByteCodeVisitor();
@@ -117,6 +134,7 @@ public class ClassFinderByteCodeScanner extends AppByteCodeScannerBase {
                             finder.how(how);
                             finder.callback(className, methodName, isStatic);
                             if (finder.isValid()) {
+                                found = true;
                                 finder.scheduleFind();
                             }
                             super.visitEnd();
@@ -21,17 +21,29 @@ package act.util;
  */
 
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.event.AppEventId;
 import act.asm.AnnotationVisitor;
 import act.asm.Type;
 import act.event.AppEventListenerBase;
 
+import org.osgl.util.C;
+import org.osgl.util.E;
+
+import java.io.*;
 import java.util.EventObject;
+import java.util.List;
 
-public class ClassInfoByteCodeScanner extends AppByteCodeScannerBase {
+public class ClassInfoByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private ClassInfoRepository classInfoRepository;
 
+    // the class info collected from the class being scanned
+    private int modifiers;
+    private String parent;
+    private List<String> interfaces = C.newList();
+    private List<String> annotations = C.newList();
+
     @Override
     protected void onAppSet() {
         app().eventBus().bind(AppEventId.CLASS_LOADER_INITIALIZED, new AppEventListenerBase("init-class-info-repo") {
@@ -47,6 +59,58 @@ public class ClassInfoByteCodeScanner extends AppByteCodeScannerBase {
         return true;
     }
 
+    @Override
+    protected void reset(String className) {
+        modifiers = 0;
+        parent = null;
+        interfaces.clear();
+        annotations.clear();
+    }
+
+    @Override
+    public byte[] scanResult(String className) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        try {
+            out.writeInt(modifiers);
+            out.writeUTF(null == parent ? "" : parent);
+            writeList(out, interfaces);
+            writeList(out, annotations);
+            out.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(result));
+        try {
+            ClassNode node = classInfoRepository.node(className);
+            node.modifiers(in.readInt());
+            String parent = in.readUTF();
+            if (!parent.isEmpty()) {
+                node.parent(parent);
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                node.addInterface(in.readUTF());
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                node.annotatedWith(in.readUTF());
+            }
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String s : list) {
+            out.writeUTF(s);
+        }
+    }
+
     @Override
     public ByteCodeVisitor byteCodeVisitor() {
         return new _ByteCodeVisitor();
@@ -66,13 +130,16 @@ public class ClassInfoByteCodeScanner extends AppByteCodeScannerBase {
             String myName = Type.getObjectType(name).getClassName();
             me = classInfoRepository.node(myName);
             me.modifiers(access);
+            modifiers = access;
             String superType = Type.getObjectType(superName).getClassName();
             if (!Object.class.getName().equals(superType)) {
                 me.parent(superType);
+                parent = superType;
             }
             if (null != interfaces) {
                 for (String intf: interfaces) {
                     me.addInterface(intf);
+                    ClassInfoByteCodeScanner.this.interfaces.add(intf);
                 }
             }
         }
@@ -81,6 +148,7 @@ public class ClassInfoByteCodeScanner extends AppByteCodeScannerBase {
         public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
             String annotationType = Type.getType(desc).getClassName();
             me.annotatedWith(annotationType);
+            annotations.add(annotationType);
             return super.visitAnnotation(desc, visible);
         }
     }
@@ -0,0 +1,210 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.metric.Metric;
+import act.metric.MetricPlugin;
+import org.osgl.$;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A concurrent cache that computes the value of a key on demand.
+ *
+ * * Reading a cached value does not take any lock
+ * * The value of a key is computed only once even if the key is requested
+ *   by multiple threads at the same time, other threads wait for the result.
+ *   Requesting the same key again while computing it in the same thread,
+ *   e.g. in a recursive loader, computes the value again without caching
+ * * When `maxSize` is positive the cache evicts entries not read since the last
+ *   eviction pass once the size exceeds `maxSize`
+ *
+ * Hits, misses and evictions are counted with the metric named
+ * `act:cache:<name>:hit`, `act:cache:<name>:miss` and `act:cache:<name>:eviction`
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ComputingCache<K, V> {
+
+    private final ConcurrentMap<K, Slot<V>> slots = new ConcurrentHashMap<>();
+    private final $.Function<? super K, ? extends V> loader;
+    private final int maxSize;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    // the clock hand, only accessed by the thread holding the evicting flag
+    private Iterator<Slot<V>> hand;
+    private final Metric metric;
+    private final String hitMetric;
+    private final String missMetric;
+    private final String evictionMetric;
+
+    /**
+     * Construct a cache
+     *
+     * @param name the name of the cache, used to name the metrics
+     * @param maxSize the max number of entries, `0` or negative number means unbounded
+     * @param loader the function to compute the value of a key
+     */
+    public ComputingCache(String name, int maxSize, $.Function<? super K, ? extends V> loader) {
+        this.loader = $.notNull(loader);
+        this.maxSize = maxSize;
+        MetricPlugin metricPlugin = Act.metricPlugin();
+        this.metric = null == metricPlugin ? Metric.NULL_METRIC : metricPlugin.metric("act.cache");
+        String prefix = S.concat("act:cache:", name);
+        this.hitMetric = S.concat(prefix, ":hit");
+        this.missMetric = S.concat(prefix, ":miss");
+        this.evictionMetric = S.concat(prefix, ":eviction");
+    }
+
+    /**
+     * Returns the value of the key. The value is computed and cached
+     * if it is not found in the cache
+     *
+     * @param key the key
+     * @return the value
+     */
+    public V get(K key) {
+        Slot<V> slot = slots.get(key);
+        if (null == slot) {
+            Slot<V> fresh = new Slot<>();
+            slot = slots.putIfAbsent(key, fresh);
+            if (null == slot) {
+                metric.countOnce(missMetric);
+                return load(key, fresh);
+            }
+        }
+        if (!slot.done) {
+            if (slot.owner == Thread.currentThread()) {
+                return loader.apply(key);
+            }
+            slot.await();
+        }
+        metric.countOnce(hitMetric);
+        return slot.value();
+    }
+
+    /**
+     * Returns number of entries in the cache
+     *
+     * @return the size
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Remove all entries from the cache
+     */
+    public void clear() {
+        slots.clear();
+    }
+
+    private V load(K key, Slot<V> slot) {
+        try {
+            slot.value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            slots.remove(key, slot);
+            slot.error = e;
+            throw e;
+        } finally {
+            slot.done = true;
+            slot.latch.countDown();
+        }
+        if (maxSize > 0 && slots.size() > maxSize) {
+            evict();
+        }
+        return slot.value;
+    }
+
+    /*
+     * Second chance eviction: the clock hand walks through the entries,
+     * entries read since the hand passed them last time are kept, the
+     * others are removed
+     */
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // each entry is visited at most twice
+            int steps = slots.size() * 2;
+            while (slots.size() > maxSize && steps-- > 0) {
+                if (null == hand || !hand.hasNext()) {
+                    hand = slots.values().iterator();
+                    if (!hand.hasNext()) {
+                        break;
+                    }
+                }
+                Slot<V> slot = hand.next();
+                if (!slot.done) {
+                    continue;
+                }
+                if (slot.used) {
+                    slot.used = false;
+                } else {
+                    hand.remove();
+                    metric.countOnce(evictionMetric);
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static class Slot<V> {
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile V value;
+        private volatile Throwable error;
+        private volatile boolean done;
+        private volatile boolean used;
+
+        void await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw E.unexpected(e);
+            }
+        }
+
+        V value() {
+            if (null != error) {
+                if (error instanceof Error) {
+                    throw (Error) error;
+                }
+                throw (RuntimeException) error;
+            }
+            if (!used) {
+                used = true;
+            }
+            return value;
+        }
+    }
+
+}
@@ -20,19 +20,27 @@ package act.util;
  * #L%
  */
 
+import act.data.DataPropertyRepository;
 import act.data.util.StringOrPattern;
 import com.alibaba.fastjson.serializer.JSONSerializer;
 import com.alibaba.fastjson.serializer.PropertyPreFilter;
+import org.osgl.$;
 import org.osgl.util.C;
-import org.osgl.util.FastStr;
 import org.osgl.util.S;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
  * Extend the function of {@link com.alibaba.fastjson.serializer.SimplePropertyPreFilter}
  * so it can properly handle the property filters defined with hierarchies, e.g. "foo.bar.name"
+ *
+ * The include and exclude paths are compiled into path tries and regex
+ * patterns the first time the filter is applied, and the decision for each
+ * property path is cached. Use {@link #get(List, Set, Class, ActContext)}
+ * to get a filter instance shared across requests.
  */
 public class FastJsonPropertyPreFilter implements PropertyPreFilter {
 
@@ -41,10 +49,20 @@ public class FastJsonPropertyPreFilter implements PropertyPreFilter {
      */
     public static final Pattern PROPERTY_SEPARATOR = Pattern.compile("[,;:]+");
 
+    // max number of shared filters
+    private static final int MAX_SHARED = 1024;
+
+    // max number of path decisions cached in one filter
+    private static final int MAX_DECISIONS = 4096;
+
+    private static final ConcurrentMap<Key, FastJsonPropertyPreFilter> shared = new ConcurrentHashMap<>();
+
     private final Set<String> includes = new HashSet<String>();
     private final Set<String> excludes = new HashSet<String>();
     private final List<String> fullPaths = C.newList();
 
+    private volatile Compiled compiled;
+
     public FastJsonPropertyPreFilter(String... properties) {
         super();
         addIncludes(properties);
@@ -53,6 +71,7 @@ public class FastJsonPropertyPreFilter implements PropertyPreFilter {
     public void setFullPaths(List<String> ls) {
         fullPaths.clear();
         fullPaths.addAll(ls);
+        compiled = null;
     }
 
     /**
@@ -143,6 +162,7 @@ public class FastJsonPropertyPreFilter implements PropertyPreFilter {
             path = path.replace('/', '.');
         }
         set.add(path);
+        compiled = null;
     }
 
     @Override
@@ -150,77 +170,263 @@ public class FastJsonPropertyPreFilter implements PropertyPreFilter {
         if (source == null) {
             return true;
         }
-
-        // if context path is "$.bar.zee" or "$[0].bar.zee" and name is "foo"
-        // then path should be "bar.zee.foo"
-        String path;
-        FastStr fs = FastStr.of(serializer.getContext().toString()).append('.').append(name);
-        path = fs.substring(fs.indexOf('.') + 1); // skip the first "."
-
-        return !matches(excludes, path, true) && (includes.isEmpty() || matches(includes, path, false));
+        return compiled().accept(path(serializer.getContext().toString(), name));
     }
 
-    private static final Pattern SQUARE_BLOCK = Pattern.compile("\\[.*\\]");
-    private boolean matches(Set<String> paths, String path, boolean exclude) {
-        if (path.contains("[")) {
-            path = SQUARE_BLOCK.matcher(path).replaceAll("");
+    /**
+     * Returns a filter for the output fields or excluded fields specified.
+     *
+     * The filter is shared by all calls with the same fields (and the same
+     * result type if the fields contains pattern), so the paths are only compiled
+     * once.
+     *
+     * @param outputs the output fields, only applied when excluded fields is empty
+     * @param excluded the excluded fields
+     * @param type the type of the object to be serialized
+     * @param context the current context
+     * @return the filter or `null` if no output fields nor excluded fields specified
+     */
+    public static FastJsonPropertyPreFilter get(List<String> outputs, Set<String> excluded, Class<?> type, ActContext context) {
+        boolean exclude = !excluded.isEmpty();
+        if (!exclude && outputs.isEmpty()) {
+            return null;
         }
-        if (paths.contains(path)) {
-            return true;
+        Collection<String> paths = exclude ? excluded : outputs;
+        boolean pattern = hasPattern(paths);
+        Key key = new Key(exclude, paths, pattern ? type : null);
+        FastJsonPropertyPreFilter filter = shared.get(key);
+        if (null == filter) {
+            filter = new FastJsonPropertyPreFilter();
+            if (exclude) {
+                filter.addExcludes(excluded);
+            } else {
+                filter.addIncludes(outputs);
+            }
+            if (pattern) {
+                // TODO: handle the case when result is an Iterable
+                filter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(type));
+            }
+            filter.compiled();
+            if (shared.size() < MAX_SHARED) {
+                FastJsonPropertyPreFilter existing = shared.putIfAbsent(key, filter);
+                if (null != existing) {
+                    filter = existing;
+                }
+            }
         }
-        for (String s : paths) {
-            if (path.startsWith(S.concat(s, "."))) {
-                return true;
+        return filter;
+    }
+
+    public static boolean hasPattern(Collection<String> paths) {
+        return S.join("", paths).contains("*");
+    }
+
+    /*
+     * if context path is "$.bar.zee" or "$[0].bar.zee" and name is "foo"
+     * then path should be "bar.zee.foo". Index blocks like "[0]" are removed
+     */
+    static String path(String context, String name) {
+        int len = context.length();
+        StringBuilder sb = new StringBuilder(len + name.length());
+        int start = context.indexOf('.');
+        if (start > -1) {
+            boolean inBlock = false;
+            for (int i = start + 1; i < len; ++i) {
+                char c = context.charAt(i);
+                if (inBlock) {
+                    inBlock = c != ']';
+                } else if (c == '[') {
+                    inBlock = true;
+                } else {
+                    sb.append(c);
+                }
             }
+            sb.append('.');
         }
-        if (hasPattern(paths)) {
-            return patternMatches(paths, path, exclude);
+        return sb.append(name).toString();
+    }
+
+    private Compiled compiled() {
+        Compiled c = compiled;
+        if (null == c) {
+            c = new Compiled(new PathSet(excludes, fullPaths), includes.isEmpty() ? null : new PathSet(includes, fullPaths));
+            compiled = c;
         }
-        if (exclude) {
-            return false;
+        return c;
+    }
+
+    private static class Compiled {
+        private final PathSet excludes;
+        private final PathSet includes;
+        private final ConcurrentMap<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+        Compiled(PathSet excludes, PathSet includes) {
+            this.excludes = excludes;
+            this.includes = includes;
         }
-        path = path + ".";
-        for (String s : paths) {
-            if (s.startsWith(path)) {
-                return true;
+
+        boolean accept(String path) {
+            Boolean b = decisions.get(path);
+            if (null == b) {
+                b = !excludes.matches(path, true) && (null == includes || includes.matches(path, false));
+                if (decisions.size() < MAX_DECISIONS) {
+                    decisions.put(path, b);
+                }
             }
+            return b;
         }
-        return false;
     }
 
-    public static boolean hasPattern(Collection<String> paths) {
-        return S.join("", paths).contains("*");
-    }
+    /**
+     * A set of paths compiled into a trie of path segments for the plain
+     * paths plus a list of patterns
+     */
+    private static class PathSet {
+        private final Node root = new Node();
+        private final boolean hasPattern;
+        private final List<StringOrPattern> spList;
+        // patterns used to check if a path is still at the upper level of a pattern
+        private final List<Pattern> upperPatterns;
+        private final List<String> fullPaths;
 
-    private static Map<Collection<String>, List<StringOrPattern>> spCache = C.newMap();
+        PathSet(Set<String> paths, List<String> fullPaths) {
+            this.hasPattern = hasPattern(paths);
+            this.fullPaths = C.list(fullPaths);
+            this.spList = new ArrayList<>();
+            this.upperPatterns = new ArrayList<>();
+            for (String s : paths) {
+                StringOrPattern sp = new StringOrPattern(s);
+                spList.add(sp);
+                upperPatterns.add(sp.isPattern() ? Pattern.compile("(\\.)?" + s) : null);
+                if (!sp.isPattern()) {
+                    root.add(s);
+                }
+            }
+        }
 
-    private boolean patternMatches(Set<String> paths, String path, boolean exclude) {
-        List<StringOrPattern> spList = spList(paths);
-        for (StringOrPattern sp : spList) {
-            if (sp.matches(path)) {
+        boolean matches(String path, boolean exclude) {
+            if (root.covers(path)) {
                 return true;
-            } else if (!exclude && sp.isPattern()) {
-                // check if it is the case that path is still at the upper level
-                Pattern p = Pattern.compile(path + "(\\.)?" + sp.s());
-                for (String fp : fullPaths) {
-                    if (p.matcher(fp).matches()) {
-                        return true;
+            }
+            if (hasPattern) {
+                return patternMatches(path, exclude);
+            }
+            return !exclude && root.hasDescendant(path);
+        }
+
+        private boolean patternMatches(String path, boolean exclude) {
+            for (int i = 0, n = spList.size(); i < n; ++i) {
+                StringOrPattern sp = spList.get(i);
+                if (sp.matches(path)) {
+                    return true;
+                } else if (!exclude && sp.isPattern()) {
+                    // check if it is the case that path is still at the upper level
+                    Pattern p = upperPatterns.get(i);
+                    int len = path.length();
+                    for (String fp : fullPaths) {
+                        if (fp.startsWith(path) && p.matcher(fp.substring(len)).matches()) {
+                            return true;
+                        }
                     }
                 }
             }
+            return false;
+        }
+    }
+
+    private static class Node {
+        private Map<String, Node> children = new HashMap<>();
+        private boolean terminal;
+
+        void add(String path) {
+            Node node = this;
+            int start = 0;
+            int len = path.length();
+            while (start <= len) {
+                int end = path.indexOf('.', start);
+                if (end < 0) {
+                    end = len;
+                }
+                String seg = path.substring(start, end);
+                Node child = node.children.get(seg);
+                if (null == child) {
+                    child = new Node();
+                    node.children.put(seg, child);
+                }
+                node = child;
+                start = end + 1;
+            }
+            node.terminal = true;
+        }
+
+        // the path is one of the paths or a descendant of any one of them
+        boolean covers(String path) {
+            Node node = this;
+            int start = 0;
+            int len = path.length();
+            while (start <= len) {
+                int end = path.indexOf('.', start);
+                if (end < 0) {
+                    end = len;
+                }
+                node = node.children.get(path.substring(start, end));
+                if (null == node) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+                start = end + 1;
+            }
+            return false;
+        }
+
+        // any one of the paths is a descendant of the path
+        boolean hasDescendant(String path) {
+            Node node = this;
+            int start = 0;
+            int len = path.length();
+            while (start <= len) {
+                int end = path.indexOf('.', start);
+                if (end < 0) {
+                    end = len;
+                }
+                node = node.children.get(path.substring(start, end));
+                if (null == node) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return !node.children.isEmpty();
         }
-        return false;
     }
 
-    private static List<StringOrPattern> spList(Collection<String> strings) {
-        List<StringOrPattern> ret = spCache.get(strings);
-        if (null == ret) {
-            ret = C.newList();
-            for (String s : strings) {
-                ret.add(new StringOrPattern(s));
+    private static class Key {
+        private final boolean exclude;
+        private final Collection<String> paths;
+        private final Class<?> type;
+
+        Key(boolean exclude, Collection<String> paths, Class<?> type) {
+            this.exclude = exclude;
+            this.paths = exclude ? new HashSet<>(paths) : new ArrayList<>(paths);
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
             }
-            spCache.put(strings, ret);
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return that.exclude == exclude && that.type == type && that.paths.equals(paths);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return $.hc(exclude, paths, type);
         }
-        return ret;
     }
 }
@@ -23,9 +23,17 @@ package act.util;
 import act.app.ProjectLayout;
 import org.osgl.$;
 import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
 import org.osgl.util.ListBuilder;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 /**
@@ -80,6 +88,37 @@ public enum Files {
         }
     }
 
+    /**
+     * Write a region of a file into an output stream.
+     *
+     * @param file the file
+     * @param offset the position in the file to start with
+     * @param length the number of bytes to be written
+     * @param os the output stream
+     */
+    public static void copy(File file, long offset, long length, OutputStream os) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            WritableByteChannel target = Channels.newChannel(os);
+            long pos = offset;
+            long end = offset + length;
+            while (pos < end) {
+                long n = channel.transferTo(pos, end - pos, target);
+                if (n <= 0) {
+                    break;
+                }
+                pos += n;
+            }
+            os.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            IO.close(raf);
+        }
+    }
+
     private static boolean isValidDir(File file) {
         return file.isDirectory() && !isHiddenDir(file);
     }
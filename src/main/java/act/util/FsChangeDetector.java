@@ -28,12 +28,22 @@ import org.osgl.logging.Logger;
 import org.osgl.util.C;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@code FsChangeDetector} detects changes files in a folder and all sub folders.
  * The changes includes delete/add/update events
+ *
+ * When created with a {@link FsWatcher} the detector keeps the paths reported
+ * by the watcher and only checks them when {@link #detectChanges()} is called,
+ * thus it costs nothing when there is no change. Otherwise, or when the folder
+ * cannot be watched, the whole folder is walked through on each check.
  */
 public class FsChangeDetector {
 
@@ -42,30 +52,72 @@ public class FsChangeDetector {
     private C.List<FsEventListener> listeners = C.newList();
     private final File dir;
     private final $.Predicate<String> fileNameFilter;
-    private final Map<String, Long> timestamps = C.newMap();
+    // sorted so that all paths of a sub folder can be located
+    private final TreeMap<String, Long> timestamps = new TreeMap<>();
     private final int contextLen;
     private final String context;
     private final $.Var<Long> lastChecksum = $.var(0L);
 
+    private final Path root;
+    private final FsWatcher watcher;
+    private final Set<String> pending = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private volatile boolean dirty;
+    private volatile boolean rescan;
+    private volatile long lastEvent;
+
     public FsChangeDetector(File file, $.Predicate<String> fileNameFilter) {
-        this.dir = file;
-        this.fileNameFilter = fileNameFilter;
-        this.context = file.getAbsolutePath();
-        this.contextLen = context.length();
-        initialWalkThrough();
+        this(file, fileNameFilter, (FsWatcher) null);
     }
 
 
     public FsChangeDetector(File file, $.Predicate<String> fileNameFilter, FsEventListener... listeners) {
-        this(file, fileNameFilter);
+        this(file, fileNameFilter, null, listeners);
+    }
+
+    public FsChangeDetector(File file, $.Predicate<String> fileNameFilter, FsWatcher watcher, FsEventListener... listeners) {
+        this.dir = file;
+        this.fileNameFilter = fileNameFilter;
+        this.context = file.getAbsolutePath();
+        this.contextLen = context.length();
+        this.root = file.getAbsoluteFile().toPath();
+        // watch before walking through so that no change get lost in between
+        this.watcher = null != watcher && file.isDirectory() && watcher.watch(this) ? watcher : null;
         this.listeners.append(C.listOf(listeners));
+        initialWalkThrough();
     }
 
     public void registerListener(FsEventListener listener) {
         listeners.append(listener);
     }
 
+    /**
+     * Check if the folder is watched by a {@link FsWatcher}
+     * @return `true` if the folder is watched or `false` if it is polled
+     */
+    public boolean isWatched() {
+        return null != watcher;
+    }
+
     public void detectChanges() {
+        detectChanges(true);
+    }
+
+    /**
+     * Detect changes.
+     *
+     * @param settle when the folder is watched, whether to wait for the burst
+     *               of changes to settle first, see {@link #settle()}
+     */
+    public void detectChanges(boolean settle) {
+        if (null != watcher) {
+            if (dirty) {
+                if (settle) {
+                    settle();
+                }
+                flush();
+            }
+            return;
+        }
         $.Var<Long> checksum = $.var(0L);
         Map<String, Long> newTimestamps = walkThrough(dir, checksum);
         if (!checksum.get().equals(lastChecksum.get())) {
@@ -80,6 +132,122 @@ public class FsChangeDetector {
         }
     }
 
+    Path root() {
+        return root;
+    }
+
+    void changed(Path path) {
+        String rel = root.relativize(path).toString();
+        pending.add(rel.isEmpty() ? rel : File.separator + rel);
+        lastEvent = $.ms();
+        dirty = true;
+    }
+
+    void overflow() {
+        rescan = true;
+        lastEvent = $.ms();
+        dirty = true;
+    }
+
+    private void flush() {
+        dirty = false;
+        if (rescan) {
+            rescan = false;
+            pending.clear();
+            Map<String, Long> newTimestamps = walkThrough(dir, $.var(0L));
+            C.List<FsEvent> events = diff(newTimestamps);
+            timestamps.clear();
+            timestamps.putAll(newTimestamps);
+            trigger(events);
+            return;
+        }
+        C.Set<String> added = C.newSet();
+        C.Set<String> removed = C.newSet();
+        C.Set<String> modified = C.newSet();
+        Iterator<String> itr = pending.iterator();
+        while (itr.hasNext()) {
+            String path = itr.next();
+            itr.remove();
+            refresh(path, added, removed, modified);
+        }
+        C.List<FsEvent> events = C.newSizedList(3);
+        if (!added.isEmpty()) {
+            events.add(createEvent(FsEvent.Kind.CREATE, added));
+        }
+        if (!removed.isEmpty()) {
+            events.add(createEvent(FsEvent.Kind.DELETE, removed));
+        }
+        if (!modified.isEmpty()) {
+            events.add(createEvent(FsEvent.Kind.MODIFY, modified));
+        }
+        trigger(events);
+    }
+
+    /**
+     * Wait until no change has been reported by the watcher for the debounce
+     * period, but no longer than 10 times of it, so that a burst of changes
+     * is handled at once. Returns immediately if the folder is not watched
+     * or there is no change
+     */
+    public void settle() {
+        if (null == watcher || !dirty) {
+            return;
+        }
+        long debounce = watcher.debounce();
+        long deadline = $.ms() + debounce * 10;
+        while (true) {
+            long now = $.ms();
+            long quiet = now - lastEvent;
+            if (quiet >= debounce || now >= deadline) {
+                return;
+            }
+            try {
+                Thread.sleep(debounce - quiet);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // update the timestamps of a path reported by the watcher and all paths under it
+    private void refresh(String path, Set<String> added, Set<String> removed, Set<String> modified) {
+        File file = new File(context + path);
+        Map<String, Long> current = C.newMap();
+        if (file.isDirectory()) {
+            if (!file.getName().startsWith(".") || path.isEmpty()) {
+                Files.filter(file, fileNameFilter, visitor(current, $.var(0L)));
+            }
+        } else if (file.exists() && (null == fileNameFilter || fileNameFilter.apply(file.getName()))) {
+            current.put(path, file.lastModified());
+        }
+        String prefix = path + File.separator;
+        Iterator<Map.Entry<String, Long>> itr = timestamps.tailMap(path).entrySet().iterator();
+        while (itr.hasNext()) {
+            Map.Entry<String, Long> entry = itr.next();
+            String key = entry.getKey();
+            if (!key.equals(path) && !key.startsWith(prefix)) {
+                if (key.startsWith(path)) {
+                    // e.g. `/foo.txt` sorts in between `/foo` and `/foo/`
+                    continue;
+                }
+                break;
+            }
+            Long ts = current.remove(key);
+            if (null == ts) {
+                itr.remove();
+                removed.add(key);
+            } else if (ts.longValue() != entry.getValue().longValue()) {
+                entry.setValue(ts);
+                modified.add(key);
+            }
+        }
+        for (Map.Entry<String, Long> entry : current.entrySet()) {
+            timestamps.put(entry.getKey(), entry.getValue());
+            added.add(entry.getKey());
+        }
+    }
+
     private void initialWalkThrough() {
         walkThrough(dir, timestamps, lastChecksum);
     }
@@ -91,6 +259,10 @@ public class FsChangeDetector {
     }
 
     private void check(Map<String, Long> newTimestamps) {
+        trigger(diff(newTimestamps));
+    }
+
+    private C.List<FsEvent> diff(Map<String, Long> newTimestamps) {
         C.List<FsEvent> events = C.newSizedList(3);
 
         C.Set<String> set0 = C.set(timestamps.keySet());
@@ -112,12 +284,10 @@ public class FsChangeDetector {
             events.add(createEvent(FsEvent.Kind.MODIFY, modified));
         }
 
-        if (!events.isEmpty()) {
-            trigger(events.toArray(new FsEvent[events.size()]));
-        }
+        return events;
     }
 
-    private FsEvent createEvent(FsEvent.Kind kind, C.Set<String> paths) {
+    private FsEvent createEvent(FsEvent.Kind kind, Set<String> paths) {
         return new FsEvent(kind, prependContext(paths));
     }
 
@@ -133,8 +303,8 @@ public class FsChangeDetector {
         return modified;
     }
 
-    private Set<String> prependContext(C.Set<String> paths) {
-        return C.set(paths.map(new $.F1<String, String>() {
+    private Set<String> prependContext(Set<String> paths) {
+        return C.set(C.set(paths).map(new $.F1<String, String>() {
             @Override
             public String apply(String s) throws NotAppliedException, $.Break {
                 return context + s;
@@ -165,6 +335,12 @@ public class FsChangeDetector {
         };
     }
 
+    private void trigger(C.List<FsEvent> events) {
+        if (!events.isEmpty()) {
+            trigger(events.toArray(new FsEvent[events.size()]));
+        }
+    }
+
     private void trigger(final FsEvent... events) {
         int n = listeners.size();
         for (int i = 0; i < n; ++i) {
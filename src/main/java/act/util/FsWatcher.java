@@ -0,0 +1,239 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.AppThreadFactory;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches folders through the native file system {@link WatchService}
+ * and feeds the changed paths to the {@link FsChangeDetector}s attached.
+ *
+ * All folders of a detector are registered recursively, and folders created
+ * later are registered when the creation is reported. One daemon thread
+ * serves all detectors attached to the watcher.
+ */
+public class FsWatcher implements Closeable {
+
+    private static final Logger logger = L.get(FsWatcher.class);
+
+    /**
+     * The default quiet period in milliseconds before a burst of changes
+     * is reported to the listeners
+     */
+    public static final long DEFAULT_DEBOUNCE = 50;
+
+    private final WatchService service;
+    private final long debounce;
+    private final Map<WatchKey, Path> dirs = new ConcurrentHashMap<>();
+    private final List<FsChangeDetector> detectors = new CopyOnWriteArrayList<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private FsWatcher(WatchService service, String name, long debounce) {
+        this.service = service;
+        this.debounce = debounce;
+        this.thread = new AppThreadFactory(name, true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        });
+        this.thread.start();
+    }
+
+    /**
+     * Create a watcher.
+     *
+     * @param name the name of the watcher thread
+     * @param debounce the quiet period in milliseconds
+     * @return the watcher or `null` if native file system watch
+     *         is not available on the platform
+     */
+    public static FsWatcher create(String name, long debounce) {
+        WatchService service;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn(e, "file system watch service not available, fall back to polling");
+            return null;
+        }
+        if (service.getClass().getName().contains("Polling")) {
+            // e.g. on OSX the JDK watch service polls the folders with long interval
+            closeQuietly(service);
+            return null;
+        }
+        return new FsWatcher(service, name, debounce);
+    }
+
+    public long debounce() {
+        return debounce;
+    }
+
+    /**
+     * Register all folders of a detector.
+     *
+     * @param detector the detector
+     * @return `true` if the folders are registered or `false` if the
+     *         detector shall poll the folders
+     */
+    boolean watch(FsChangeDetector detector) {
+        if (closed) {
+            return false;
+        }
+        try {
+            register(detector.root());
+        } catch (IOException | RuntimeException e) {
+            logger.warn(e, "error watching %s, fall back to polling", detector.root());
+            return false;
+        }
+        detectors.add(detector);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        detectors.clear();
+        dirs.clear();
+        closeQuietly(service);
+    }
+
+    private void register(final Path root) throws IOException {
+        final List<WatchKey> added = new ArrayList<>();
+        try {
+            java.nio.file.Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (!dir.equals(root) && isHidden(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    WatchKey key = dir.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                    // the folder might have been registered by another detector
+                    if (null == dirs.put(key, dir)) {
+                        added.add(key);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    // the file could be removed during the walk
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // do not keep watching part of the folders
+            for (WatchKey key : added) {
+                dirs.remove(key);
+                key.cancel();
+            }
+            throw e;
+        }
+    }
+
+    private void loop() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = dirs.get(key);
+            if (null == dir) {
+                key.cancel();
+                continue;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+                if (OVERFLOW == kind) {
+                    overflow(dir);
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context());
+                if (ENTRY_CREATE == kind && child.toFile().isDirectory()) {
+                    try {
+                        register(child);
+                    } catch (IOException | ClosedWatchServiceException e) {
+                        overflow(dir);
+                    }
+                }
+                changed(child);
+            }
+            if (!key.reset()) {
+                dirs.remove(key);
+            }
+        }
+    }
+
+    private void changed(Path path) {
+        for (FsChangeDetector detector : detectors) {
+            if (path.startsWith(detector.root())) {
+                detector.changed(path);
+            }
+        }
+    }
+
+    private void overflow(Path dir) {
+        for (FsChangeDetector detector : detectors) {
+            Path root = detector.root();
+            if (dir.startsWith(root) || root.startsWith(dir)) {
+                detector.overflow();
+            }
+        }
+    }
+
+    private static boolean isHidden(Path dir) {
+        Path name = dir.getFileName();
+        return null != name && name.toString().startsWith(".");
+    }
+
+    private static void closeQuietly(WatchService service) {
+        try {
+            service.close();
+        } catch (IOException e) {
+            logger.warn(e, "error closing watch service");
+        }
+    }
+
+}
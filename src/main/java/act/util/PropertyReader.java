@@ -0,0 +1,213 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.esotericsoftware.reflectasm.MethodAccess;
+import org.osgl.$;
+import org.osgl.util.S;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read a property from beans of a certain class.
+ *
+ * Bean getters are invoked through the {@link MethodAccess} generated by
+ * reflectasm, so reading a property of a row does not go through reflection.
+ * Map, collection and array values, path with index, e.g. `foo[0].bar`,
+ * and properties without a getter fall back to {@link $#getProperty(Object, String)}.
+ *
+ * Readers are cached per class and property path.
+ */
+public abstract class PropertyReader {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final PropertyReader THIS = new PropertyReader() {
+        @Override
+        public Object read(Object bean) {
+            return bean;
+        }
+    };
+
+    private static final ClassValue<Readers> readers = new ClassValue<Readers>() {
+        @Override
+        protected Readers computeValue(Class<?> type) {
+            return new Readers(type);
+        }
+    };
+
+    /**
+     * Read the property value from the bean
+     *
+     * @param bean the bean, must be an instance of the class this reader was created for
+     * @return the property value
+     */
+    public abstract Object read(Object bean);
+
+    /**
+     * Returns a reader of the property path for beans of the type specified
+     *
+     * @param type the bean class
+     * @param path the property path, e.g. `name` or `bar.zee.name`. `this` refers to the bean itself
+     * @return the property reader
+     */
+    public static PropertyReader of(Class<?> type, String path) {
+        return readers.get(type).get(path);
+    }
+
+    /**
+     * Read the property value from the bean
+     *
+     * @param bean the bean
+     * @param path the property path
+     * @return the property value or `null` if bean is `null`
+     */
+    public static Object read(Object bean, String path) {
+        return null == bean ? null : of(bean.getClass(), path).read(bean);
+    }
+
+    private static class Readers {
+        private final Class<?> type;
+        private final ConcurrentMap<String, PropertyReader> cache = new ConcurrentHashMap<>();
+        private volatile MethodAccess methodAccess;
+        private volatile boolean noMethodAccess;
+
+        Readers(Class<?> type) {
+            this.type = type;
+            this.noMethodAccess = !Modifier.isPublic(type.getModifiers()) || type.isArray() || type.isPrimitive()
+                    || Map.class.isAssignableFrom(type) || Iterable.class.isAssignableFrom(type);
+        }
+
+        PropertyReader get(String path) {
+            PropertyReader reader = cache.get(path);
+            if (null == reader) {
+                reader = create(path);
+                cache.putIfAbsent(path, reader);
+            }
+            return reader;
+        }
+
+        private PropertyReader create(String path) {
+            if ("this".equals(path)) {
+                return THIS;
+            }
+            if (path.contains("[")) {
+                return new Fallback(path);
+            }
+            int pos = path.indexOf('.');
+            if (pos < 0) {
+                pos = path.indexOf('/');
+            }
+            if (pos > 0) {
+                return new Nested(get(path.substring(0, pos)), path.substring(pos + 1));
+            }
+            MethodAccess access = methodAccess();
+            if (null != access) {
+                String cap = S.capFirst(path);
+                int index = getterIndex(access, "get" + cap);
+                if (index < 0) {
+                    index = getterIndex(access, "is" + cap);
+                }
+                if (index > -1) {
+                    return new Getter(access, index);
+                }
+            }
+            return new Fallback(path);
+        }
+
+        private MethodAccess methodAccess() {
+            if (noMethodAccess) {
+                return null;
+            }
+            MethodAccess access = methodAccess;
+            if (null == access) {
+                try {
+                    access = MethodAccess.get(type);
+                    methodAccess = access;
+                } catch (RuntimeException | LinkageError e) {
+                    // e.g. class not accessible from the generated accessor
+                    noMethodAccess = true;
+                }
+            }
+            return access;
+        }
+
+        private static int getterIndex(MethodAccess access, String name) {
+            String[] names = access.getMethodNames();
+            Class[][] paramTypes = access.getParameterTypes();
+            Class[] returnTypes = access.getReturnTypes();
+            for (int i = 0; i < names.length; ++i) {
+                if (name.equals(names[i]) && paramTypes[i].length == 0 && void.class != returnTypes[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static class Getter extends PropertyReader {
+        private final MethodAccess access;
+        private final int index;
+
+        Getter(MethodAccess access, int index) {
+            this.access = access;
+            this.index = index;
+        }
+
+        @Override
+        public Object read(Object bean) {
+            return access.invoke(bean, index, NO_ARGS);
+        }
+    }
+
+    private static class Nested extends PropertyReader {
+        private final PropertyReader head;
+        private final String rest;
+
+        Nested(PropertyReader head, String rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public Object read(Object bean) {
+            // the runtime type of the property value could be a sub type of the declared type
+            return read(head.read(bean), rest);
+        }
+    }
+
+    private static class Fallback extends PropertyReader {
+        private final String path;
+
+        Fallback(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public Object read(Object bean) {
+            return $.getProperty(bean, path);
+        }
+    }
+
+}
@@ -36,7 +36,8 @@ import javax.enterprise.context.ApplicationScoped;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static act.Destroyable.Util.tryDestroyAll;
 import static org.osgl.http.H.Session.KEY_EXPIRATION;
@@ -44,31 +45,60 @@ import static org.osgl.http.H.Session.KEY_EXPIRE_INDICATOR;
 
 /**
  * Resolve/Persist session/flash
+ *
+ * The {@link CookieResolver} of an app is built when the app starts, and
+ * listeners are kept in an array replaced on registration, so resolving
+ * session does not take any lock
  */
 public class SessionManager extends DestroyableBase {
 
     private static Logger logger = L.get(SessionManager.class);
 
-    private C.List<Listener> registry = C.newList();
-    private Map<App, CookieResolver> resolvers = C.newMap();
-    private CookieResolver theResolver = null;
+    private volatile Listener[] registry = new Listener[0];
+    private final ConcurrentMap<App, CookieResolver> resolvers = new ConcurrentHashMap<>();
+    private volatile CookieResolver theResolver = null;
 
     public SessionManager() {
     }
 
     @Override
     protected void releaseResources() {
-        tryDestroyAll(registry, ApplicationScoped.class);
-        registry = null;
+        tryDestroyAll(C.listOf(registry), ApplicationScoped.class);
+        registry = new Listener[0];
 
         tryDestroyAll(resolvers.values(), ApplicationScoped.class);
-        resolvers = null;
+        resolvers.clear();
 
         theResolver = null;
     }
 
-    public void register(Listener listener) {
-        if (!registry.contains(listener)) registry.add(listener);
+    public synchronized void register(Listener listener) {
+        Listener[] listeners = registry;
+        for (Listener l : listeners) {
+            if (l.equals(listener)) {
+                return;
+            }
+        }
+        int len = listeners.length;
+        Listener[] newListeners = new Listener[len + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, len);
+        newListeners[len] = listener;
+        registry = newListeners;
+    }
+
+    /**
+     * Build the session resolver of the app. This is called when the app
+     * starts and every time it is reloaded
+     *
+     * @param app the app
+     */
+    public void prepare(App app) {
+        CookieResolver resolver = new CookieResolver(app);
+        if (Act.multiTenant()) {
+            resolvers.put(app, resolver);
+        } else {
+            theResolver = resolver;
+        }
     }
 
     public <T extends Listener> T findListener(Class<T> clz) {
@@ -114,21 +144,23 @@ public class SessionManager extends DestroyableBase {
         }
     }
 
-    private CookieResolver getResolver(ActionContext context) {
+    CookieResolver getResolver(ActionContext context) {
         App app = context.app();
-        if (Act.multiTenant()) {
-            CookieResolver resolver = resolvers.get(app);
-            if (null == resolver) {
-                resolver = new CookieResolver(app);
-                resolvers.put(app, resolver);
-            }
-            return resolver;
-        } else {
-            if (theResolver == null) {
-                theResolver = new CookieResolver(app);
-            }
-            return theResolver;
+        CookieResolver resolver = Act.multiTenant() ? resolvers.get(app) : theResolver;
+        if (null == resolver) {
+            resolver = lazyResolver(app);
         }
+        return resolver;
+    }
+
+    // in case the app has not been prepared, e.g. in unit tests
+    private synchronized CookieResolver lazyResolver(App app) {
+        CookieResolver resolver = Act.multiTenant() ? resolvers.get(app) : theResolver;
+        if (null == resolver) {
+            prepare(app);
+            resolver = Act.multiTenant() ? resolvers.get(app) : theResolver;
+        }
+        return resolver;
     }
 
     public static abstract class Listener extends DestroyableBase implements Plugin {
@@ -159,6 +191,9 @@ public class SessionManager extends DestroyableBase {
 
     static class CookieResolver {
 
+        // the ID of the session loaded from session store
+        private static final String ATTR_STORED_SESSION_ID = "__act_stored_session_id__";
+
         private App app;
         private AppConfig conf;
         private boolean encryptSession;
@@ -169,6 +204,9 @@ public class SessionManager extends DestroyableBase {
         private SessionMapper sessionMapper;
         private String sessionCookieName;
         private String flashCookieName;
+        // not null when session state is kept at server side
+        private SessionStore sessionStore;
+        private int storeTtl;
 
         CookieResolver(App app) {
             E.NPE(app);
@@ -184,12 +222,21 @@ public class SessionManager extends DestroyableBase {
             sessionMapper = conf.sessionMapper();
             sessionCookieName = conf.sessionCookieName();
             flashCookieName = conf.flashCookieName();
+            if (conf.sessionStoreEnabled()) {
+                sessionStore = conf.sessionStore();
+                storeTtl = (int) ttl;
+            }
         }
 
         Session resolveSession(ActionContext context) {
             H.Request req = context.req();
             context.preCheckCsrf();
             String val = sessionMapper.deserializeSession(context);
+            if (null != sessionStore) {
+                Session session = resolveFromStore(val, context);
+                context.checkCsrf(session);
+                return session;
+            }
 
             Session session = new Session();
             long now = $.ms();
@@ -203,6 +250,39 @@ public class SessionManager extends DestroyableBase {
             return session;
         }
 
+        /*
+         * The cookie carries only the signed session ID. Expiration is
+         * enforced by the session store TTL
+         */
+        private Session resolveFromStore(String cookieVal, ActionContext context) {
+            Session session = new Session();
+            if (S.blank(cookieVal)) {
+                return session;
+            }
+            String id = Codec.decodeUrl(cookieVal, Charsets.UTF_8);
+            int firstDashIndex = id.indexOf("-");
+            if (firstDashIndex < 0) {
+                return session;
+            }
+            String sign = id.substring(0, firstDashIndex);
+            id = id.substring(firstDashIndex + 1);
+            if (!sign.equals(app.sign(id))) {
+                return session;
+            }
+            String data = sessionStore.load(id);
+            if (null == data) {
+                session.put(KEY_EXPIRE_INDICATOR, true);
+                return session;
+            }
+            // load without marking the session as changed
+            resolveFromKvString(session, data, true);
+            if (S.eq(id, session.get(Session.KEY_ID))) {
+                context.attribute(ATTR_STORED_SESSION_ID, id);
+                return session;
+            }
+            return new Session();
+        }
+
         H.Flash resolveFlash(ActionContext context) {
             H.Flash flash = new H.Flash();
             String val = sessionMapper.deserializeFlash(context);
@@ -219,6 +299,9 @@ public class SessionManager extends DestroyableBase {
             if (null == session) {
                 return null;
             }
+            if (null != sessionStore) {
+                return dissolveIntoStore(session, context);
+            }
             boolean sessionChanged = session.changed();
             if (!sessionChanged && (session.empty() || !sessionWillExpire)) {
                 // Nothing changed and no cookie-expire or empty, consequently send nothing back.
@@ -241,6 +324,38 @@ public class SessionManager extends DestroyableBase {
             return cookie;
         }
 
+        /*
+         * Write session data back to the store only when it is changed, and
+         * send the cookie only when the session ID is new or the cookie
+         * needs to be refreshed
+         */
+        private H.Cookie dissolveIntoStore(Session session, ActionContext context) {
+            String storedId = context.attribute(ATTR_STORED_SESSION_ID);
+            if (session.empty()) {
+                if (null == storedId) {
+                    return null;
+                }
+                sessionStore.remove(storedId);
+                return createCookie(sessionCookieName, "");
+            }
+            String id = session.id();
+            boolean idChanged = !S.eq(id, storedId);
+            if (session.changed() || idChanged) {
+                sessionStore.save(id, dissolveIntoKvString(session), storeTtl);
+                if (idChanged && null != storedId) {
+                    sessionStore.remove(storedId);
+                }
+            } else if (sessionWillExpire) {
+                sessionStore.touch(id, storeTtl);
+            }
+            if (!idChanged && !(sessionWillExpire && persistentSession)) {
+                // the cookie in the browser is still valid
+                return null;
+            }
+            String cookieVal = Codec.encodeUrl(S.concat(app.sign(id), "-", id), Charsets.UTF_8);
+            return createCookie(sessionCookieName, cookieVal);
+        }
+
         H.Cookie dissolveFlash(ActionContext context) {
             H.Flash flash = context.flash();
             if (null == flash || flash.isEmpty()) {
@@ -273,6 +388,10 @@ public class SessionManager extends DestroyableBase {
                     return;
                 }
             }
+            resolveFromKvString(kv, data, false);
+        }
+
+        private void resolveFromKvString(H.KV<?> kv, String data, boolean load) {
             List<char[]> pairs = split(data.toCharArray(), '\u0000');
             if (pairs.isEmpty()) return;
             for (char[] pair: pairs) {
@@ -285,6 +404,8 @@ public class SessionManager extends DestroyableBase {
                         sb.append(Arrays.toString(kAndV.get(i)));
                     }
                     logger.warn("unexpected KV string: %S", sb.toString());
+                } else if (load) {
+                    kv.load(new String(kAndV.get(0)), new String(kAndV.get(1)));
                 } else {
                     kv.put(new String(kAndV.get(0)), new String(kAndV.get(1)));
                 }
@@ -322,6 +443,19 @@ public class SessionManager extends DestroyableBase {
         }
 
         String dissolveIntoCookieContent(H.KV<?> kv, boolean isSession) {
+            String data = dissolveIntoKvString(kv);
+            if (isSession) {
+                String sign = app.sign(data);
+                data = S.concat(sign, "-", data);
+                if (encryptSession) {
+                    data = app.encrypt(data);
+                }
+            }
+            data = Codec.encodeUrl(data, Charsets.UTF_8);
+            return data;
+        }
+
+        private String dissolveIntoKvString(H.KV<?> kv) {
             S.Buffer sb = S.buffer();
             int i = 0;
             for (String k : kv.keySet()) {
@@ -333,16 +467,7 @@ public class SessionManager extends DestroyableBase {
                 sb.append(kv.get(k));
                 i++;
             }
-            String data = sb.toString();
-            if (isSession) {
-                String sign = app.sign(data);
-                data = S.concat(sign, "-", data);
-                if (encryptSession) {
-                    data = app.encrypt(data);
-                }
-            }
-            data = Codec.encodeUrl(data, Charsets.UTF_8);
-            return data;
+            return sb.toString();
         }
 
         private Session processExpiration(Session session, long now, boolean freshSession, H.Request request) {
@@ -0,0 +1,212 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import org.osgl.$;
+import org.osgl.cache.CacheService;
+import org.osgl.util.S;
+
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps session state at server side when {@link act.conf.AppConfigKey#SESSION_STORE_ENABLED}
+ * is turned on. The state is stored as the serialized session string keyed by session ID.
+ */
+public interface SessionStore {
+
+    /**
+     * Returns the session data by ID
+     *
+     * @param id the session ID
+     * @return the session data or `null` if not found or expired
+     */
+    String load(String id);
+
+    /**
+     * Save the session data
+     *
+     * @param id the session ID
+     * @param data the session data
+     * @param ttl the number of seconds the data shall live, `0` or negative number
+     *            means the data never expire
+     */
+    void save(String id, String data, int ttl);
+
+    /**
+     * Extend the life of the session data without changing it
+     *
+     * @param id the session ID
+     * @param ttl the number of seconds the data shall live from now on
+     */
+    void touch(String id, int ttl);
+
+    /**
+     * Remove the session data
+     *
+     * @param id the session ID
+     */
+    void remove(String id);
+
+    /**
+     * The default session store, keeps session data in a concurrent map in
+     * UTF-8 encoded byte arrays.
+     *
+     * Expired data is removed when it is accessed, and a sweep of all expired
+     * data is done every {@link #SWEEP_INTERVAL} saves
+     */
+    class InMemorySessionStore implements SessionStore {
+
+        static final int SWEEP_INTERVAL = 1024;
+
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final ConcurrentMap<String, Entry> store = new ConcurrentHashMap<>();
+        private final AtomicInteger saves = new AtomicInteger();
+
+        @Override
+        public String load(String id) {
+            Entry entry = store.get(id);
+            if (null == entry) {
+                return null;
+            }
+            if (entry.expired($.ms())) {
+                store.remove(id, entry);
+                return null;
+            }
+            return new String(entry.data, UTF_8);
+        }
+
+        @Override
+        public void save(String id, String data, int ttl) {
+            store.put(id, new Entry(data.getBytes(UTF_8), expireAt(ttl)));
+            if (saves.incrementAndGet() % SWEEP_INTERVAL == 0) {
+                sweep();
+            }
+        }
+
+        @Override
+        public void touch(String id, int ttl) {
+            Entry entry = store.get(id);
+            if (null != entry) {
+                entry.expireAt = expireAt(ttl);
+            }
+        }
+
+        @Override
+        public void remove(String id) {
+            store.remove(id);
+        }
+
+        int size() {
+            return store.size();
+        }
+
+        void sweep() {
+            long now = $.ms();
+            Iterator<Map.Entry<String, Entry>> itr = store.entrySet().iterator();
+            while (itr.hasNext()) {
+                if (itr.next().getValue().expired(now)) {
+                    itr.remove();
+                }
+            }
+        }
+
+        private static long expireAt(int ttl) {
+            return ttl > 0 ? $.ms() + ttl * 1000L : Long.MAX_VALUE;
+        }
+
+        private static class Entry {
+            private final byte[] data;
+            private volatile long expireAt;
+
+            Entry(byte[] data, long expireAt) {
+                this.data = data;
+                this.expireAt = expireAt;
+            }
+
+            boolean expired(long now) {
+                return expireAt < now;
+            }
+        }
+    }
+
+    /**
+     * Keeps session data in the session cache service specified by
+     * {@link act.conf.AppConfigKey#CACHE_NAME_SESSION}, which could be
+     * backed by an external cache like memcached or redis
+     */
+    class CacheSessionStore implements SessionStore {
+
+        private static final String KEY_PREFIX = "__act_session__";
+
+        private volatile CacheService cache;
+
+        public CacheSessionStore() {
+        }
+
+        public CacheSessionStore(CacheService cache) {
+            this.cache = $.notNull(cache);
+        }
+
+        @Override
+        public String load(String id) {
+            return cache().get(key(id));
+        }
+
+        @Override
+        public void save(String id, String data, int ttl) {
+            cache().put(key(id), data, ttl);
+        }
+
+        @Override
+        public void touch(String id, int ttl) {
+            String key = key(id);
+            CacheService cache = cache();
+            String data = cache.get(key);
+            if (null != data) {
+                cache.put(key, data, ttl);
+            }
+        }
+
+        @Override
+        public void remove(String id) {
+            cache().evict(key(id));
+        }
+
+        private CacheService cache() {
+            if (null == cache) {
+                App app = App.instance();
+                cache = app.cache(app.config().cacheNameSession());
+            }
+            return cache;
+        }
+
+        private static String key(String id) {
+            return S.concat(KEY_PREFIX, id);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import act.Act;
 import act.Destroyable;
 import act.app.App;
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.AppClassLoader;
 import act.asm.ClassVisitor;
 import act.asm.FieldVisitor;
@@ -133,13 +134,20 @@ public interface SimpleBean {
         }
     }
 
-    class ByteCodeScanner extends AppByteCodeScannerBase {
+    class ByteCodeScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
+
+        private boolean found;
 
         @Override
         protected boolean shouldScan(String className) {
             return true;
         }
 
+        @Override
+        protected void reset(String className) {
+            found = false;
+        }
+
         @Override
         public ByteCodeVisitor byteCodeVisitor() {
             return new SimpleBeanByteCodeVisitor();
@@ -150,7 +158,16 @@ public interface SimpleBean {
 
         }
 
-        private static class SimpleBeanByteCodeVisitor extends ByteCodeVisitor {
+        @Override
+        public byte[] scanResult(String className) {
+            return found ? RESCAN : null;
+        }
+
+        @Override
+        public void restoreScanResult(String className, byte[] result) {
+        }
+
+        private class SimpleBeanByteCodeVisitor extends ByteCodeVisitor {
 
             private String className;
             private boolean isPublicClass;
@@ -179,6 +196,7 @@ public interface SimpleBean {
                 if (isPublicClass && !publicFields.isEmpty()) {
                     MetaInfo metaInfo = new MetaInfo(className, publicFields);
                     Act.app().classLoader().simpleBeanInfoManager().register(metaInfo);
+                    found = true;
                 }
                 super.visitEnd();
             }
@@ -24,8 +24,10 @@ import act.Act;
 import act.app.ActionContext;
 import act.app.App;
 import act.handler.builtin.AlwaysNotFound;
+import act.handler.builtin.FileSender;
 import act.handler.builtin.controller.FastRequestHandler;
 import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.io.input.CountingInputStream;
 import org.osgl.http.H;
 import org.osgl.storage.ISObject;
 import org.osgl.storage.IStorageService;
@@ -44,6 +46,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 public class UploadFileStorageService extends FileSystemService {
 
@@ -71,21 +75,73 @@ public class UploadFileStorageService extends FileSystemService {
         return new UploadFileStorageService(conf);
     }
 
+    /**
+     * Checksum attribute of a stored upload file. The value is the
+     * hex string of the CRC32 checksum of the file content
+     */
+    public static final String ATTR_CHECKSUM = "checksum";
+
     public static ISObject store(FileItem file, App app) {
-        IStorageService ss = app.uploadFileStorageService();
         try {
-            String key = newKey();
-            ISObject sobj = SObject.of(file.getInputStream());
-            sobj.setAttribute(SObject.ATTR_FILE_NAME, file.getName());
-            sobj.setAttribute(SObject.ATTR_CONTENT_TYPE, file.getContentType());
-            sobj.setAttribute(SObject.ATTR_URL, "/~upload/" + sobj.getKey());
-            ss.put(key, sobj);
-            return ss.get(key);
+            return store(file.getInputStream(), file.getName(), file.getContentType(), app);
         } catch (IOException e) {
             throw E.ioException(e);
         }
     }
 
+    /**
+     * Store the content of an input stream into the upload file storage.
+     *
+     * The stream is piped directly into the storage and its checksum is
+     * calculated along the way, so there is no temporary copy and the stored
+     * content is not read back.
+     *
+     * @param is the input stream
+     * @param fileName the original file name
+     * @param contentType the content type
+     * @param app the app
+     * @return the stored object or `null` if the stream is empty
+     */
+    public static ISObject store(InputStream is, String fileName, String contentType, App app) {
+        IStorageService ss = app.uploadFileStorageService();
+        String key = newKey();
+        CheckedInputStream cis = new CheckedInputStream(is, new CRC32());
+        CountingInputStream counter = new CountingInputStream(cis);
+        ISObject sobj = SObject.of(counter);
+        sobj.setAttribute(SObject.ATTR_FILE_NAME, fileName);
+        sobj.setAttribute(SObject.ATTR_CONTENT_TYPE, contentType);
+        sobj.setAttribute(SObject.ATTR_URL, "/~upload/" + key);
+        ISObject stored;
+        try {
+            stored = ss.put(key, sobj);
+        } catch (RuntimeException e) {
+            // e.g. the upload exceeds the size limit
+            ss.remove(key);
+            throw e;
+        } finally {
+            IO.close(cis);
+        }
+        long length = counter.getByteCount();
+        if (0 == length) {
+            ss.remove(key);
+            return null;
+        }
+        // set length so that it won't read back the content to find it out
+        stored.setAttribute(SObject.ATTR_CONTENT_LENGTH, String.valueOf(length));
+        stored.setAttribute(ATTR_CHECKSUM, Long.toHexString(cis.getChecksum().getValue()));
+        return stored;
+    }
+
+    /**
+     * Returns the file that stores the content of the key specified
+     *
+     * @param key the storage key
+     * @return the file
+     */
+    public File file(String key) {
+        return new File(root(), keyWithContextPath(key));
+    }
+
     public static String newKey() {
         // Note we don't use App.cuid() here to get higher level security
         return UUID.randomUUID().toString();
@@ -100,20 +156,37 @@ public class UploadFileStorageService extends FileSystemService {
                 AlwaysNotFound.INSTANCE.handle(context);
                 return;
             }
-            ISObject sobj = context.app().uploadFileStorageService().get(key);
+            IStorageService ss = context.app().uploadFileStorageService();
+            ISObject sobj = ss.get(key);
             if (null == sobj) {
                 AlwaysNotFound.INSTANCE.handle(context);
                 return;
             }
             H.Format fmt = H.Format.of(sobj.getAttribute(ISObject.ATTR_CONTENT_TYPE));
+            if (null == fmt || H.Format.UNKNOWN == fmt) {
+                fmt = H.Format.BINARY;
+            }
+            if (ss instanceof UploadFileStorageService) {
+                File file = ((UploadFileStorageService) ss).file(key);
+                if (!file.isFile()) {
+                    AlwaysNotFound.INSTANCE.handle(context);
+                    return;
+                }
+                FileSender.send(file, fmt, context);
+                return;
+            }
             InputStream is = new BufferedInputStream(sobj.asInputStream());
             H.Response resp = context.resp();
-            if (null != fmt && H.Format.UNKNOWN != fmt) {
-                resp.contentType(fmt.contentType());
-            }
+            resp.contentType(fmt.contentType());
             IO.copy(is, context.resp().outputStream());
         }
 
+        @Override
+        public boolean express(ActionContext context) {
+            // only file content is transferred without blocking the IO thread
+            return context.app().uploadFileStorageService() instanceof UploadFileStorageService;
+        }
+
         @Override
         public String toString() {
             return "Upload file getter";
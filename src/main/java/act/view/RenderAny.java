@@ -70,7 +70,11 @@ public class RenderAny extends Result {
                     map.put(name, context.renderArg(name));
                 }
             }
-            result = new RenderJSON(map);
+            if (context.config().renderJsonStreaming()) {
+                result = new StreamingRenderJSON(map, null, context);
+            } else {
+                result = new RenderJSON(map);
+            }
         } else if (XML == fmt) {
             List<String> varNames = context.__appRenderArgNames();
             Map<String, Object> map = C.newMap();
@@ -0,0 +1,85 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.view.CliView;
+import act.util.ActContext;
+import act.util.PropertySpec;
+import org.osgl.http.H;
+import org.osgl.mvc.result.RenderContent;
+import org.osgl.util.E;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A CSV result that writes the rows directly into the response writer.
+ *
+ * Unlike {@link RenderCSV} the CSV string is not built in memory. When the
+ * object is an `Iterable` or `Iterator` the rows are pulled one by one
+ * and sent to the client with chunked transfer encoding.
+ *
+ * Note the rows are written when the result is applied to the response,
+ * thus if any error raised in the middle, part of the content might have
+ * already been sent to the client
+ */
+public class StreamingRenderCSV extends RenderContent {
+
+    private static final long serialVersionUID = 6287301551935240571L;
+
+    private Object v;
+    private PropertySpec.MetaInfo spec;
+    private ActContext context;
+
+    public StreamingRenderCSV(Object v, PropertySpec.MetaInfo spec, ActContext context) {
+        this(H.Status.OK, v, spec, context);
+    }
+
+    public StreamingRenderCSV(H.Status status, Object v, PropertySpec.MetaInfo spec, ActContext context) {
+        super(status, null, H.Format.CSV);
+        this.v = v;
+        this.spec = spec;
+        this.context = context;
+    }
+
+    @Override
+    public String content() {
+        return CliView.CSV.render(v, spec, context);
+    }
+
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        try {
+            applyStatus(resp);
+            setContentType(resp);
+            applyBeforeCommitHandler(req, resp);
+            Writer writer = resp.writer();
+            CliView.CSV.render(writer, v, spec, context);
+            writer.flush();
+            applyAfterCommitHandler(req, resp);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            clearThreadLocals();
+        }
+    }
+
+}
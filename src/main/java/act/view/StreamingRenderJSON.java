@@ -0,0 +1,105 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.view.CliView;
+import act.util.ActContext;
+import act.util.DisableFastJsonCircularReferenceDetect;
+import act.util.PropertySpec;
+import org.osgl.http.H;
+import org.osgl.mvc.result.RenderContent;
+import org.osgl.util.E;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A JSON result that serializes the object directly into the response
+ * writer.
+ *
+ * Unlike {@link FilteredRenderJSON} the JSON string is not built in memory
+ * before sending to the response. Instead the serializer flushes the
+ * content to the response in chunks, which is then sent to the client
+ * with chunked transfer encoding. This keeps the heap usage flat when
+ * rendering large lists.
+ *
+ * Note the serialization happens when the result is applied to the response,
+ * thus if any error raised in the middle, part of the content might have
+ * already been sent to the client
+ */
+public class StreamingRenderJSON extends RenderContent {
+
+    private static final long serialVersionUID = -3410872542127765284L;
+
+    private Object v;
+    private PropertySpec.MetaInfo spec;
+    private ActContext context;
+    private boolean disableCircularReferenceDetect;
+
+    public StreamingRenderJSON(Object v, PropertySpec.MetaInfo spec, ActContext context) {
+        this(H.Status.OK, v, spec, context);
+    }
+
+    public StreamingRenderJSON(H.Status status, Object v, PropertySpec.MetaInfo spec, ActContext context) {
+        super(status, null, H.Format.JSON);
+        this.v = v;
+        this.spec = spec;
+        this.context = context;
+        // the option will be reset once the handler method returned
+        Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
+        this.disableCircularReferenceDetect = null != b && b;
+    }
+
+    @Override
+    public String content() {
+        return CliView.JSON.render(v, spec, context);
+    }
+
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        try {
+            applyStatus(resp);
+            setContentType(resp);
+            applyBeforeCommitHandler(req, resp);
+            render(resp.writer());
+            applyAfterCommitHandler(req, resp);
+        } finally {
+            clearThreadLocals();
+        }
+    }
+
+    private void render(Writer writer) {
+        if (disableCircularReferenceDetect) {
+            DisableFastJsonCircularReferenceDetect.option.set(true);
+        }
+        try {
+            CliView.JSON.render(writer, v, spec, context);
+            writer.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            if (disableCircularReferenceDetect) {
+                DisableFastJsonCircularReferenceDetect.option.set(false);
+            }
+        }
+    }
+
+}
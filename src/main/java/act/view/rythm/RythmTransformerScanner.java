@@ -22,6 +22,7 @@ package act.view.rythm;
 
 import act.Act;
 import act.app.AppByteCodeScannerBase;
+import act.app.IndexableByteCodeScanner;
 import act.app.event.AppEventId;
 import act.asm.AnnotationVisitor;
 import act.asm.MethodVisitor;
@@ -36,7 +37,7 @@ import org.rythmengine.extension.Transformer;
  * Search for method that has {@link org.rythmengine.extension.Transformer} annotation.
  * Register the class if such method found
  */
-public class RythmTransformerScanner extends AppByteCodeScannerBase {
+public class RythmTransformerScanner extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
 
     private static final String TRANSFORMER = Transformer.class.getName();
 
@@ -50,13 +51,28 @@ public class RythmTransformerScanner extends AppByteCodeScannerBase {
         return new Visitor();
     }
 
+    private boolean found;
+
+    @Override
+    protected void reset(String className) {
+        found = false;
+    }
+
     @Override
     public void scanFinished(String className) {
     }
 
+    @Override
+    public byte[] scanResult(String className) {
+        return found ? RESCAN : null;
+    }
+
+    @Override
+    public void restoreScanResult(String className, byte[] result) {
+    }
+
     private class Visitor extends ByteCodeVisitor {
 
-        boolean found;
         String className;
 
         @Override
@@ -46,6 +46,9 @@ import org.osgl.mvc.result.Result;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * A `NetworkHandler` can be registered to an {@link Network} and get invoked when
  * there are network event (e.g. an HTTP request) incoming
@@ -57,6 +60,8 @@ public class NetworkHandler extends DestroyableBase {
     final private App app;
     private NamedPort port;
     private Metric metric;
+    // cache the handler metric names so that we don't build one for each request
+    private ConcurrentMap<RequestHandler, String> handlerMetricNames = new ConcurrentHashMap<>();
     private $.Func2<H.Request, String, String> contentSuffixProcessor;
     private $.Func2<H.Request, String, String> urlContextProcessor;
 
@@ -97,6 +102,7 @@ public class NetworkHandler extends DestroyableBase {
             boolean updated = app.checkUpdates(false);
             if (updated) {
                 initUrlProcessors();
+                handlerMetricNames.clear();
             }
         }
         url = contentSuffixProcessor.apply(req, url);
@@ -115,8 +121,7 @@ public class NetworkHandler extends DestroyableBase {
         NetworkJob job = new NetworkJob() {
             @Override
             public void run() {
-                String key = S.concat(MetricInfo.HTTP_HANDLER, ":", requestHandler.toString());
-                Timer timer = metric.startTimer(key);
+                Timer timer = metric.startTimer(metricName(requestHandler));
                 ctx.saveLocal();
                 try {
                     requestHandler.handle(ctx);
@@ -178,6 +183,18 @@ public class NetworkHandler extends DestroyableBase {
         return app().name();
     }
 
+    private String metricName(RequestHandler handler) {
+        if (Metric.NULL_METRIC == metric) {
+            return MetricInfo.HTTP_HANDLER;
+        }
+        String name = handlerMetricNames.get(handler);
+        if (null == name) {
+            name = S.concat(MetricInfo.HTTP_HANDLER, ":", handler.toString());
+            handlerMetricNames.putIfAbsent(handler, name);
+        }
+        return name;
+    }
+
     private Router router() {
         return app.router(port);
     }
@@ -31,9 +31,16 @@ import org.osgl.exception.UnexpectedIOException;
 import org.osgl.http.H;
 import org.osgl.util.E;
 import org.osgl.util.IO;
+import org.xnio.ChannelListener;
+import org.xnio.IoUtils;
+import org.xnio.channels.StreamSinkChannel;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Locale;
 
 public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
@@ -86,6 +93,77 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
         return this;
     }
 
+    /**
+     * Transfer the file region to the response channel with
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * so the content goes from the file system cache to the socket without
+     * being copied into the heap. The transfer is non-blocking and can be
+     * started from the IO thread.
+     *
+     * It falls back to the output stream if the exchange is already in
+     * blocking mode
+     */
+    @Override
+    public void sendFile(File file, long offset, long length) {
+        if (hse.isBlocking() || null != outputStream || null != writer) {
+            super.sendFile(file, offset, length);
+            return;
+        }
+        final FileChannel fileChannel;
+        try {
+            fileChannel = new RandomAccessFile(file, "r").getChannel();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        try {
+            fileChannel.position(offset);
+        } catch (IOException e) {
+            IoUtils.safeClose(fileChannel);
+            throw E.ioException(e);
+        }
+        StreamSinkChannel channel = hse.getResponseChannel();
+        FileTransfer transfer = new FileTransfer(fileChannel, offset, length);
+        channel.getWriteSetter().set(transfer);
+        transfer.handleEvent(channel);
+    }
+
+    private class FileTransfer implements ChannelListener<StreamSinkChannel> {
+        private final FileChannel source;
+        private long position;
+        private long remaining;
+
+        FileTransfer(FileChannel source, long position, long count) {
+            this.source = source;
+            this.position = position;
+            this.remaining = count;
+        }
+
+        @Override
+        public void handleEvent(StreamSinkChannel channel) {
+            try {
+                while (remaining > 0) {
+                    long n = channel.transferFrom(source, position, remaining);
+                    if (n == 0) {
+                        // socket buffer is full, wait for the next write event
+                        channel.resumeWrites();
+                        return;
+                    }
+                    position += n;
+                    remaining -= n;
+                    // some conduits read the source from its current position
+                    source.position(position);
+                }
+                channel.suspendWrites();
+                channel.getWriteSetter().set(null);
+                IoUtils.safeClose(source);
+                hse.endExchange();
+            } catch (IOException e) {
+                IoUtils.safeClose(source);
+                IoUtils.safeClose(hse.getConnection());
+            }
+        }
+    }
+
     @Override
     protected OutputStream createOutputStream() {
         ensureBlocking();
@@ -36,13 +36,16 @@ package fc.cron;
  */
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
-import org.joda.time.MutableDateTime;
+import org.joda.time.LocalDateTime;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -173,6 +176,15 @@ public class CronExpression {
     private final SimpleField monthField;
     private final DayOfMonthField dayOfMonthField;
 
+    private static final int MAX_DAY_MASKS = 256;
+
+    // bit masks of the matching values of each field
+    private final long secondMask;
+    private final long minuteMask;
+    private final long hourMask;
+    private final long monthMask;
+    private final ConcurrentMap<Integer, Integer> dayMasks = new ConcurrentHashMap<Integer, Integer>();
+
     public CronExpression(final String expr) {
         this(expr, true);
     }
@@ -198,6 +210,11 @@ public class CronExpression {
         this.dayOfMonthField = new DayOfMonthField(parts[ix++]);
         this.monthField = new SimpleField(CronFieldType.MONTH, parts[ix++]);
         this.dayOfWeekField = new DayOfWeekField(parts[ix++]);
+
+        this.secondMask = secondField.mask();
+        this.minuteMask = minuteField.mask();
+        this.hourMask = hourField.mask();
+        this.monthMask = monthField.mask();
     }
 
     public static CronExpression create(final String expr) {
@@ -223,64 +240,134 @@ public class CronExpression {
     }
 
     public DateTime nextTimeAfter(DateTime afterTime, DateTime dateTimeBarrier) {
-        MutableDateTime nextTime = new MutableDateTime(afterTime);
-        nextTime.setMillisOfSecond(0);
-        nextTime.secondOfDay().add(1);
-
-        while (true) { // day of week
-            while (true) { // month
-                while (true) { // day of month
-                    while (true) { // hour
-                        while (true) { // minute
-                            while (true) { // second
-                                if (secondField.matches(nextTime.getSecondOfMinute())) {
-                                    break;
-                                }
-                                nextTime.secondOfDay().add(1);
-                            }
-                            if (minuteField.matches(nextTime.getMinuteOfHour())) {
-                                break;
-                            }
-                            nextTime.minuteOfDay().add(1);
-                            nextTime.secondOfMinute().set(0);
-                        }
-                        if (hourField.matches(nextTime.getHourOfDay())) {
-                            break;
-                        }
-                        nextTime.hourOfDay().add(1);
-                        nextTime.minuteOfHour().set(0);
-                        nextTime.secondOfMinute().set(0);
-                    }
-                    if (dayOfMonthField.matches(new LocalDate(nextTime))) {
-                        break;
-                    }
-                    nextTime.addDays(1);
-                    nextTime.setTime(0, 0, 0, 0);
-                    checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
-                }
-                if (monthField.matches(nextTime.getMonthOfYear())) {
-                    break;
-                }
-                nextTime.addMonths(1);
-                nextTime.setDayOfMonth(1);
-                nextTime.setTime(0, 0, 0, 0);
-                checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
+        // walk down the fields from month to second, on each field jump to the next
+        // matching value with the bit masks, and carry to the upper field if there
+        // is no more matching value in the current one
+        DateTimeZone zone = afterTime.getZone();
+        LocalDateTime start = afterTime.toLocalDateTime().withMillisOfSecond(0).plusSeconds(1);
+        LocalDate barrier = dateTimeBarrier.withZone(zone).toLocalDate();
+        int year = start.getYear();
+        int month = start.getMonthOfYear();
+        int day = start.getDayOfMonth();
+        int hour = start.getHourOfDay();
+        int minute = start.getMinuteOfHour();
+        int second = start.getSecondOfMinute();
+        while (true) {
+            int found = next(monthMask, month);
+            if (found < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+                checkIfDateTimeBarrierIsReached(year, month, day, barrier);
+                continue;
+            } else if (found != month) {
+                month = found;
+                day = 1;
+                hour = minute = second = 0;
+            }
+            found = next(dayMask(year, month), day);
+            if (found < 0) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                checkIfDateTimeBarrierIsReached(year, Math.min(month, 12), day, barrier);
+                continue;
+            } else if (found != day) {
+                day = found;
+                hour = minute = second = 0;
+                checkIfDateTimeBarrierIsReached(year, month, day, barrier);
+            }
+            found = next(hourMask, hour);
+            if (found < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            } else if (found != hour) {
+                hour = found;
+                minute = second = 0;
+            }
+            found = next(minuteMask, minute);
+            if (found < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            } else if (found != minute) {
+                minute = found;
+                second = 0;
             }
-            if (dayOfWeekField.matches(new LocalDate(nextTime))) {
-                break;
+            found = next(secondMask, second);
+            if (found < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            second = found;
+            LocalDateTime candidate = new LocalDateTime(year, month, day, hour, minute, second);
+            if (zone.isLocalDateTimeGap(candidate)) {
+                // the local time is skipped by daylight saving change
+                minute++;
+                second = 0;
+                continue;
+            }
+            DateTime nextTime = candidate.toDateTime(zone);
+            if (!nextTime.isAfter(afterTime)) {
+                // the second occurrence of the local time when daylight saving ends
+                nextTime = nextTime.withLaterOffsetAtOverlap();
+                if (!nextTime.isAfter(afterTime)) {
+                    second++;
+                    continue;
+                }
             }
-            nextTime.addDays(1);
-            nextTime.setTime(0, 0, 0, 0);
-            checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
+            return nextTime;
         }
+    }
 
-        return nextTime.toDateTime();
+    private static void checkIfDateTimeBarrierIsReached(int year, int month, int day, LocalDate barrier) {
+        int date = year * 10000 + month * 100 + day;
+        int limit = barrier.getYear() * 10000 + barrier.getMonthOfYear() * 100 + barrier.getDayOfMonth();
+        if (date > limit) {
+            throw new IllegalArgumentException("No next execution time could be determined that is before the limit of " + barrier);
+        }
     }
 
-    private static void checkIfDateTimeBarrierIsReached(MutableDateTime nextTime, DateTime dateTimeBarrier) {
-        if (nextTime.isAfter(dateTimeBarrier)) {
-            throw new IllegalArgumentException("No next execution time could be determined that is before the limit of " + dateTimeBarrier);
+    /**
+     * Returns the lowest bit set in the mask that is not lower than `from`
+     * or `-1` if there is no such bit
+     */
+    private static int next(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long bits = mask & (-1L << from);
+        return 0L == bits ? -1 : Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns days matching both day of month and day of week fields
+     * in the month as a bit mask
+     */
+    private long dayMask(int year, int month) {
+        Integer key = year * 16 + month;
+        Integer mask = dayMasks.get(key);
+        if (null == mask) {
+            LocalDate date = new LocalDate(year, month, 1);
+            int days = date.dayOfMonth().getMaximumValue();
+            int bits = 0;
+            for (int day = 1; day <= days; ++day) {
+                LocalDate d = date.withDayOfMonth(day);
+                if (dayOfMonthField.matches(d) && dayOfWeekField.matches(d)) {
+                    bits |= 1 << day;
+                }
+            }
+            if (dayMasks.size() > MAX_DAY_MASKS) {
+                dayMasks.clear();
+            }
+            mask = bits;
+            dayMasks.put(key, mask);
         }
+        // day 31 takes the sign bit
+        return mask & 0xFFFFFFFFL;
     }
 
     @Override
@@ -355,6 +442,9 @@ public class CronExpression {
                 if (inkrement != null) {
                     part.incrementModifier = inkrementModifier;
                     part.increment = Integer.valueOf(inkrement);
+                    if (part.increment <= 0) {
+                        throw new IllegalArgumentException(String.format("Invalid increment [%s], must be positive", inkrement));
+                    }
                 }
 
                 validateRange(part);
@@ -405,6 +495,16 @@ public class CronExpression {
             super(fieldType, fieldExpr);
         }
 
+        long mask() {
+            long mask = 0L;
+            for (FieldPart part : parts) {
+                for (int val = part.from; val <= part.to; val += part.increment) {
+                    mask |= 1L << val;
+                }
+            }
+            return mask;
+        }
+
         public boolean matches(int val) {
             if (val >= fieldType.from && val <= fieldType.to) {
                 for (FieldPart part : parts) {
@@ -0,0 +1,140 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.asm.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ByteCodeReadAheadTest extends TestBase {
+
+    @Test
+    public void parallelReadShallKeepOrderAndEvents() {
+        List<String> expected = scan(1, 500);
+        List<String> actual = scan(4, 500);
+        eq(500, expected.size());
+        eq(expected, actual);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void readErrorShallBeRethrown() {
+        ByteCodeReadAhead readAhead = new ByteCodeReadAhead(2);
+        try {
+            readAhead.offer("Broken", new byte[]{(byte) 0xCA, (byte) 0xFE});
+            readAhead.poll().accept(new Tracer());
+        } finally {
+            readAhead.shutdown();
+        }
+    }
+
+    static List<String> scan(int parallelism, int classes) {
+        List<String> traces = new ArrayList<>();
+        ByteCodeReadAhead readAhead = new ByteCodeReadAhead(parallelism);
+        try {
+            for (int i = 0; i < classes; ++i) {
+                ByteCodeReadAhead.Unit unit = readAhead.offer("gen.C" + i, synthClass(i));
+                if (null != unit) {
+                    traces.add(trace(unit));
+                }
+            }
+            ByteCodeReadAhead.Unit unit;
+            while (null != (unit = readAhead.poll())) {
+                traces.add(trace(unit));
+            }
+        } finally {
+            readAhead.shutdown();
+        }
+        return traces;
+    }
+
+    private static String trace(ByteCodeReadAhead.Unit unit) {
+        Tracer tracer = new Tracer();
+        unit.accept(tracer);
+        return unit.className + ":" + tracer.sb;
+    }
+
+    /**
+     * Generate a class with some fields, annotations and methods
+     */
+    static byte[] synthClass(int i) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String name = "gen/C" + i;
+        cw.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+        cw.visitAnnotation("Ljavax/inject/Singleton;", true).visitEnd();
+        for (int f = 0; f < 5; ++f) {
+            cw.visitField(Opcodes.ACC_PRIVATE, "f" + f, "Ljava/lang/String;", null, null).visitEnd();
+        }
+        for (int m = 0; m < 5; ++m) {
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "m" + m, "(I)Ljava/lang/String;", null, null);
+            mv.visitAnnotation("Ljavax/inject/Named;", true).visitEnd();
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, name, "f" + m, "Ljava/lang/String;");
+            mv.visitLdcInsn("x" + i);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "concat", "(Ljava/lang/String;)Ljava/lang/String;", false);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    static class Tracer extends ClassVisitor {
+        final StringBuilder sb = new StringBuilder();
+
+        Tracer() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            sb.append("@").append(desc);
+            return null;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+            sb.append(" f:").append(name);
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            sb.append(" m:").append(name);
+            return new MethodVisitor(Opcodes.ASM5) {
+                @Override
+                public void visitLdcInsn(Object cst) {
+                    sb.append(" ldc:").append(cst);
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+                    sb.append(" call:").append(name);
+                }
+            };
+        }
+    }
+
+}
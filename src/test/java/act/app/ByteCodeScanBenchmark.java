@@ -0,0 +1,85 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+/**
+ * Compare the sequential bytecode read with the parallel read ahead on
+ * a synthetic class path of 20000 classes.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+@BenchmarkOptions(warmupRounds = 3, benchmarkRounds = 10)
+public class ByteCodeScanBenchmark {
+
+    private static final int CLASSES = 20000;
+
+    @Rule
+    public TestRule benchmarkRun = new BenchmarkRule();
+
+    private static byte[][] classes;
+
+    @Before
+    public void prepare() {
+        if (null != classes) {
+            return;
+        }
+        classes = new byte[CLASSES][];
+        for (int i = 0; i < CLASSES; ++i) {
+            classes[i] = ByteCodeReadAheadTest.synthClass(i);
+        }
+    }
+
+    @Test
+    public void sequential() {
+        scan(1);
+    }
+
+    @Test
+    public void parallel() {
+        scan(Runtime.getRuntime().availableProcessors());
+    }
+
+    private void scan(int parallelism) {
+        ByteCodeReadAhead readAhead = new ByteCodeReadAhead(parallelism);
+        try {
+            for (int i = 0; i < CLASSES; ++i) {
+                ByteCodeReadAhead.Unit unit = readAhead.offer("gen.C" + i, classes[i]);
+                if (null != unit) {
+                    unit.accept(new ByteCodeReadAheadTest.Tracer());
+                }
+            }
+            ByteCodeReadAhead.Unit unit;
+            while (null != (unit = readAhead.poll())) {
+                unit.accept(new ByteCodeReadAheadTest.Tracer());
+            }
+        } finally {
+            readAhead.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.util.ByteCodeSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Map;
+
+public class EnhancedClassCacheTest extends TestBase {
+
+    private static final List<String> ENHANCERS = C.list("foo.Enhancer");
+
+    private File root;
+    private ByteCodeSource classes;
+    private Map<String, String> conf;
+
+    @Before
+    public void prepare() throws IOException {
+        root = File.createTempFile("act-enhanced", "");
+        root.delete();
+        root.mkdirs();
+        classes = new ByteCodeSource();
+        classes.put("foo.Bar", new byte[]{1, 2, 3});
+        classes.put("foo.Baz", new byte[]{4, 5});
+        conf = C.newMap("foo", "bar");
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(root, true);
+    }
+
+    @Test
+    public void itShallReturnCachedBytecode() {
+        EnhancedClassCache cache = new EnhancedClassCache(root, generation());
+        byte[] original = classes.get("foo.Bar");
+        yes(null == cache.get("foo.Bar", original));
+        cache.put("foo.Bar", original, new byte[]{9, 8, 7, 6});
+        cache = new EnhancedClassCache(root, generation());
+        eq(4, cache.get("foo.Bar", original).length);
+        // original bytecode changed
+        yes(null == cache.get("foo.Bar", new byte[]{1, 2}));
+    }
+
+    @Test
+    public void corruptedFileShallBeDropped() throws IOException {
+        String generation = generation();
+        EnhancedClassCache cache = new EnhancedClassCache(root, generation);
+        byte[] original = classes.get("foo.Bar");
+        cache.put("foo.Bar", original, new byte[]{9, 8, 7, 6});
+        File file = new File(new File(root, generation), "foo.Bar.class");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(raf.length() - 1);
+        raf.write(0);
+        raf.close();
+        yes(null == cache.get("foo.Bar", original));
+        no(file.exists());
+    }
+
+    @Test
+    public void generationShallChangeWithClassesAndConfig() throws IOException {
+        String g1 = generation();
+        conf.put("foo", "baz");
+        String g2 = generation();
+        no(g1.equals(g2));
+        classes.put("foo.Bar", new byte[]{1, 2, 4});
+        String g3 = generation();
+        no(g2.equals(g3));
+        eq(g3, generation());
+
+        File other = new File(root, "other");
+        other.mkdirs();
+        new EnhancedClassCache(root, g1);
+        new EnhancedClassCache(root, g3);
+        no(new File(root, g1).exists());
+        yes(new File(root, g3).exists());
+        yes(other.exists());
+    }
+
+    private String generation() {
+        return EnhancedClassCache.generation(ENHANCERS, classes, conf, null);
+    }
+
+}
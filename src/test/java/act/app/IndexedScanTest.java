@@ -0,0 +1,253 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.cli.CliDispatcher;
+import act.cli.bytecode.CommanderByteCodeScanner;
+import act.cli.meta.CommanderClassMetaInfo;
+import act.event.bytecode.SimpleEventListenerByteCodeScanner;
+import act.inject.genie.GenieFactoryFinder;
+import act.asm.Type;
+import act.job.AppJobManager;
+import act.job.OnAppStart;
+import act.job.bytecode.JobByteCodeScanner;
+import act.job.meta.JobClassMetaInfo;
+import act.job.meta.JobMethodMetaInfo;
+import act.mail.Mailer;
+import act.mail.bytecode.MailerByteCodeScanner;
+import act.mail.meta.MailerClassMetaInfo;
+import act.mail.meta.SenderMethodMetaInfo;
+import act.util.AnnotatedTypeFinder;
+import act.util.ByteCodeVisitor;
+import act.util.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+import testapp.job.InvalidJobService;
+import testapp.mail.MyMailer;
+import testapp.model.Address;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test scanning lib classes with the scan index enabled
+ */
+public class IndexedScanTest extends TestBase {
+
+    private File home;
+    private File base;
+    private TestingAppClassLoader classLoader;
+    private VisitCounter counter;
+    private AppJobManager jobManager;
+    private CountingJobScanner jobScanner;
+    private CountingMailerScanner mailerScanner;
+    private List<AppByteCodeScanner> extraScanners = C.list();
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        home = File.createTempFile("act-indexed-scan", "");
+        home.delete();
+        home.mkdirs();
+        base = new File("./target/test-classes");
+        when(mockApp.home()).thenReturn(home);
+        when(mockAppConfig.scanIndex()).thenReturn(true);
+    }
+
+    @After
+    public void cleanup() {
+        if (null != jobManager) {
+            jobManager.destroy();
+        }
+        IO.delete(home, true);
+    }
+
+    @Test
+    public void unchangedClassShallNotBeScannedAgain() {
+        scan(Address.class);
+        eq(1, counter.visits(Address.class));
+        yes(new File(home, ".act.scan-index").exists());
+
+        scan(Address.class);
+        eq(0, counter.visits(Address.class));
+        // the commander meta info is restored for sub classes looking up their parents
+        CommanderClassMetaInfo info = classLoader.commanderClassMetaInfoManager().commanderMetaInfo(Address.class.getName());
+        eq(Object.class.getName(), info.superType().getClassName());
+        no(info.isAbstract());
+    }
+
+    @Test
+    public void mailerMetaInfoShallBeRestored() {
+        scan(MyMailer.class);
+        eq(1, mailerScanner.visits);
+        scan(MyMailer.class);
+        eq(0, mailerScanner.visits);
+        MailerClassMetaInfo info = classLoader.mailerClassMetaInfo(MyMailer.class.getName());
+        yes(info.isMailer());
+        eq("foo", info.configId());
+        SenderMethodMetaInfo sendX = info.sender("sendX");
+        eq(2, sendX.paramCount());
+        eq(String.class.getName(), sendX.param(0).type().getClassName());
+        no(sendX.isStatic());
+        SenderMethodMetaInfo sendY = info.sender("sendY");
+        eq(Future.class.getName(), sendY.returnType().getClassName());
+        eq(Type.LONG_TYPE, sendY.param(1).type());
+    }
+
+    @Test
+    public void jobMetaInfoShallBeRestored() {
+        // the job annotation processor registers the jobs into the job manager
+        jobManager = new AppJobManager(mockApp);
+        when(mockApp.jobManager()).thenReturn(jobManager);
+        scan(InvalidJobService.class);
+        eq(1, jobScanner.visits);
+        scan(InvalidJobService.class);
+        eq(0, jobScanner.visits);
+        JobClassMetaInfo info = classLoader.jobClassMetaInfo(InvalidJobService.class.getName());
+        JobMethodMetaInfo bar = info.action("bar");
+        eq(InvalidJobService.class.getName() + ".bar", bar.id());
+        no(bar.isStatic());
+    }
+
+    @Test
+    public void sensorsOfFindersShallBeIndexedSeparately() {
+        extraScanners = C.list(
+                new MailerFinder().createAppByteCodeScanner(mockApp),
+                new JobFinder().createAppByteCodeScanner(mockApp));
+        scan(Address.class);
+        scan(Address.class);
+        eq(0, counter.visits(Address.class));
+    }
+
+    private void scan(Class<?> c) {
+        classLoader = new TestingAppClassLoader(mockApp);
+        when(mockApp.classLoader()).thenReturn(classLoader);
+        CliDispatcher dispatcher = new CliDispatcher(mockApp);
+        when(mockApp.cliDispatcher()).thenReturn(dispatcher);
+        counter = new VisitCounter();
+        jobScanner = new CountingJobScanner();
+        mailerScanner = new CountingMailerScanner();
+        List<AppByteCodeScanner> scanners = C.<AppByteCodeScanner>newList(
+                jobScanner,
+                mailerScanner,
+                new SimpleEventListenerByteCodeScanner(),
+                new GenieFactoryFinder(),
+                new CommanderByteCodeScanner(),
+                counter);
+        scanners.addAll(extraScanners);
+        for (AppByteCodeScanner scanner : scanners) {
+            scanner.setApp(mockApp);
+        }
+        AppCodeScannerManager scannerManager = mock(AppCodeScannerManager.class);
+        when(scannerManager.byteCodeScanners()).thenReturn(C.list(scanners));
+        when(mockApp.scannerManager()).thenReturn(scannerManager);
+        for (File file : Files.filter(base, S.F.contains(c.getSimpleName()))) {
+            classLoader.preloadClassFile(base, file);
+        }
+        classLoader.scan();
+    }
+
+    private static class MailerFinder extends AnnotatedTypeFinder {
+        MailerFinder() {
+            super(Mailer.class);
+        }
+    }
+
+    private static class JobFinder extends AnnotatedTypeFinder {
+        JobFinder() {
+            super(OnAppStart.class);
+        }
+    }
+
+    private static class CountingJobScanner extends JobByteCodeScanner {
+        int visits;
+
+        @Override
+        public ByteCodeVisitor byteCodeVisitor() {
+            visits++;
+            return super.byteCodeVisitor();
+        }
+    }
+
+    private static class CountingMailerScanner extends MailerByteCodeScanner {
+        int visits;
+
+        @Override
+        public ByteCodeVisitor byteCodeVisitor() {
+            visits++;
+            return super.byteCodeVisitor();
+        }
+    }
+
+    private static class VisitCounter extends AppByteCodeScannerBase implements IndexableByteCodeScanner {
+
+        private List<String> visited = C.newList();
+
+        @Override
+        protected boolean shouldScan(String className) {
+            return true;
+        }
+
+        @Override
+        public ByteCodeVisitor byteCodeVisitor() {
+            return new ByteCodeVisitor() {
+                @Override
+                public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                    visited.add(name.replace('/', '.'));
+                    super.visit(version, access, name, signature, superName, interfaces);
+                }
+            };
+        }
+
+        @Override
+        public void scanFinished(String className) {
+        }
+
+        @Override
+        public byte[] scanResult(String className) {
+            return null;
+        }
+
+        @Override
+        public void restoreScanResult(String className, byte[] result) {
+        }
+
+        int visits(Class<?> c) {
+            int n = 0;
+            for (String s : visited) {
+                if (s.equals(c.getName())) {
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class ScanIndexTest extends TestBase {
+
+    private static final List<String> SCANNERS = C.list("a.Scanner", "b.Scanner");
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void prepare() throws IOException {
+        dir = File.createTempFile("act-scan-index", "");
+        dir.delete();
+        dir.mkdirs();
+        file = new File(dir, ".act.scan-index");
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(dir, true);
+    }
+
+    @Test
+    public void itShallRestoreSavedResults() {
+        ScanIndex index = ScanIndex.open(file, SCANNERS);
+        byte[] bytecode = {1, 2, 3};
+        long checksum = ScanIndex.checksum(bytecode);
+        index.put("foo.Bar", new ScanIndex.Entry(checksum, new byte[][]{{7, 8}, null}));
+        index.put("foo.Baz", new ScanIndex.Entry(checksum, new byte[][]{null, IndexableByteCodeScanner.RESCAN}));
+        index.save();
+
+        index = ScanIndex.open(file, SCANNERS);
+        ScanIndex.Entry entry = index.get("foo.Bar", checksum);
+        eq(2, entry.results[0].length);
+        eq((byte) 8, entry.results[0][1]);
+        yes(null == entry.results[1]);
+        entry = index.get("foo.Baz", checksum);
+        yes(null == entry.results[0]);
+        same(IndexableByteCodeScanner.RESCAN, entry.results[1]);
+        yes(null == index.get("foo.Unknown", checksum));
+    }
+
+    @Test
+    public void changedClassShallNotBeRestored() {
+        ScanIndex index = ScanIndex.open(file, SCANNERS);
+        index.put("foo.Bar", new ScanIndex.Entry(ScanIndex.checksum(new byte[]{1}), new byte[][]{null, null}));
+        index.save();
+        index = ScanIndex.open(file, SCANNERS);
+        yes(null == index.get("foo.Bar", ScanIndex.checksum(new byte[]{2})));
+    }
+
+    @Test
+    public void indexShallBeIgnoredIfScannersChanged() {
+        ScanIndex index = ScanIndex.open(file, SCANNERS);
+        long checksum = ScanIndex.checksum(new byte[]{1});
+        index.put("foo.Bar", new ScanIndex.Entry(checksum, new byte[][]{null, null}));
+        index.save();
+        index = ScanIndex.open(file, C.list("a.Scanner"));
+        yes(null == index.get("foo.Bar", checksum));
+    }
+
+}
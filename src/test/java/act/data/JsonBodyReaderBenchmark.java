@@ -0,0 +1,111 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import com.alibaba.fastjson.JSON;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgl.util.S;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compare the bytes allocated to bind a JSON request body of about 4MB
+ * that needs to be wrapped for a single parameter handler, between the
+ * string based path (read body into string, wrap the string and parse it)
+ * and {@link JsonBodyReader}.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+public class JsonBodyReaderBenchmark extends TestBase {
+
+    private static final int ROUNDS = 10;
+
+    private static byte[] body;
+
+    @BeforeClass
+    public static void prepare() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 50000; ++i) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("{\"name\": \"item-").append(i).append("-abcdefghijklmnopqrstuvwxyz\", \"n\": ").append(i).append("}");
+        }
+        body = sb.append("]").toString().getBytes();
+    }
+
+    @Test
+    public void stringBody() throws Exception {
+        // warm up
+        parseString();
+        long allocated = allocated();
+        for (int i = 0; i < ROUNDS; ++i) {
+            parseString();
+        }
+        report("string body", allocated() - allocated);
+    }
+
+    @Test
+    public void streamingBody() {
+        // warm up
+        parseStream();
+        long allocated = allocated();
+        for (int i = 0; i < ROUNDS; ++i) {
+            parseStream();
+        }
+        report("streaming body", allocated() - allocated);
+    }
+
+    private void parseString() throws Exception {
+        // what TextParser and ReflectedHandlerInvoker.patchedJsonBody do
+        InputStream is = new ByteArrayInputStream(body);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        int b;
+        while ((b = is.read()) != -1) {
+            os.write(b);
+        }
+        String data = new String(os.toByteArray(), "UTF-8");
+        String patched = S.fmt("{\"%s\": %s}", "foos", data.trim());
+        JsonBodyReaderTest.Dto dto = JSON.parseObject(patched, JsonBodyReaderTest.Dto.class);
+        yes(null != dto.get("foos"));
+    }
+
+    private void parseStream() {
+        InputStream is = new ByteArrayInputStream(body);
+        JsonBodyReaderTest.Dto dto = JsonBodyReader.read(is, "UTF-8", -1, "foos", JsonBodyReaderTest.Dto.class);
+        yes(null != dto.get("foos"));
+    }
+
+    private static void report(String name, long allocated) {
+        System.out.printf("%s: %,d KB body, %,d KB allocated per request%n", name, body.length / 1024, allocated / ROUNDS / 1024);
+    }
+
+    private static long allocated() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
@@ -0,0 +1,122 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.inject.param.JsonDTO;
+import com.alibaba.fastjson.parser.ParserConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.mvc.result.ErrorResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+public class JsonBodyReaderTest extends TestBase {
+
+    public static class Foo {
+        public String name;
+        public int n;
+    }
+
+    public static class Dto extends JsonDTO {
+        public void setFoo(Foo foo) {
+            set("foo", foo);
+        }
+
+        public void setFoos(List<Foo> foos) {
+            set("foos", foos);
+        }
+    }
+
+    private boolean asmEnabled;
+
+    @Before
+    public void prepare() {
+        // fastjson ASM deserializers are bound to the context class loader at the time
+        // the global parser config is created, which might not see the test classes
+        ParserConfig config = ParserConfig.getGlobalInstance();
+        asmEnabled = config.isAsmEnable();
+        config.setAsmEnable(false);
+    }
+
+    @After
+    public void restore() {
+        ParserConfig.getGlobalInstance().setAsmEnable(asmEnabled);
+    }
+
+    @Test
+    public void itShallNotWrapIfFirstKeyMatches() {
+        Dto dto = read("  {\"foo\": {\"name\": \"x\", \"n\": 1}}", "foo");
+        eq("x", foo(dto).name);
+        eq(1, foo(dto).n);
+    }
+
+    @Test
+    public void itShallWrapObjectContent() {
+        eq("x", foo(read("\n{ \"name\": \"x\", \"n\": 2}", "foo")).name);
+        eq(3, foo(read("{\"n\": 3}", "foo")).n);
+        eq("y", foo(read("{\"foo2\": 0, \"name\": \"y\"}", "foo")).name);
+    }
+
+    @Test
+    public void itShallWrapArrayContent() {
+        List<Foo> foos = (List<Foo>) read("[{\"name\": \"a\"}, {\"name\": \"b\"}]", "foos").get("foos");
+        eq(2, foos.size());
+        eq("b", foos.get(1).name);
+    }
+
+    @Test
+    public void itShallNotWrapWithoutWrapName() {
+        Dto dto = read("{\"foo\": {\"name\": \"x\"}, \"foos\": []}", null);
+        eq("x", foo(dto).name);
+        yes(((List) dto.get("foos")).isEmpty());
+    }
+
+    @Test
+    public void blankContentShallReturnNull() {
+        yes(null == read("  \n ", "foo"));
+    }
+
+    @Test
+    public void itShallRejectContentExceedsMaxSize() {
+        // larger than the reader buffer so the limit is hit while fastjson is parsing
+        String json = "{\"name\": \"" + new String(new char[150 * 1024]).replace('\0', 'x') + "\"}";
+        ByteArrayInputStream is = new ByteArrayInputStream(json.getBytes());
+        try {
+            JsonBodyReader.read(is, "UTF-8", 50 * 1024, "foo", Dto.class);
+            fail("expected 413 error");
+        } catch (ErrorResult e) {
+            eq(413, e.statusCode());
+        }
+    }
+
+    private static Foo foo(Dto dto) {
+        return (Foo) dto.get("foo");
+    }
+
+    private static Dto read(String json, String wrapName) {
+        ByteArrayInputStream is = new ByteArrayInputStream(json.getBytes());
+        return JsonBodyReader.read(is, "UTF-8", 1024, wrapName, Dto.class);
+    }
+
+}
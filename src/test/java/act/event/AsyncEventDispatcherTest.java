@@ -0,0 +1,119 @@
+package act.event;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AsyncEventDispatcherTest extends TestBase {
+
+    private AsyncEventDispatcher dispatcher;
+    private CountDownLatch blocker = new CountDownLatch(1);
+
+    @After
+    public void shutdown() {
+        blocker.countDown();
+        if (null != dispatcher) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void itShallDispatchInWorkerThread() throws Exception {
+        dispatcher = new AsyncEventDispatcher(2, 16, OverflowPolicy.BLOCK);
+        final CountDownLatch done = new CountDownLatch(10);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        for (int i = 0; i < 10; ++i) {
+            dispatcher.dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    thread.set(Thread.currentThread());
+                    done.countDown();
+                }
+            });
+        }
+        yes(done.await(5, TimeUnit.SECONDS));
+        no(Thread.currentThread() == thread.get());
+    }
+
+    @Test
+    public void itShallDropWhenQueueIsFull() throws Exception {
+        dispatcher = new AsyncEventDispatcher(1, 1, OverflowPolicy.DROP);
+        AtomicInteger counter = new AtomicInteger();
+        fillQueue(counter);
+        dispatcher.dispatch(counting(counter));
+        eq(0, counter.get());
+        blocker.countDown();
+        waitForEmptyQueue();
+        Thread.sleep(100);
+        eq(1, counter.get());
+    }
+
+    @Test
+    public void itShallRunInCallerThreadWhenQueueIsFull() throws Exception {
+        dispatcher = new AsyncEventDispatcher(1, 1, OverflowPolicy.CALLER_RUNS);
+        AtomicInteger counter = new AtomicInteger();
+        fillQueue(counter);
+        dispatcher.dispatch(counting(counter));
+        eq(1, counter.get());
+    }
+
+    // block the worker and fill the queue
+    private void fillQueue(AtomicInteger counter) throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        dispatcher.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        yes(started.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(counting(counter));
+        eq(1, dispatcher.queueDepth());
+    }
+
+    private void waitForEmptyQueue() throws Exception {
+        for (int i = 0; i < 100 && dispatcher.queueDepth() > 0; ++i) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Runnable counting(final AtomicInteger counter) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,113 @@
+package act.event;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures throughput of emitting events from multiple threads. With the
+ * lock-free event bus the time for a fixed number of emits shall drop when
+ * the number of threads increases (up to the number of cores).
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+@BenchmarkOptions(warmupRounds = 3, benchmarkRounds = 10)
+public class EventBusBenchmark extends BenchmarkBase {
+
+    private static final int EMITS = 400000;
+
+    private EventBus eventBus;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        eventBus = new EventBus(mockApp);
+        eventBus.bind(MyEvent.class, new ActEventListenerBase<MyEvent>() {
+            @Override
+            public void on(MyEvent event) {
+                event.handled++;
+            }
+        });
+    }
+
+    @Test
+    public void emitWith1Thread() throws Exception {
+        emit(1);
+    }
+
+    @Test
+    public void emitWith2Threads() throws Exception {
+        emit(2);
+    }
+
+    @Test
+    public void emitWith4Threads() throws Exception {
+        emit(4);
+    }
+
+    @Test
+    public void emitWith8Threads() throws Exception {
+        emit(8);
+    }
+
+    private void emit(int threads) throws Exception {
+        final int emits = EMITS / threads;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < emits; ++j) {
+                        MyEvent event = new MyEvent(this);
+                        eventBus.emit(event);
+                        if (1 != event.handled) {
+                            throw new IllegalStateException("event not handled");
+                        }
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    public static class MyEvent extends ActEvent<Object> {
+        int handled;
+
+        public MyEvent(Object source) {
+            super(source);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package act.handler.builtin;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Test;
+
+public class FileSenderTest extends TestBase {
+
+    @Test
+    public void testRange() {
+        rangeEq(0, 9, FileSender.range("bytes=0-9", 100));
+        rangeEq(90, 99, FileSender.range("bytes=90-", 100));
+        rangeEq(80, 99, FileSender.range("bytes=-20", 100));
+        rangeEq(0, 99, FileSender.range("bytes=-200", 100));
+        rangeEq(50, 99, FileSender.range("bytes=50-500", 100));
+    }
+
+    @Test
+    public void unsatisfiableRange() {
+        yes(FileSender.unsatisfiable(FileSender.range("bytes=100-", 100)));
+        yes(FileSender.unsatisfiable(FileSender.range("bytes=-0", 100)));
+    }
+
+    @Test
+    public void invalidOrMultipleRangeShallBeIgnored() {
+        yes(null == FileSender.range("bytes=9-0", 100));
+        yes(null == FileSender.range("bytes=a-b", 100));
+        yes(null == FileSender.range("items=0-9", 100));
+        yes(null == FileSender.range("bytes=0-9,20-29", 100));
+    }
+
+    @Test
+    public void testEtagMatches() {
+        String etag = FileSender.etag(100, 1000);
+        yes(FileSender.etagMatches(etag, etag));
+        yes(FileSender.etagMatches("\"abc\", W/" + etag, etag));
+        yes(FileSender.etagMatches("*", etag));
+        no(FileSender.etagMatches("\"abc\"", etag));
+    }
+
+    @Test
+    public void httpDateShallBeParsedBack() {
+        long time = 1500000000000L;
+        eq(time, FileSender.parseDate(FileSender.formatDate(time)));
+    }
+
+    private void rangeEq(long first, long last, long[] range) {
+        eq(2, range.length);
+        eq(first, range[0]);
+        eq(last, range[1]);
+    }
+
+}
@@ -41,6 +41,7 @@ import static org.mockito.Mockito.when;
 
 public class StaticFileGetterTest extends TestBase {
     ActionContext ctx;
+    RequestImplBase req;
     MockResponse resp;
     StaticFileGetter pathHandler;
     StaticFileGetter fileHandler;
@@ -58,7 +59,7 @@ public class StaticFileGetterTest extends TestBase {
             }
         });
         when(mockAppConfig.errorTemplatePathResolver()).thenCallRealMethod();
-        RequestImplBase req = mock(RequestImplBase.class);
+        req = mock(RequestImplBase.class);
         when(req.method()).thenReturn(H.Method.GET);
         ctx = ActionContext.create(mockApp, req, resp);
         when(req.context()).thenReturn(ctx);
@@ -120,4 +121,23 @@ public class StaticFileGetterTest extends TestBase {
         ceq("foo/bar.txt", s);
     }
 
+    @Test
+    public void rangeRequestShallGetPartialContent() {
+        when(req.header(H.Header.Names.RANGE)).thenReturn("bytes=4-6");
+        fileHandler.handle(ctx);
+        eq(H.Status.PARTIAL_CONTENT.code(), resp.status);
+        ByteArrayOutputStream baos = (ByteArrayOutputStream)resp.outputStream();
+        eq("bar", new String(baos.toByteArray()));
+    }
+
+    @Test
+    public void matchedEtagShallGetNotModified() {
+        File file = fileHandler.base();
+        String etag = FileSender.etag(file.length(), file.lastModified() / 1000 * 1000);
+        when(req.header(H.Header.Names.IF_NONE_MATCH)).thenReturn(etag);
+        when(ctx.accept()).thenReturn(H.Format.HTML);
+        fileHandler.handle(ctx);
+        eq(H.Status.NOT_MODIFIED.code(), resp.status);
+    }
+
 }
@@ -0,0 +1,159 @@
+package act.handler.builtin.controller.impl;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.app.AppClassLoader;
+import act.asm.Type;
+import act.controller.meta.ActionMethodMetaInfo;
+import act.controller.meta.ControllerClassMetaInfo;
+import act.controller.meta.HandlerParamMetaInfo;
+import act.data.JsonBodyReaderTest;
+import act.handler.builtin.controller.ControllerAction;
+import act.inject.param.JsonDTOClassManager;
+import act.inject.param.ParamValueLoaderManager;
+import act.inject.param.ParamValueLoaderService;
+import com.alibaba.fastjson.parser.ParserConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.http.H;
+import org.osgl.inject.BeanSpec;
+import org.osgl.util.C;
+
+import java.io.ByteArrayInputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReflectedHandlerInvokerTest extends TestBase {
+
+    public static class FooController {
+        static String id;
+        static JsonBodyReaderTest.Foo foo;
+
+        public void update(String id, JsonBodyReaderTest.Foo foo) {
+            FooController.id = id;
+            FooController.foo = foo;
+        }
+    }
+
+    private ControllerAction action;
+    private ReflectedHandlerInvoker invoker;
+    private boolean asmEnabled;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        // see JsonBodyReaderTest
+        ParserConfig config = ParserConfig.getGlobalInstance();
+        asmEnabled = config.isAsmEnable();
+        config.setAsmEnable(false);
+        when(mockAppConfig.httpJsonBodyStreaming()).thenReturn(true);
+        when(mockAppConfig.httpJsonBodySizeMax()).thenReturn(-1L);
+        when(mockApp.cuid()).thenReturn("invoker-test");
+
+        AppClassLoader cl = mock(AppClassLoader.class);
+        when(cl.loadClass(anyString())).thenAnswer(new Answer<Class<?>>() {
+            @Override
+            public Class<?> answer(InvocationOnMock invocation) throws Throwable {
+                return getClass().getClassLoader().loadClass((String) invocation.getArguments()[0]);
+            }
+        });
+        when(mockApp.classLoader()).thenReturn(cl);
+
+        final ParamValueLoaderService loaderService = mock(ParamValueLoaderService.class);
+        when(loaderService.loadMethodParams(any(), any(Method.class), any(ActionContext.class))).thenAnswer(new Answer<Object[]>() {
+            @Override
+            public Object[] answer(InvocationOnMock invocation) throws Throwable {
+                ActionContext context = (ActionContext) invocation.getArguments()[2];
+                JsonBodyReaderTest.Dto dto = (JsonBodyReaderTest.Dto) invoker.cachedJsonDTO(context);
+                return new Object[]{context.paramVal("id"), dto.get("foo")};
+            }
+        });
+        ParamValueLoaderManager loaderManager = mock(ParamValueLoaderManager.class);
+        when(loaderManager.get(ActionContext.class)).thenReturn(loaderService);
+        when(mockApp.service(ParamValueLoaderManager.class)).thenReturn(loaderManager);
+
+        JsonDTOClassManager dtoClassManager = mock(JsonDTOClassManager.class);
+        Annotation[] noAnno = new Annotation[0];
+        when(dtoClassManager.beanSpecs(any(Class.class), any(Method.class))).thenReturn(C.list(
+                BeanSpec.of(JsonBodyReaderTest.Foo.class, noAnno, "foo", null),
+                BeanSpec.of(String.class, noAnno, "id", null)));
+        when(dtoClassManager.get(any(Class.class), any(Method.class))).thenReturn((Class) JsonBodyReaderTest.Dto.class);
+        when(mockApp.service(JsonDTOClassManager.class)).thenReturn(dtoClassManager);
+
+        action = ReflectedHandlerInvoker.createControllerAction(updateMetaInfo(), mockApp);
+        invoker = fieldVal(action, "handlerInvoker");
+    }
+
+    @After
+    public void restore() {
+        ParserConfig.getGlobalInstance().setAsmEnable(asmEnabled);
+    }
+
+    @Test
+    public void itShallStreamSingleBodyParamBesidePathVariable() throws Exception {
+        ActionContext context = jsonRequest("{\"name\": \"x\", \"n\": 1}");
+        context.param("id", "1");
+        context.attribute(ActionContext.ATTR_PATH_VARS, C.set("id"));
+        action.handle(context);
+        eq("1", FooController.id);
+        eq("x", FooController.foo.name);
+        eq(1, FooController.foo.n);
+        // the body is streamed to the DTO instead of being read into a string
+        assertNull(context.body());
+    }
+
+    private ActionContext jsonRequest(String body) {
+        H.Request req = mock(H.Request.class);
+        when(req.method()).thenReturn(H.Method.PUT);
+        when(req.contentType()).thenReturn(H.Format.JSON);
+        when(req.accept()).thenReturn(H.Format.JSON);
+        when(req.characterEncoding()).thenReturn("UTF-8");
+        when(req.paramNames()).thenReturn(C.<String>list());
+        when(req.inputStream()).thenReturn(new ByteArrayInputStream(body.getBytes()));
+        return ActionContext.create(mockApp, req, mock(H.Response.class));
+    }
+
+    private static ActionMethodMetaInfo updateMetaInfo() {
+        ControllerClassMetaInfo classInfo = new ControllerClassMetaInfo().className(Type.getInternalName(FooController.class));
+        ActionMethodMetaInfo meta = mock(ActionMethodMetaInfo.class);
+        when(meta.classInfo()).thenReturn(classInfo);
+        when(meta.name()).thenReturn("update");
+        when(meta.paramCount()).thenReturn(2);
+        HandlerParamMetaInfo id = mock(HandlerParamMetaInfo.class);
+        when(id.type()).thenReturn(Type.getType(String.class));
+        HandlerParamMetaInfo foo = mock(HandlerParamMetaInfo.class);
+        when(foo.type()).thenReturn(Type.getType(JsonBodyReaderTest.Foo.class));
+        when(meta.param(0)).thenReturn(id);
+        when(meta.param(1)).thenReturn(foo);
+        return meta;
+    }
+
+}
@@ -0,0 +1,166 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Test durable jobs scheduled through the job store
+ */
+public class AppJobManagerTest extends TestBase {
+
+    private static final Queue<String> runs = new ConcurrentLinkedQueue<>();
+    private static volatile CountDownLatch running;
+    private static volatile CountDownLatch release;
+
+    private File dir;
+    private AppJobManager jobManager;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        dir = File.createTempFile("act-job-manager", "");
+        dir.delete();
+        when(mockAppConfig.jobStore()).thenReturn(true);
+        when(mockAppConfig.jobStoreDir()).thenReturn(dir.getAbsolutePath());
+        when(mockAppConfig.jobPoolSize()).thenReturn(2);
+        when(mockApp.cuid()).thenReturn("durable");
+        runs.clear();
+    }
+
+    @After
+    public void cleanup() {
+        if (null != jobManager) {
+            jobManager.destroy();
+        }
+        IO.delete(dir, true);
+    }
+
+    @Test
+    public void recoveryShallNotReplaceJobScheduledOnStart() throws Exception {
+        prepareJournal("old");
+        jobManager = new AppJobManager(mockApp);
+        jobManager.durableDelay("a", new Record("new"), 200, TimeUnit.MILLISECONDS);
+        jobManager.recoverDurableJobs();
+        waitFor(1);
+        Thread.sleep(300);
+        eq(C.list("new"), C.list(runs));
+    }
+
+    @Test
+    public void recoveryShallNotRunJobReplacedAndRun() throws Exception {
+        prepareJournal("old");
+        jobManager = new AppJobManager(mockApp);
+        jobManager.durableDelay("a", new Record("new"), 0, TimeUnit.MILLISECONDS);
+        waitFor(1);
+        jobManager.recoverDurableJobs();
+        Thread.sleep(300);
+        eq(C.list("new"), C.list(runs));
+    }
+
+    @Test
+    public void doneOfPreviousRunShallNotRemoveJobRescheduled() throws Exception {
+        running = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        jobManager = new AppJobManager(mockApp);
+        jobManager.durableDelay("a", new Block(), 0, TimeUnit.MILLISECONDS);
+        yes(running.await(2, TimeUnit.SECONDS));
+        jobManager.durableDelay("a", new Record("next"), 1, TimeUnit.HOURS);
+        release.countDown();
+        waitFor(1);
+        jobManager.destroy();
+        jobManager = null;
+        JobStore store = new JobStore(dir, 0);
+        try {
+            List<JobStore.Entry> pending = store.pending();
+            eq(1, pending.size());
+            eq("a", pending.get(0).id);
+        } finally {
+            store.close();
+        }
+    }
+
+    // a job pending in the journal when the app starts
+    private void prepareJournal(String name) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(new Record(name));
+        oos.close();
+        JobStore store = new JobStore(dir, 0);
+        try {
+            store.scheduled("a", System.currentTimeMillis(), baos.toByteArray());
+        } finally {
+            store.close();
+        }
+    }
+
+    private void waitFor(int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (runs.size() < n && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        eq(n, runs.size());
+    }
+
+    private static class Record implements Runnable, Serializable {
+        private final String name;
+
+        Record(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            runs.add(name);
+        }
+    }
+
+    private static class Block implements Runnable, Serializable {
+        @Override
+        public void run() {
+            running.countDown();
+            try {
+                release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runs.add("block");
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import fc.cron.CronExpression;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.exception.NotAppliedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+public class CronSchedulerTest extends TestBase {
+
+    private ScheduledThreadPoolExecutor executor;
+    private AppJobManager manager;
+
+    @Before
+    public void prepare() {
+        executor = new ScheduledThreadPoolExecutor(2);
+        manager = mock(AppJobManager.class);
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void jobsWithSameExpressionShallShareOneTimer() throws Exception {
+        CronScheduler scheduler = new CronScheduler(executor, MisfirePolicy.FIRE_ONCE, 1000);
+        CountDownLatch latch = new CountDownLatch(4);
+        _Job job1 = job("job1", latch);
+        _Job job2 = job("job2", latch);
+        scheduler.schedule("* * * * * *", job1);
+        scheduler.schedule(" *  * * * * * ", job2);
+        eq(1, executor.getQueue().size());
+        yes(latch.await(5, TimeUnit.SECONDS));
+
+        scheduler.remove(job1);
+        scheduler.remove(job2);
+        executor.purge();
+        eq(0, executor.getQueue().size());
+    }
+
+    @Test
+    public void misfireShallBeHandledByPolicy() {
+        CronExpression cron = CronScheduler.compile("* * * * * *");
+        long fireTime = 1000000000000L;
+        CronScheduler fireOnce = new CronScheduler(executor, MisfirePolicy.FIRE_ONCE, 1000);
+        CronScheduler skip = new CronScheduler(executor, MisfirePolicy.SKIP, 1000);
+        CronScheduler catchUp = new CronScheduler(executor, MisfirePolicy.CATCH_UP, 1000);
+
+        eq(1, skip.runs(cron, fireTime, fireTime + 500));
+        eq(1, fireOnce.runs(cron, fireTime, fireTime + 5000));
+        eq(0, skip.runs(cron, fireTime, fireTime + 5000));
+        eq(6, catchUp.runs(cron, fireTime, fireTime + 5000));
+        eq(CronScheduler.MAX_CATCH_UP, catchUp.runs(cron, fireTime, fireTime + 3600000));
+    }
+
+    private _Job job(String id, final CountDownLatch latch) {
+        return new _Job(id, manager, new $.F0() {
+            @Override
+            public Object apply() throws NotAppliedException, $.Break {
+                latch.countDown();
+                return null;
+            }
+        }, false);
+    }
+
+}
@@ -0,0 +1,117 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelSchedulerTest extends TestBase {
+
+    private HashedWheelScheduler scheduler;
+
+    @Before
+    public void prepare() {
+        scheduler = new HashedWheelScheduler("wheel-test", 2, 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void cleanup() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void taskShallNotFireBeforeDeadline() throws Exception {
+        final long start = System.nanoTime();
+        ScheduledFuture<Long> future = scheduler.schedule(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return System.nanoTime() - start;
+            }
+        }, 150, TimeUnit.MILLISECONDS);
+        long elapsed = future.get(5, TimeUnit.SECONDS);
+        yes(elapsed >= TimeUnit.MILLISECONDS.toNanos(150));
+        eq(0L, scheduler.pending());
+    }
+
+    @Test
+    public void cancelledTaskShallNotRun() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+        ScheduledFuture<?> cancelled = scheduler.schedule(task, 100, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> kept = scheduler.schedule(task, 200, TimeUnit.MILLISECONDS);
+        yes(cancelled.cancel(false));
+        kept.get(5, TimeUnit.SECONDS);
+        eq(1, counter.get());
+        eq(0L, scheduler.pending());
+    }
+
+    @Test
+    public void periodicalTaskShallRepeatUntilCancelled() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        yes(latch.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        yes(future.isCancelled());
+    }
+
+    @Test
+    public void timersBeyondOneRoundShallAllFire() throws Exception {
+        // 8 buckets of 10ms, thus delays up to 300ms need several rounds
+        int n = 10000;
+        final CountDownLatch latch = new CountDownLatch(n);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < n; ++i) {
+            scheduler.schedule(task, i % 300, TimeUnit.MILLISECONDS);
+        }
+        yes(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void itShallRejectTaskAfterShutdown() {
+        scheduler.shutdown();
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.SECONDS);
+    }
+
+}
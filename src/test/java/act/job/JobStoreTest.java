@@ -0,0 +1,173 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.exception.UnexpectedIOException;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+public class JobStoreTest extends TestBase {
+
+    private File dir;
+    private JobStore store;
+
+    @Before
+    public void prepare() throws IOException {
+        dir = File.createTempFile("act-job-store", "");
+        dir.delete();
+        store = new JobStore(dir, 0);
+    }
+
+    @After
+    public void cleanup() {
+        store.close();
+        IO.delete(dir, true);
+    }
+
+    @Test
+    public void itShallRecoverJobsNotStarted() {
+        store.scheduled("a", 100L, new byte[]{1, 2, 3});
+        store.scheduled("b", 200L, new byte[]{4});
+        long c = store.scheduled("c", 300L, new byte[]{5});
+        store.done("c", c);
+        reopen();
+        List<JobStore.Entry> pending = store.pending();
+        eq(2, pending.size());
+        JobStore.Entry a = find(pending, "a");
+        eq(100L, a.dueAt);
+        eq(3, a.payload.length);
+        eq(200L, find(pending, "b").dueAt);
+    }
+
+    @Test
+    public void itShallNotRecoverJobsStarted() {
+        store.scheduled("a", 100L, new byte[]{1});
+        long b = store.scheduled("b", 200L, new byte[]{2});
+        store.started("b", b);
+        reopen();
+        List<JobStore.Entry> pending = store.pending();
+        eq(1, pending.size());
+        eq("a", pending.get(0).id);
+        // the interrupted job is dropped from the compacted journal
+        reopen();
+        eq(1, store.pending().size());
+    }
+
+    @Test
+    public void itShallKeepJobReplacedWhileRunning() {
+        long a1 = store.scheduled("a", 100L, new byte[]{1});
+        store.started("a", a1);
+        long a2 = store.scheduled("a", 200L, new byte[]{2});
+        store.done("a", a1);
+        yes(store.isLive("a", a2));
+        no(store.isLive("a", a1));
+        reopen();
+        List<JobStore.Entry> pending = store.pending();
+        eq(1, pending.size());
+        eq(200L, pending.get(0).dueAt);
+        // sequence numbers keep increasing after reopen
+        long a3 = store.scheduled("a", 300L, new byte[]{3});
+        yes(a3 > pending.get(0).seq);
+        store.done("a", pending.get(0).seq);
+        reopen();
+        eq(300L, store.pending().get(0).dueAt);
+    }
+
+    @Test
+    public void itShallDropTornRecords() throws IOException {
+        store.scheduled("a", 100L, new byte[]{1});
+        store.scheduled("b", 200L, new byte[]{2});
+        store.close();
+        File journal = new File(dir, JobStore.JOURNAL);
+        long length = journal.length();
+        FileOutputStream os = new FileOutputStream(journal, true);
+        os.write(new byte[]{0, 0, 0, 20, 3, 0, 1});
+        os.close();
+        yes(journal.length() > length);
+        store = new JobStore(dir, 0);
+        eq(2, store.pending().size());
+        eq(length, journal.length());
+        store.scheduled("c", 300L, new byte[]{3});
+        reopen();
+        eq(3, store.pending().size());
+    }
+
+    @Test
+    public void itShallFailWriteAndKeepJournalConsistent() throws Exception {
+        store.scheduled("a", 100L, new byte[]{1});
+        Field field = JobStore.class.getDeclaredField("channel");
+        field.setAccessible(true);
+        ((FileChannel) field.get(store)).close();
+        try {
+            store.scheduled("b", 200L, new byte[]{2});
+            fail("write to closed channel shall fail");
+        } catch (UnexpectedIOException e) {
+            // expected
+        }
+        store.scheduled("c", 300L, new byte[]{3});
+        reopen();
+        List<JobStore.Entry> pending = store.pending();
+        eq(2, pending.size());
+        find(pending, "a");
+        find(pending, "c");
+    }
+
+    @Test
+    public void itShallIgnoreDoneAfterClose() {
+        long a = store.scheduled("a", 100L, new byte[]{1});
+        store.close();
+        store.done("a", a);
+        store = new JobStore(dir, 0);
+        eq(1, store.pending().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void itShallRejectScheduleAfterClose() {
+        store.close();
+        store.scheduled("a", 100L, new byte[]{1});
+    }
+
+    private void reopen() {
+        store.close();
+        store = new JobStore(dir, 0);
+    }
+
+    private JobStore.Entry find(List<JobStore.Entry> entries, String id) {
+        for (JobStore.Entry entry : entries) {
+            if (id.equals(entry.id)) {
+                return entry;
+            }
+        }
+        fail("entry not found: %s", id);
+        return null;
+    }
+
+}
@@ -0,0 +1,123 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class MailDispatcherTest extends TestBase {
+
+    private MockSmtpServer server;
+    private Session session;
+    private MailDispatcher dispatcher;
+
+    @Before
+    public void prepare() throws Exception {
+        server = new MockSmtpServer();
+        Properties p = new Properties();
+        p.setProperty("mail.smtp.host", "localhost");
+        p.setProperty("mail.smtp.port", String.valueOf(server.port()));
+        session = Session.getInstance(p);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        if (null != dispatcher) {
+            dispatcher.shutdown();
+        }
+        server.stop();
+    }
+
+    @Test
+    public void itShallDeliverOverPooledConnections() throws Exception {
+        dispatcher = new MailDispatcher("test", session, 2, 100, 10, 0, 10, 60000);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 30; ++i) {
+            results.add(dispatcher.submit(message(i)));
+        }
+        for (Future<Boolean> result : results) {
+            yes(result.get());
+        }
+        eq(30, server.messages.get());
+        yes(server.connections.get() <= 2);
+    }
+
+    @Test
+    public void itShallRetryTransientFailure() throws Exception {
+        server.failures.set(2);
+        dispatcher = new MailDispatcher("test", session, 1, 10, 10, 3, 10, 60000);
+        yes(dispatcher.submit(message(0)).get());
+        eq(1, server.messages.get());
+    }
+
+    @Test
+    public void itShallGiveUpAfterMaxRetries() throws Exception {
+        server.failures.set(10);
+        dispatcher = new MailDispatcher("test", session, 1, 10, 10, 2, 10, 60000);
+        no(dispatcher.submit(message(0)).get());
+        eq(0, server.messages.get());
+    }
+
+    @Test
+    public void itShallNotRetryMessageWithoutRecipients() throws Exception {
+        dispatcher = new MailDispatcher("test", session, 1, 10, 10, 3, 10000, 60000);
+        MimeMessage msg = new MimeMessage(session);
+        msg.setFrom(new InternetAddress("from@act.test"));
+        msg.setSubject("test");
+        msg.setText("hello");
+        msg.saveChanges();
+        no(dispatcher.submit(msg).get(2, TimeUnit.SECONDS));
+        eq(0, server.connections.get());
+    }
+
+    @Test
+    public void itShallCloseIdleConnection() throws Exception {
+        dispatcher = new MailDispatcher("test", session, 1, 10, 10, 0, 10, 50);
+        yes(dispatcher.submit(message(0)).get());
+        Thread.sleep(200);
+        yes(dispatcher.submit(message(1)).get());
+        eq(2, server.connections.get());
+    }
+
+    private MimeMessage message(int i) throws MessagingException {
+        MimeMessage msg = new MimeMessage(session);
+        msg.setFrom(new InternetAddress("from@act.test"));
+        msg.setRecipients(Message.RecipientType.TO, InternetAddress.parse("to" + i + "@act.test"));
+        msg.setSubject("test " + i);
+        msg.setText("hello " + i);
+        msg.saveChanges();
+        return msg;
+    }
+
+}
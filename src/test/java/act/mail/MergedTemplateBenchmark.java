@@ -0,0 +1,89 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.view.Template;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.osgl.util.C;
+
+import java.util.List;
+
+/**
+ * Compare rendering a mail template for a batch of 10k recipients with
+ * full template rendering and with the merged template.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class MergedTemplateBenchmark extends TestBase {
+
+    private static final int RECIPIENTS = 10000;
+
+    private static final String SOURCE = "@args String name, String email, List<String> news\n" +
+            "@escape(\"html\"){<html><body><p>Dear @name,</p>" +
+            "<p>Here is your daily digest:</p><ul>@for(String s : news){<li>@s</li>}</ul>" +
+            "<p>This mail was sent to @email</p></body></html>}";
+
+    @Rule
+    public TestRule benchmarkRun = new BenchmarkRule();
+
+    private static Template template = new MergedTemplateTest.RythmSourceTemplate(SOURCE);
+
+    private MailerContext context;
+    private MailTemplateCache cache;
+    private List<String> mergeVars = C.list("name", "email");
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        context = new MailerContext(mockApp, "default");
+        context.senderPath("Digest", "send");
+        List<String> news = C.newList();
+        for (int i = 0; i < 20; ++i) {
+            news.add("News item " + i + " <with markup>");
+        }
+        context.renderArg("news", news);
+        cache = new MailTemplateCache();
+    }
+
+    @Test
+    public void fullRendering() {
+        for (int i = 0; i < RECIPIENTS; ++i) {
+            context.renderArg("name", "user" + i).renderArg("email", "user" + i + "@act.test");
+            template.render(context);
+        }
+    }
+
+    @Test
+    public void mergedRendering() {
+        for (int i = 0; i < RECIPIENTS; ++i) {
+            context.renderArg("name", "user" + i).renderArg("email", "user" + i + "@act.test");
+            cache.get(template, context, mergeVars).render(context);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.view.Template;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.rythmengine.RythmEngine;
+
+public class MergedTemplateTest extends TestBase {
+
+    /**
+     * Render a rythm template source with the render args of the context
+     */
+    static class RythmSourceTemplate implements Template {
+        private static RythmEngine engine;
+
+        private String source;
+
+        RythmSourceTemplate(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public void merge(ActionContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String render(ActionContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String render(MailerContext context) {
+            // other tests might leave a different context class loader
+            Thread thread = Thread.currentThread();
+            ClassLoader cl = thread.getContextClassLoader();
+            thread.setContextClassLoader(RythmSourceTemplate.class.getClassLoader());
+            try {
+                return engine().render(source, context.renderArgs());
+            } finally {
+                thread.setContextClassLoader(cl);
+            }
+        }
+
+        private static synchronized RythmEngine engine() {
+            if (null == engine) {
+                engine = new RythmEngine(C.<String, Object>map("engine.mode", "prod"));
+            }
+            return engine;
+        }
+    }
+
+    private static final String SOURCE = "@args String name, String title\n@escape(\"html\"){<p>Dear @name,</p><p>welcome to @title</p>}<!-- @name -->";
+
+    private MailerContext context;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        context = new MailerContext(mockApp, "default");
+        context.senderPath("Digest", "send");
+        context.renderArg("title", "ActFramework");
+    }
+
+    @Test
+    public void itShallRenderSameContentAsTemplate() {
+        Template template = new RythmSourceTemplate(SOURCE);
+        MergedTemplate merged = MergedTemplate.compile(template, context, C.list("name"));
+        yes(null != merged);
+        for (String name : C.list("Tom", "<Jerry & Co>", "")) {
+            context.renderArg("name", name);
+            eq(template.render(context), merged.render(context));
+        }
+        eq("<p>Dear &lt;b&gt;,</p><p>welcome to ActFramework</p><!-- <b> -->", merged.render(context.renderArg("name", "<b>")));
+    }
+
+    @Test
+    public void itShallNotCompileTransformedVariable() {
+        Template template = new RythmSourceTemplate("@args String name\nDear @name.toUpperCase()");
+        context.renderArg("name", "Tom");
+        yes(null == MergedTemplate.compile(template, context, C.list("name")));
+        eq("Tom", context.renderArg("name"));
+    }
+
+    @Test
+    public void itShallCacheByOtherRenderArgs() {
+        Template template = new RythmSourceTemplate(SOURCE);
+        MailTemplateCache cache = new MailTemplateCache();
+        context.renderArg("name", "Tom");
+        MergedTemplate merged = cache.get(template, context, C.list("name"));
+        context.renderArg("name", "Jerry");
+        same(merged, cache.get(template, context, C.list("name")));
+        context.renderArg("title", "Act");
+        MergedTemplate merged2 = cache.get(template, context, C.list("name"));
+        no(merged == merged2);
+        yes(merged2.render(context).contains("welcome to Act<"));
+    }
+
+}
@@ -0,0 +1,117 @@
+package act.mail;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimum SMTP server accepts all mails, used to test mail delivery
+ */
+class MockSmtpServer implements Runnable {
+
+    final AtomicInteger connections = new AtomicInteger();
+    final AtomicInteger messages = new AtomicInteger();
+
+    // number of `MAIL FROM` commands to be rejected with a transient error
+    final AtomicInteger failures = new AtomicInteger();
+
+    private ServerSocket serverSocket;
+
+    MockSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread thread = new Thread(this, "mock-smtp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread thread = new Thread() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                };
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), "ISO-8859-1");
+            reply(writer, "220 localhost ESMTP");
+            String line;
+            while (null != (line = reader.readLine())) {
+                String cmd = line.toUpperCase();
+                if (cmd.startsWith("MAIL FROM")) {
+                    if (failures.getAndDecrement() > 0) {
+                        reply(writer, "451 try again later");
+                    } else {
+                        reply(writer, "250 OK");
+                    }
+                } else if (cmd.startsWith("DATA")) {
+                    reply(writer, "354 end with .");
+                    while (null != (line = reader.readLine()) && !".".equals(line)) {
+                        // discard content
+                    }
+                    messages.incrementAndGet();
+                    reply(writer, "250 OK");
+                } else if (cmd.startsWith("QUIT")) {
+                    reply(writer, "221 bye");
+                    break;
+                } else {
+                    // EHLO, HELO, RCPT TO, RSET, NOOP
+                    reply(writer, "250 OK");
+                }
+            }
+            socket.close();
+        } catch (IOException e) {
+            // connection closed
+        }
+    }
+
+    private static void reply(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write("\r\n");
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,90 @@
+package act.metric;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Test;
+
+import static act.metric.Histogram.Window.*;
+
+public class HistogramTest extends TestBase {
+
+    private static final long MS = 1000L * 1000L;
+
+    @Test
+    public void bucketShallCoverTheValue() {
+        for (long v = 0; v < 1000000; v += 7) {
+            int index = Histogram.index(v);
+            long low = Histogram.lowestValue(index);
+            yes(low <= v && v < low + Histogram.width(index));
+        }
+        yes(Histogram.BUCKETS < 1000);
+    }
+
+    @Test
+    public void percentilesShallBeWithinRelativeError() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i * MS, 0);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot(ALL, 0);
+        eq(1000L, snapshot.count());
+        eq(1000L * MS, snapshot.max());
+        assertClose(500 * MS, snapshot.p50());
+        assertClose(990 * MS, snapshot.p99());
+        assertClose(999 * MS, snapshot.p999());
+    }
+
+    @Test
+    public void rollingWindowShallDropOldData() {
+        Histogram histogram = new Histogram();
+        long now = 10 * Histogram.SLOT_NS;
+        histogram.record(MS, now - 8 * Histogram.SLOT_NS);
+        histogram.record(MS, now - Histogram.SLOT_NS);
+        histogram.record(MS, now);
+        eq(3L, histogram.snapshot(ALL, now).count());
+        eq(3L, histogram.snapshot(FIVE_MINUTES, now).count());
+        eq(2L, histogram.snapshot(ONE_MINUTE, now).count());
+        eq(0L, histogram.snapshot(FIVE_MINUTES, now + 20 * Histogram.SLOT_NS).count());
+    }
+
+    @Test
+    public void windowShallBeParsedFromString() {
+        same(ALL, Histogram.Window.of(null));
+        same(ONE_MINUTE, Histogram.Window.of("1m"));
+        same(FIVE_MINUTES, Histogram.Window.of("5min"));
+    }
+
+    @Test
+    public void storeShallRollUpLatencyToParent() {
+        SimpleMetricStore store = new SimpleMetricStore(new SimpleMetricPlugin());
+        store.enableHistogram(true);
+        new SimpleTimer("a:b", store).stop();
+        new SimpleTimer("a:c", store).stop();
+        eq(2L, store.latency("a", ALL).count());
+        eq(3, store.latencies(ONE_MINUTE).size());
+    }
+
+    private void assertClose(long expected, long actual) {
+        yes(Math.abs(expected - actual) <= expected * 0.04, "expected %s but got %s", expected, actual);
+    }
+
+}
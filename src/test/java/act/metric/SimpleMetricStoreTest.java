@@ -24,6 +24,10 @@ import act.TestBase;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
 public class SimpleMetricStoreTest extends TestBase {
     private SimpleMetricStore store;
 
@@ -53,4 +57,104 @@ public class SimpleMetricStoreTest extends TestBase {
         eq(2L, store.count("a:x"));
         eq(4L, store.count("a"));
     }
+
+    @Test
+    public void timerShallAggregateToParentTimer() {
+        Timer timer = new SimpleTimer("a:b", store);
+        timer.stop();
+        long ns = timer.ns();
+        timer = new SimpleTimer("a:c", store);
+        timer.stop();
+        ns += timer.ns();
+        eq(ns, store.ns("a"));
+        eq(2L, store.count("a"));
+        eq(3, store.timers().size());
+    }
+
+    @Test
+    public void clearShallResetAllMetrics() {
+        store.countOnce("a:b");
+        store.clear();
+        eq(0L, store.count("a"));
+        yes(store.counters().isEmpty());
+    }
+
+    @Test
+    public void concurrentCountShallNotLoseUpdates() throws Exception {
+        final int threads = 8, loops = 10000;
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            final String name = "a:" + (i % 2);
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < loops; ++j) {
+                        store.countOnce(name);
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        eq((long) threads * loops, store.count("a"));
+        eq((long) threads * loops / 2, store.count("a:0"));
+    }
+
+    @Test
+    public void snapshotShallBeReloaded() throws IOException {
+        File file = tmpFile();
+        SimpleMetricStore store = new SimpleMetricStore(new SimpleMetricPlugin(), file);
+        store.countOnce("a:b");
+        new SimpleTimer("a:c", store).stop();
+        store.takeSnapshot();
+        store.countOnce("a:b");
+        store.countOnce("x");
+        store.takeSnapshot();
+        long ns = store.ns("a");
+
+        SimpleMetricStore reloaded = new SimpleMetricStore(new SimpleMetricPlugin(), file);
+        eq(2L, reloaded.count("a:b"));
+        eq(3L, reloaded.count("a"));
+        eq(1L, reloaded.count("x"));
+        eq(ns, reloaded.ns("a"));
+        eq(store.timers().size(), reloaded.timers().size());
+    }
+
+    @Test
+    public void snapshotShallAppendDeltaOnly() throws IOException {
+        File file = tmpFile();
+        SimpleMetricStore store = new SimpleMetricStore(new SimpleMetricPlugin(), file);
+        for (int i = 0; i < 100; ++i) {
+            store.countOnce("metric:" + i);
+        }
+        store.takeSnapshot();
+        long len = file.length();
+        store.countOnce("metric:1");
+        store.takeSnapshot();
+        yes(file.length() - len < 10);
+    }
+
+    @Test
+    public void incompleteFrameShallBeIgnored() throws IOException {
+        File file = tmpFile();
+        SimpleMetricStore store = new SimpleMetricStore(new SimpleMetricPlugin(), file);
+        store.countOnce("a");
+        store.takeSnapshot();
+        FileOutputStream os = new FileOutputStream(file, true);
+        os.write(new byte[]{2, 0, 2});
+        os.close();
+        SimpleMetricStore reloaded = new SimpleMetricStore(new SimpleMetricPlugin(), file);
+        eq(1L, reloaded.count("a"));
+    }
+
+    private static File tmpFile() throws IOException {
+        File file = File.createTempFile("act-metric", ".bin");
+        file.deleteOnExit();
+        if (!file.delete()) {
+            throw new IOException("cannot delete " + file);
+        }
+        return file;
+    }
 }
@@ -0,0 +1,157 @@
+package act.route;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import act.app.App;
+import act.handler.RequestHandler;
+import act.handler.RequestHandlerResolver;
+import act.handler.builtin.StaticFileGetter;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.http.H;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.osgl.http.H.Method.GET;
+import static org.osgl.http.H.Method.POST;
+
+public class CompiledRouterTest extends RouterTestBase {
+
+    static final String[] ROUTES = {
+            "/",
+            "/foo",
+            "/foo/bar",
+            "/foobar",
+            "/fo",
+            "/svc/{<[0-9]{4}>id}",
+            "/svc/{<[0-9]{4}>id}-{name}",
+            "/svc/{<[0-9]{4}>sid}-{sname}/obj",
+            "/user/{id}",
+            "/user/{id}/profile",
+            "/user/{uid}/orders/{orderId}.json",
+            "/file/{name}.html",
+            "/Persons/Joe/Parents;generations={gen}",
+            "/place/{latitude};{longitude}",
+            "/regex/v.{ver}"
+    };
+
+    static final String[] URLS = {
+            "/", "//", "/foo", "/foo/", "/foo//bar", "/foo/bar?x=1", "/foobar", "/fo", "/f",
+            "/foob", "/fooba", "/svc/1234", "/svc/123", "/svc/1234-abc", "/svc/1234-abc/obj",
+            "/svc/12a4-abc/obj", "/user/tom", "/user/tom%20cat/profile", "/user/tom/orders/12.json",
+            "/user/tom/orders/12.xml", "/file/readme.html", "/file/.html", "/file/readme.htm",
+            "/Persons/Joe/Parents;generations=147", "/place/39.87381;-86.1399", "/regex/v.1", "/regex/vx1",
+            "/public", "/public/", "/public/foo/bar.txt", "/nonexists", "/user", "/user/tom/none"
+    };
+
+    private Map<String, String> params = new HashMap<>();
+
+    @Override
+    protected void provisionControllerLookup(RequestHandlerResolver controllerLookup) {
+        when(controllerLookup.resolve(anyString(), any(App.class))).thenAnswer(new Answer<RequestHandler>() {
+            @Override
+            public RequestHandler answer(InvocationOnMock invocation) throws Throwable {
+                return new NamedMockHandler((String) invocation.getArguments()[0]);
+            }
+        });
+    }
+
+    @Override
+    protected void buildRouteMapping(Router router) {
+        addRoutes(router);
+        RequestHandler staticDirHandler = Mockito.mock(StaticFileGetter.class);
+        when(staticDirHandler.supportPartialPath()).thenReturn(true);
+        router.addMapping(GET, "/public", staticDirHandler);
+    }
+
+    static void addRoutes(Router router) {
+        for (String route : ROUTES) {
+            router.addMapping(GET, route, "Controller.get" + route.hashCode());
+            router.addMapping(POST, route, "Controller.post" + route.hashCode());
+        }
+    }
+
+    @Before
+    public void prepare() {
+        H.Request req = Mockito.mock(H.Request.class);
+        when(ctx.req()).thenReturn(req);
+        when(ctx.param(anyString(), anyString())).thenAnswer(new Answer<ActionContext>() {
+            @Override
+            public ActionContext answer(InvocationOnMock invocation) throws Throwable {
+                Object[] args = invocation.getArguments();
+                params.put((String) args[0], (String) args[1]);
+                return ctx;
+            }
+        });
+    }
+
+    @Test
+    public void itShallBeCompiledAfterCallingCompile() {
+        no(router.isCompiled());
+        router.compile();
+        yes(router.isCompiled());
+    }
+
+    @Test
+    public void addingRouteShallDropCompiledRouter() {
+        router.compile();
+        router.addMapping(GET, "/newRoute", "Controller.newRoute");
+        no(router.isCompiled());
+    }
+
+    @Test
+    public void compiledRouterShallRouteTheSameAsTreeSearch() {
+        List<RequestHandler> expectedHandlers = new ArrayList<>();
+        List<Map<String, String>> expectedParams = new ArrayList<>();
+        for (H.Method method : Router.supportedHttpMethods()) {
+            for (String url : URLS) {
+                expectedHandlers.add(route(method, url));
+                expectedParams.add(new HashMap<>(params));
+            }
+        }
+        router.compile();
+        int i = 0;
+        for (H.Method method : Router.supportedHttpMethods()) {
+            for (String url : URLS) {
+                same(expectedHandlers.get(i), route(method, url));
+                eq(expectedParams.get(i), params);
+                i++;
+            }
+        }
+    }
+
+    private RequestHandler route(H.Method method, String url) {
+        when(ctx.req().path()).thenReturn(url);
+        params.clear();
+        return router.getInvoker(method, url, ctx);
+    }
+
+}
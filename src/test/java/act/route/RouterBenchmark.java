@@ -0,0 +1,125 @@
+package act.route;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.MockRequest;
+import act.app.ActionContext;
+import act.handler.RequestHandler;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.mockito.Mockito;
+import org.osgl.http.H;
+
+import static org.osgl.http.H.Method.GET;
+
+/**
+ * Compare the tree search routing with the compiled router on
+ * a route table with 1500 routes.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class RouterBenchmark extends RouterTestBase {
+
+    private static final int RESOURCES = 300;
+    private static final int LOOPS = 100;
+
+    @Rule
+    public TestRule benchmarkRun = new BenchmarkRule();
+
+    private static Router treeRouter;
+    private static Router compiledRouter;
+    private static String[] urls;
+
+    @Override
+    protected void buildRouteMapping(Router router) {
+    }
+
+    private static void addRoutes(Router router) {
+        for (int i = 0; i < RESOURCES; ++i) {
+            String base = "/api/v1/resource" + i;
+            router.addMapping(GET, base, "Controller.list" + i);
+            router.addMapping(GET, base + "/{id}", "Controller.get" + i);
+            router.addMapping(GET, base + "/{id}/children", "Controller.children" + i);
+            router.addMapping(GET, base + "/{id}/children/{childId}.json", "Controller.child" + i);
+            router.addMapping(GET, base + "/code/{<[0-9]{4}>code}", "Controller.code" + i);
+        }
+    }
+
+    @Before
+    public void prepare() {
+        // use a real context so that mock invocations don't dominate the result
+        ctx = ActionContext.create(app, new MockRequest() {
+            @Override
+            public H.Method method() {
+                return GET;
+            }
+
+            @Override
+            public String path() {
+                return "/";
+            }
+        }, Mockito.mock(H.Response.class));
+        if (null != urls) {
+            return;
+        }
+        treeRouter = new Router(new MockRequestHandlerResolver(), app);
+        addRoutes(treeRouter);
+        compiledRouter = new Router(new MockRequestHandlerResolver(), app);
+        addRoutes(compiledRouter);
+        compiledRouter.compile();
+        urls = new String[RESOURCES * 5];
+        for (int i = 0; i < RESOURCES; ++i) {
+            String base = "/api/v1/resource" + i;
+            urls[i * 5] = base;
+            urls[i * 5 + 1] = base + "/abc";
+            urls[i * 5 + 2] = base + "/abc/children";
+            urls[i * 5 + 3] = base + "/abc/children/123.json";
+            urls[i * 5 + 4] = base + "/code/1234";
+        }
+    }
+
+    @Test
+    public void treeSearch() {
+        route(treeRouter);
+    }
+
+    @Test
+    public void compiled() {
+        route(compiledRouter);
+    }
+
+    private void route(Router router) {
+        for (int loop = 0; loop < LOOPS; ++loop) {
+            for (String url : urls) {
+                RequestHandler handler = router.route(GET, url, ctx);
+                if (null == handler) {
+                    fail("handler not found for %s", url);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compare the heap retained by the class bytecode map built with
+ * {@link Jars#buildClassNameIndex(List)} with the {@link ByteCodeSource}
+ * index on the jar files of the test classpath.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+public class ByteCodeSourceBenchmark extends TestBase {
+
+    private static List<File> jars;
+
+    @BeforeClass
+    public static void prepare() {
+        jars = new ArrayList<>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (path.endsWith(".jar")) {
+                jars.add(new File(path));
+            }
+        }
+    }
+
+    @Test
+    public void heapByteArrayMap() {
+        long base = usedHeap();
+        Map<String, byte[]> map = Jars.buildClassNameIndex(jars);
+        report("byte[] map", map.size(), usedHeap() - base);
+        eq(map.size(), map.size());
+    }
+
+    @Test
+    public void mappedByteCodeSource() {
+        long base = usedHeap();
+        ByteCodeSource source = new ByteCodeSource();
+        source.indexJars(jars);
+        report("mapped source", source.size(), usedHeap() - base);
+        eq(source.size(), source.size());
+    }
+
+    private static void report(String name, int classes, long heap) {
+        System.out.printf("%s: %d jars, %d classes, %,d KB heap%n", name, jars.size(), classes, heap / 1024);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
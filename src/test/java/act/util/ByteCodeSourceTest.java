@@ -0,0 +1,147 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+public class ByteCodeSourceTest extends TestBase {
+
+    private File tmp;
+    private ByteCodeSource source;
+
+    @Before
+    public void prepare() throws IOException {
+        tmp = File.createTempFile("act-bytecode", "");
+        tmp.delete();
+        tmp.mkdirs();
+        source = new ByteCodeSource();
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(tmp, true);
+    }
+
+    @Test
+    public void itShallReadJarEntriesOnDemand() throws IOException {
+        File jar = jar(new byte[0]);
+        source.indexJar(jar, new $.Predicate<String>() {
+            @Override
+            public boolean test(String s) {
+                return s.endsWith("Ignored");
+            }
+        });
+        eq(2, source.size());
+        yes(source.isIndexed("foo.Stored"));
+        yes(Arrays.equals(bytes(1), source.get("foo.Stored")));
+        yes(Arrays.equals(bytes(2), source.get("foo.Deflated")));
+        eq(crc(bytes(2)), source.checksum("foo.Deflated"));
+        no(source.contains("foo.Ignored"));
+        yes(Arrays.equals(bytes(1), source.remove("foo.Stored")));
+        no(source.contains("foo.Stored"));
+        yes(null == source.get("foo.Stored"));
+    }
+
+    @Test
+    public void itShallIndexJarWithPrependedData() throws IOException {
+        File jar = jar("#!/bin/sh\nexec java -jar $0\n".getBytes());
+        source.indexJars(Arrays.asList(jar));
+        eq(3, source.size());
+        yes(source.isIndexed("foo.Ignored"));
+        yes(Arrays.equals(bytes(3), source.get("foo.Ignored")));
+    }
+
+    @Test
+    public void itShallReadClassFileOnDemand() throws IOException {
+        File file = new File(tmp, "Foo.class");
+        IO.write(bytes(1), file);
+        source.addClassFile("foo.Foo", file);
+        source.put("foo.Bar", bytes(2));
+        yes(source.isIndexed("foo.Foo"));
+        no(source.isIndexed("foo.Bar"));
+        IO.write(bytes(4), file);
+        yes(Arrays.equals(bytes(4), source.get("foo.Foo")));
+        eq(crc(bytes(4)), source.checksum("foo.Foo"));
+        eq(crc(bytes(2)), source.checksum("foo.Bar"));
+        eq(-1L, source.checksum("foo.Baz"));
+    }
+
+    private File jar(byte[] prefix) throws IOException {
+        File file = new File(tmp, "test.jar");
+        OutputStream os = new FileOutputStream(file);
+        os.write(prefix);
+        JarOutputStream jos = new JarOutputStream(os);
+        try {
+            byte[] stored = bytes(1);
+            ZipEntry entry = new JarEntry("foo/Stored.class");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(stored.length);
+            entry.setCrc(crc(stored));
+            jos.putNextEntry(entry);
+            jos.write(stored);
+            jos.closeEntry();
+            jos.putNextEntry(new JarEntry("foo/"));
+            jos.closeEntry();
+            jos.putNextEntry(new JarEntry("foo/Deflated.class"));
+            jos.write(bytes(2));
+            jos.closeEntry();
+            jos.putNextEntry(new JarEntry("foo/Ignored.class"));
+            jos.write(bytes(3));
+            jos.closeEntry();
+            jos.putNextEntry(new JarEntry("foo/app.properties"));
+            jos.write("foo=bar".getBytes());
+            jos.closeEntry();
+        } finally {
+            jos.close();
+        }
+        return file;
+    }
+
+    private static byte[] bytes(int seed) {
+        byte[] bytes = new byte[1000 * seed];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) ((i / 10) * seed);
+        }
+        return bytes;
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,137 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.$;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ComputingCacheTest extends TestBase {
+
+    private AtomicInteger loads = new AtomicInteger();
+
+    private $.Transformer<Integer, String> loader = new $.Transformer<Integer, String>() {
+        @Override
+        public String transform(Integer i) {
+            loads.incrementAndGet();
+            return "v" + i;
+        }
+    };
+
+    @Test
+    public void itShallComputeValueOnce() {
+        ComputingCache<Integer, String> cache = new ComputingCache<>("test", 0, loader);
+        eq("v1", cache.get(1));
+        eq("v1", cache.get(1));
+        eq(1, loads.get());
+    }
+
+    @Test
+    public void concurrentRequestsShallWaitForTheSameComputation() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ComputingCache<Integer, String> cache = new ComputingCache<>("test", 0, new $.Transformer<Integer, String>() {
+            @Override
+            public String transform(Integer i) {
+                loads.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "v" + i;
+            }
+        });
+        final String[] results = new String[2];
+        Thread t0 = new Thread() {
+            @Override
+            public void run() {
+                results[0] = cache.get(1);
+            }
+        };
+        Thread t1 = new Thread() {
+            @Override
+            public void run() {
+                results[1] = cache.get(1);
+            }
+        };
+        t0.start();
+        started.await();
+        t1.start();
+        Thread.sleep(50);
+        release.countDown();
+        t0.join();
+        t1.join();
+        eq("v1", results[0]);
+        eq("v1", results[1]);
+        eq(1, loads.get());
+    }
+
+    @Test
+    public void itShallNotCacheFailure() {
+        final AtomicInteger calls = new AtomicInteger();
+        ComputingCache<Integer, String> cache = new ComputingCache<>("test", 0, new $.Transformer<Integer, String>() {
+            @Override
+            public String transform(Integer i) {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return "v" + i;
+            }
+        });
+        try {
+            cache.get(1);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        eq("v1", cache.get(1));
+    }
+
+    @Test
+    public void itShallBoundTheSize() {
+        ComputingCache<Integer, String> cache = new ComputingCache<>("test", 10, loader);
+        for (int i = 0; i < 100; ++i) {
+            eq("v" + i, cache.get(i));
+        }
+        yes(cache.size() <= 10);
+    }
+
+    @Test
+    public void itShallKeepRecentlyReadEntries() {
+        ComputingCache<Integer, String> cache = new ComputingCache<>("test", 10, loader);
+        for (int i = 0; i < 10; ++i) {
+            cache.get(i);
+        }
+        cache.get(3);
+        for (int i = 10; i < 20; ++i) {
+            cache.get(i);
+        }
+        int n = loads.get();
+        cache.get(3);
+        eq(n, loads.get());
+    }
+
+}
@@ -0,0 +1,104 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.data.DataPropertyRepository;
+import com.alibaba.fastjson.JSON;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.carrotsearch.junitbenchmarks.BenchmarkRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.osgl.util.C;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compare creating a property filter for each serialization with
+ * the shared compiled filter.
+ *
+ * Run this class manually, it is not picked up by the test build
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class FastJsonPropertyPreFilterBenchmark extends TestBase {
+
+    private static final int LOOPS = 5000;
+
+    @Rule
+    public TestRule benchmarkRun = new BenchmarkRule();
+
+    private static List<String> outputs = C.list("bar.age", "barList.zee.flag", "name");
+    private static List<String> patterns = C.list(".*\\.flag", "name");
+    private static Set<String> excluded = C.set();
+
+    private Foo foo;
+    private List<String> fooProps;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        Zee zee = new Zee("zee", false);
+        Bar bar = new Bar("bar", 5, zee);
+        foo = new Foo("foo", bar, new Bar("bar1", 4, new Zee("zee2", true)), new Bar("bar2", 3, null));
+        JsonUtilConfig.configure(mockApp);
+        fooProps = new DataPropertyRepository(mockApp).propertyListOf(Foo.class);
+    }
+
+    @Test
+    public void newFilterPerSerialization() {
+        for (int i = 0; i < LOOPS; ++i) {
+            FastJsonPropertyPreFilter filter = new FastJsonPropertyPreFilter();
+            filter.addIncludes(outputs);
+            JSON.toJSONString(foo, filter);
+        }
+    }
+
+    @Test
+    public void sharedFilter() {
+        for (int i = 0; i < LOOPS; ++i) {
+            JSON.toJSONString(foo, FastJsonPropertyPreFilter.get(outputs, excluded, Foo.class, null));
+        }
+    }
+
+    @Test
+    public void newPatternFilterPerSerialization() {
+        for (int i = 0; i < LOOPS; ++i) {
+            FastJsonPropertyPreFilter filter = new FastJsonPropertyPreFilter();
+            filter.addIncludes(patterns);
+            filter.setFullPaths(fooProps);
+            JSON.toJSONString(foo, filter);
+        }
+    }
+
+    @Test
+    public void sharedPatternFilter() {
+        FastJsonPropertyPreFilter filter = new FastJsonPropertyPreFilter();
+        filter.addIncludes(patterns);
+        filter.setFullPaths(fooProps);
+        for (int i = 0; i < LOOPS; ++i) {
+            JSON.toJSONString(foo, filter);
+        }
+    }
+
+}
@@ -84,6 +84,33 @@ public class FastJsonPropertyPreFilterTest extends TestBase {
         eq("{\"bar\":{\"age\":5,\"zee\":{\"flag\":false}},\"barList\":[{\"age\":4,\"zee\":{\"flag\":true}},{\"age\":3}]}", s);
     }
 
+    @Test
+    public void testFilterReusedAcrossSerializations() {
+        filter.addIncludes("bar/zee/flag,bar.age,name");
+        String s = JSON.toJSONString(foo, filter);
+        eq(s, JSON.toJSONString(foo, filter));
+        filter.addIncludes("bar.name");
+        s = JSON.toJSONString(foo, filter);
+        eq("{\"bar\":{\"age\":5,\"name\":\"bar\",\"zee\":{\"flag\":false}},\"name\":\"foo\"}", s);
+    }
+
+    @Test
+    public void testSharedFilter() {
+        List<String> outputs = C.list("bar.age", "name");
+        FastJsonPropertyPreFilter shared = FastJsonPropertyPreFilter.get(outputs, C.<String>set(), Foo.class, null);
+        same(shared, FastJsonPropertyPreFilter.get(C.list("bar.age", "name"), C.<String>set(), Foo.class, null));
+        eq("{\"bar\":{\"age\":5},\"name\":\"foo\"}", JSON.toJSONString(foo, shared));
+        yes(null == FastJsonPropertyPreFilter.get(C.<String>list(), C.<String>set(), Foo.class, null));
+    }
+
+    @Test
+    public void testPath() {
+        eq("name", FastJsonPropertyPreFilter.path("$", "name"));
+        eq("name", FastJsonPropertyPreFilter.path("$[0]", "name"));
+        eq("bar.zee.name", FastJsonPropertyPreFilter.path("$.bar.zee", "name"));
+        eq("barList.zee.name", FastJsonPropertyPreFilter.path("$[1].barList[0].zee", "name"));
+    }
+
     @Test
     public void testWithIterable() {
         class Person {
@@ -0,0 +1,124 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public class FsChangeDetectorTest extends TestBase {
+
+    private File tmp;
+    private FsWatcher watcher;
+    private List<FsEvent> events;
+    private FsEventListener listener;
+
+    @Before
+    public void prepare() throws IOException {
+        tmp = File.createTempFile("act-fs", "");
+        tmp.delete();
+        tmp.mkdirs();
+        watcher = FsWatcher.create("fs-watch-test", 10);
+        events = C.newList();
+        listener = new FsEventListener() {
+            @Override
+            public void on(FsEvent... fsEvents) {
+                events.addAll(C.listOf(fsEvents));
+            }
+        };
+    }
+
+    @After
+    public void cleanup() {
+        if (null != watcher) {
+            watcher.close();
+        }
+        IO.delete(tmp, true);
+    }
+
+    @Test
+    public void watchedDetectorShallReportChanges() throws Exception {
+        if (null == watcher) {
+            // native watch service not available on this platform
+            return;
+        }
+        File src = new File(tmp, "src");
+        src.mkdirs();
+        File foo = write(new File(src, "Foo.java"));
+        FsChangeDetector detector = new FsChangeDetector(tmp, null, watcher, listener);
+        yes(detector.isWatched());
+        detector.detectChanges();
+        yes(events.isEmpty());
+
+        File pkg = new File(src, "pkg");
+        pkg.mkdirs();
+        File bar = write(new File(pkg, "Bar.java"));
+        awaitEvent(detector);
+        eq(FsEvent.Kind.CREATE, events.get(0).kind());
+        eq(C.list(bar.getAbsolutePath()), C.list(events.get(0).paths()));
+
+        events.clear();
+        foo.setLastModified(foo.lastModified() + 5000);
+        awaitEvent(detector);
+        eq(FsEvent.Kind.MODIFY, events.get(0).kind());
+        eq(C.list(foo.getAbsolutePath()), C.list(events.get(0).paths()));
+
+        events.clear();
+        IO.delete(pkg, true);
+        awaitEvent(detector);
+        eq(FsEvent.Kind.DELETE, events.get(0).kind());
+        eq(C.list(bar.getAbsolutePath()), C.list(events.get(0).paths()));
+    }
+
+    @Test
+    public void detectorShallPollWithoutWatcher() throws Exception {
+        FsChangeDetector detector = new FsChangeDetector(tmp, null, listener);
+        no(detector.isWatched());
+        File foo = write(new File(tmp, "Foo.java"));
+        detector.detectChanges();
+        eq(1, events.size());
+        eq(FsEvent.Kind.CREATE, events.get(0).kind());
+        eq(C.list(foo.getAbsolutePath()), C.list(events.get(0).paths()));
+    }
+
+    private void awaitEvent(FsChangeDetector detector) throws InterruptedException {
+        long deadline = $.ms() + 10000;
+        while (events.isEmpty() && $.ms() < deadline) {
+            Thread.sleep(20);
+            detector.detectChanges();
+        }
+        eq(1, events.size());
+    }
+
+    private static File write(File file) {
+        IO.writeContent("class X {}", file);
+        return file;
+    }
+
+}
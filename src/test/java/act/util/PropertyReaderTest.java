@@ -0,0 +1,92 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.util.Map;
+
+public class PropertyReaderTest extends TestBase {
+
+    public static class Zee {
+        private boolean flag;
+        public String note = "note";
+
+        public Zee(boolean flag) {
+            this.flag = flag;
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+    }
+
+    public static class Bar {
+        private String name;
+        private Object zee;
+        private Map<String, Object> attrs;
+
+        public Bar(String name, Object zee) {
+            this.name = name;
+            this.zee = zee;
+            this.attrs = C.<String, Object>map("color", "red");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Object getZee() {
+            return zee;
+        }
+
+        public Map<String, Object> getAttrs() {
+            return attrs;
+        }
+    }
+
+    private Bar bar = new Bar("bar", new Zee(true));
+
+    @Test
+    public void itShallReadThroughGetters() {
+        eq("bar", PropertyReader.read(bar, "name"));
+        eq(true, PropertyReader.read(bar, "zee.flag"));
+        eq(true, PropertyReader.read(bar, "zee/flag"));
+        same(bar, PropertyReader.read(bar, "this"));
+        same(PropertyReader.of(Bar.class, "name"), PropertyReader.of(Bar.class, "name"));
+    }
+
+    @Test
+    public void itShallFallbackToGetPropertyWithoutGetter() {
+        eq("note", PropertyReader.read(bar, "zee.note"));
+        eq("red", PropertyReader.read(bar, "attrs.color"));
+    }
+
+    @Test
+    public void itShallReadNestedPropertyOfRuntimeType() {
+        Bar bar2 = new Bar("bar2", bar);
+        eq("bar", PropertyReader.read(bar2, "zee.name"));
+        yes(null == PropertyReader.read(new Bar("bar3", null), "zee.name"));
+    }
+
+}
@@ -21,6 +21,7 @@ package act.util;
  */
 
 import act.TestBase;
+import act.app.ActionContext;
 import act.app.App;
 import act.app.util.AppCrypto;
 import act.conf.AppConfig;
@@ -28,6 +29,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.osgl.http.H;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +48,7 @@ public class SessionManagerTest extends TestBase {
     SessionManager.CookieResolver resolver;
     H.Session session;
     H.Flash flash;
+    SessionMapper sessionMapper;
 
     @Before
     public void prepare() {
@@ -87,4 +96,119 @@ public class SessionManagerTest extends TestBase {
         eq("bar", session1.get("foo"));
     }
 
+    @Test
+    public void storeModeShallKeepSessionStateAtServerSide() {
+        SessionStore.InMemorySessionStore store = prepareStoreMode();
+        ActionContext ctx = mockContext(session, null);
+        H.Cookie cookie = resolver.dissolveSession(ctx);
+        no(cookie.value().contains("bar"));
+        eq(1, store.size());
+
+        H.Session session1 = resolver.resolveSession(mockContext(null, cookie.value()));
+        eq("bar", session1.get("foo"));
+        eq(session.id(), session1.id());
+        no(session1.changed());
+    }
+
+    @Test
+    public void storeModeShallNotWriteBackUnchangedSession() {
+        prepareStoreMode();
+        H.Cookie cookie = resolver.dissolveSession(mockContext(session, null));
+        ActionContext ctx = mockContext(null, cookie.value());
+        H.Session session1 = resolver.resolveSession(ctx);
+        verify(ctx).attribute(anyString(), org.mockito.Matchers.eq(session1.id()));
+        ctx = mockContext(session1, null);
+        when(ctx.attribute(anyString())).thenReturn(session1.id());
+        eq(null, resolver.dissolveSession(ctx));
+    }
+
+    @Test
+    public void storeModeShallRejectTamperedSessionId() {
+        prepareStoreMode();
+        H.Cookie cookie = resolver.dissolveSession(mockContext(session, null));
+        String tampered = cookie.value().replace(session.id(), "abc");
+        H.Session session1 = resolver.resolveSession(mockContext(null, tampered));
+        eq(null, session1.get("foo"));
+    }
+
+    private SessionStore.InMemorySessionStore prepareStoreMode() {
+        SessionStore.InMemorySessionStore store = new SessionStore.InMemorySessionStore();
+        when(config.sessionStoreEnabled()).thenReturn(true);
+        when(config.sessionStore()).thenReturn(store);
+        when(config.sessionTtl()).thenReturn(60 * 30);
+        when(config.sessionCookieName()).thenReturn("act_session");
+        sessionMapper = mock(SessionMapper.class);
+        when(config.sessionMapper()).thenReturn(sessionMapper);
+        resolver = new SessionManager.CookieResolver(app);
+        return store;
+    }
+
+    private ActionContext mockContext(H.Session session, String cookieValue) {
+        ActionContext ctx = mock(ActionContext.class);
+        when(ctx.session()).thenReturn(session);
+        when(ctx.req()).thenReturn(mock(H.Request.class));
+        when(sessionMapper.deserializeSession(ctx)).thenReturn(cookieValue);
+        return ctx;
+    }
+
+    @Test
+    public void concurrentResolvingShallShareOneResolverAndListenerArray() throws Exception {
+        final SessionManager manager = new SessionManager();
+        final ActionContext ctx = mock(ActionContext.class);
+        when(ctx.app()).thenReturn(app);
+        when(ctx.session()).thenReturn(session);
+        final int threads = 8, loops = 2000;
+        final AtomicInteger resolved = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Set<SessionManager.CookieResolver> seen = Collections.synchronizedSet(
+                Collections.newSetFromMap(new IdentityHashMap<SessionManager.CookieResolver, Boolean>()));
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads + 1];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < loops; ++j) {
+                            seen.add(manager.getResolver(ctx));
+                            manager.fireSessionResolved(ctx);
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            };
+        }
+        // keep registering listeners while other threads iterate them
+        workers[threads] = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                    for (int j = 0; j < 100; ++j) {
+                        manager.register(new SessionManager.Listener() {
+                            @Override
+                            public void sessionResolved(H.Session session, ActionContext context) {
+                                resolved.incrementAndGet();
+                            }
+                        });
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            }
+        };
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        eq(null, error.get());
+        eq(1, seen.size());
+        yes(resolved.get() > 0);
+    }
+
 }
@@ -0,0 +1,126 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.App;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.exception.UnexpectedIOException;
+import org.osgl.storage.ISObject;
+import org.osgl.storage.IStorageService;
+import org.osgl.storage.impl.FileSystemService;
+import org.osgl.storage.impl.SObject;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UploadFileStorageServiceTest extends TestBase {
+
+    private File tmp;
+    private App app;
+    private IStorageService ss;
+
+    @Before
+    public void prepare() throws IOException {
+        tmp = File.createTempFile("act-upload", "");
+        tmp.delete();
+        tmp.mkdirs();
+        app = mock(App.class);
+        when(app.tmpDir()).thenReturn(tmp);
+        ss = UploadFileStorageService.create(app);
+        when(app.uploadFileStorageService()).thenReturn(ss);
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(tmp, true);
+    }
+
+    @Test
+    public void storeShallPipeStreamIntoStorage() {
+        byte[] content = "hello upload".getBytes();
+        ISObject sobj = UploadFileStorageService.store(new ByteArrayInputStream(content), "a.txt", "text/plain", app);
+        eq("hello upload", IO.readContentAsString(sobj.asInputStream()));
+        eq("a.txt", sobj.getAttribute(SObject.ATTR_FILE_NAME));
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        eq(Long.toHexString(crc.getValue()), sobj.getAttribute(UploadFileStorageService.ATTR_CHECKSUM));
+        eq(1, storedFiles());
+    }
+
+    @Test
+    public void storeShallSkipEmptyStream() {
+        ISObject sobj = UploadFileStorageService.store(new ByteArrayInputStream(new byte[0]), "a.txt", "text/plain", app);
+        yes(null == sobj);
+        eq(0, storedFiles());
+    }
+
+    @Test
+    public void storeShallRemovePartialContentOnFailure() {
+        InputStream is = new InputStream() {
+            int n;
+            @Override
+            public int read() throws IOException {
+                if (++n > 100) {
+                    throw new IOException("size limit exceeded");
+                }
+                return 'x';
+            }
+        };
+        try {
+            UploadFileStorageService.store(is, "a.txt", "text/plain", app);
+            fail("expected UnexpectedIOException");
+        } catch (UnexpectedIOException e) {
+            // expected
+        }
+        eq(0, storedFiles());
+    }
+
+    private int storedFiles() {
+        return countFiles(((FileSystemService) ss).root());
+    }
+
+    private static int countFiles(File dir) {
+        int n = 0;
+        File[] files = dir.listFiles();
+        if (null == files) {
+            return 0;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                n += countFiles(file);
+            } else if (!file.getName().endsWith(".attr")) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+}
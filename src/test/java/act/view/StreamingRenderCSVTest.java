@@ -0,0 +1,113 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.MockResponse;
+import act.RequestImplBase;
+import act.TestBase;
+import act.app.ActionContext;
+import act.cli.view.CliView;
+import act.data.DataPropertyRepository;
+import act.util.JsonUtilConfig;
+import act.util.PropertySpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.C;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingRenderCSVTest extends TestBase {
+
+    public static class Person {
+        private String name;
+        private int age;
+
+        public Person(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    private static final String NL = System.getProperty("line.separator");
+
+    private ActionContext ctx;
+    private RequestImplBase req;
+    private MockResponse resp;
+    private PropertySpec.MetaInfo spec;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        JsonUtilConfig.configure(mockApp);
+        DataPropertyRepository repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        resp = new MockResponse();
+        req = mock(RequestImplBase.class);
+        when(req.method()).thenReturn(H.Method.GET);
+        when(req.accept()).thenReturn(H.Format.CSV);
+        ctx = ActionContext.create(mockApp, req, resp);
+        when(req.context()).thenReturn(ctx);
+        spec = new PropertySpec.MetaInfo();
+        spec.onValue("name,age");
+    }
+
+    @Test
+    public void itShallEscapeFieldsAsRfc4180() {
+        List<Person> people = C.list(new Person("Tom", 5), new Person("Smith, \"Jr\"", 10), new Person("a\nb", 1));
+        String expected = "name,age" + NL + "Tom,5" + NL + "\"Smith, \"\"Jr\"\"\",10" + NL + "\"a\nb\",1";
+        eq(expected, CliView.CSV.render(people, spec, ctx));
+    }
+
+    @Test
+    public void itShallStreamRowsFromIterator() {
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            people.add(new Person("p" + i, i));
+        }
+        new StreamingRenderCSV(people.iterator(), spec, ctx).apply(req, resp);
+        eq(CliView.CSV.render(people, spec, ctx), content());
+    }
+
+    @Test
+    public void itShallRenderNoDataForEmptyResult() {
+        new StreamingRenderCSV(C.list(), spec, ctx).apply(req, resp);
+        eq("no data", content());
+    }
+
+    private String content() {
+        return new String(((ByteArrayOutputStream) resp.createOutputStream()).toByteArray());
+    }
+
+}
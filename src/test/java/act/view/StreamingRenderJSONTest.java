@@ -0,0 +1,86 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.MockResponse;
+import act.RequestImplBase;
+import act.TestBase;
+import act.app.ActionContext;
+import act.cli.view.CliView;
+import act.util.PropertySpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.C;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingRenderJSONTest extends TestBase {
+
+    private ActionContext ctx;
+    private RequestImplBase req;
+    private MockResponse resp;
+    private List<Map<String, Object>> items;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        resp = new MockResponse();
+        req = mock(RequestImplBase.class);
+        when(req.method()).thenReturn(H.Method.GET);
+        when(req.accept()).thenReturn(H.Format.JSON);
+        ctx = ActionContext.create(mockApp, req, resp);
+        when(req.context()).thenReturn(ctx);
+        items = new ArrayList<>();
+        // large enough to make the serializer flush several times
+        for (int i = 0; i < 5000; ++i) {
+            items.add(C.<String, Object>map("name", "item" + i, "age", i));
+        }
+    }
+
+    @Test
+    public void itShallRenderSameContentAsStringRendering() {
+        new StreamingRenderJSON(items, null, ctx).apply(req, resp);
+        eq(CliView.JSON.render(items, null, ctx), content());
+    }
+
+    @Test
+    public void itShallApplyPropertySpec() {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("name as label");
+        new StreamingRenderJSON(H.Status.CREATED, items, spec, ctx).apply(req, resp);
+        String json = content();
+        eq(CliView.JSON.render(items, spec, ctx), json);
+        yes(json.startsWith("[{\"label\":\"item0\"}"));
+        eq(H.Status.CREATED.code(), resp.status);
+    }
+
+    private String content() {
+        return new String(((ByteArrayOutputStream) resp.createOutputStream()).toByteArray());
+    }
+
+}
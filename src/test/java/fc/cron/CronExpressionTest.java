@@ -133,6 +133,16 @@ public class CronExpressionTest {
         new CronExpression("* 3 *");
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void shall_give_error_if_increment_is_zero() throws Exception {
+        new CronExpression("*/0 * * * * *");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shall_give_error_if_hour_increment_is_zero() throws Exception {
+        new CronExpression("0 */0 * * * *");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shall_give_error_if_minute_field_ignored() throws Exception {
         SimpleField field = new SimpleField(CronFieldType.MINUTE, "?");